@@ -13,6 +13,16 @@ public class ArrayHelper
     }
 
 
+    /**
+     * Validates that the range from startIndex with length count is in the bounds of an array of the given length.
+     */
+    static void validateRange(int length, int startIndex, int count)
+    {
+        if ((startIndex < 0) || (count < 0) || (startIndex > length - count))
+            throw new ArrayIndexOutOfBoundsException("The range from startIndex with length count is out of the bounds of the array.");
+    }
+
+
     public static <T> void copy(T[] source, int sourceStartIndex, T[] destination, int destinationStartIndex, int count)
     {
         System.arraycopy(source, sourceStartIndex, destination, destinationStartIndex, count);
@@ -108,9 +118,18 @@ public class ArrayHelper
 
         while (low <= high)
         {
-
+            int middle = (low + high) >>> 1;
+            @SuppressWarnings("unchecked")
+            int order = comparer != null ? comparer.compare(array[middle], value) : ((Comparable) array[middle]).compareTo(value);
+            if (order == 0)
+                return middle;
+
+            if (order < 0)
+                low = middle + 1;
+            else
+                high = middle - 1;
         }
 
-        return 0;
+        return ~low;
     }
 }
@@ -2,39 +2,36 @@ package dataworks.collections;
 
 import dataworks.ArgumentOutOfRangeException;
 import dataworks.IComparer;
-import org.jetbrains.annotations.NotNull;
+import dataworks.InvalidOperationException;
 
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Iterator;
-
-public class ArrayList implements IList, Cloneable
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * The {@link ArrayList} class represents a list of elements stored in an array, whose capacity grows by doubling when
+ * needed. Elements can be accessed by index in O(1) time, and adding to the end takes amortized O(1) time.
+ *
+ * @param <T> Specifies the element type of the list.
+ */
+public class ArrayList<T> implements IList<T>, Cloneable, Serializable
 {
-    /**
-     * This class wraps an IList, exposing it as a {@link ArrayList}.
-     * Note this requires re-implementing half of {@link ArrayList}.
-     */
-    private static class IListWrapper extends ArrayList
-    {
-        public IListWrapper(IList list)
-        {
-
-        }
-    }
-
-    private final int DEFAULT_CAPACITY = 4;
+    private static final int DEFAULT_CAPACITY = 4;
 
-    private Object[] items;
+    private T[] items;
 
     private int count;
     private int version;
-    private static final Object[] emptyArray = new Object[0];
 
     /**
      * Constructs a {@link ArrayList}. The list is initially empty and has a capacity of 0. Upon adding the first element to the
      * capacity is increased to DEFAULT_CAPACITY, and then increase in multiples of 2 as required.
      */
-    ArrayList()
+    public ArrayList()
     {
-        items = emptyArray;
+        items = EmptyArray.getValue();
     }
 
     /**
@@ -43,36 +40,29 @@ public class ArrayList implements IList, Cloneable
      *
      * @param initialCapacity Initial capacity of the {@link ArrayList}.
      */
+    @SuppressWarnings("unchecked")
     public ArrayList(int initialCapacity)
     {
         if (initialCapacity < 0)
             throw new ArgumentOutOfRangeException("\"initialCapacity\" must be a non-negative integer.");
 
         if (initialCapacity == 0)
-            items = emptyArray;
+            items = EmptyArray.getValue();
         else
-            items = new Object[initialCapacity];
+            items = (T[]) new Object[initialCapacity];
     }
 
     /**
-     * Constructs a {@link ArrayList}, copying the contents of the given collection. The size and capacity of the new
-     * list will both be equal to the size of the given collection.
+     * Constructs a {@link ArrayList}, copying the contents of the given collection. If the collection is an
+     * {@link ICollection}, the capacity of the new list is equal to its number of elements.
      *
-     * @param c The collection that contains the elements to copy.
+     * @param collection The collection that contains the elements to copy.
+     * @throws NullPointerException If the given collection is null.
      */
-    public ArrayList(ICollection c)
+    public ArrayList(Iterable<T> collection)
     {
-        if (c == null)
-            throw new NullPointerException("\"c\" cannot be null.");
-
-        int count = c.count();
-        if (count == 0)
-            items = emptyArray;
-        else
-        {
-            items = new Object[count];
-            addRange(c);
-        }
+        this();
+        addRange(collection);
     }
 
     /**
@@ -103,17 +93,20 @@ public class ArrayList implements IList, Cloneable
         if (newCapacity != items.length)
         {
             if (newCapacity > 0)
-            {
-                Object[] newItems = new Object[newCapacity];
-                if (count > 0)
-                    System.arraycopy(items, 0, newItems, 0, count);
-                items = newItems;
-            }
+                items = Arrays.copyOf(items, newCapacity);
             else
-                items = new Object[DEFAULT_CAPACITY];
+                items = EmptyArray.getValue();
         }
     }
 
+    /**
+     * Sets the capacity to the number of elements in this {@link ArrayList}, which releases the unused part of the
+     * internal array.
+     */
+    public void trimExcess()
+    {
+        setCapacity(count);
+    }
 
     /**
      * Gets the element at the given index.
@@ -122,10 +115,10 @@ public class ArrayList implements IList, Cloneable
      * @return Object at the index.
      * @throws ArgumentOutOfRangeException If the given index is out of range [0, count - 1].
      */
-    public Object get(int index)
+    @Override
+    public T get(int index)
     {
-        if ((index < 0) || (index > count))
-            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+        validateIndex(index);
         return items[index];
     }
 
@@ -137,39 +130,33 @@ public class ArrayList implements IList, Cloneable
      * @throws ArgumentOutOfRangeException If the given index is out of range [0, count - 1].
      */
     @Override
-    public void set(int index, Object value)
+    public void set(int index, T value)
     {
-        if ((index < 0) || (index > count))
-            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+        validateIndex(index);
         items[index] = value;
         version++;
     }
 
-    /**
-     * Creates a {@link ArrayList} wrapper for a particular IList. This does not copy the contents of the IList, but
-     * only wraps the ILists. So any changes to the underlying list will after the {@link ArrayList}. This would be
-     * useful if you want to reverse a sub-range of an IList, or want to use a generic binarySearch() or sort() method
-     * without implementing one yourself. However, since these methods are generic, the performance may not be nearly as
-     * good as for some operations as they would be on the IList itself.
-     *
-     * @param list
-     * @return
-     */
-    public static ArrayList adapter(IList list)
+    private void validateIndex(int index)
     {
-        if (list == null)
-            throw new NullPointerException("list is null.");
-        return new IListWrapper(list);
+        if ((index < 0) || (index >= count))
+            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
     }
 
-    private void ensureCapacity(int min)
+    /**
+     * Makes sure the capacity of this {@link ArrayList} is at least the given number. If required, the capacity is
+     * increased to twice the previous capacity or the given number, whichever is larger.
+     *
+     * @param min The minimum capacity.
+     */
+    public void ensureCapacity(int min)
     {
         if (items.length < min)
         {
             int newCapacity = items.length == 0 ? DEFAULT_CAPACITY : items.length * 2;
 
             // Allow the list to grow to maximum possible capacity (~2G elements) before encountering overflow.
-            if (newCapacity > ArrayHelper.MAX_ARRAY_LENGTH)
+            if ((newCapacity < 0) || (newCapacity > ArrayHelper.MAX_ARRAY_LENGTH))
                 newCapacity = ArrayHelper.MAX_ARRAY_LENGTH;
             if (newCapacity < min)
                 newCapacity = min;
@@ -184,7 +171,7 @@ public class ArrayList implements IList, Cloneable
      * @param value The object to add.
      * @return The index at which the value has been added.
      */
-    public int add(Object value)
+    public int add(T value)
     {
         if (count == items.length)
             ensureCapacity(count + 1);
@@ -194,51 +181,147 @@ public class ArrayList implements IList, Cloneable
         return count++;
     }
 
+    /**
+     * Inserts the given object at the given index. Elements from the index to the end are moved by one position.
+     *
+     * @param index The index at which the value is inserted.
+     * @param value The object to insert.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count].
+     */
+    public void insert(int index, T value)
+    {
+        if ((index < 0) || (index > count))
+            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+
+        if (count == items.length)
+            ensureCapacity(count + 1);
+        if (index < count)
+            System.arraycopy(items, index, items, index + 1, count - index);
+
+        items[index] = value;
+        count++;
+        version++;
+    }
+
     /**
      * Inserts the elements of the given collection at a given index. If required, the capacity of the list is increased
      * to twice the previous capacity or the new size, whichever is larger. Ranges may be added to the end of the
      * {@link ArrayList} by setting the index to the {@link ArrayList}'s size.
      *
-     * @param startIndex
-     * @param c
+     * @param startIndex The index at which the elements are inserted.
+     * @param collection The elements to insert.
+     * @throws NullPointerException        If the given collection is null.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count].
      */
-    public void insertRange(int startIndex, ICollection c)
+    public void insertRange(int startIndex, Iterable<T> collection)
     {
-        if (c == null)
-            throw new NullPointerException("c is null.");
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
 
         if ((startIndex < 0) || (startIndex > this.count))
             throw new ArgumentOutOfRangeException("startIndex (with value " + startIndex + ") out of range.");
 
+        if (!(collection instanceof ICollection))
+        {
+            // The number of elements is unknown, so append them and rotate them into place.
+            int oldCount = this.count;
+            for (T value : collection)
+                add(value);
+            if (startIndex < oldCount)
+            {
+                reverse(startIndex, oldCount);
+                reverse(oldCount, this.count);
+                reverse(startIndex, this.count);
+            }
+            return;
+        }
+
+        ICollection<T> c = (ICollection<T>) collection;
         int count = c.count();
         if (count > 0)
         {
             ensureCapacity(this.count + count);
 
             // Shifting existing items (moving existing elements from [startIndex, this.count-1] to
-            // [startIndex+count, startIndex+count+this.count-1]).
-            if (startIndex < count)
-                ArrayHelper.copy(items, startIndex, items, startIndex + count, count - startIndex);
+            // [startIndex+count, count+this.count-1]).
+            if (startIndex < this.count)
+                System.arraycopy(items, startIndex, items, startIndex + count, this.count - startIndex);
 
-            ArrayHelper.copy(c, items, startIndex, count);
+            if (c == this)
+            {
+                // The list is inserted into itself, copy the parts before and after the gap.
+                System.arraycopy(items, 0, items, startIndex, startIndex);
+                System.arraycopy(items, startIndex + count, items, startIndex * 2, this.count - startIndex);
+            }
+            else if (c instanceof ArrayList)
+                System.arraycopy(((ArrayList<T>) c).items, 0, items, startIndex, count);
+            else
+                ArrayHelper.copy(c, items, startIndex, count);
 
             this.count += count;
             version++;
         }
     }
 
+    private void reverse(int startIndex, int endIndex)
+    {
+        for (int i = startIndex, j = endIndex - 1; i < j; i++, j--)
+        {
+            T temp = items[i];
+            items[i] = items[j];
+            items[j] = temp;
+        }
+    }
+
     /**
      * Adds the elements of the given collection to the end of this {@link ArrayList}. If required, the capacity of the
      * {@link ArrayList} is increased to twice the previous capacity or the new size, whichever is larger.
      *
-     * @param c The {@link ICollection} whose elements should be added to the end
-     *          of the System.Collections.ArrayList. The collection itself cannot be null, but
-     *          it can contain elements that are null.
-     * @throws NullPointerException If c is null.
+     * @param collection The elements to add to the end of the {@link ArrayList}. The collection itself cannot be null,
+     *                   but it can contain elements that are null.
+     * @throws NullPointerException If the collection is null.
+     */
+    public void addRange(Iterable<T> collection)
+    {
+        insertRange(count, collection);
+    }
+
+    /**
+     * Removes the element at the given index. Elements after the index are moved by one position.
+     *
+     * @param index The index of the element to remove.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count - 1].
+     */
+    public void removeAt(int index)
+    {
+        validateIndex(index);
+        count--;
+        if (index < count)
+            System.arraycopy(items, index + 1, items, index, count - index);
+
+        items[count] = null;
+        version++;
+    }
+
+    /**
+     * Removes a range of elements from this {@link ArrayList}.
+     *
+     * @param startIndex The index of the first element to remove.
+     * @param count      The number of elements to remove.
+     * @throws ArgumentOutOfRangeException If the given range is out of the bounds of this {@link ArrayList}.
      */
-    public void addRange(ICollection c)
+    public void removeRange(int startIndex, int count)
     {
-        insertRange(count, c);
+        if ((startIndex < 0) || (count < 0) || (startIndex > this.count - count))
+            throw new ArgumentOutOfRangeException("The range from startIndex with length count is out of the bounds of the ArrayList.");
+
+        if (count > 0)
+        {
+            System.arraycopy(items, startIndex + count, items, startIndex, this.count - startIndex - count);
+            Arrays.fill(items, this.count - count, this.count, null);
+            this.count -= count;
+            version++;
+        }
     }
 
     /**
@@ -257,30 +340,63 @@ public class ArrayList implements IList, Cloneable
      * <p/>
      * This method uses the {@link ArrayHelper#binarySearch} method to perform the search.
      *
-     * @param startIndex
-     * @param count
-     * @param value
-     * @param comparer
-     * @return
+     * @param startIndex The index of the first element of the section to search.
+     * @param count      The length of the section to search.
+     * @param value      The value to search for.
+     * @param comparer   The comparer of elements, or null to compare them as {@link Comparable}.
+     * @return The index of the value if found; otherwise, the bitwise complement of its insertion index.
+     * @throws ArgumentOutOfRangeException If the given section is out of the bounds of this {@link ArrayList}.
+     */
+    public int binarySearch(int startIndex, int count, T value, IComparer comparer)
+    {
+        if ((startIndex < 0) || (count < 0) || (startIndex > this.count - count))
+            throw new ArgumentOutOfRangeException("The range from startIndex with length count is out of the bounds of the ArrayList.");
+
+        return ArrayHelper.binarySearch(items, startIndex, count, value, comparer);
+    }
+
+    /**
+     * Searches the whole {@link ArrayList} for a given element using a binary search algorithm. See
+     * {@link #binarySearch(int, int, Object, IComparer)}.
+     *
+     * @param value    The value to search for.
+     * @param comparer The comparer of elements, or null to compare them as {@link Comparable}.
+     * @return The index of the value if found; otherwise, the bitwise complement of its insertion index.
      */
-    public int binarySearch(int startIndex, int count, Object value, IComparer comparer)
+    public int binarySearch(T value, IComparer comparer)
     {
-        return 0;
+        return binarySearch(0, count, value, comparer);
     }
 
+    /**
+     * Returns the index of the first occurrence of the given value. Values are compared by
+     * {@link Object#equals(Object)}.
+     *
+     * @param value The value to locate. The value can be null.
+     * @return The index of the first occurrence of the value, or -1 if it is not found.
+     */
     @Override
-    public int indexOf(Object value)
+    public int indexOf(T value)
     {
-        return 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (Objects.equals(items[i], value))
+                return i;
+        }
+
+        return -1;
     }
 
     /**
-     * Removes all items from this {@link ICollection}.
+     * Removes all items from this {@link ICollection}. The capacity is not changed.
      */
     @Override
     public void clear()
     {
-
+        // Release the references so that the elements can be collected.
+        Arrays.fill(items, 0, count, null);
+        count = 0;
+        version++;
     }
 
     /**
@@ -292,9 +408,14 @@ public class ArrayList implements IList, Cloneable
      * {@link ICollection}.
      */
     @Override
-    public boolean remove(Object value)
+    public boolean remove(T value)
     {
-        return false;
+        int index = indexOf(value);
+        if (index < 0)
+            return false;
+
+        removeAt(index);
+        return true;
     }
 
     /**
@@ -303,9 +424,30 @@ public class ArrayList implements IList, Cloneable
      * @return an Iterator.
      */
     @Override
-    public Iterator iterator()
+    public Iterator<T> iterator()
     {
-        return null;
+        return new Iterator<T>()
+        {
+            private final int version = ArrayList.this.version;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < count;
+            }
+
+            @Override
+            public T next()
+            {
+                if (version != ArrayList.this.version)
+                    throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+                if (index >= count)
+                    throw new NoSuchElementException();
+
+                return items[index++];
+            }
+        };
     }
 
     /**
@@ -338,9 +480,9 @@ public class ArrayList implements IList, Cloneable
      * <code>false</code>.
      */
     @Override
-    public boolean contains(Object value)
+    public boolean contains(T value)
     {
-        return false;
+        return indexOf(value) >= 0;
     }
 
     /**
@@ -354,9 +496,9 @@ public class ArrayList implements IList, Cloneable
      *                                        available space from 0 to the end of the destination array, i.e. the capacity of the given array.
      */
     @Override
-    public void copyTo(Object[] array)
+    public void copyTo(T[] array)
     {
-
+        copyTo(array, 0);
     }
 
     /**
@@ -372,8 +514,30 @@ public class ArrayList implements IList, Cloneable
      *                                        available space from <code>startIndex</code> to the end of the destination array.
      */
     @Override
-    public void copyTo(Object[] array, int startIndex)
+    public void copyTo(T[] array, int startIndex)
     {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+        if (array.length - startIndex < count)
+            throw new IllegalArgumentException("The number of elements in the source ArrayList is greater than the " +
+                                                       "available space from startIndex to the end of the destination array.");
+
+        System.arraycopy(items, 0, array, startIndex, count);
+    }
 
+    /**
+     * Creates a shallow copy of this {@link ArrayList}, whose capacity equals its number of elements.
+     *
+     * @return A shallow copy of this {@link ArrayList}.
+     */
+    @Override
+    public ArrayList<T> clone()
+    {
+        ArrayList<T> list = new ArrayList<>(count);
+        System.arraycopy(items, 0, list.items, 0, count);
+        list.count = count;
+        return list;
     }
 }
@@ -1,5 +1,956 @@
 package dataworks.collections;
 
-public class ConcurrentDictionary
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.IEqualityComparer;
+import dataworks.KeyNotFountException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The {@link ConcurrentDictionary} class represents a thread-safe collection of key-value pairs that can be accessed by
+ * multiple threads concurrently.
+ * <p>
+ * Entries are chained in buckets, and buckets are guarded by a smaller array of locks: bucket i is guarded by lock
+ * {@code i % locks.length}, so writers of different stripes never wait for each other. Lookups take no lock at all.
+ * Nodes are published through volatile writes and are never moved, thus a reader traversing a chain always sees a
+ * valid, although possibly outdated, chain. Resizing acquires every lock, copies the nodes into a new bucket array and
+ * publishes the new tables in a single write.
+ * <p>
+ * Iterating through a {@link ConcurrentDictionary} never throws because of concurrent modifications. The iteration is
+ * weakly consistent: it reflects the entries at some point since the iterator was created, and may or may not reflect
+ * modifications made during the iteration.
+ *
+ * @param <TKey>   Type of keys in this dictionary.
+ * @param <TValue> Type of values in this dictionary.
+ */
+public class ConcurrentDictionary<TKey, TValue> implements IDictionary<TKey, TValue>
 {
+    private static final int DEFAULT_CAPACITY = 31;
+
+    /**
+     * The maximum number of locks that the lock array can grow to.
+     */
+    private static final int MAX_LOCK_NUMBER = 1024;
+
+    private static final class Node<TKey, TValue>
+    {
+        private final TKey key;
+        private final int hashCode;
+        private volatile TValue value;
+        private volatile Node<TKey, TValue> next;
+
+        private Node(TKey key, int hashCode, TValue value, Node<TKey, TValue> next)
+        {
+            this.key = key;
+            this.hashCode = hashCode;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Buckets, locks and counts that are replaced together when resizing.
+     */
+    private static final class Tables<TKey, TValue>
+    {
+        private final AtomicReferenceArray<Node<TKey, TValue>> buckets;
+        private final ReentrantLock[] locks;
+
+        /**
+         * Number of entries guarded by every lock, only accessed when holding the lock.
+         */
+        private final int[] countPerLock;
+
+        private Tables(AtomicReferenceArray<Node<TKey, TValue>> buckets, ReentrantLock[] locks, int[] countPerLock)
+        {
+            this.buckets = buckets;
+            this.locks = locks;
+            this.countPerLock = countPerLock;
+        }
+    }
+
+    private volatile Tables<TKey, TValue> tables;
+    private final IEqualityComparer comparer;
+
+    /**
+     * Whether to double the number of locks when resizing, which is only done if the concurrency level is not
+     * specified by the user.
+     */
+    private final boolean growLockArray;
+
+    /**
+     * The maximum number of entries per lock before a resize is attempted.
+     */
+    private volatile int budget;
+
+    /**
+     * Initializes an empty {@link ConcurrentDictionary} with a concurrency level equal to the number of processors and
+     * the default capacity.
+     */
+    public ConcurrentDictionary()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CAPACITY, true, null);
+    }
+
+    /**
+     * Initializes an empty {@link ConcurrentDictionary} with a concurrency level equal to the number of processors and
+     * the default capacity, which uses the specified {@link IEqualityComparer} to hash and compare the keys.
+     *
+     * @param comparer The {@link IEqualityComparer} for the keys, or null to use methods of the keys themselves.
+     */
+    public ConcurrentDictionary(IEqualityComparer comparer)
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CAPACITY, true, comparer);
+    }
+
+    /**
+     * Initializes an empty {@link ConcurrentDictionary} with the specified concurrency level and capacity.
+     *
+     * @param concurrencyLevel The estimated number of threads that will update the dictionary concurrently, which is
+     *                         also the number of locks.
+     * @param capacity         The initial number of elements that the dictionary can contain.
+     * @throws ArgumentOutOfRangeException The concurrency level is less than 1, or the capacity is negative.
+     */
+    public ConcurrentDictionary(int concurrencyLevel, int capacity)
+    {
+        this(concurrencyLevel, capacity, false, null);
+    }
+
+    /**
+     * Initializes an empty {@link ConcurrentDictionary} with the specified concurrency level and capacity, which uses
+     * the specified {@link IEqualityComparer} to hash and compare the keys.
+     *
+     * @param concurrencyLevel The estimated number of threads that will update the dictionary concurrently, which is
+     *                         also the number of locks.
+     * @param capacity         The initial number of elements that the dictionary can contain.
+     * @param comparer         The {@link IEqualityComparer} for the keys, or null to use methods of the keys themselves.
+     * @throws ArgumentOutOfRangeException The concurrency level is less than 1, or the capacity is negative.
+     */
+    public ConcurrentDictionary(int concurrencyLevel, int capacity, IEqualityComparer comparer)
+    {
+        this(concurrencyLevel, capacity, false, comparer);
+    }
+
+    private ConcurrentDictionary(int concurrencyLevel, int capacity, boolean growLockArray, IEqualityComparer comparer)
+    {
+        if (concurrencyLevel < 1)
+            throw new ArgumentOutOfRangeException("Concurrency level of a ConcurrentDictionary must be a positive integer.");
+        if (capacity < 0)
+            throw new ArgumentOutOfRangeException("Capacity of a ConcurrentDictionary must be a non-negative integer.");
+
+        // The capacity should be at least as large as the concurrency level. Otherwise, we would have locks that
+        // don't guard any buckets.
+        int bucketCount = HashTable.HashHelpers.getPrime(Math.max(capacity, concurrencyLevel));
+
+        this.comparer = comparer;
+        this.growLockArray = growLockArray;
+        tables = newTables(bucketCount, newLocks(concurrencyLevel, 0, null));
+        budget = Math.max(1, bucketCount / concurrencyLevel);
+    }
+
+    private static ReentrantLock[] newLocks(int length, int start, ReentrantLock[] existing)
+    {
+        ReentrantLock[] locks = existing == null ? new ReentrantLock[length] : Arrays.copyOf(existing, length);
+        for (int i = start; i < length; i++)
+            locks[i] = new ReentrantLock();
+
+        return locks;
+    }
+
+    private static <TKey, TValue> Tables<TKey, TValue> newTables(int bucketCount, ReentrantLock[] locks)
+    {
+        return new Tables<>(new AtomicReferenceArray<>(bucketCount), locks, new int[locks.length]);
+    }
+
+    private int hash(TKey key)
+    {
+        if (key == null)
+            throw new NullPointerException("Argument \"key\" cannot be null.");
+
+        int hashCode = comparer != null ? comparer.getHashCode(key) : key.hashCode();
+        return (hashCode ^ (hashCode >>> 16)) & 0x7FFFFFFF;
+    }
+
+    private boolean keyEquals(TKey item, TKey key)
+    {
+        if (item == key)
+            return true;
+
+        return comparer != null ? comparer.equals(item, key) : item.equals(key);
+    }
+
+    /**
+     * Finds the node with the specified key without taking any lock.
+     */
+    private Node<TKey, TValue> findNode(TKey key, int hashCode)
+    {
+        AtomicReferenceArray<Node<TKey, TValue>> buckets = tables.buckets;
+        for (Node<TKey, TValue> node = buckets.get(hashCode % buckets.length()); node != null; node = node.next)
+        {
+            if ((node.hashCode == hashCode) && keyEquals(node.key, key))
+                return node;
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds a node with the specified key and value if the key does not exist.
+     *
+     * @return The existing node with the specified key, or null if a new node is added.
+     */
+    private Node<TKey, TValue> putIfAbsent(TKey key, int hashCode, TValue value)
+    {
+        for (; ; )
+        {
+            Tables<TKey, TValue> tables = this.tables;
+            int bucketNumber = hashCode % tables.buckets.length();
+            int lockNumber = bucketNumber % tables.locks.length;
+
+            boolean resize;
+            tables.locks[lockNumber].lock();
+            try
+            {
+                // The tables may have been replaced by a resize while we were waiting for the lock.
+                if (tables != this.tables)
+                    continue;
+
+                Node<TKey, TValue> first = tables.buckets.get(bucketNumber);
+                for (Node<TKey, TValue> node = first; node != null; node = node.next)
+                {
+                    if ((node.hashCode == hashCode) && keyEquals(node.key, key))
+                        return node;
+                }
+
+                // The volatile write publishes the fully initialized node to lock-free readers.
+                tables.buckets.set(bucketNumber, new Node<>(key, hashCode, value, first));
+                resize = ++tables.countPerLock[lockNumber] > budget;
+            }
+            finally
+            {
+                tables.locks[lockNumber].unlock();
+            }
+
+            // Resize outside of the lock, since resizing acquires all the locks in order.
+            if (resize)
+                growTables(tables);
+
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the value of the node with the specified key, only if the current value equals the comparison value
+     * when {@code matchValue} is true.
+     */
+    private boolean replace(TKey key, int hashCode, TValue newValue, boolean matchValue, TValue comparisonValue)
+    {
+        for (; ; )
+        {
+            Tables<TKey, TValue> tables = this.tables;
+            int bucketNumber = hashCode % tables.buckets.length();
+            int lockNumber = bucketNumber % tables.locks.length;
+
+            tables.locks[lockNumber].lock();
+            try
+            {
+                if (tables != this.tables)
+                    continue;
+
+                for (Node<TKey, TValue> node = tables.buckets.get(bucketNumber); node != null; node = node.next)
+                {
+                    if ((node.hashCode == hashCode) && keyEquals(node.key, key))
+                    {
+                        if (matchValue && !Objects.equals(node.value, comparisonValue))
+                            return false;
+
+                        node.value = newValue;
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+            finally
+            {
+                tables.locks[lockNumber].unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the node with the specified key, only if its value equals the specified value when {@code matchValue} is
+     * true.
+     *
+     * @return The removed node, or null if nothing is removed.
+     */
+    private Node<TKey, TValue> removeNode(TKey key, int hashCode, boolean matchValue, TValue value)
+    {
+        for (; ; )
+        {
+            Tables<TKey, TValue> tables = this.tables;
+            int bucketNumber = hashCode % tables.buckets.length();
+            int lockNumber = bucketNumber % tables.locks.length;
+
+            tables.locks[lockNumber].lock();
+            try
+            {
+                if (tables != this.tables)
+                    continue;
+
+                Node<TKey, TValue> previous = null;
+                for (Node<TKey, TValue> node = tables.buckets.get(bucketNumber); node != null; previous = node, node = node.next)
+                {
+                    if ((node.hashCode != hashCode) || !keyEquals(node.key, key))
+                        continue;
+
+                    if (matchValue && !Objects.equals(node.value, value))
+                        return null;
+
+                    // Readers standing on the removed node can still follow its next link.
+                    if (previous == null)
+                        tables.buckets.set(bucketNumber, node.next);
+                    else
+                        previous.next = node.next;
+
+                    tables.countPerLock[lockNumber]--;
+                    return node;
+                }
+
+                return null;
+            }
+            finally
+            {
+                tables.locks[lockNumber].unlock();
+            }
+        }
+    }
+
+    /**
+     * Doubles the number of buckets of the specified tables if they are still in use, or doubles the budget if the
+     * entries are just unevenly distributed among locks.
+     */
+    private void growTables(Tables<TKey, TValue> tables)
+    {
+        ReentrantLock[] locks = tables.locks;
+
+        // Lock 0 serializes resizes. Holding it also keeps the lock array from changing.
+        locks[0].lock();
+        try
+        {
+            if (tables != this.tables)
+                return;
+
+            // The counts of other locks may be stale here, which is fine for this estimation.
+            long approximateCount = 0;
+            for (int count : tables.countPerLock)
+                approximateCount += count;
+
+            // If the bucket array is too empty, double the budget instead of resizing the table.
+            int bucketCount = tables.buckets.length();
+            if (approximateCount < bucketCount / 4)
+            {
+                budget = budget > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : 2 * budget;
+                return;
+            }
+
+            int newBucketCount = bucketCount;
+            if (bucketCount < HashTable.HashHelpers.MAX_PRIME_ARRAY_LENGTH)
+                newBucketCount = HashTable.HashHelpers.expandPrime(bucketCount);
+            else
+            {
+                // The table cannot grow any more, so stop trying.
+                budget = Integer.MAX_VALUE;
+            }
+
+            ReentrantLock[] newLocks = locks;
+            if (growLockArray && (locks.length < MAX_LOCK_NUMBER))
+                newLocks = newLocks(locks.length * 2, locks.length, locks);
+
+            for (int i = 1; i < locks.length; i++)
+                locks[i].lock();
+
+            try
+            {
+                Tables<TKey, TValue> newTables = newTables(newBucketCount, newLocks);
+                AtomicReferenceArray<Node<TKey, TValue>> newBuckets = newTables.buckets;
+                for (int i = 0; i < bucketCount; i++)
+                {
+                    // Copy the nodes, since old nodes may still be visited by readers of the old tables.
+                    for (Node<TKey, TValue> node = tables.buckets.get(i); node != null; node = node.next)
+                    {
+                        int bucketNumber = node.hashCode % newBucketCount;
+                        newBuckets.set(bucketNumber, new Node<>(node.key, node.hashCode, node.value, newBuckets.get(bucketNumber)));
+                        newTables.countPerLock[bucketNumber % newLocks.length]++;
+                    }
+                }
+
+                budget = Math.max(1, newBucketCount / newLocks.length);
+                this.tables = newTables;
+            }
+            finally
+            {
+                for (int i = 1; i < locks.length; i++)
+                    locks[i].unlock();
+            }
+        }
+        finally
+        {
+            locks[0].unlock();
+        }
+    }
+
+    /**
+     * Acquires all the locks of the current tables, which keeps the tables from being replaced.
+     *
+     * @return The acquired locks, which must be released by {@link #releaseLocks(ReentrantLock[])}.
+     */
+    private ReentrantLock[] acquireAllLocks()
+    {
+        for (; ; )
+        {
+            ReentrantLock[] locks = tables.locks;
+            locks[0].lock();
+
+            // A resize may have replaced the lock array before we got lock 0.
+            if (locks != tables.locks)
+            {
+                locks[0].unlock();
+                continue;
+            }
+
+            for (int i = 1; i < locks.length; i++)
+                locks[i].lock();
+
+            return locks;
+        }
+    }
+
+    private static void releaseLocks(ReentrantLock[] locks)
+    {
+        for (ReentrantLock lock : locks)
+            lock.unlock();
+    }
+
+    /**
+     * Gets the element associated with the specified key. This method takes no lock.
+     *
+     * @param key The key of the element to get.
+     * @return The value associated with the specified key.
+     * @throws NullPointerException The specified key is null.
+     * @throws KeyNotFountException The specified key is not in the {@link IDictionary}.
+     */
+    @Override
+    public TValue get(TKey key)
+    {
+        Node<TKey, TValue> node = findNode(key, hash(key));
+        if (node == null)
+            throw new KeyNotFountException("The key \"" + key + "\" is not in the ConcurrentDictionary.");
+
+        return node.value;
+    }
+
+    /**
+     * Gets the element associated with the specified key, or the specified default value if the key is not found.
+     * This method takes no lock.
+     *
+     * @param key          The key of the element to get.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The value associated with the specified key, or {@code defaultValue} if the key is not found.
+     * @throws NullPointerException The specified key is null.
+     */
+    public TValue getOrDefault(TKey key, TValue defaultValue)
+    {
+        Node<TKey, TValue> node = findNode(key, hash(key));
+        return node != null ? node.value : defaultValue;
+    }
+
+    /**
+     * Sets the element associated with the specified key.
+     *
+     * @param key   The key of the element to get.
+     * @param value The new value associated with the specified key.
+     * @throws NullPointerException The specified key is null.
+     * @throws KeyNotFountException The specified key is not in the {@link IDictionary}.
+     */
+    @Override
+    public void set(TKey key, TValue value)
+    {
+        if (!replace(key, hash(key), value, false, null))
+            throw new KeyNotFountException("The key \"" + key + "\" is not in the ConcurrentDictionary.");
+    }
+
+    /**
+     * Gets an {@link Iterable} containing all the keys of the {@link IDictionary}, whose iteration is weakly
+     * consistent.
+     *
+     * @return an {@link Iterable} containing all the keys of the {@link IDictionary}.
+     */
+    @Override
+    public Iterable<TKey> keys()
+    {
+        return () -> new NodeIterator<TKey>()
+        {
+            @Override
+            protected TKey getItem(Node<TKey, TValue> node)
+            {
+                return node.key;
+            }
+        };
+    }
+
+    /**
+     * Gets an {@link Iterable} containing all the values of the {@link IDictionary}, whose iteration is weakly
+     * consistent.
+     *
+     * @return an {@link Iterable} containing all the values of the {@link IDictionary}.
+     */
+    @Override
+    public Iterable<TValue> values()
+    {
+        return () -> new NodeIterator<TValue>()
+        {
+            @Override
+            protected TValue getItem(Node<TKey, TValue> node)
+            {
+                return node.value;
+            }
+        };
+    }
+
+    /**
+     * Adds an element with the provided key and value to this {@link IDictionary}.
+     *
+     * @param key   The object to use as the key of the element to add.
+     * @param value The object to use as the value of the element to add, which is associated with the key.
+     * @throws NullPointerException     The specified key is null.
+     * @throws IllegalArgumentException An element with the same key already exists in this {@link IDictionary}.
+     */
+    @Override
+    public void add(TKey key, TValue value)
+    {
+        if (!tryAdd(key, value))
+            throw new IllegalArgumentException("An element with the same key already exists in the ConcurrentDictionary.");
+    }
+
+    /**
+     * Adds an element with the provided key and value to this {@link IDictionary}.
+     *
+     * @param keyValuePair The object to add with the key and the value.
+     * @throws NullPointerException     The specified key value pair is null.
+     * @throws IllegalArgumentException An element with the same key already exists in this {@link IDictionary}.
+     */
+    @Override
+    public void add(KeyValuePair<TKey, TValue> keyValuePair)
+    {
+        if (keyValuePair == null)
+            throw new NullPointerException("Argument \"keyValuePair\" cannot be null.");
+
+        add(keyValuePair.getKey(), keyValuePair.getValue());
+    }
+
+    /**
+     * Attempts to add an element with the provided key and value to this {@link ConcurrentDictionary}.
+     *
+     * @param key   The object to use as the key of the element to add.
+     * @param value The object to use as the value of the element to add.
+     * @return <code>true</code> if the element is added; <code>false</code> if the key already exists.
+     * @throws NullPointerException The specified key is null.
+     */
+    public boolean tryAdd(TKey key, TValue value)
+    {
+        return putIfAbsent(key, hash(key), value) == null;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or adds the specified value if the key does not exist.
+     *
+     * @param key   The key of the element to get or add.
+     * @param value The value to add if the key does not exist.
+     * @return The value associated with the key after this method returns, which is either the existing value or
+     * {@code value}.
+     * @throws NullPointerException The specified key is null.
+     */
+    public TValue getOrAdd(TKey key, TValue value)
+    {
+        int hashCode = hash(key);
+        Node<TKey, TValue> node = findNode(key, hashCode);
+        if (node != null)
+            return node.value;
+
+        node = putIfAbsent(key, hashCode, value);
+        return node != null ? node.value : value;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or adds a value generated by the specified function if the
+     * key does not exist.
+     * <p>
+     * The function is called without holding any lock, thus it may be called by several threads for the same key, but
+     * only one of the generated values is added.
+     *
+     * @param key          The key of the element to get or add.
+     * @param valueFactory The function used to generate a value for the key.
+     * @return The value associated with the key after this method returns.
+     * @throws NullPointerException The specified key or function is null.
+     */
+    public TValue getOrAdd(TKey key, Function<? super TKey, ? extends TValue> valueFactory)
+    {
+        if (valueFactory == null)
+            throw new NullPointerException("Argument \"valueFactory\" cannot be null.");
+
+        int hashCode = hash(key);
+        Node<TKey, TValue> node = findNode(key, hashCode);
+        if (node != null)
+            return node.value;
+
+        TValue value = valueFactory.apply(key);
+        node = putIfAbsent(key, hashCode, value);
+        return node != null ? node.value : value;
+    }
+
+    /**
+     * Adds the specified value if the key does not exist, or updates the value associated with the key by the
+     * specified function.
+     * <p>
+     * The function is called without holding any lock. If another thread changes the value in the meantime, the
+     * function is called again with the new value, so the update is atomic.
+     *
+     * @param key                The key of the element to add or update.
+     * @param addValue           The value to add if the key does not exist.
+     * @param updateValueFactory The function used to generate a new value from the key and the existing value.
+     * @return The value associated with the key after this method returns.
+     * @throws NullPointerException The specified key or function is null.
+     */
+    public TValue addOrUpdate(TKey key, TValue addValue,
+                              BiFunction<? super TKey, ? super TValue, ? extends TValue> updateValueFactory)
+    {
+        if (updateValueFactory == null)
+            throw new NullPointerException("Argument \"updateValueFactory\" cannot be null.");
+
+        int hashCode = hash(key);
+        for (; ; )
+        {
+            Node<TKey, TValue> node = findNode(key, hashCode);
+            if (node == null)
+            {
+                if (putIfAbsent(key, hashCode, addValue) == null)
+                    return addValue;
+            }
+            else
+            {
+                TValue oldValue = node.value;
+                TValue newValue = updateValueFactory.apply(key, oldValue);
+                if (replace(key, hashCode, newValue, true, oldValue))
+                    return newValue;
+            }
+        }
+    }
+
+    /**
+     * Updates the value associated with the specified key, only if the existing value equals the comparison value.
+     *
+     * @param key             The key of the element to update.
+     * @param newValue        The new value associated with the key.
+     * @param comparisonValue The value that is compared with the existing value.
+     * @return <code>true</code> if the value is updated; otherwise, <code>false</code>.
+     * @throws NullPointerException The specified key is null.
+     */
+    public boolean tryUpdate(TKey key, TValue newValue, TValue comparisonValue)
+    {
+        return replace(key, hash(key), newValue, true, comparisonValue);
+    }
+
+    /**
+     * Attempts to remove the element with the specified key.
+     *
+     * @param key The key of the element to remove.
+     * @return The removed element, or null if the key is not found.
+     * @throws NullPointerException The specified key is null.
+     */
+    public KeyValuePair<TKey, TValue> tryRemove(TKey key)
+    {
+        Node<TKey, TValue> node = removeNode(key, hash(key), false, null);
+        return node != null ? new KeyValuePair<>(node.key, node.value) : null;
+    }
+
+    /**
+     * Determines whether this {@link IDictionary} contains an element with the specified key. This method takes no
+     * lock.
+     *
+     * @param key The key to locate in this {@link IDictionary}.
+     * @return <code>true</code> if this {@link IDictionary} contains an element with the key; otherwise,
+     * <code>false</code>.
+     * @throws NullPointerException The specified key is null.
+     */
+    @Override
+    public boolean containsKey(TKey key)
+    {
+        return findNode(key, hash(key)) != null;
+    }
+
+    /**
+     * Determines whether this {@link IDictionary} contains an element with the specified value.
+     *
+     * @param value The value to locate in this {@link IDictionary}.
+     * @return <code>true</code> if this {@link IDictionary} contains an element with the value; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean containsValue(TValue value)
+    {
+        for (TValue item : values())
+        {
+            if (Objects.equals(item, value))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether this {@link IDictionary} contains an element with the specified key and value.
+     *
+     * @param key   The key to locate in this {@link IDictionary}.
+     * @param value The value associated with the specified key.
+     * @return <code>true</code> if this {@link IDictionary} contains an element with the key and value; otherwise,
+     * <code>false</code>.
+     * @throws NullPointerException The specified key is null.
+     */
+    @Override
+    public boolean containsKeyValue(TKey key, TValue value)
+    {
+        Node<TKey, TValue> node = findNode(key, hash(key));
+        return (node != null) && Objects.equals(node.value, value);
+    }
+
+    /**
+     * Tries to remove a {@link KeyValuePair} with the specified key.
+     * Java's generic programming mechanism makes this method have a long name instead just "remove".
+     *
+     * @param key The key of the element to remove.
+     * @return <code>true</code> if the element is successfully removed; otherwise, <code>false</code>. This method
+     * also returns <code>false</code> if key was not found in the original {@link IDictionary}.
+     * @throws NullPointerException The specified key is null.
+     */
+    @Override
+    public boolean removeByKey(TKey key)
+    {
+        return removeNode(key, hash(key), false, null) != null;
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}. This method acquires all the locks, so
+     * avoid calling it frequently when the dictionary is shared by many writers.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        ReentrantLock[] locks = acquireAllLocks();
+        try
+        {
+            int count = 0;
+            for (int countOfLock : tables.countPerLock)
+                count += countOfLock;
+
+            return count;
+        }
+        finally
+        {
+            releaseLocks(locks);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the collection is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the collection is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Removes all items from this {@link ICollection}.
+     */
+    @Override
+    public void clear()
+    {
+        ReentrantLock[] locks = acquireAllLocks();
+        try
+        {
+            Tables<TKey, TValue> newTables = newTables(DEFAULT_CAPACITY, locks);
+            budget = Math.max(1, DEFAULT_CAPACITY / locks.length);
+            tables = newTables;
+        }
+        finally
+        {
+            releaseLocks(locks);
+        }
+    }
+
+    /**
+     * Removes the first occurrence of a specific object from this {@link ICollection}.
+     *
+     * @param keyValuePair The object to remove from this {@link ICollection}.
+     * @return <code>true</code> if item was successfully removed from the {@link ICollection}; otherwise,
+     * <code>false</code>. This method also returns <code>false</code> if item is not found in the original
+     * {@link ICollection}.
+     */
+    @Override
+    public boolean remove(KeyValuePair<TKey, TValue> keyValuePair)
+    {
+        if (keyValuePair == null)
+            throw new NullPointerException("Argument \"keyValuePair\" cannot be null.");
+
+        TKey key = keyValuePair.getKey();
+        return removeNode(key, hash(key), true, keyValuePair.getValue()) != null;
+    }
+
+    /**
+     * Determines whether this {@link ICollection} contains a specific value.
+     *
+     * @param keyValuePair The value to locate in this {@link ICollection}.
+     * @return <code>true</code> if the specified value is found in this {@link ICollection}; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean contains(KeyValuePair<TKey, TValue> keyValuePair)
+    {
+        if (keyValuePair == null)
+            throw new NullPointerException("Argument \"keyValuePair\" cannot be null.");
+
+        return containsKeyValue(keyValuePair.getKey(), keyValuePair.getValue());
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}. The array must have zero-based indexing.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is greater than or equal to the length of the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from 0 to the end of the destination array, i.e. the capacity of the given array.
+     */
+    @Override
+    public void copyTo(KeyValuePair<TKey, TValue>[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index. All the locks
+     * are held while copying, thus the copied elements are a snapshot of this dictionary.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}. The array must have zero-based indexing.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is less than 0 or greater than or equal to the length of
+     *                                        the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from <code>startIndex</code> to the end of the destination array.
+     */
+    @Override
+    public void copyTo(KeyValuePair<TKey, TValue>[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+
+        ReentrantLock[] locks = acquireAllLocks();
+        try
+        {
+            Tables<TKey, TValue> tables = this.tables;
+            int count = 0;
+            for (int countOfLock : tables.countPerLock)
+                count += countOfLock;
+
+            if (array.length - startIndex < count)
+                throw new IllegalArgumentException("The number of elements in the source ConcurrentDictionary is greater than the " +
+                                                           "available space from startIndex to the end of the destination array.");
+
+            for (int i = 0; i < tables.buckets.length(); i++)
+            {
+                for (Node<TKey, TValue> node = tables.buckets.get(i); node != null; node = node.next)
+                    array[startIndex++] = new KeyValuePair<>(node.key, node.value);
+            }
+        }
+        finally
+        {
+            releaseLocks(locks);
+        }
+    }
+
+    /**
+     * Returns an iterator over elements of type {@code T}. The iteration is weakly consistent and takes no lock.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<KeyValuePair<TKey, TValue>> iterator()
+    {
+        return new NodeIterator<KeyValuePair<TKey, TValue>>()
+        {
+            @Override
+            protected KeyValuePair<TKey, TValue> getItem(Node<TKey, TValue> node)
+            {
+                return new KeyValuePair<>(node.key, node.value);
+            }
+        };
+    }
+
+    /**
+     * Iterates through the nodes of the tables that are current when the iterator is created.
+     */
+    private abstract class NodeIterator<T> implements Iterator<T>
+    {
+        private final AtomicReferenceArray<Node<TKey, TValue>> buckets = tables.buckets;
+        private int bucketNumber = -1;
+        private Node<TKey, TValue> nextNode;
+
+        private NodeIterator()
+        {
+            advance();
+        }
+
+        protected abstract T getItem(Node<TKey, TValue> node);
+
+        private void advance()
+        {
+            while ((nextNode == null) && (++bucketNumber < buckets.length()))
+                nextNode = buckets.get(bucketNumber);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return nextNode != null;
+        }
+
+        @Override
+        public T next()
+        {
+            Node<TKey, TValue> node = nextNode;
+            if (node == null)
+                throw new NoSuchElementException();
+
+            nextNode = node.next;
+            advance();
+            return getItem(node);
+        }
+    }
 }
@@ -1,5 +1,411 @@
 package dataworks.collections;
 
-public class ConcurrentLinkedList
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * The {@link ConcurrentLinkedList} class represents a thread-safe singly linked list, based on the lock-free list by
+ * Harris.
+ * <p>
+ * A node is removed in 2 steps: it is logically removed by marking its own link to the next node, which also prevents
+ * any node from being linked after it, and then physically unlinked from its predecessor. Any thread that finds a
+ * removed node while traversing the list helps to unlink it. Adding, removing and traversing never block, and
+ * traversal can proceed while other threads modify the list.
+ * <p>
+ * Every node keeps a hint to its predecessor, which usually allows a removed node to be unlinked immediately. When the
+ * hint is outdated, the predecessor is searched from the head.
+ * Iteration is weakly consistent: it never throws because of concurrent modifications, skips nodes that are already
+ * removed when reached, and may or may not return nodes added during the iteration.
+ *
+ * @param <T> Specifies the element type of the linked list.
+ */
+public class ConcurrentLinkedList<T> implements ICollection<T>
 {
+    /**
+     * Sentinel node before the first node, which is never removed.
+     */
+    private final ConcurrentLinkedListNode<T> head;
+
+    /**
+     * A node that was the last one at some point. It is only a hint to find the end of the list quickly.
+     */
+    private volatile ConcurrentLinkedListNode<T> tail;
+
+    /**
+     * Initializes a new instance of the {@link ConcurrentLinkedList} class that is empty.
+     */
+    public ConcurrentLinkedList()
+    {
+        head = new ConcurrentLinkedListNode<>(this, null, null);
+        tail = head;
+    }
+
+    /**
+     * Initializes a new instance of the {@link ConcurrentLinkedList} class that contains elements copied from the
+     * specified {@link Iterable}.
+     *
+     * @param collection The elements to add to the list.
+     * @throws NullPointerException The collection is null.
+     */
+    public ConcurrentLinkedList(Iterable<T> collection)
+    {
+        this();
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        for (T item : collection)
+            addLast(item);
+    }
+
+    /**
+     * Gets the first node of this {@link ConcurrentLinkedList} that is not removed.
+     *
+     * @return The first node of this {@link ConcurrentLinkedList}, or null if the list is empty.
+     */
+    public ConcurrentLinkedListNode<T> getFirst()
+    {
+        return head.getNext();
+    }
+
+    /**
+     * Determines whether this {@link ConcurrentLinkedList} is empty.
+     *
+     * @return {@code true} if this {@link ConcurrentLinkedList} is empty; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return getFirst() == null;
+    }
+
+    /**
+     * Adds a new node containing the specified value at the start of this {@link ConcurrentLinkedList}.
+     *
+     * @param value The value to add at the start of this {@link ConcurrentLinkedList}.
+     * @return The new {@link ConcurrentLinkedListNode} containing the specified value.
+     */
+    public ConcurrentLinkedListNode<T> addFirst(T value)
+    {
+        for (; ; )
+        {
+            ConcurrentLinkedListNode<T> first = head.next.getReference();
+            ConcurrentLinkedListNode<T> newNode = new ConcurrentLinkedListNode<>(this, value, first);
+            newNode.previous = head;
+            if (head.next.compareAndSet(first, newNode, false, false))
+            {
+                if (first == null)
+                    tail = newNode;
+                else
+                    first.previous = newNode;
+
+                return newNode;
+            }
+        }
+    }
+
+    /**
+     * Adds a new node containing the specified value at the end of this {@link ConcurrentLinkedList}.
+     *
+     * @param value The value to add at the end of this {@link ConcurrentLinkedList}.
+     * @return The new {@link ConcurrentLinkedListNode} containing the specified value.
+     */
+    public ConcurrentLinkedListNode<T> addLast(T value)
+    {
+        ConcurrentLinkedListNode<T> newNode = new ConcurrentLinkedListNode<>(this, value, null);
+        boolean[] marked = new boolean[1];
+
+        // Start from the tail hint, unless it has been removed.
+        ConcurrentLinkedListNode<T> predecessor = tail;
+        if (predecessor.isRemoved())
+            predecessor = head;
+
+        for (; ; )
+        {
+            ConcurrentLinkedListNode<T> current = predecessor.next.get(marked);
+            if (marked[0])
+            {
+                // The predecessor has been removed, so nothing can be linked after it. Start over from the head.
+                predecessor = head;
+                continue;
+            }
+
+            if (current == null)
+            {
+                // A removed last node keeps its link marked, so this fails if the predecessor is removed meanwhile.
+                newNode.previous = predecessor;
+                if (predecessor.next.compareAndSet(null, newNode, false, false))
+                {
+                    tail = newNode;
+                    return newNode;
+                }
+
+                continue;
+            }
+
+            ConcurrentLinkedListNode<T> successor = current.next.get(marked);
+            if (marked[0])
+            {
+                // Help to unlink the removed node. Start over from the head if the predecessor has changed.
+                if (predecessor.next.compareAndSet(current, successor, false, false))
+                {
+                    if (successor != null)
+                        successor.previous = predecessor;
+                }
+                else
+                    predecessor = head;
+
+                continue;
+            }
+
+            predecessor = current;
+        }
+    }
+
+    /**
+     * Finds the first node that contains the specified value and is not removed.
+     *
+     * @param value The value to contained in the {@link ConcurrentLinkedListNode}.
+     * @return The first {@link ConcurrentLinkedListNode} that contains the specified value, if found; otherwise, null.
+     */
+    public ConcurrentLinkedListNode<T> find(T value)
+    {
+        for (ConcurrentLinkedListNode<T> node = head.getNext(); node != null; node = node.getNext())
+        {
+            if (Objects.equals(node.getValue(), value))
+                return node;
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the specified node from this {@link ConcurrentLinkedList}. If several threads remove the same node at the
+     * same time, only one of them succeeds.
+     *
+     * @param node The {@link ConcurrentLinkedListNode} to remove from this {@link ConcurrentLinkedList}.
+     * @return <code>true</code> if the node is removed by this call; <code>false</code> if it has already been
+     * removed.
+     * @throws NullPointerException     The given node is null.
+     * @throws IllegalArgumentException The given node is not in this {@link ConcurrentLinkedList}.
+     */
+    public boolean remove(ConcurrentLinkedListNode<T> node)
+    {
+        if (node == null)
+            throw new NullPointerException("Argument \"node\" cannot be null.");
+        if ((node.getLinkedList() != this) || (node == head))
+            throw new IllegalArgumentException("The given node is not in this ConcurrentLinkedList.");
+
+        // Logical removal: mark the link of the node, unless another thread has done it.
+        boolean[] marked = new boolean[1];
+        for (; ; )
+        {
+            ConcurrentLinkedListNode<T> successor = node.next.get(marked);
+            if (marked[0])
+                return false;
+
+            if (node.next.compareAndSet(successor, successor, false, true))
+                break;
+        }
+
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Physically unlinks the specified removed node, and any other removed node found before it.
+     */
+    private void unlink(ConcurrentLinkedListNode<T> node)
+    {
+        // Try the predecessor hint first. The compare-and-set fails if the hint is no longer the predecessor or has
+        // been removed itself.
+        ConcurrentLinkedListNode<T> hint = node.previous;
+        ConcurrentLinkedListNode<T> next = node.next.getReference();
+        if ((hint != null) && hint.next.compareAndSet(node, next, false, false))
+        {
+            if (next != null)
+                next.previous = hint;
+
+            // Don't let the unlinked node keep other nodes alive.
+            node.previous = null;
+            return;
+        }
+
+        boolean[] marked = new boolean[1];
+        ConcurrentLinkedListNode<T> predecessor = head;
+        ConcurrentLinkedListNode<T> current = head.next.getReference();
+        while (current != null)
+        {
+            ConcurrentLinkedListNode<T> successor = current.next.get(marked);
+            if (marked[0])
+            {
+                if (!predecessor.next.compareAndSet(current, successor, false, false))
+                {
+                    // The predecessor has been removed or changed. Start over from the head.
+                    predecessor = head;
+                    current = head.next.getReference();
+                    continue;
+                }
+
+                if (successor != null)
+                    successor.previous = predecessor;
+                current.previous = null;
+
+                if (current == node)
+                    return;
+
+                current = successor;
+                continue;
+            }
+
+            predecessor = current;
+            current = successor;
+        }
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}. This method traverses the whole list, and
+     * the result may be outdated if other threads modify the list at the same time.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        int count = 0;
+        for (ConcurrentLinkedListNode<T> node = head.getNext(); node != null; node = node.getNext())
+            count++;
+
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the collection is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the collection is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Removes all nodes from this {@link ConcurrentLinkedList}. Nodes added concurrently may or may not be removed.
+     */
+    @Override
+    public void clear()
+    {
+        for (ConcurrentLinkedListNode<T> node = head.getNext(); node != null; node = node.getNext())
+            remove(node);
+    }
+
+    /**
+     * Removes the first occurrence of the specified value from this {@link ConcurrentLinkedList}.
+     *
+     * @param value The value to remove from this {@link ConcurrentLinkedList}.
+     * @return <code>true</code> if the element containing value is successfully removed; otherwise, false. This method
+     * also returns false if value was not found in this {@link ConcurrentLinkedList}.
+     */
+    @Override
+    public boolean remove(T value)
+    {
+        // Another thread may remove the found node first, in which case look for the next occurrence.
+        for (ConcurrentLinkedListNode<T> node = find(value); node != null; node = find(value))
+        {
+            if (remove(node))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether a value is in this {@link ConcurrentLinkedList}. This method uses Object.equals() method to
+     * test whether the given value equals one of the value contained in this {@link ConcurrentLinkedList}.
+     *
+     * @param value The value to locate in this {@link ConcurrentLinkedList}. The value can be null.
+     * @return <code>true</code> if value is found in this {@link ConcurrentLinkedList}; otherwise, <code>false</code>.
+     */
+    @Override
+    public boolean contains(T value)
+    {
+        return find(value) != null;
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}. The array must have zero-based indexing.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is greater than or equal to the length of the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from 0 to the end of the destination array, i.e. the capacity of the given array.
+     */
+    @Override
+    public void copyTo(T[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}. The array must have zero-based indexing.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is less than 0 or greater than or equal to the length of
+     *                                        the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from <code>startIndex</code> to the end of the destination array.
+     */
+    @Override
+    public void copyTo(T[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+
+        for (ConcurrentLinkedListNode<T> node = head.getNext(); node != null; node = node.getNext())
+        {
+            if (startIndex >= array.length)
+                throw new IllegalArgumentException("The number of elements in the source ConcurrentLinkedList is greater than the " +
+                                                           "available space from startIndex to the end of the destination array.");
+
+            array[startIndex++] = node.getValue();
+        }
+    }
+
+    /**
+     * Returns an iterator over elements of type {@code T}. The iteration is weakly consistent.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private ConcurrentLinkedListNode<T> next = head.getNext();
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public T next()
+            {
+                ConcurrentLinkedListNode<T> node = next;
+                if (node == null)
+                    throw new NoSuchElementException();
+
+                next = node.getNext();
+                return node.getValue();
+            }
+        };
+    }
 }
@@ -0,0 +1,87 @@
+package dataworks.collections;
+
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * The {@link ConcurrentLinkedListNode} class represents a node of {@link ConcurrentLinkedList} that contains a value of
+ * T and a link to the next node.
+ * <p>
+ * The link is marked when the node is removed, so that no node can be linked after a removed node.
+ * */
+public final class ConcurrentLinkedListNode<T>
+{
+    /**
+     * Value contained in this {@link ConcurrentLinkedListNode}.
+     * */
+    private final T value;
+
+    /**
+     * Next {@link ConcurrentLinkedListNode} of this {@link ConcurrentLinkedListNode}, marked if this node is removed.
+     * */
+    final AtomicMarkableReference<ConcurrentLinkedListNode<T>> next;
+
+    /**
+     * A node that was the predecessor of this node at some point, which is only a hint for unlinking this node without
+     * searching from the head. Null if unknown.
+     * */
+    volatile ConcurrentLinkedListNode<T> previous;
+
+    /**
+     * The {@link ConcurrentLinkedList} that this {@link ConcurrentLinkedListNode} belongs to.
+     * */
+    private final ConcurrentLinkedList<T> list;
+
+    /**
+     * Initializes a new instance of {@link ConcurrentLinkedListNode} with specified value and associate it with the
+     * specified {@link ConcurrentLinkedList}.
+     * @param list The specified {@link ConcurrentLinkedList} that contains this {@link ConcurrentLinkedListNode}.
+     * @param value The specified value contained in this {@link ConcurrentLinkedListNode}.
+     * @param next The next {@link ConcurrentLinkedListNode} at the time this node is linked.
+     * */
+    ConcurrentLinkedListNode(ConcurrentLinkedList<T> list, T value, ConcurrentLinkedListNode<T> next)
+    {
+        this.list = list;
+        this.value = value;
+        this.next = new AtomicMarkableReference<>(next, false);
+    }
+
+    /**
+     * Gets the {@link ConcurrentLinkedList} that contains this {@link ConcurrentLinkedListNode}.
+     * @return The {@link ConcurrentLinkedList} that contains this {@link ConcurrentLinkedListNode}.
+     * */
+    public ConcurrentLinkedList<T> getLinkedList()
+    {
+        return list;
+    }
+
+    /**
+     * Gets the value contained in this {@link ConcurrentLinkedListNode}.
+     * @return The value contained in this {@link ConcurrentLinkedListNode}.
+     * */
+    public T getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Gets next {@link ConcurrentLinkedListNode} of this {@link ConcurrentLinkedListNode} that is not removed.
+     * @return Next {@link ConcurrentLinkedListNode} that is not removed, or null if there isn't one.
+     * */
+    public ConcurrentLinkedListNode<T> getNext()
+    {
+        ConcurrentLinkedListNode<T> node = next.getReference();
+        while ((node != null) && node.isRemoved())
+            node = node.next.getReference();
+
+        return node;
+    }
+
+    /**
+     * Determines whether this {@link ConcurrentLinkedListNode} has been removed from its list.
+     * @return {@code true} if this node has been removed; otherwise, {@code false}.
+     * */
+    public boolean isRemoved()
+    {
+        return next.isMarked();
+    }
+}
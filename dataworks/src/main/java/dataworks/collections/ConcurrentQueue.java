@@ -1,5 +1,421 @@
 package dataworks.collections;
 
-public class ConcurrentQueue
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@link ConcurrentQueue} class represents a thread-safe first in-first out (FIFO) collection, which is based on
+ * the lock-free algorithm by Michael and Scott.
+ * <p>
+ * Nodes form a singly linked list that starts with a sentinel node. {@code head} always points to the sentinel, whose
+ * next node holds the first element, and {@code tail} points to the last node or the one before it. All updates are
+ * made by compare-and-set, and a thread that finds {@code tail} lagging behind helps to advance it, so no thread ever
+ * waits for another one.
+ * <p>
+ * Null elements are not allowed, since null is returned when trying to dequeue from an empty queue. Iteration is weakly
+ * consistent: it never throws because of concurrent modifications, and returns elements in the queue at some point
+ * since the iterator was created.
+ *
+ * @param <T> Specifies the element type of the queue.
+ */
+public class ConcurrentQueue<T> implements ICollection<T>
 {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(ConcurrentQueue.class, "head", Node.class);
+            TAIL = lookup.findVarHandle(ConcurrentQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final class Node<T>
+    {
+        private final T value;
+        private volatile Node<T> next;
+
+        private Node(T value)
+        {
+            this.value = value;
+        }
+    }
+
+    private volatile Node<T> head;
+    private volatile Node<T> tail;
+
+    /**
+     * Initializes a new instance of the {@link ConcurrentQueue} class that is empty.
+     */
+    public ConcurrentQueue()
+    {
+        head = new Node<>(null);
+        tail = head;
+    }
+
+    /**
+     * Initializes a new instance of the {@link ConcurrentQueue} class that contains elements copied from the specified
+     * {@link Iterable}, in the order of iteration.
+     *
+     * @param collection The elements to add to the queue.
+     * @throws NullPointerException The collection or any of its elements is null.
+     */
+    public ConcurrentQueue(Iterable<T> collection)
+    {
+        this();
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        for (T value : collection)
+            enqueue(value);
+    }
+
+    /**
+     * Adds an element to the end of this {@link ConcurrentQueue}.
+     *
+     * @param value The element to add.
+     * @throws NullPointerException The specified element is null.
+     */
+    public void enqueue(T value)
+    {
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        Node<T> node = new Node<>(value);
+        for (; ; )
+        {
+            Node<T> last = tail;
+            Node<T> next = last.next;
+            if (last != tail)
+                continue;
+
+            if (next == null)
+            {
+                // Link the new node after the last node. The queue is updated once this succeeds, and moving tail
+                // is only an optimization that other threads can also do.
+                if (NEXT.compareAndSet(last, null, node))
+                {
+                    TAIL.compareAndSet(this, last, node);
+                    return;
+                }
+            }
+            else
+            {
+                // Tail is lagging behind, help to advance it.
+                TAIL.compareAndSet(this, last, next);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the element at the beginning of this {@link ConcurrentQueue}.
+     *
+     * @return The removed element, or null if this {@link ConcurrentQueue} is empty.
+     */
+    public T tryDequeue()
+    {
+        for (; ; )
+        {
+            Node<T> first = head;
+            Node<T> last = tail;
+            Node<T> next = first.next;
+            if (first != head)
+                continue;
+
+            if (next == null)
+                return null;
+
+            if (first == last)
+            {
+                // Never let head pass tail.
+                TAIL.compareAndSet(this, last, next);
+                continue;
+            }
+
+            // The next node becomes the new sentinel, and its value is the dequeued element.
+            if (HEAD.compareAndSet(this, first, next))
+                return next.value;
+        }
+    }
+
+    /**
+     * Removes up to {@code array.length} elements from the beginning of this {@link ConcurrentQueue} at once, and
+     * copies them to the specified array, starting at index 0.
+     *
+     * @param array The array that receives the removed elements.
+     * @return The number of removed elements, which is 0 if this {@link ConcurrentQueue} is empty.
+     * @throws NullPointerException The specified array is null.
+     */
+    public int tryDequeue(T[] array)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+
+        return tryDequeue(array, 0, array.length);
+    }
+
+    /**
+     * Removes up to {@code count} elements from the beginning of this {@link ConcurrentQueue} at once, and copies them
+     * to the specified array. All the removed elements are taken by a single compare-and-set, so they are consecutive
+     * in the queue even when other threads are dequeuing.
+     *
+     * @param array      The array that receives the removed elements.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @param count      The maximum number of elements to remove.
+     * @return The number of removed elements, which is 0 if this {@link ConcurrentQueue} is empty.
+     * @throws NullPointerException           The specified array is null.
+     * @throws ArrayIndexOutOfBoundsException The specified range is out of the bounds of the array.
+     */
+    public int tryDequeue(T[] array, int startIndex, int count)
+    {
+        validateRange(array, startIndex, count);
+        if (count == 0)
+            return 0;
+
+        for (; ; )
+        {
+            Node<T> first = head;
+            Node<T> last = tail;
+            Node<T> next = first.next;
+            if (first != head)
+                continue;
+
+            if (next == null)
+                return 0;
+
+            if (first == last)
+            {
+                TAIL.compareAndSet(this, last, next);
+                continue;
+            }
+
+            // Walk to the last node to take, but not beyond the tail we have read, so head never passes tail.
+            Node<T> newHead = next;
+            int taken = 1;
+            while (taken < count && newHead != last)
+            {
+                Node<T> node = newHead.next;
+                if (node == null)
+                    break;
+
+                newHead = node;
+                taken++;
+            }
+
+            if (HEAD.compareAndSet(this, first, newHead))
+            {
+                // Values of the nodes are final, so they can be read after the nodes are unlinked.
+                Node<T> node = next;
+                for (int i = 0; i < taken; i++, node = node.next)
+                    array[startIndex + i] = node.value;
+
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Returns the element at the beginning of this {@link ConcurrentQueue} without removing it.
+     *
+     * @return The element at the beginning, or null if this {@link ConcurrentQueue} is empty.
+     */
+    public T tryPeek()
+    {
+        Node<T> next = head.next;
+        return next != null ? next.value : null;
+    }
+
+    /**
+     * Determines whether this {@link ConcurrentQueue} is empty.
+     *
+     * @return {@code true} if this {@link ConcurrentQueue} is empty; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return head.next == null;
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}. This method traverses the whole queue, and
+     * the result may be outdated if other threads modify the queue at the same time.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        int count = 0;
+        for (Node<T> node = head.next; node != null; node = node.next)
+            count++;
+
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the collection is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the collection is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Removes all items from this {@link ICollection}. Elements enqueued concurrently may or may not be removed.
+     */
+    @Override
+    public void clear()
+    {
+        for (; ; )
+        {
+            Node<T> first = head;
+            Node<T> last = tail;
+            Node<T> next = last.next;
+            if (last != tail)
+                continue;
+
+            if (next != null)
+            {
+                TAIL.compareAndSet(this, last, next);
+                continue;
+            }
+
+            // The last node becomes the sentinel, which drops all the nodes before it.
+            if ((first == last) || HEAD.compareAndSet(this, first, last))
+                return;
+        }
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}, since elements can only be removed from the beginning of a
+     * {@link ConcurrentQueue}.
+     *
+     * @param value The object to remove from this {@link ICollection}.
+     * @return Never returns.
+     */
+    @Override
+    public boolean remove(T value)
+    {
+        throw new UnsupportedOperationException("Elements of a ConcurrentQueue can only be removed by tryDequeue().");
+    }
+
+    /**
+     * Determines whether this {@link ICollection} contains a specific value.
+     *
+     * @param value The value to locate in this {@link ICollection}.
+     * @return <code>true</code> if the specified value is found in this {@link ICollection}; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean contains(T value)
+    {
+        if (value == null)
+            return false;
+
+        for (Node<T> node = head.next; node != null; node = node.next)
+        {
+            if (value.equals(node.value))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}. The array must have zero-based indexing.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is greater than or equal to the length of the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from 0 to the end of the destination array, i.e. the capacity of the given array.
+     */
+    @Override
+    public void copyTo(T[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}. The array must have zero-based indexing.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is less than 0 or greater than or equal to the length of
+     *                                        the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from <code>startIndex</code> to the end of the destination array.
+     */
+    @Override
+    public void copyTo(T[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+
+        for (Node<T> node = head.next; node != null; node = node.next)
+        {
+            if (startIndex >= array.length)
+                throw new IllegalArgumentException("The number of elements in the source ConcurrentQueue is greater than the " +
+                                                           "available space from startIndex to the end of the destination array.");
+
+            array[startIndex++] = node.value;
+        }
+    }
+
+    /**
+     * Returns an iterator over elements of type {@code T}. The iteration is weakly consistent.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private Node<T> next = head.next;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public T next()
+            {
+                Node<T> node = next;
+                if (node == null)
+                    throw new NoSuchElementException();
+
+                next = node.next;
+                return node.value;
+            }
+        };
+    }
+
+    static void validateRange(Object[] array, int startIndex, int count)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (count < 0) || (startIndex > array.length - count))
+            throw new ArrayIndexOutOfBoundsException("The range from startIndex with length count is out of the bounds of the array.");
+    }
 }
@@ -1,5 +1,402 @@
 package dataworks.collections;
 
-public class ConcurrentStack
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@link ConcurrentStack} class represents a thread-safe last in-first out (LIFO) collection, which is based on the
+ * lock-free algorithm by Treiber.
+ * <p>
+ * Elements are kept in a singly linked list of immutable nodes, and the only mutable state is the reference to the top
+ * node, which is updated by compare-and-set. A batch of elements is pushed or popped by a single compare-and-set, so
+ * the batch stays contiguous even when other threads use the stack at the same time.
+ * <p>
+ * Null elements are not allowed, since null is returned when trying to pop from an empty stack. Iteration never throws
+ * because of concurrent modifications, and returns the elements of the stack at the time the iterator is created,
+ * from top to bottom.
+ *
+ * @param <T> Specifies the element type of the stack.
+ */
+public class ConcurrentStack<T> implements ICollection<T>
 {
+    private static final VarHandle TOP;
+
+    static
+    {
+        try
+        {
+            TOP = MethodHandles.lookup().findVarHandle(ConcurrentStack.class, "top", Node.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final class Node<T>
+    {
+        private final T value;
+        private Node<T> next;
+
+        private Node(T value)
+        {
+            this.value = value;
+        }
+    }
+
+    private volatile Node<T> top;
+
+    /**
+     * Initializes a new instance of the {@link ConcurrentStack} class that is empty.
+     */
+    public ConcurrentStack()
+    {
+        top = null;
+    }
+
+    /**
+     * Initializes a new instance of the {@link ConcurrentStack} class that contains elements copied from the specified
+     * {@link Iterable}, where the last element of the iteration is at the top.
+     *
+     * @param collection The elements to push onto the stack.
+     * @throws NullPointerException The collection or any of its elements is null.
+     */
+    public ConcurrentStack(Iterable<T> collection)
+    {
+        this();
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        for (T value : collection)
+            push(value);
+    }
+
+    /**
+     * Inserts an element at the top of this {@link ConcurrentStack}.
+     *
+     * @param value The element to push.
+     * @throws NullPointerException The specified element is null.
+     */
+    public void push(T value)
+    {
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        Node<T> node = new Node<>(value);
+        pushNodes(node, node);
+    }
+
+    /**
+     * Inserts all the elements of the specified array at the top of this {@link ConcurrentStack} at once, where the
+     * last element of the array ends up at the top.
+     *
+     * @param array The elements to push.
+     * @throws NullPointerException The specified array or any of its elements is null.
+     */
+    public void pushRange(T[] array)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+
+        pushRange(array, 0, array.length);
+    }
+
+    /**
+     * Inserts the specified range of an array at the top of this {@link ConcurrentStack} at once, where the last
+     * element of the range ends up at the top.
+     *
+     * @param array      The array that contains the elements to push.
+     * @param startIndex The zero-based index of the first element to push.
+     * @param count      The number of elements to push.
+     * @throws NullPointerException           The specified array or any element in the range is null.
+     * @throws ArrayIndexOutOfBoundsException The specified range is out of the bounds of the array.
+     */
+    public void pushRange(T[] array, int startIndex, int count)
+    {
+        ConcurrentQueue.validateRange(array, startIndex, count);
+        if (count == 0)
+            return;
+
+        // Link the nodes privately, then publish the whole chain with one compare-and-set.
+        Node<T> bottom = null;
+        Node<T> first = null;
+        for (int i = startIndex; i < startIndex + count; i++)
+        {
+            if (array[i] == null)
+                throw new NullPointerException("Entry of \"array\" with index " + i + " is null.");
+
+            Node<T> node = new Node<>(array[i]);
+            node.next = first;
+            first = node;
+            if (bottom == null)
+                bottom = node;
+        }
+
+        pushNodes(first, bottom);
+    }
+
+    private void pushNodes(Node<T> first, Node<T> bottom)
+    {
+        for (; ; )
+        {
+            Node<T> oldTop = top;
+            bottom.next = oldTop;
+            if (TOP.compareAndSet(this, oldTop, first))
+                return;
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Removes and returns the element at the top of this {@link ConcurrentStack}.
+     *
+     * @return The removed element, or null if this {@link ConcurrentStack} is empty.
+     */
+    public T tryPop()
+    {
+        for (; ; )
+        {
+            Node<T> oldTop = top;
+            if (oldTop == null)
+                return null;
+
+            if (TOP.compareAndSet(this, oldTop, oldTop.next))
+                return oldTop.value;
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Removes up to {@code array.length} elements from the top of this {@link ConcurrentStack} at once, and copies them
+     * to the specified array, starting at index 0. The element at the top is copied first.
+     *
+     * @param array The array that receives the removed elements.
+     * @return The number of removed elements, which is 0 if this {@link ConcurrentStack} is empty.
+     * @throws NullPointerException The specified array is null.
+     */
+    public int tryPopRange(T[] array)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+
+        return tryPopRange(array, 0, array.length);
+    }
+
+    /**
+     * Removes up to {@code count} elements from the top of this {@link ConcurrentStack} by a single compare-and-set,
+     * and copies them to the specified array. The element at the top is copied first.
+     *
+     * @param array      The array that receives the removed elements.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @param count      The maximum number of elements to remove.
+     * @return The number of removed elements, which is 0 if this {@link ConcurrentStack} is empty.
+     * @throws NullPointerException           The specified array is null.
+     * @throws ArrayIndexOutOfBoundsException The specified range is out of the bounds of the array.
+     */
+    public int tryPopRange(T[] array, int startIndex, int count)
+    {
+        ConcurrentQueue.validateRange(array, startIndex, count);
+        if (count == 0)
+            return 0;
+
+        for (; ; )
+        {
+            Node<T> oldTop = top;
+            if (oldTop == null)
+                return 0;
+
+            Node<T> newTop = oldTop;
+            int taken = 0;
+            while ((taken < count) && (newTop != null))
+            {
+                newTop = newTop.next;
+                taken++;
+            }
+
+            if (TOP.compareAndSet(this, oldTop, newTop))
+            {
+                Node<T> node = oldTop;
+                for (int i = 0; i < taken; i++, node = node.next)
+                    array[startIndex + i] = node.value;
+
+                return taken;
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the element at the top of this {@link ConcurrentStack} without removing it.
+     *
+     * @return The element at the top, or null if this {@link ConcurrentStack} is empty.
+     */
+    public T tryPeek()
+    {
+        Node<T> node = top;
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Determines whether this {@link ConcurrentStack} is empty.
+     *
+     * @return {@code true} if this {@link ConcurrentStack} is empty; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return top == null;
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}. This method traverses the whole stack, and
+     * the result may be outdated if other threads modify the stack at the same time.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        int count = 0;
+        for (Node<T> node = top; node != null; node = node.next)
+            count++;
+
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the collection is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the collection is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Removes all items from this {@link ICollection}.
+     */
+    @Override
+    public void clear()
+    {
+        top = null;
+    }
+
+    /**
+     * Always throws {@link UnsupportedOperationException}, since elements can only be removed from the top of a
+     * {@link ConcurrentStack}.
+     *
+     * @param value The object to remove from this {@link ICollection}.
+     * @return Never returns.
+     */
+    @Override
+    public boolean remove(T value)
+    {
+        throw new UnsupportedOperationException("Elements of a ConcurrentStack can only be removed by tryPop().");
+    }
+
+    /**
+     * Determines whether this {@link ICollection} contains a specific value.
+     *
+     * @param value The value to locate in this {@link ICollection}.
+     * @return <code>true</code> if the specified value is found in this {@link ICollection}; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean contains(T value)
+    {
+        if (value == null)
+            return false;
+
+        for (Node<T> node = top; node != null; node = node.next)
+        {
+            if (value.equals(node.value))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}. The array must have zero-based indexing.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is greater than or equal to the length of the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from 0 to the end of the destination array, i.e. the capacity of the given array.
+     */
+    @Override
+    public void copyTo(T[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index. The elements
+     * are copied from top to bottom, and are a snapshot of the stack.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}. The array must have zero-based indexing.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is less than 0 or greater than or equal to the length of
+     *                                        the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from <code>startIndex</code> to the end of the destination array.
+     */
+    @Override
+    public void copyTo(T[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+
+        for (Node<T> node = top; node != null; node = node.next)
+        {
+            if (startIndex >= array.length)
+                throw new IllegalArgumentException("The number of elements in the source ConcurrentStack is greater than the " +
+                                                           "available space from startIndex to the end of the destination array.");
+
+            array[startIndex++] = node.value;
+        }
+    }
+
+    /**
+     * Returns an iterator over elements of type {@code T}, from top to bottom.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private Node<T> next = top;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public T next()
+            {
+                Node<T> node = next;
+                if (node == null)
+                    throw new NoSuchElementException();
+
+                next = node.next;
+                return node.value;
+            }
+        };
+    }
 }
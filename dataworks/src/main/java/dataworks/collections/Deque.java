@@ -0,0 +1,510 @@
+package dataworks.collections;
+
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * The {@link Deque} class represents a double-ended queue that keeps its elements in a circular array.
+ * <p>
+ * Adding and removing elements at both ends take amortized O(1) time like {@link LinkedList}, but no node is allocated
+ * for each element: the only per-element cost is one slot of the array, which grows by doubling. It is a compact
+ * replacement of {@link LinkedList} when elements are only added or removed at the ends, and also supports access by
+ * index in O(1) time.
+ *
+ * @param <T> Specifies the element type of the deque.
+ */
+public class Deque<T> implements ICollection<T>, Serializable
+{
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private T[] items;
+
+    /**
+     * Index of the first element in {@code items}.
+     */
+    private int head;
+    private int count;
+    private int version;
+
+    /**
+     * Initializes a new instance of the {@link Deque} class that is empty. The array is allocated when the first
+     * element is added.
+     */
+    public Deque()
+    {
+        items = EmptyArray.getValue();
+        head = 0;
+        count = 0;
+        version = 0;
+    }
+
+    /**
+     * Initializes a new instance of the {@link Deque} class that is empty and has the specified initial capacity.
+     *
+     * @param capacity The number of elements that the new {@link Deque} can initially store.
+     * @throws ArgumentOutOfRangeException The specified capacity is less than 0.
+     */
+    @SuppressWarnings("unchecked")
+    public Deque(int capacity)
+    {
+        this();
+        if (capacity < 0)
+            throw new ArgumentOutOfRangeException("\"capacity\" must be a non-negative integer.");
+
+        if (capacity > 0)
+            items = (T[]) new Object[capacity];
+    }
+
+    /**
+     * Initializes a new instance of the {@link Deque} class that contains elements copied from the specified
+     * {@link Iterable}, in the order of iteration.
+     *
+     * @param collection The elements to add to the new {@link Deque}.
+     * @throws NullPointerException The specified collection is null.
+     */
+    public Deque(Iterable<T> collection)
+    {
+        this();
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        if (collection instanceof ICollection)
+            ensureCapacity(((ICollection<T>) collection).count());
+
+        addAll(collection);
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Gets the number of elements this {@link Deque} can store without resizing its internal array.
+     *
+     * @return The capacity of this {@link Deque}.
+     */
+    public int getCapacity()
+    {
+        return items.length;
+    }
+
+    /**
+     * Makes sure this {@link Deque} can store at least the specified number of elements without resizing again.
+     *
+     * @param capacity The minimum capacity.
+     */
+    public void ensureCapacity(int capacity)
+    {
+        if (capacity > items.length)
+        {
+            int newCapacity = items.length == 0 ? DEFAULT_CAPACITY : items.length * 2;
+            if ((newCapacity < 0) || (newCapacity > ArrayHelper.MAX_ARRAY_LENGTH))
+                newCapacity = ArrayHelper.MAX_ARRAY_LENGTH;
+            if (newCapacity < capacity)
+                newCapacity = capacity;
+
+            setCapacity(newCapacity);
+        }
+    }
+
+    /**
+     * Sets the capacity of this {@link Deque} to the number of its elements, which releases the unused slots of the
+     * internal array.
+     */
+    public void trimExcess()
+    {
+        if (count < items.length)
+            setCapacity(count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setCapacity(int capacity)
+    {
+        T[] newItems = capacity == 0 ? EmptyArray.getValue() : (T[]) new Object[capacity];
+        copyItems(newItems, 0);
+        items = newItems;
+        head = 0;
+    }
+
+    /**
+     * Copies the elements in order to the specified array, handling the case that they wrap around the end of
+     * {@code items}.
+     */
+    private void copyItems(Object[] array, int startIndex)
+    {
+        int firstPart = Math.min(count, items.length - head);
+        System.arraycopy(items, head, array, startIndex, firstPart);
+        System.arraycopy(items, 0, array, startIndex + firstPart, count - firstPart);
+    }
+
+    /**
+     * Maps an index relative to the first element to the index in {@code items}.
+     */
+    private int physicalIndex(int index)
+    {
+        int i = head + index;
+        return i >= items.length ? i - items.length : i;
+    }
+
+    /**
+     * Adds the specified value at the start of this {@link Deque}.
+     *
+     * @param value The value to add. The value can be null.
+     */
+    public void addFirst(T value)
+    {
+        if (count == items.length)
+            ensureCapacity(count + 1);
+
+        head = (head == 0 ? items.length : head) - 1;
+        items[head] = value;
+        count++;
+        version++;
+    }
+
+    /**
+     * Adds the specified value at the end of this {@link Deque}.
+     *
+     * @param value The value to add. The value can be null.
+     */
+    public void addLast(T value)
+    {
+        if (count == items.length)
+            ensureCapacity(count + 1);
+
+        items[physicalIndex(count)] = value;
+        count++;
+        version++;
+    }
+
+    /**
+     * Adds all elements of the specified {@link Iterable} at the end of this {@link Deque}, in the order of iteration.
+     *
+     * @param collection The elements to add.
+     * @throws NullPointerException The specified collection is null.
+     */
+    public void addAll(Iterable<T> collection)
+    {
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        for (T item : collection)
+            addLast(item);
+    }
+
+    /**
+     * Removes and returns the element at the start of this {@link Deque}.
+     *
+     * @return The removed element.
+     * @throws InvalidOperationException This {@link Deque} is empty.
+     */
+    public T removeFirst()
+    {
+        if (count == 0)
+            throw new InvalidOperationException("Cannot call removeFirst() on an empty Deque.");
+
+        T value = items[head];
+        // Release the reference so that the element can be collected.
+        items[head] = null;
+        head = head + 1 == items.length ? 0 : head + 1;
+        count--;
+        version++;
+        return value;
+    }
+
+    /**
+     * Removes and returns the element at the end of this {@link Deque}.
+     *
+     * @return The removed element.
+     * @throws InvalidOperationException This {@link Deque} is empty.
+     */
+    public T removeLast()
+    {
+        if (count == 0)
+            throw new InvalidOperationException("Cannot call removeLast() on an empty Deque.");
+
+        int last = physicalIndex(count - 1);
+        T value = items[last];
+        items[last] = null;
+        count--;
+        version++;
+        return value;
+    }
+
+    /**
+     * Gets the element at the start of this {@link Deque} without removing it.
+     *
+     * @return The first element.
+     * @throws InvalidOperationException This {@link Deque} is empty.
+     */
+    public T getFirst()
+    {
+        if (count == 0)
+            throw new InvalidOperationException("Cannot call getFirst() on an empty Deque.");
+
+        return items[head];
+    }
+
+    /**
+     * Gets the element at the end of this {@link Deque} without removing it.
+     *
+     * @return The last element.
+     * @throws InvalidOperationException This {@link Deque} is empty.
+     */
+    public T getLast()
+    {
+        if (count == 0)
+            throw new InvalidOperationException("Cannot call getLast() on an empty Deque.");
+
+        return items[physicalIndex(count - 1)];
+    }
+
+    /**
+     * Gets the element at the specified index, where index 0 is the start of this {@link Deque}.
+     *
+     * @param index The zero-based index of the element to get.
+     * @return The element at the specified index.
+     * @throws ArgumentOutOfRangeException The index is less than 0 or greater than or equal to {@link #count()}.
+     */
+    public T get(int index)
+    {
+        validateIndex(index);
+        return items[physicalIndex(index)];
+    }
+
+    /**
+     * Replaces the element at the specified index, where index 0 is the start of this {@link Deque}.
+     *
+     * @param index The zero-based index of the element to replace.
+     * @param value The new value of the element.
+     * @throws ArgumentOutOfRangeException The index is less than 0 or greater than or equal to {@link #count()}.
+     */
+    public void set(int index, T value)
+    {
+        validateIndex(index);
+        items[physicalIndex(index)] = value;
+        version++;
+    }
+
+    private void validateIndex(int index)
+    {
+        if ((index < 0) || (index >= count))
+            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+    }
+
+    /**
+     * Returns the zero-based index of the first occurrence of the specified value. Values are compared by
+     * {@link Object#equals(Object)}.
+     *
+     * @param value The value to locate. The value can be null.
+     * @return The index of the first occurrence of the value, or -1 if it is not found.
+     */
+    public int indexOf(T value)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (Objects.equals(items[physicalIndex(i)], value))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes the element at the specified index. Elements on the shorter side of the index are shifted by one, so
+     * this method takes O(min(index, count - index)) time.
+     *
+     * @param index The zero-based index of the element to remove.
+     * @throws ArgumentOutOfRangeException The index is less than 0 or greater than or equal to {@link #count()}.
+     */
+    public void removeAt(int index)
+    {
+        validateIndex(index);
+        if (index < count / 2)
+        {
+            for (int i = index; i > 0; i--)
+                items[physicalIndex(i)] = items[physicalIndex(i - 1)];
+
+            items[head] = null;
+            head = head + 1 == items.length ? 0 : head + 1;
+        }
+        else
+        {
+            for (int i = index; i < count - 1; i++)
+                items[physicalIndex(i)] = items[physicalIndex(i + 1)];
+
+            items[physicalIndex(count - 1)] = null;
+        }
+
+        count--;
+        version++;
+    }
+
+    /**
+     * Returns an {@link Iterable} that iterates over this {@link Deque} from the end to the start.
+     *
+     * @return An {@link Iterable} in reverse order.
+     */
+    public Iterable<T> reverse()
+    {
+        return () -> new DequeIterator(true);
+    }
+
+    /**
+     * Returns {@code true} if the {@link Deque} is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the {@link Deque} is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Removes all elements from this {@link ICollection}. The capacity is kept, call {@link #trimExcess()} to release
+     * the internal array.
+     */
+    @Override
+    public void clear()
+    {
+        if (count > 0)
+        {
+            int firstPart = Math.min(count, items.length - head);
+            Arrays.fill(items, head, head + firstPart, null);
+            Arrays.fill(items, 0, count - firstPart, null);
+        }
+
+        head = 0;
+        count = 0;
+        version++;
+    }
+
+    /**
+     * Removes the first occurrence of a specific object from this {@link ICollection}.
+     *
+     * @param value The object to remove from this {@link ICollection}.
+     * @return <code>true</code> if item was successfully removed from the {@link ICollection}; otherwise,
+     * <code>false</code>. This method also returns <code>false</code> if item is not found in the original
+     * {@link ICollection}.
+     */
+    @Override
+    public boolean remove(T value)
+    {
+        int index = indexOf(value);
+        if (index < 0)
+            return false;
+
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Determines whether this {@link ICollection} contains a specific value.
+     *
+     * @param value The value to locate in this {@link ICollection}.
+     * @return <code>true</code> if the specified value is found in this {@link ICollection}; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean contains(T value)
+    {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}. The array must have zero-based indexing.
+     * @throws NullPointerException     The given array is null.
+     * @throws IllegalArgumentException The number of elements in the source {@link ICollection} is greater than the
+     *                                  length of the destination array.
+     */
+    @Override
+    public void copyTo(T[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}. The array must have zero-based indexing.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException      The given array is null.
+     * @throws IndexOutOfBoundsException The given index is less than 0.
+     * @throws IllegalArgumentException  The number of elements in the source {@link ICollection} is greater than the
+     *                                   available space from <code>startIndex</code> to the end of the destination array.
+     */
+    @Override
+    public void copyTo(T[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if (startIndex < 0)
+            throw new IndexOutOfBoundsException("The start index of an array must be greater than or equal to 0.");
+        if (array.length - startIndex < count)
+            throw new IllegalArgumentException("The length between the start index and the end of the given array is not enough for copying contents.");
+
+        copyItems(array, startIndex);
+    }
+
+    /**
+     * Returns an iterator over elements of type {@code T}, from the start to the end of this {@link Deque}.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new DequeIterator(false);
+    }
+
+    private class DequeIterator implements Iterator<T>
+    {
+        private final boolean reverse;
+        private final int version;
+        private int index;
+
+        private DequeIterator(boolean reverse)
+        {
+            this.reverse = reverse;
+            this.version = Deque.this.version;
+            this.index = 0;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return index < count;
+        }
+
+        @Override
+        public T next()
+        {
+            if (version != Deque.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+            if (index >= count)
+                throw new NoSuchElementException();
+
+            int i = reverse ? count - 1 - index : index;
+            index++;
+            return items[physicalIndex(i)];
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package dataworks.collections;
+
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * The {@link DoubleArrayList} class represents a list of double values stored in an array, whose capacity grows by
+ * doubling when needed. It works like {@link ArrayList} but never boxes its elements: they are stored, added and
+ * iterated as double, which saves the space of one object for every element.
+ */
+public class DoubleArrayList implements Cloneable, Serializable
+{
+    private static final int DEFAULT_CAPACITY = 4;
+    private static final double[] EMPTY = new double[0];
+
+    private double[] items;
+    private int count;
+    private int version;
+
+    /**
+     * Initializes a new instance of the {@link DoubleArrayList} class that is empty and has a capacity of 0.
+     */
+    public DoubleArrayList()
+    {
+        items = EMPTY;
+    }
+
+    /**
+     * Initializes a new instance of the {@link DoubleArrayList} class that is empty and has the given initial capacity.
+     *
+     * @param initialCapacity Initial capacity of the {@link DoubleArrayList}.
+     * @throws ArgumentOutOfRangeException If the given capacity is less than 0.
+     */
+    public DoubleArrayList(int initialCapacity)
+    {
+        if (initialCapacity < 0)
+            throw new ArgumentOutOfRangeException("\"initialCapacity\" must be a non-negative integer.");
+
+        items = initialCapacity == 0 ? EMPTY : new double[initialCapacity];
+    }
+
+    /**
+     * Initializes a new instance of the {@link DoubleArrayList} class that contains a copy of the given values.
+     *
+     * @param values The values to copy.
+     * @throws NullPointerException If the given array is null.
+     */
+    public DoubleArrayList(double[] values)
+    {
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+
+        items = values.length == 0 ? EMPTY : values.clone();
+        count = values.length;
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link DoubleArrayList}.
+     *
+     * @return The number of elements contained in this {@link DoubleArrayList}.
+     */
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Determines whether this {@link DoubleArrayList} is empty.
+     *
+     * @return {@code true} if this {@link DoubleArrayList} is empty; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Gets the capacity of this {@link DoubleArrayList}, which is the size of the internal array.
+     *
+     * @return The capacity of this {@link DoubleArrayList}.
+     */
+    public int getCapacity()
+    {
+        return items.length;
+    }
+
+    /**
+     * Makes sure the capacity of this {@link DoubleArrayList} is at least the given number. If required, the capacity
+     * is increased to twice the previous capacity or the given number, whichever is larger.
+     *
+     * @param min The minimum capacity.
+     */
+    public void ensureCapacity(int min)
+    {
+        if (items.length < min)
+        {
+            int newCapacity = items.length == 0 ? DEFAULT_CAPACITY : items.length * 2;
+            if ((newCapacity < 0) || (newCapacity > ArrayHelper.MAX_ARRAY_LENGTH))
+                newCapacity = ArrayHelper.MAX_ARRAY_LENGTH;
+            if (newCapacity < min)
+                newCapacity = min;
+
+            items = Arrays.copyOf(items, newCapacity);
+        }
+    }
+
+    /**
+     * Sets the capacity to the number of elements in this {@link DoubleArrayList}, which releases the unused part of
+     * the internal array.
+     */
+    public void trimExcess()
+    {
+        if (count < items.length)
+            items = count == 0 ? EMPTY : Arrays.copyOf(items, count);
+    }
+
+    /**
+     * Gets the element at the given index.
+     *
+     * @param index The index of the element to get.
+     * @return The element at the index.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count - 1].
+     */
+    public double get(int index)
+    {
+        validateIndex(index);
+        return items[index];
+    }
+
+    /**
+     * Sets the element at the given index.
+     *
+     * @param index The index of the element to set.
+     * @param value The new value at the given index.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count - 1].
+     */
+    public void set(int index, double value)
+    {
+        validateIndex(index);
+        items[index] = value;
+        version++;
+    }
+
+    private void validateIndex(int index)
+    {
+        if ((index < 0) || (index >= count))
+            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+    }
+
+    /**
+     * Adds the given value to the end of this {@link DoubleArrayList}.
+     *
+     * @param value The value to add.
+     */
+    public void add(double value)
+    {
+        if (count == items.length)
+            ensureCapacity(count + 1);
+
+        items[count++] = value;
+        version++;
+    }
+
+    /**
+     * Adds all the given values to the end of this {@link DoubleArrayList}.
+     *
+     * @param values The values to add.
+     * @throws NullPointerException If the given array is null.
+     */
+    public void addRange(double[] values)
+    {
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+
+        addRange(values, 0, values.length);
+    }
+
+    /**
+     * Adds a range of the given array to the end of this {@link DoubleArrayList}.
+     *
+     * @param values     The array that contains the values to add.
+     * @param startIndex The index of the first value to add.
+     * @param count      The number of values to add.
+     * @throws NullPointerException           If the given array is null.
+     * @throws ArrayIndexOutOfBoundsException If the given range is out of the bounds of the array.
+     */
+    public void addRange(double[] values, int startIndex, int count)
+    {
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+        ArrayHelper.validateRange(values.length, startIndex, count);
+        if (count > 0)
+        {
+            ensureCapacity(this.count + count);
+            System.arraycopy(values, startIndex, items, this.count, count);
+            this.count += count;
+            version++;
+        }
+    }
+
+    /**
+     * Adds all the elements of the given {@link DoubleArrayList} to the end of this {@link DoubleArrayList}.
+     *
+     * @param list The list that contains the values to add.
+     * @throws NullPointerException If the given list is null.
+     */
+    public void addRange(DoubleArrayList list)
+    {
+        if (list == null)
+            throw new NullPointerException("Argument \"list\" cannot be null.");
+
+        addRange(list.items, 0, list.count);
+    }
+
+    /**
+     * Inserts the given value at the given index. Elements from the index to the end are moved by one position.
+     *
+     * @param index The index at which the value is inserted.
+     * @param value The value to insert.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count].
+     */
+    public void insert(int index, double value)
+    {
+        if ((index < 0) || (index > count))
+            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+
+        if (count == items.length)
+            ensureCapacity(count + 1);
+        System.arraycopy(items, index, items, index + 1, count - index);
+        items[index] = value;
+        count++;
+        version++;
+    }
+
+    /**
+     * Removes the element at the given index. Elements after the index are moved by one position.
+     *
+     * @param index The index of the element to remove.
+     * @return The removed element.
+     * @throws ArgumentOutOfRangeException If the given index is out of range [0, count - 1].
+     */
+    public double removeAt(int index)
+    {
+        validateIndex(index);
+        double value = items[index];
+        count--;
+        System.arraycopy(items, index + 1, items, index, count - index);
+        version++;
+        return value;
+    }
+
+    /**
+     * Removes and returns the last element, so that this {@link DoubleArrayList} can be used as a stack.
+     *
+     * @return The removed element.
+     * @throws InvalidOperationException If this {@link DoubleArrayList} is empty.
+     */
+    public double removeLast()
+    {
+        if (count == 0)
+            throw new InvalidOperationException("Cannot call removeLast() on an empty DoubleArrayList.");
+
+        version++;
+        return items[--count];
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given value. Values are compared by {@code ==}, thus NaN is
+     * never found.
+     *
+     * @param value The value to locate.
+     * @return The index of the first occurrence of the value, or -1 if it is not found.
+     */
+    public int indexOf(double value)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (items[i] == value)
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines whether this {@link DoubleArrayList} contains the given value.
+     *
+     * @param value The value to locate.
+     * @return {@code true} if the value is found; otherwise, {@code false}.
+     */
+    public boolean contains(double value)
+    {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes all elements from this {@link DoubleArrayList}. The capacity is not changed.
+     */
+    public void clear()
+    {
+        count = 0;
+        version++;
+    }
+
+    /**
+     * Sorts the elements of this {@link DoubleArrayList} in ascending order.
+     */
+    public void sort()
+    {
+        Arrays.sort(items, 0, count);
+        version++;
+    }
+
+    /**
+     * Copies the elements of this {@link DoubleArrayList} to a new array.
+     *
+     * @return An array that contains the elements of this {@link DoubleArrayList}.
+     */
+    public double[] toArray()
+    {
+        return Arrays.copyOf(items, count);
+    }
+
+    /**
+     * Copies the elements of this {@link DoubleArrayList} to an array, starting at a particular array index.
+     *
+     * @param array      The destination of the elements.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException The array doesn't have enough space from the start index.
+     */
+    public void copyTo(double[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        ArrayHelper.validateRange(array.length, startIndex, count);
+        System.arraycopy(items, 0, array, startIndex, count);
+    }
+
+    /**
+     * Performs the given action on each element of this {@link DoubleArrayList}, in order.
+     *
+     * @param action The action to perform.
+     * @throws NullPointerException      If the given action is null.
+     * @throws InvalidOperationException If the action modifies this {@link DoubleArrayList}.
+     */
+    public void forEach(DoubleConsumer action)
+    {
+        if (action == null)
+            throw new NullPointerException("Argument \"action\" cannot be null.");
+
+        int version = this.version;
+        for (int i = 0; i < count; i++)
+        {
+            action.accept(items[i]);
+            if (version != this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements of this {@link DoubleArrayList}, whose {@code nextDouble()} method doesn't
+     * box the elements.
+     *
+     * @return An iterator over the elements.
+     */
+    public PrimitiveIterator.OfDouble iterator()
+    {
+        return new PrimitiveIterator.OfDouble()
+        {
+            private final int version = DoubleArrayList.this.version;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < count;
+            }
+
+            @Override
+            public double nextDouble()
+            {
+                if (version != DoubleArrayList.this.version)
+                    throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+                if (index >= count)
+                    throw new NoSuchElementException();
+
+                return items[index++];
+            }
+        };
+    }
+
+    /**
+     * Creates a copy of this {@link DoubleArrayList}, whose capacity equals its number of elements.
+     *
+     * @return A copy of this {@link DoubleArrayList}.
+     */
+    @Override
+    public DoubleArrayList clone()
+    {
+        return new DoubleArrayList(toArray());
+    }
+}
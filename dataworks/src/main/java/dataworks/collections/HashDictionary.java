@@ -1,21 +1,30 @@
 package dataworks.collections;
 
 import dataworks.ArgumentOutOfRangeException;
+import dataworks.IEqualityComparer;
+import dataworks.InvalidOperationException;
 import dataworks.KeyNotFountException;
-import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * The {@link HashDictionary} class represents a generic hash table implementation.
+ * <p>
+ * Entries are kept in an array and chained by index: every bucket stores the index of the first entry whose hash code
+ * falls into it, and every entry stores the index of the next one in the same bucket. Removed entries are linked into
+ * a free list and reused by later insertions, so looking up, updating and removing entries never allocate memory,
+ * and adding an entry only allocates when the slot it takes has never been used before. Sizes of the bucket array are
+ * primes chosen by {@link HashTable.HashHelpers}.
  * @param <TKey> Type of keys in this directory.
  * @param <TValue> Type of values in this directory.
  */
 public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>, Serializable
 {
-    private class Entry
+    private class Entry implements Serializable
     {
         /**
          * Lower 31 bits of hash code, -1 if unused.
@@ -40,25 +49,244 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
 
     private int[] buckets;
     private Entry[] entries;
+
+    /**
+     * Number of entries that have ever been used, including the free ones.
+     */
     private int count;
     private int version;
     private int freeList;
     private int freeCount;
-    private Comparator<TKey> comparator;
-    private KeyCollection keys;
-    private ValueCollection values;
-    private Object syncRoot;
+    private IEqualityComparer comparer;
+    private transient KeyCollection keys;
+    private transient ValueCollection values;
+
+    /**
+     * Initializes an empty {@link HashDictionary} with the default initial capacity, which uses
+     * {@link Object#hashCode()} and {@link Object#equals(Object)} of the keys.
+     */
+    public HashDictionary()
+    {
+        this(0, null);
+    }
+
+    /**
+     * Initializes an empty {@link HashDictionary} that can contain the specified number of elements without resizing,
+     * which uses {@link Object#hashCode()} and {@link Object#equals(Object)} of the keys.
+     *
+     * @param capacity The initial number of elements that the {@link HashDictionary} can contain.
+     * @throws ArgumentOutOfRangeException The specified capacity is negative.
+     */
+    public HashDictionary(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * Initializes an empty {@link HashDictionary} with the default initial capacity, which uses the specified
+     * {@link IEqualityComparer} to hash and compare the keys.
+     *
+     * @param comparer The {@link IEqualityComparer} for the keys, or null to use methods of the keys themselves.
+     */
+    public HashDictionary(IEqualityComparer comparer)
+    {
+        this(0, comparer);
+    }
 
-    public HashDictionary(int capacity, Comparator<TKey> comparator)
+    /**
+     * Initializes an empty {@link HashDictionary} that can contain the specified number of elements without resizing,
+     * which uses the specified {@link IEqualityComparer} to hash and compare the keys.
+     *
+     * @param capacity The initial number of elements that the {@link HashDictionary} can contain.
+     * @param comparer The {@link IEqualityComparer} for the keys, or null to use methods of the keys themselves.
+     * @throws ArgumentOutOfRangeException The specified capacity is negative.
+     */
+    public HashDictionary(int capacity, IEqualityComparer comparer)
     {
         if (capacity < 0)
             throw new ArgumentOutOfRangeException("Capacity of a HashDictionary must be a non-negative integer.");
 
+        this.comparer = comparer;
+        initialize(capacity);
+    }
+
+    /**
+     * Initializes a {@link HashDictionary} that contains the elements copied from the specified {@link IDictionary}.
+     *
+     * @param dictionary The {@link IDictionary} whose elements are copied to the new {@link HashDictionary}.
+     * @param comparer   The {@link IEqualityComparer} for the keys, or null to use methods of the keys themselves.
+     * @throws NullPointerException     The specified dictionary is null.
+     * @throws IllegalArgumentException The specified dictionary contains duplicate keys.
+     */
+    public HashDictionary(IDictionary<TKey, TValue> dictionary, IEqualityComparer comparer)
+    {
+        this(dictionary != null ? dictionary.count() : 0, comparer);
+        if (dictionary == null)
+            throw new NullPointerException("Argument \"dictionary\" cannot be null.");
+
+        for (KeyValuePair<TKey, TValue> kvp : dictionary)
+            add(kvp.getKey(), kvp.getValue());
     }
 
     private void initialize(int capacity)
     {
+        int size = HashTable.HashHelpers.getPrime(Math.max(capacity, HashTable.HashHelpers.getMinPrime()));
+        buckets = new int[size];
+        Arrays.fill(buckets, -1);
+        entries = newEntries(size);
+        count = 0;
+        freeList = -1;
+        freeCount = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry[] newEntries(int size)
+    {
+        return (Entry[]) new HashDictionary<?, ?>.Entry[size];
+    }
+
+    /**
+     * Gets the {@link IEqualityComparer} used to hash and compare the keys.
+     *
+     * @return The {@link IEqualityComparer} used to hash and compare the keys, or null if methods of the keys
+     * themselves are used.
+     */
+    public IEqualityComparer getComparer()
+    {
+        return comparer;
+    }
+
+    private int hash(TKey key)
+    {
+        int hashCode = comparer != null ? comparer.getHashCode(key) : key.hashCode();
+
+        // Spread higher bits to lower ones, since the bucket is chosen by the remainder of a prime.
+        return (hashCode ^ (hashCode >>> 16)) & 0x7FFFFFFF;
+    }
+
+    private boolean keyEquals(TKey item, TKey key)
+    {
+        if (item == key)
+            return true;
+
+        return comparer != null ? comparer.equals(item, key) : item.equals(key);
+    }
+
+    /**
+     * Returns the index of the entry with the specified key, or -1 if no such entry exists.
+     */
+    private int findEntry(TKey key)
+    {
+        validateKey(key);
+
+        int hashCode = hash(key);
+        for (int i = buckets[hashCode % buckets.length]; i >= 0; i = entries[i].next)
+        {
+            Entry entry = entries[i];
+            if ((entry.hashCode == hashCode) && keyEquals(entry.key, key))
+                return i;
+        }
+
+        return -1;
+    }
+
+    private void insert(TKey key, TValue value)
+    {
+        int hashCode = hash(key);
+        int bucket = hashCode % buckets.length;
+        for (int i = buckets[bucket]; i >= 0; i = entries[i].next)
+        {
+            if ((entries[i].hashCode == hashCode) && keyEquals(entries[i].key, key))
+                throw new IllegalArgumentException("An element with the same key already exists in the HashDictionary.");
+        }
+
+        int index;
+        if (freeCount > 0)
+        {
+            index = freeList;
+            freeList = entries[index].next;
+            freeCount--;
+        }
+        else
+        {
+            if (count == entries.length)
+            {
+                resize(HashTable.HashHelpers.expandPrime(count));
+                bucket = hashCode % buckets.length;
+            }
+            index = count;
+            count++;
+        }
+
+        Entry entry = entries[index];
+        if (entry == null)
+        {
+            entry = new Entry();
+            entries[index] = entry;
+        }
+        entry.hashCode = hashCode;
+        entry.next = buckets[bucket];
+        entry.key = key;
+        entry.value = value;
+        buckets[bucket] = index;
+        version++;
+    }
+
+    private void resize(int newSize)
+    {
+        int[] newBuckets = new int[newSize];
+        Arrays.fill(newBuckets, -1);
+        Entry[] newEntries = newEntries(newSize);
+        System.arraycopy(entries, 0, newEntries, 0, count);
+
+        // There is no free entry when resizing, so all of the first "count" entries are in use.
+        for (int i = 0; i < count; i++)
+        {
+            int bucket = newEntries[i].hashCode % newSize;
+            newEntries[i].next = newBuckets[bucket];
+            newBuckets[bucket] = i;
+        }
+
+        buckets = newBuckets;
+        entries = newEntries;
+    }
+
+    /**
+     * Removes the entry with the specified key, and optionally the specified value as well.
+     */
+    private boolean removeEntry(TKey key, boolean matchValue, TValue value)
+    {
+        validateKey(key);
 
+        int hashCode = hash(key);
+        int bucket = hashCode % buckets.length;
+        int last = -1;
+        for (int i = buckets[bucket]; i >= 0; last = i, i = entries[i].next)
+        {
+            Entry entry = entries[i];
+            if ((entry.hashCode != hashCode) || !keyEquals(entry.key, key))
+                continue;
+
+            if (matchValue && !Objects.equals(entry.value, value))
+                return false;
+
+            if (last < 0)
+                buckets[bucket] = entry.next;
+            else
+                entries[last].next = entry.next;
+
+            // Keep the entry object for reuse, but release the key and the value.
+            entry.hashCode = -1;
+            entry.next = freeList;
+            entry.key = null;
+            entry.value = null;
+            freeList = i;
+            freeCount++;
+            version++;
+            return true;
+        }
+
+        return false;
     }
 
     /**
@@ -72,7 +300,11 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public TValue get(TKey tKey)
     {
-        return null;
+        int i = findEntry(tKey);
+        if (i < 0)
+            throw new KeyNotFountException("The key \"" + tKey + "\" is not in the HashDictionary.");
+
+        return entries[i].value;
     }
 
     /**
@@ -86,7 +318,12 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public void set(TKey tKey, TValue tValue)
     {
+        int i = findEntry(tKey);
+        if (i < 0)
+            throw new KeyNotFountException("The key \"" + tKey + "\" is not in the HashDictionary.");
 
+        entries[i].value = tValue;
+        version++;
     }
 
     /**
@@ -97,7 +334,10 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public Iterable<TKey> keys()
     {
-        return null;
+        if (keys == null)
+            keys = new KeyCollection();
+
+        return keys;
     }
 
     /**
@@ -108,7 +348,10 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public Iterable<TValue> values()
     {
-        return null;
+        if (values == null)
+            values = new ValueCollection();
+
+        return values;
     }
 
     /**
@@ -122,7 +365,8 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public void add(TKey tKey, TValue tValue)
     {
-
+        validateKey(tKey);
+        insert(tKey, tValue);
     }
 
     /**
@@ -135,7 +379,10 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public void add(KeyValuePair<TKey, TValue> keyValuePair)
     {
+        if (keyValuePair == null)
+            throw new NullPointerException("Argument \"keyValuePair\" cannot be null.");
 
+        add(keyValuePair.getKey(), keyValuePair.getValue());
     }
 
     /**
@@ -149,7 +396,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public boolean containsKey(TKey tKey)
     {
-        return false;
+        return findEntry(tKey) >= 0;
     }
 
     /**
@@ -162,6 +409,12 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public boolean containsValue(TValue tValue)
     {
+        for (int i = 0; i < count; i++)
+        {
+            if ((entries[i].hashCode >= 0) && Objects.equals(entries[i].value, tValue))
+                return true;
+        }
+
         return false;
     }
 
@@ -177,7 +430,8 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public boolean containsKeyValue(TKey tKey, TValue tValue)
     {
-        return false;
+        int i = findEntry(tKey);
+        return (i >= 0) && Objects.equals(entries[i].value, tValue);
     }
 
     /**
@@ -192,7 +446,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public boolean removeByKey(TKey tKey)
     {
-        return false;
+        return removeEntry(tKey, false, null);
     }
 
     /**
@@ -201,7 +455,22 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public void clear()
     {
+        if (count == 0)
+            return;
 
+        Arrays.fill(buckets, -1);
+        for (int i = 0; i < count; i++)
+        {
+            Entry entry = entries[i];
+            entry.hashCode = -1;
+            entry.next = -1;
+            entry.key = null;
+            entry.value = null;
+        }
+        count = 0;
+        freeList = -1;
+        freeCount = 0;
+        version++;
     }
 
     /**
@@ -215,7 +484,10 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public boolean remove(KeyValuePair<TKey, TValue> value)
     {
-        return false;
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        return removeEntry(value.getKey(), true, value.getValue());
     }
 
     /**
@@ -226,7 +498,14 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public Iterator<KeyValuePair<TKey, TValue>> iterator()
     {
-        return null;
+        return new EntryIterator<KeyValuePair<TKey, TValue>>()
+        {
+            @Override
+            protected KeyValuePair<TKey, TValue> getItem(Entry entry)
+            {
+                return new KeyValuePair<>(entry.key, entry.value);
+            }
+        };
     }
 
     /**
@@ -237,7 +516,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public int count()
     {
-        return 0;
+        return count - freeCount;
     }
 
     /**
@@ -261,7 +540,10 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public boolean contains(KeyValuePair<TKey, TValue> value)
     {
-        return false;
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        return containsKeyValue(value.getKey(), value.getValue());
     }
 
     /**
@@ -277,7 +559,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public void copyTo(KeyValuePair<TKey, TValue>[] array)
     {
-
+        copyTo(array, 0);
     }
 
     /**
@@ -295,33 +577,113 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
     @Override
     public void copyTo(KeyValuePair<TKey, TValue>[] array, int startIndex)
     {
+        validateArray(array, startIndex);
+        for (int i = 0; i < count; i++)
+        {
+            if (entries[i].hashCode >= 0)
+                array[startIndex++] = new KeyValuePair<>(entries[i].key, entries[i].value);
+        }
+    }
 
+    private void validateKey(TKey key)
+    {
+        if (key == null)
+            throw new NullPointerException("Argument \"key\" cannot be null.");
     }
 
+    private void validateArray(Object[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+
+        if (array.length - startIndex < count())
+            throw new IllegalArgumentException("The number of elements in the source HashDictionary is greater than the " +
+                                                       "available space from startIndex to the end of the destination array.");
+    }
+
+    /**
+     * Iterates through the entries in use, in the order of their indices.
+     */
+    private abstract class EntryIterator<T> implements Iterator<T>
+    {
+        private final int version = HashDictionary.this.version;
+        private int index = nextIndex(0);
+
+        protected abstract T getItem(Entry entry);
+
+        private int nextIndex(int start)
+        {
+            while ((start < count) && (entries[start].hashCode < 0))
+                start++;
+
+            return start;
+        }
+
+        /**
+         * Returns {@code true} if the iteration has more elements.
+         * (In other words, returns {@code true} if {@link #next} would
+         * return an element rather than throwing an exception.)
+         *
+         * @return {@code true} if the iteration has more elements
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return index < count;
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         * @throws NoSuchElementException if the iteration has no more elements
+         */
+        @Override
+        public T next()
+        {
+            if (version != HashDictionary.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+            if (index >= count)
+                throw new NoSuchElementException();
+
+            T item = getItem(entries[index]);
+            index = nextIndex(index + 1);
+            return item;
+        }
+    }
+
+    /**
+     * The {@link KeyCollection} class is a read-only view of the keys in a {@link HashDictionary}, which reflects
+     * later changes to the dictionary.
+     */
     public final class KeyCollection implements ICollection<TKey>
     {
+        private KeyCollection()
+        {
+        }
 
         /**
-         * Removes all items from this {@link ICollection}.
+         * Always throws {@link UnsupportedOperationException} because this {@link ICollection} is read only.
          */
         @Override
         public void clear()
         {
-
+            throw new UnsupportedOperationException("Keys of a HashDictionary cannot be modified directly.");
         }
 
         /**
-         * Removes the first occurrence of a specific object from this {@link ICollection}.
+         * Always throws {@link UnsupportedOperationException} because this {@link ICollection} is read only.
          *
          * @param value The object to remove from this {@link ICollection}.
-         * @return <code>true</code> if item was successfully removed from the {@link ICollection}; otherwise,
-         * <code>false</code>. This method also returns <code>false</code> if item is not found in the original
-         * {@link ICollection}.
+         * @return Never returns.
          */
         @Override
         public boolean remove(TKey value)
         {
-            return false;
+            throw new UnsupportedOperationException("Keys of a HashDictionary cannot be modified directly.");
         }
 
         /**
@@ -332,7 +694,14 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public Iterator<TKey> iterator()
         {
-            return null;
+            return new EntryIterator<TKey>()
+            {
+                @Override
+                protected TKey getItem(Entry entry)
+                {
+                    return entry.key;
+                }
+            };
         }
 
         /**
@@ -343,7 +712,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public int count()
         {
-            return 0;
+            return HashDictionary.this.count();
         }
 
         /**
@@ -354,7 +723,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public boolean isReadOnly()
         {
-            return false;
+            return true;
         }
 
         /**
@@ -367,7 +736,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public boolean contains(TKey value)
         {
-            return false;
+            return containsKey(value);
         }
 
         /**
@@ -383,7 +752,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public void copyTo(TKey[] array)
         {
-
+            copyTo(array, 0);
         }
 
         /**
@@ -401,34 +770,44 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public void copyTo(TKey[] array, int startIndex)
         {
-
+            validateArray(array, startIndex);
+            for (int i = 0; i < count; i++)
+            {
+                if (entries[i].hashCode >= 0)
+                    array[startIndex++] = entries[i].key;
+            }
         }
     }
 
+    /**
+     * The {@link ValueCollection} class is a read-only view of the values in a {@link HashDictionary}, which reflects
+     * later changes to the dictionary.
+     */
     public final class ValueCollection implements ICollection<TValue>
     {
+        private ValueCollection()
+        {
+        }
 
         /**
-         * Removes all items from this {@link ICollection}.
+         * Always throws {@link UnsupportedOperationException} because this {@link ICollection} is read only.
          */
         @Override
         public void clear()
         {
-
+            throw new UnsupportedOperationException("Values of a HashDictionary cannot be modified directly.");
         }
 
         /**
-         * Removes the first occurrence of a specific object from this {@link ICollection}.
+         * Always throws {@link UnsupportedOperationException} because this {@link ICollection} is read only.
          *
          * @param value The object to remove from this {@link ICollection}.
-         * @return <code>true</code> if item was successfully removed from the {@link ICollection}; otherwise,
-         * <code>false</code>. This method also returns <code>false</code> if item is not found in the original
-         * {@link ICollection}.
+         * @return Never returns.
          */
         @Override
         public boolean remove(TValue value)
         {
-            return false;
+            throw new UnsupportedOperationException("Values of a HashDictionary cannot be modified directly.");
         }
 
         /**
@@ -439,7 +818,14 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public Iterator<TValue> iterator()
         {
-            return null;
+            return new EntryIterator<TValue>()
+            {
+                @Override
+                protected TValue getItem(Entry entry)
+                {
+                    return entry.value;
+                }
+            };
         }
 
         /**
@@ -450,7 +836,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public int count()
         {
-            return 0;
+            return HashDictionary.this.count();
         }
 
         /**
@@ -461,7 +847,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public boolean isReadOnly()
         {
-            return false;
+            return true;
         }
 
         /**
@@ -474,7 +860,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public boolean contains(TValue value)
         {
-            return false;
+            return containsValue(value);
         }
 
         /**
@@ -490,7 +876,7 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public void copyTo(TValue[] array)
         {
-
+            copyTo(array, 0);
         }
 
         /**
@@ -508,7 +894,12 @@ public class HashDictionary<TKey, TValue> implements IDictionary<TKey, TValue>,
         @Override
         public void copyTo(TValue[] array, int startIndex)
         {
-
+            validateArray(array, startIndex);
+            for (int i = 0; i < count; i++)
+            {
+                if (entries[i].hashCode >= 0)
+                    array[startIndex++] = entries[i].value;
+            }
         }
     }
 }
@@ -1,5 +1,819 @@
 package dataworks.collections;
 
-public class HashSet
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.IEqualityComparer;
+import dataworks.InvalidOperationException;
+import dataworks.OutInt;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@link HashSet} class represents a set of values, which is based on a hash table with separate chaining.
+ * <p>
+ * Elements are kept in parallel arrays of hash codes, links and values, so there is no node object per element. The
+ * chain of a bucket is linked by indices, and the slots of removed elements are reused by later additions. Null is
+ * allowed as an element.
+ * <p>
+ * All the set operations take time linear in the sizes of the sets. When the other collection is a {@link HashSet}
+ * with the same comparer, its lookups are used directly and the smaller of the two sets is iterated where possible.
+ *
+ * @param <T> Specifies the element type of the set.
+ */
+public class HashSet<T> implements ISet<T>, Serializable
 {
+    private int[] buckets;
+    private int[] hashCodes;
+    private int[] nexts;
+    private T[] slots;
+
+    /**
+     * Number of slots that have ever been used, including the free ones in {@code freeList}.
+     */
+    private int lastIndex;
+    private int count;
+    private int freeList;
+    private int version;
+    private IEqualityComparer comparer;
+
+    /**
+     * Initializes a new instance of the {@link HashSet} class that is empty and uses the default equality comparer.
+     */
+    public HashSet()
+    {
+        this(0, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link HashSet} class that is empty and can hold the specified number of
+     * elements without resizing.
+     *
+     * @param capacity The initial capacity of the {@link HashSet}.
+     * @throws ArgumentOutOfRangeException The specified capacity is less than 0.
+     */
+    public HashSet(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link HashSet} class that is empty and uses the specified equality comparer.
+     *
+     * @param comparer The comparer to use when comparing elements, or null to use {@link Object#equals(Object)} and
+     *                 {@link Object#hashCode()}.
+     */
+    public HashSet(IEqualityComparer comparer)
+    {
+        this(0, comparer);
+    }
+
+    /**
+     * Initializes a new instance of the {@link HashSet} class that is empty, can hold the specified number of elements
+     * without resizing, and uses the specified equality comparer.
+     *
+     * @param capacity The initial capacity of the {@link HashSet}.
+     * @param comparer The comparer to use when comparing elements, or null to use {@link Object#equals(Object)} and
+     *                 {@link Object#hashCode()}.
+     * @throws ArgumentOutOfRangeException The specified capacity is less than 0.
+     */
+    public HashSet(int capacity, IEqualityComparer comparer)
+    {
+        if (capacity < 0)
+            throw new ArgumentOutOfRangeException("Capacity of a HashSet must be a non-negative integer.");
+
+        this.comparer = comparer;
+        initialize(capacity);
+    }
+
+    /**
+     * Initializes a new instance of the {@link HashSet} class that contains the distinct elements of the specified
+     * collection.
+     *
+     * @param collection The elements to add to the new set.
+     * @throws NullPointerException The specified collection is null.
+     */
+    public HashSet(Iterable<T> collection)
+    {
+        this(collection, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link HashSet} class that uses the specified equality comparer, and contains
+     * the distinct elements of the specified collection.
+     *
+     * @param collection The elements to add to the new set.
+     * @param comparer   The comparer to use when comparing elements, or null to use {@link Object#equals(Object)} and
+     *                   {@link Object#hashCode()}.
+     * @throws NullPointerException The specified collection is null.
+     */
+    public HashSet(Iterable<T> collection, IEqualityComparer comparer)
+    {
+        this(collection instanceof ICollection ? ((ICollection<T>) collection).count() : 0, comparer);
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        unionWith(collection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void initialize(int capacity)
+    {
+        int size = HashTable.HashHelpers.getPrime(Math.max(capacity, HashTable.HashHelpers.getMinPrime()));
+        buckets = new int[size];
+        Arrays.fill(buckets, -1);
+        hashCodes = new int[size];
+        nexts = new int[size];
+        slots = (T[]) new Object[size];
+        lastIndex = 0;
+        count = 0;
+        freeList = -1;
+    }
+
+    /**
+     * Gets the {@link IEqualityComparer} that is used to compare elements of this {@link HashSet}.
+     *
+     * @return The comparer of elements, or null if the default equality is used.
+     */
+    public IEqualityComparer getComparer()
+    {
+        return comparer;
+    }
+
+    private int hash(T item)
+    {
+        if (item == null)
+            return 0;
+
+        int hashCode = comparer != null ? comparer.getHashCode(item) : item.hashCode();
+
+        // Spread higher bits to lower ones, since the bucket is chosen by the remainder of a prime.
+        return (hashCode ^ (hashCode >>> 16)) & 0x7FFFFFFF;
+    }
+
+    private boolean itemEquals(T x, T y)
+    {
+        if (x == y)
+            return true;
+        if ((x == null) || (y == null))
+            return false;
+
+        return comparer != null ? comparer.equals(x, y) : x.equals(y);
+    }
+
+    /**
+     * Returns the slot that contains the specified element, or -1 if it's not in this {@link HashSet}.
+     */
+    private int findSlot(T item)
+    {
+        int hashCode = hash(item);
+        for (int i = buckets[hashCode % buckets.length]; i >= 0; i = nexts[i])
+        {
+            if ((hashCodes[i] == hashCode) && itemEquals(slots[i], item))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns {@code true} if the other set decides equality in the same way as this one, so that its lookups can be
+     * used instead of iterating over it.
+     */
+    private boolean hasSameComparer(Iterable<T> other)
+    {
+        return (other instanceof HashSet) && (((HashSet<T>) other).comparer == comparer);
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the collection is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the collection is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Adds an element to the current set and returns a value to indicate if the element was successfully added.
+     *
+     * @param item The element to add to the set.
+     * @return {@code true} if the element is added to the set; {@code false} if the element is already in the set.
+     */
+    @Override
+    public boolean add(T item)
+    {
+        int hashCode = hash(item);
+        int bucket = hashCode % buckets.length;
+        for (int i = buckets[bucket]; i >= 0; i = nexts[i])
+        {
+            if ((hashCodes[i] == hashCode) && itemEquals(slots[i], item))
+                return false;
+        }
+
+        int index;
+        if (freeList >= 0)
+        {
+            index = freeList;
+            freeList = nexts[index];
+        }
+        else
+        {
+            if (lastIndex == slots.length)
+            {
+                resize(HashTable.HashHelpers.expandPrime(count));
+                bucket = hashCode % buckets.length;
+            }
+            index = lastIndex;
+            lastIndex++;
+        }
+
+        hashCodes[index] = hashCode;
+        slots[index] = item;
+        nexts[index] = buckets[bucket];
+        buckets[bucket] = index;
+        count++;
+        version++;
+        return true;
+    }
+
+    private void resize(int newSize)
+    {
+        int[] newBuckets = new int[newSize];
+        Arrays.fill(newBuckets, -1);
+        hashCodes = Arrays.copyOf(hashCodes, newSize);
+        nexts = Arrays.copyOf(nexts, newSize);
+        slots = Arrays.copyOf(slots, newSize);
+
+        // There is no free slot when resizing, so all of the first "lastIndex" slots are in use.
+        for (int i = 0; i < lastIndex; i++)
+        {
+            int bucket = hashCodes[i] % newSize;
+            nexts[i] = newBuckets[bucket];
+            newBuckets[bucket] = i;
+        }
+
+        buckets = newBuckets;
+    }
+
+    /**
+     * Removes the first occurrence of a specific object from this {@link ICollection}.
+     *
+     * @param value The object to remove from this {@link ICollection}.
+     * @return <code>true</code> if item was successfully removed from the {@link ICollection}; otherwise,
+     * <code>false</code>. This method also returns <code>false</code> if item is not found in the original
+     * {@link ICollection}.
+     */
+    @Override
+    public boolean remove(T value)
+    {
+        int hashCode = hash(value);
+        int bucket = hashCode % buckets.length;
+        int last = -1;
+        for (int i = buckets[bucket]; i >= 0; last = i, i = nexts[i])
+        {
+            if ((hashCodes[i] == hashCode) && itemEquals(slots[i], value))
+            {
+                if (last < 0)
+                    buckets[bucket] = nexts[i];
+                else
+                    nexts[last] = nexts[i];
+
+                freeSlot(i);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void freeSlot(int i)
+    {
+        hashCodes[i] = -1;
+        slots[i] = null;
+        nexts[i] = freeList;
+        freeList = i;
+        count--;
+        version++;
+
+        // Start over with the compact part of the arrays when the set becomes empty.
+        if (count == 0)
+        {
+            Arrays.fill(buckets, -1);
+            lastIndex = 0;
+            freeList = -1;
+        }
+    }
+
+    /**
+     * Removes the element in the specified slot, whose chain is searched by its hash code.
+     */
+    private void removeSlot(int slot)
+    {
+        int bucket = hashCodes[slot] % buckets.length;
+        int last = -1;
+        for (int i = buckets[bucket]; i != slot; last = i, i = nexts[i])
+            ;
+
+        if (last < 0)
+            buckets[bucket] = nexts[slot];
+        else
+            nexts[last] = nexts[slot];
+
+        freeSlot(slot);
+    }
+
+    /**
+     * Removes all items from this {@link ICollection}.
+     */
+    @Override
+    public void clear()
+    {
+        if (lastIndex > 0)
+        {
+            Arrays.fill(buckets, -1);
+            Arrays.fill(slots, 0, lastIndex, null);
+            lastIndex = 0;
+            count = 0;
+            freeList = -1;
+        }
+
+        version++;
+    }
+
+    /**
+     * Determines whether this {@link ICollection} contains a specific value.
+     *
+     * @param value The value to locate in this {@link ICollection}.
+     * @return <code>true</code> if the specified value is found in this {@link ICollection}; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean contains(T value)
+    {
+        return findSlot(value) >= 0;
+    }
+
+    /**
+     * Modifies the current set so that it contains all elements that are present in the current set, in the specified
+     * collection, or in both.
+     *
+     * @param other The collection of items to remove from the set.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public void unionWith(Iterable<T> other)
+    {
+        validateOther(other);
+        for (T item : other)
+            add(item);
+    }
+
+    /**
+     * Modifies the current set so that it contains only elements that are also in a specified collection.
+     *
+     * @param other The collection to compare to the current set.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public void intersectWith(Iterable<T> other)
+    {
+        validateOther(other);
+        if ((count == 0) || (other == this))
+            return;
+
+        if ((other instanceof ICollection) && (((ICollection<T>) other).count() == 0))
+        {
+            clear();
+            return;
+        }
+
+        if (hasSameComparer(other))
+        {
+            HashSet<T> otherSet = (HashSet<T>) other;
+            if (otherSet.count < count)
+            {
+                // Build the intersection from the smaller set, then take its storage.
+                HashSet<T> intersection = new HashSet<>(otherSet.count, comparer);
+                for (T item : otherSet)
+                {
+                    if (contains(item))
+                        intersection.add(item);
+                }
+                takeStorage(intersection);
+            }
+            else
+            {
+                for (int i = 0; i < lastIndex; i++)
+                {
+                    if ((hashCodes[i] >= 0) && !otherSet.contains(slots[i]))
+                        removeSlot(i);
+                }
+            }
+            return;
+        }
+
+        // Mark the slots found in the other collection, then remove the rest.
+        long[] marks = new long[(lastIndex + 63) >>> 6];
+        for (T item : other)
+        {
+            int i = findSlot(item);
+            if (i >= 0)
+                marks[i >>> 6] |= 1L << i;
+        }
+
+        for (int i = 0; i < lastIndex; i++)
+        {
+            if ((hashCodes[i] >= 0) && ((marks[i >>> 6] & (1L << i)) == 0))
+                removeSlot(i);
+        }
+    }
+
+    private void takeStorage(HashSet<T> set)
+    {
+        buckets = set.buckets;
+        hashCodes = set.hashCodes;
+        nexts = set.nexts;
+        slots = set.slots;
+        lastIndex = set.lastIndex;
+        count = set.count;
+        freeList = set.freeList;
+        version++;
+    }
+
+    /**
+     * Removes all elements in the specified collection from the current set.
+     *
+     * @param other The collection of items to remove from the set.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public void exceptWith(Iterable<T> other)
+    {
+        validateOther(other);
+        if (count == 0)
+            return;
+
+        if (other == this)
+        {
+            clear();
+            return;
+        }
+
+        if (hasSameComparer(other) && (count < ((HashSet<T>) other).count))
+        {
+            HashSet<T> otherSet = (HashSet<T>) other;
+            for (int i = 0; i < lastIndex; i++)
+            {
+                if ((hashCodes[i] >= 0) && otherSet.contains(slots[i]))
+                    removeSlot(i);
+            }
+            return;
+        }
+
+        for (T item : other)
+            remove(item);
+    }
+
+    /**
+     * Modifies the current set so that it contains only elements that are present either in the current set or in the
+     * specified collection, but not both.
+     *
+     * @param other The collection to compare to the current set.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public void symmetricExceptWith(Iterable<T> other)
+    {
+        validateOther(other);
+        if (other == this)
+        {
+            clear();
+            return;
+        }
+
+        // Elements of the other collection must be distinct, otherwise a duplicate would be added back after removal.
+        HashSet<T> otherSet = hasSameComparer(other) ? (HashSet<T>) other : new HashSet<>(other, comparer);
+        for (T item : otherSet)
+        {
+            if (!remove(item))
+                add(item);
+        }
+    }
+
+    /**
+     * Determines whether a set is a subset of a specified collection.
+     *
+     * @param other The collection to compare to the current set.
+     * @return {@code true} if the current set is a proper subset of other; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public boolean isSubsetOf(Iterable<T> other)
+    {
+        validateOther(other);
+        if (count == 0)
+            return true;
+
+        if (hasSameComparer(other))
+        {
+            HashSet<T> otherSet = (HashSet<T>) other;
+            return (count <= otherSet.count) && isSubsetOfHashSet(otherSet);
+        }
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, false, uniqueCount, unfoundCount);
+        return uniqueCount.getValue() == count;
+    }
+
+    /**
+     * Determines whether the current set is a proper (strict) subset of a specified collection.
+     *
+     * @param other The collection to compare to the current set.
+     * @return {@code true} if the current set is a proper subset of other; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public boolean isProperSubsetOf(Iterable<T> other)
+    {
+        validateOther(other);
+        if (other instanceof ICollection)
+        {
+            int otherCount = ((ICollection<T>) other).count();
+            if (count == 0)
+                return otherCount > 0;
+            if (hasSameComparer(other))
+                return (count < otherCount) && isSubsetOfHashSet((HashSet<T>) other);
+        }
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, false, uniqueCount, unfoundCount);
+        return (uniqueCount.getValue() == count) && (unfoundCount.getValue() > 0);
+    }
+
+    private boolean isSubsetOfHashSet(HashSet<T> other)
+    {
+        for (int i = 0; i < lastIndex; i++)
+        {
+            if ((hashCodes[i] >= 0) && !other.contains(slots[i]))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines whether a set is a superset of a specified collection.
+     *
+     * @param other The collection to compare to the current set.
+     * @return {@code true} if the current set is a proper superset of other; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public boolean isSupersetOf(Iterable<T> other)
+    {
+        validateOther(other);
+        if (hasSameComparer(other) && (((HashSet<T>) other).count > count))
+            return false;
+
+        return containsAll(other);
+    }
+
+    /**
+     * Determines whether the current set is a proper (strict) superset of a specified collection.
+     *
+     * @param other The collection to compare to the current set.
+     * @return {@code true} if the current set is a proper superset of other; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public boolean isProperSupersetOf(Iterable<T> other)
+    {
+        validateOther(other);
+        if (count == 0)
+            return false;
+
+        if (other instanceof ICollection)
+        {
+            int otherCount = ((ICollection<T>) other).count();
+            if (otherCount == 0)
+                return true;
+            if (hasSameComparer(other))
+                return (otherCount < count) && containsAll(other);
+        }
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, true, uniqueCount, unfoundCount);
+        return (unfoundCount.getValue() == 0) && (uniqueCount.getValue() < count);
+    }
+
+    /**
+     * Determines whether the current set overlaps with the specified collection.
+     *
+     * @param other The collection to compare to the current set.
+     * @return {@code true} if the current set and other share at least one common element; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public boolean overlaps(Iterable<T> other)
+    {
+        validateOther(other);
+        if (count == 0)
+            return false;
+
+        if (hasSameComparer(other) && (count < ((HashSet<T>) other).count))
+        {
+            HashSet<T> otherSet = (HashSet<T>) other;
+            for (int i = 0; i < lastIndex; i++)
+            {
+                if ((hashCodes[i] >= 0) && otherSet.contains(slots[i]))
+                    return true;
+            }
+            return false;
+        }
+
+        for (T item : other)
+        {
+            if (contains(item))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether the current set and the specified collection contain the same elements.
+     *
+     * @param other The collection to compare to the current set.
+     * @return {@code true} if the current set is equal to other; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    @Override
+    public boolean setEquals(Iterable<T> other)
+    {
+        validateOther(other);
+        if (hasSameComparer(other))
+            return (count == ((HashSet<T>) other).count) && containsAll(other);
+
+        if ((count == 0) && (other instanceof ICollection) && (((ICollection<T>) other).count() > 0))
+            return false;
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, true, uniqueCount, unfoundCount);
+        return (unfoundCount.getValue() == 0) && (uniqueCount.getValue() == count);
+    }
+
+    private boolean containsAll(Iterable<T> other)
+    {
+        for (T item : other)
+        {
+            if (!contains(item))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Counts the distinct elements of this set that are in the other collection, and the elements of the other
+     * collection that are not in this set. Distinct elements are counted by marking their slots in a bit array.
+     *
+     * @param returnIfUnfound Stop at the first element that is not found, since the caller only needs to know if there
+     *                        is one.
+     */
+    private void countUniqueAndUnfound(Iterable<T> other, boolean returnIfUnfound, OutInt uniqueCount, OutInt unfoundCount)
+    {
+        if (count == 0)
+        {
+            for (T ignored : other)
+            {
+                unfoundCount.addOne();
+                break;
+            }
+            return;
+        }
+
+        long[] marks = new long[(lastIndex + 63) >>> 6];
+        for (T item : other)
+        {
+            int i = findSlot(item);
+            if (i < 0)
+            {
+                unfoundCount.addOne();
+                if (returnIfUnfound)
+                    return;
+            }
+            else if ((marks[i >>> 6] & (1L << i)) == 0)
+            {
+                marks[i >>> 6] |= 1L << i;
+                uniqueCount.addOne();
+            }
+        }
+    }
+
+    private static void validateOther(Iterable<?> other)
+    {
+        if (other == null)
+            throw new NullPointerException("Argument \"other\" cannot be null.");
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}. The array must have zero-based indexing.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is greater than or equal to the length of the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from 0 to the end of the destination array, i.e. the capacity of the given array.
+     */
+    @Override
+    public void copyTo(T[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}. The array must have zero-based indexing.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException Array index is less than 0 or greater than or equal to the length of
+     *                                        the array.
+     * @throws IllegalArgumentException       The number of elements in the source {@link ICollection} is greater than the
+     *                                        available space from <code>startIndex</code> to the end of the destination array.
+     */
+    @Override
+    public void copyTo(T[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+        if (array.length - startIndex < count)
+            throw new IllegalArgumentException("The number of elements in the source HashSet is greater than the " +
+                                                       "available space from startIndex to the end of the destination array.");
+
+        for (int i = 0; i < lastIndex; i++)
+        {
+            if (hashCodes[i] >= 0)
+                array[startIndex++] = slots[i];
+        }
+    }
+
+    /**
+     * Returns an iterator over elements of type {@code T}.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private final int version = HashSet.this.version;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (version != HashSet.this.version)
+                    throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+
+                while ((index < lastIndex) && (hashCodes[index] < 0))
+                    index++;
+
+                return index < lastIndex;
+            }
+
+            @Override
+            public T next()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return slots[index++];
+            }
+        };
+    }
 }
@@ -2,12 +2,16 @@ package dataworks.collections;
 
 import dataworks.ArgumentOutOfRangeException;
 import dataworks.IEqualityComparer;
+import dataworks.InvalidOperationException;
 import dataworks.OutInt;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
+import java.lang.invoke.VarHandle;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * The {@link HashTable} class represents a dictionary of associated keys and values with constant lookup time.
@@ -34,6 +38,11 @@ import java.util.Iterator;
  * Each object provides their own hash function, accessed by calling {@link Object#hashCode()}. However, one can write
  * their own object implementing {@link IEqualityComparer} and pass it to a constructor on the hash table. That hash
  * function (and the equals() method on the {@link IEqualityComparer} would be used for all objects in the hash table).
+ * <p>
+ * A hash table supports one writer and any number of concurrent readers without locking: {@link #get(Object)} and
+ * {@link #containsKey(Object)} may run on many threads while a single thread adds, sets or removes entries. Readers
+ * never block the writer; they only retry reading a bucket that the writer is modifying at the same time. Multiple
+ * writers must be synchronized externally, and iterating through a hash table is not thread safe.
  */
 public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Serializable
 {
@@ -86,6 +95,11 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     */
 
     static final int HASH_PRIME = 101;
+
+    /**
+     * Returned by lookup() if the key is not found, since null is a valid value.
+     */
+    private static final Object NOT_FOUND = new Object();
     private static final int INITIAL_SIZE = 3;
     private static final String LOAD_FACTOR_NAME = "LoadFactor";
     private static final String VERSION_NAME = "Version";
@@ -96,7 +110,8 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     private static final String VALUES_NAME = "Values";
     private static final String KEY_COMPARATOR_NAME = "KeyComparator";
 
-    // Deleted entries have their key set to buckets.
+    // Deleted entries have their key set to buckets. Such an entry is a tombstone: lookups keep probing past it, since
+    // its collision bit may still be set, while insertions can reuse it.
 
     // The hash table data.
 
@@ -111,7 +126,11 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         public int hashCollision;
     }
 
-    private Bucket[] buckets;
+    /**
+     * Current bucket array. It is volatile so that a rehash publishes the fully populated new array to readers in a
+     * single write.
+     */
+    private volatile Bucket[] buckets;
 
     /**
      * The total number of entries in the hash table.
@@ -197,11 +216,11 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     {
         if (capacity < 0)
             throw new ArgumentOutOfRangeException("The parameter \"capacity\" must be greater than or equal to 0.");
-        if (!(loadFactor >= 0.1f && loadFactor <= 1.0f))
+        if (!(loadFactor >= 0.1 && loadFactor <= 1.0))
             throw new ArgumentOutOfRangeException("The parameter \"loadFactor\" must between [0.1, 1.0].");
 
         // Based on performance work, 0.72 is the optimal load factor for this table.
-        this.loadFactor = 0.72f * loadFactor;
+        this.loadFactor = 0.72 * loadFactor;
 
         double rawSize = capacity / this.loadFactor;
 
@@ -209,7 +228,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
             throw new IllegalArgumentException("Capacity overflow.");
 
         int hashSize = (rawSize > INITIAL_SIZE) ? HashHelpers.getPrime((int) rawSize) : INITIAL_SIZE;
-        buckets = (Bucket[]) new Object[hashSize];
+        buckets = newBuckets(hashSize);
 
         loadSize = (int) (this.loadFactor * hashSize);
         isWriterInProgress = false;
@@ -315,21 +334,39 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         // correctly. This guarantees you will visit every bucket in the table exactly once within hashSize iterations.
         // Violate this and it will cause obscure bugs forever. If you change this calculation for h2(key), update
         // putEntry() too!
-        increment.setValue(1 + ((seed.getValue() * HASH_PRIME) % (hashSize - 1)));
+        increment.setValue(getIncrement(hashCode, hashSize));
         return hashCode;
     }
 
+    /**
+     * Computes h2(key, hashSize) from h1(key). The product is computed in long, so that it never overflows to a
+     * negative increment.
+     */
+    private static int getIncrement(int seed, int hashSize)
+    {
+        return (int) (1 + (((long) seed * HASH_PRIME) % (hashSize - 1)));
+    }
+
+    private Bucket[] newBuckets(int size)
+    {
+        Bucket[] newBuckets = new Bucket[size];
+        for (int i = 0; i < size; i++)
+            newBuckets[i] = new Bucket();
+
+        return newBuckets;
+    }
+
     private void putEntry(Bucket[] newBuckets, Object key, Object newValue, int hashCode)
     {
         // Make sure collision bit (sign bit) wasn't set.
         assert hashCode >= 0;
 
         int seed = hashCode;
-        int increment = (1 + ((seed % HASH_PRIME) % (newBuckets.length - 1)));
+        int increment = getIncrement(seed, newBuckets.length);
         int bucketNumber = seed % newBuckets.length;
         for (; ; )
         {
-            // TODO: Figure out why Bucket.key can be a buckets.
+            // Tombstones are never copied to a new bucket array, but the check keeps this method valid for the current one.
             if ((newBuckets[bucketNumber].key == null) || (newBuckets[bucketNumber].key == buckets))
             {
                 newBuckets[bucketNumber].value = newValue;
@@ -356,7 +393,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         // Don't replace any internal state until we have finished adding to the new Bucket[]. This serves 2 purposes:
         //   1) Allow concurrent readers to see valid hash table contents at all times.
         //   2) Protect against an VMOutOfMemoryException while allocating this new Bucket[].
-        Bucket[] newBuckets = (Bucket[]) new Object[newSize];
+        Bucket[] newBuckets = newBuckets(newSize);
 
         // Rehash table into new buckets.
         int nb;
@@ -369,6 +406,24 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
                 putEntry(newBuckets, oldBucket.key, oldBucket.value, hashCode);
             }
         }
+
+        // New bucket[] is good to go - replace buckets and other internal state.
+        beginWrite();
+        buckets = newBuckets;
+        loadSize = (int) (loadFactor * newSize);
+        endWrite();
+
+        // Minimum size of bucket[] is 3 and the load factor is at most 0.72, so loadSize is always less than newSize.
+        assert loadSize < newSize;
+    }
+
+    /**
+     * Rehashes the table into a bucket array of the same size, which drops all tombstones and clears collision bits
+     * that are no longer needed.
+     */
+    private void rehash()
+    {
+        rehash(buckets.length, false);
     }
 
     private void expand()
@@ -390,8 +445,113 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         if (key == null)
             throw new NullPointerException("The argument \"key\" cannot be null.");
 
-        if (count > loadSize)
+        if (count >= loadSize)
             expand();
+        else if ((occupancy > loadSize) && (count > 100))
+            rehash();
+
+        OutInt seed = new OutInt(0);
+        OutInt increment = new OutInt(0);
+
+        // Assume we only have one thread writing concurrently. Modify buckets to contain new data, as long as we insert
+        // in the right order.
+        int hashCode = initHash(key, buckets.length, seed, increment);
+        int ntry = 0;
+
+        // We use the empty slot number to cache the first tombstone with the collision bit set. We chose to reuse
+        // slots with the collision bit set over those without, since the former ones are on the probe sequence of
+        // other keys anyway, and reusing them keeps those sequences short.
+        int emptySlotNumber = -1;
+        int bucketNumber = seed.getValue() % buckets.length;
+        do
+        {
+            Bucket b = buckets[bucketNumber];
+
+            // Set emptySlotNumber to the current bucket if it is the first available bucket that we have seen that
+            // once contained an entry and also has had a collision. We need to search this entire collision chain
+            // because we have to ensure that there are no duplicate entries in the table.
+            if ((emptySlotNumber == -1) && (b.key == buckets) && (b.hashCollision < 0))
+                emptySlotNumber = bucketNumber;
+
+            // Insert the key-value pair into the first free bucket: either a bucket that has never been used, or a
+            // tombstone without the collision bit, which is the end of this probe sequence.
+            if ((b.key == null) || ((b.key == buckets) && (b.hashCollision >= 0)))
+            {
+                // If we have found an available bucket that has had a collision, we'd prefer to use that.
+                if (emptySlotNumber != -1)
+                    bucketNumber = emptySlotNumber;
+
+                putNewEntry(buckets[bucketNumber], key, value, hashCode);
+                return;
+            }
+
+            // The current bucket is in use or it is available and has had the collision bit set, so the key may
+            // already be in the table.
+            if (((b.hashCollision & 0x7FFFFFFF) == hashCode) && keyEquals(b.key, key))
+            {
+                if (add)
+                    throw new IllegalArgumentException("An item with the same key has already been added: " + key);
+
+                beginWrite();
+                b.value = value;
+                endWrite();
+                return;
+            }
+
+            // The current bucket is full, and we have therefore collided. We need to set the collision bit unless we
+            // have remembered an available slot previously.
+            if ((emptySlotNumber == -1) && (b.hashCollision >= 0))
+            {
+                b.hashCollision |= 0x80000000;
+                occupancy++;
+            }
+
+            bucketNumber = (int) (((long) bucketNumber + increment.getValue()) % buckets.length);
+        }
+        while (++ntry < buckets.length);
+
+        // This code is here if and only if there were no buckets without a collision bit that were empty. This can
+        // occur if the table is full of tombstones that all have their collision bits set.
+        if (emptySlotNumber != -1)
+        {
+            putNewEntry(buckets[emptySlotNumber], key, value, hashCode);
+            return;
+        }
+
+        // If you see this assert, make sure load factor & count are reasonable. Then verify that our double hash
+        // function (h2, described at top of file) meets the requirements described above. You should never see this
+        // assert.
+        throw new InvalidOperationException("Failed to insert the key into the HashTable, because it is full.");
+    }
+
+    /**
+     * Marks the start of a modification of buckets. The fence keeps the following writes from becoming visible before
+     * the flag, so that a reader that sees any of them also sees the flag or the new version.
+     */
+    private void beginWrite()
+    {
+        isWriterInProgress = true;
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * Marks the end of a modification of buckets. All writes made since {@link #beginWrite()} are visible to a reader
+     * that sees the new version.
+     */
+    private void endWrite()
+    {
+        version++;
+        isWriterInProgress = false;
+    }
+
+    private void putNewEntry(Bucket b, Object key, Object value, int hashCode)
+    {
+        beginWrite();
+        b.value = value;
+        b.key = key;
+        b.hashCollision |= hashCode;
+        count++;
+        endWrite();
     }
 
     /**
@@ -406,11 +566,182 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         insert(key, value, true);
     }
 
+    /**
+     * Sets the value associated with the given key. If an entry with the given key is not found, a new entry is added.
+     *
+     * @param key
+     * @param value
+     */
     public void set(Object key, Object value)
     {
         insert(key, value, false);
     }
 
+    /**
+     * Returns the value associated with the given key. If an entry with the given key is not found, the returned value
+     * is null.
+     *
+     * @param key
+     * @return
+     */
+    public Object get(Object key)
+    {
+        Object value = lookup(key);
+        return value != NOT_FOUND ? value : null;
+    }
+
+    /**
+     * Returns the value associated with the given key, or {@link #NOT_FOUND} if the key is not found. This method
+     * takes no lock, and is safe to call while another thread is modifying this {@link HashTable}.
+     * <p>
+     * Fields of every bucket are read between 2 reads of {@link #version}, and read again if the writer was in
+     * progress or the version has changed meanwhile, thus the key, the value and the hash code always come from the
+     * same entry. The bucket array is read once, so a concurrent rehash does not affect this lookup.
+     */
+    private Object lookup(Object key)
+    {
+        if (key == null)
+            throw new NullPointerException("Argument \"key\" cannot be null.");
+
+        Bucket[] bucketsCopy = buckets;
+        int hashCode = getHash(key) & 0x7FFFFFFF;
+        int increment = getIncrement(hashCode, bucketsCopy.length);
+        int ntry = 0;
+
+        int bucketNumber = hashCode % bucketsCopy.length;
+        int hashCollision;
+        do
+        {
+            Bucket b = bucketsCopy[bucketNumber];
+            Object bucketKey;
+            Object bucketValue;
+            for (; ; )
+            {
+                int currentVersion = version;
+                bucketKey = b.key;
+                bucketValue = b.value;
+                hashCollision = b.hashCollision;
+
+                // Keep the reads above from being reordered after the following validation.
+                VarHandle.acquireFence();
+                if (!isWriterInProgress && (currentVersion == version))
+                    break;
+
+                Thread.onSpinWait();
+            }
+
+            if (bucketKey == null)
+                return NOT_FOUND;
+            if (((hashCollision & 0x7FFFFFFF) == hashCode) && keyEquals(bucketKey, key))
+                return bucketValue;
+            bucketNumber = (int) (((long) bucketNumber + increment) % bucketsCopy.length);
+        }
+        while ((hashCollision < 0) && (++ntry < bucketsCopy.length));
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the index of the bucket in the given bucket array that contains the given key, or -1 if the key is not
+     * found. This method is only used by the writer, which never sees buckets that are partially updated. Probing
+     * stops at a bucket that has never been used, or at a bucket without the collision bit, since no insertion has
+     * probed beyond it.
+     */
+    private int findBucket(Bucket[] bucketsCopy, Object key)
+    {
+        if (key == null)
+            throw new NullPointerException("Argument \"key\" cannot be null.");
+
+        OutInt seed = new OutInt(0);
+        OutInt increment = new OutInt(0);
+        int hashCode = initHash(key, bucketsCopy.length, seed, increment);
+        int ntry = 0;
+
+        Bucket b;
+        int bucketNumber = seed.getValue() % bucketsCopy.length;
+        do
+        {
+            b = bucketsCopy[bucketNumber];
+            if (b.key == null)
+                return -1;
+            if (((b.hashCollision & 0x7FFFFFFF) == hashCode) && keyEquals(b.key, key))
+                return bucketNumber;
+            bucketNumber = (int) (((long) bucketNumber + increment.getValue()) % bucketsCopy.length);
+        }
+        while ((b.hashCollision < 0) && (++ntry < bucketsCopy.length));
+
+        return -1;
+    }
+
+    /**
+     * Removes an entry from this {@link HashTable}. If the {@link HashTable} does not contain an entry with the given
+     * key, this method does nothing.
+     * <p>
+     * The bucket of the entry becomes a tombstone if its collision bit is set, because other keys may have probed
+     * through it; otherwise nothing probes beyond it, so it becomes a bucket that has never been used.
+     *
+     * @param key
+     * @return <code>true</code> if the entry is removed; otherwise, <code>false</code>.
+     */
+    public boolean removeByKey(Object key)
+    {
+        // Race condition detected in usages of Hashtable - multiple threads appear to be writing to a Hashtable
+        // instance simultaneously!  Don't do that - use Hashtable.Synchronized.
+        assert !isWriterInProgress;
+
+        int bucketNumber = findBucket(buckets, key);
+        if (bucketNumber < 0)
+            return false;
+
+        removeBucket(buckets[bucketNumber]);
+        return true;
+    }
+
+    private void removeBucket(Bucket b)
+    {
+        beginWrite();
+
+        // Clear the hash code but keep the collision bit.
+        b.hashCollision &= 0x80000000;
+        b.key = b.hashCollision != 0 ? buckets : null;
+        b.value = null;
+        count--;
+        endWrite();
+    }
+
+    /**
+     * Gets the average number of buckets visited by successful lookups of all the keys in this {@link HashTable}. A
+     * lookup that finds its key at the first bucket has a probe length of 1.
+     *
+     * @return The average probe length, or 0 if this {@link HashTable} is empty.
+     */
+    public double getAverageProbeLength()
+    {
+        Bucket[] bucketsCopy = buckets;
+        long totalProbes = 0;
+        int keyCount = 0;
+        for (Bucket bucket : bucketsCopy)
+        {
+            if ((bucket.key == null) || (bucket.key == bucketsCopy))
+                continue;
+
+            int hashCode = bucket.hashCollision & 0x7FFFFFFF;
+            int increment = getIncrement(hashCode, bucketsCopy.length);
+            int bucketNumber = hashCode % bucketsCopy.length;
+            int probes = 1;
+            while (bucketsCopy[bucketNumber] != bucket)
+            {
+                bucketNumber = (int) (((long) bucketNumber + increment) % bucketsCopy.length);
+                probes++;
+            }
+
+            totalProbes += probes;
+            keyCount++;
+        }
+
+        return keyCount == 0 ? 0 : (double) totalProbes / keyCount;
+    }
+
     /**
      * Removes all items from this {@link HashTable}.
      */
@@ -424,8 +755,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         if ((count == 0) && (occupancy == 0))
             return;
 
-        // Thread.beginCriticalRegion();
-        isWriterInProgress = true;
+        beginWrite();
         for (int i = 0; i < buckets.length; i++)
         {
             buckets[i].hashCollision = 0;
@@ -435,9 +765,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
 
         count = 0;
         occupancy = 0;
-        version++;
-        isWriterInProgress = false;
-        // Thread.endCriticalRegion();
+        endWrite();
     }
 
     /**
@@ -454,7 +782,6 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         HashTable ht = new HashTable(count, keyComparer);
         ht.version = version;
         ht.loadFactor = loadFactor;
-        ht.count = count; // It seems to be a bug in ReferenceSource.
         int bucketLength = bucketsCopy.length;
         while (bucketLength > 0)
         {
@@ -498,31 +825,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
      */
     public boolean containsKey(Object key)
     {
-        if (key == null)
-            throw new NullPointerException("Argument \"key\" cannot be null.");
-
-        OutInt seed = new OutInt(0);
-        OutInt increment = new OutInt(0);
-
-        // Take a snapshot of buckets, in case another thread resizes this HashTable.
-        Bucket[] bucketsCopy = buckets;
-        int hashCode = initHash(key, bucketsCopy.length, seed, increment);
-        int ntry = 0;
-
-        Bucket b;
-        int bucketNumber = seed.getValue() % bucketsCopy.length;
-        do
-        {
-            b = bucketsCopy[bucketNumber];
-            if (b.key == null)
-                return false;
-            if (((b.hashCollision & 0x7FFFFFFF) == hashCode) && keyEquals(b.key, key))
-                return true;
-            bucketNumber = (bucketNumber + increment.getValue()) % bucketsCopy.length;
-        }
-        while ((b.hashCollision) < 0 && (++ntry < bucketsCopy.length));
-
-        return false;
+        return lookup(key) != NOT_FOUND;
     }
 
     /**
@@ -578,8 +881,8 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
         for (int i = bucketsCopy.length; --i >= 0;)
         {
             Object key = bucketsCopy[i].key;
-            if ((key != null) && (key != buckets))
-                keys[startIndex + i] = key;
+            if ((key != null) && (key != bucketsCopy))
+                keys[startIndex++] = key;
         }
     }
 
@@ -594,7 +897,15 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     @Override
     public boolean remove(KeyValuePair<Object, Object> value)
     {
-        return false;
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        int bucketNumber = findBucket(buckets, value.getKey());
+        if ((bucketNumber < 0) || !Objects.equals(buckets[bucketNumber].value, value.getValue()))
+            return false;
+
+        removeBucket(buckets[bucketNumber]);
+        return true;
     }
 
     /**
@@ -605,7 +916,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     @Override
     public Iterator<KeyValuePair<Object, Object>> iterator()
     {
-        return null;
+        return new HashTableIterator();
     }
 
     /**
@@ -640,7 +951,11 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     @Override
     public boolean contains(KeyValuePair<Object, Object> value)
     {
-        return false;
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        int bucketNumber = findBucket(buckets, value.getKey());
+        return (bucketNumber >= 0) && Objects.equals(buckets[bucketNumber].value, value.getValue());
     }
 
     /**
@@ -656,7 +971,7 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     @Override
     public void copyTo(KeyValuePair<Object, Object>[] array)
     {
-
+        copyTo(array, 0);
     }
 
     /**
@@ -674,7 +989,65 @@ public class HashTable implements ICollection<KeyValuePair<Object, Object>>, Ser
     @Override
     public void copyTo(KeyValuePair<Object, Object>[] array, int startIndex)
     {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+        if (array.length - startIndex < count)
+            throw new IllegalArgumentException("The length between the start index and the end of the given array is not enough for copying contents.");
+
+        Bucket[] bucketsCopy = buckets;
+        for (int i = bucketsCopy.length; --i >= 0;)
+        {
+            Object key = bucketsCopy[i].key;
+            if ((key != null) && (key != bucketsCopy))
+                array[startIndex++] = new KeyValuePair<>(key, bucketsCopy[i].value);
+        }
+    }
+
+    /**
+     * Iterates through the entries of this {@link HashTable}, from the last bucket to the first one.
+     */
+    private class HashTableIterator implements Iterator<KeyValuePair<Object, Object>>
+    {
+        private final Bucket[] bucketsCopy = buckets;
+        private final int version = HashTable.this.version;
+        private int bucketNumber = bucketsCopy.length;
 
+        private HashTableIterator()
+        {
+            moveNext();
+        }
+
+        private void moveNext()
+        {
+            while (--bucketNumber >= 0)
+            {
+                Object key = bucketsCopy[bucketNumber].key;
+                if ((key != null) && (key != bucketsCopy))
+                    return;
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return bucketNumber >= 0;
+        }
+
+        @Override
+        public KeyValuePair<Object, Object> next()
+        {
+            if (version != HashTable.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+            if (bucketNumber < 0)
+                throw new NoSuchElementException();
+
+            Bucket b = bucketsCopy[bucketNumber];
+            KeyValuePair<Object, Object> item = new KeyValuePair<>(b.key, b.value);
+            moveNext();
+            return item;
+        }
     }
 
     public static class HashHelpers
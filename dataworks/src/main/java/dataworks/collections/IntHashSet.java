@@ -0,0 +1,485 @@
+package dataworks.collections;
+
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The {@link IntHashSet} class represents a set of int values, such as visited vertices or the ids of samples in a
+ * region of interest. Unlike {@link HashSet}, the values are never boxed.
+ * <p>
+ * Values are stored by open addressing with linear probing in an int array whose length is a power of 2, in the same
+ * way as {@link IntIntHashMap}. Value 0 marks a free slot, so whether the set contains 0 is kept in a separate field.
+ * Operations with another {@link IntHashSet} iterate the smaller of the two sets where possible.
+ */
+public class IntHashSet implements Serializable
+{
+    private static final int MIN_CAPACITY = 4;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private int[] items;
+
+    /**
+     * Number of values stored in {@code items}, which excludes 0.
+     */
+    private int size;
+    private int threshold;
+    private boolean hasZero;
+    private int version;
+
+    /**
+     * Initializes a new instance of the {@link IntHashSet} class that is empty.
+     */
+    public IntHashSet()
+    {
+        this(0);
+    }
+
+    /**
+     * Initializes a new instance of the {@link IntHashSet} class that is empty and can hold the specified number of
+     * values without resizing.
+     *
+     * @param capacity The number of values that the new set can initially hold.
+     * @throws ArgumentOutOfRangeException The specified capacity is less than 0.
+     */
+    public IntHashSet(int capacity)
+    {
+        if (capacity < 0)
+            throw new ArgumentOutOfRangeException("\"capacity\" must be a non-negative integer.");
+
+        allocate(tableSize(capacity));
+    }
+
+    /**
+     * Initializes a new instance of the {@link IntHashSet} class that contains the distinct values of the specified
+     * array.
+     *
+     * @param values The values to add to the new set.
+     * @throws NullPointerException The specified array is null.
+     */
+    public IntHashSet(int[] values)
+    {
+        this(values != null ? values.length : 0);
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+
+        for (int value : values)
+            add(value);
+    }
+
+    private static int tableSize(int capacity)
+    {
+        long minLength = Math.max(MIN_CAPACITY, (long) Math.ceil(capacity / LOAD_FACTOR) + 1);
+        if (minLength > (1 << 30))
+            throw new ArgumentOutOfRangeException("\"capacity\" is too large.");
+
+        return Integer.highestOneBit((int) minLength - 1) << 1;
+    }
+
+    private void allocate(int length)
+    {
+        items = new int[length];
+        threshold = (int) (length * LOAD_FACTOR);
+    }
+
+    private static int hash(int value)
+    {
+        // Fibonacci hashing, which spreads consecutive ids over the whole table.
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot of the specified non-zero value, or the bitwise complement of the free slot where it should be
+     * inserted.
+     */
+    private int findSlot(int value)
+    {
+        int mask = items.length - 1;
+        for (int i = hash(value) & mask; ; i = (i + 1) & mask)
+        {
+            int item = items[i];
+            if (item == value)
+                return i;
+            if (item == 0)
+                return ~i;
+        }
+    }
+
+    private void resize(int length)
+    {
+        int[] oldItems = items;
+        allocate(length);
+
+        int mask = length - 1;
+        for (int item : oldItems)
+        {
+            if (item != 0)
+            {
+                int i = hash(item) & mask;
+                while (items[i] != 0)
+                    i = (i + 1) & mask;
+
+                items[i] = item;
+            }
+        }
+    }
+
+    /**
+     * Removes the value in the specified slot, and moves back the values after it that would become unreachable.
+     */
+    private void removeAt(int slot)
+    {
+        int mask = items.length - 1;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; items[i] != 0; i = (i + 1) & mask)
+        {
+            // The value can fill the gap if the gap lies between its ideal slot and its current slot.
+            int ideal = hash(items[i]) & mask;
+            if (((i - ideal) & mask) >= ((i - gap) & mask))
+            {
+                items[gap] = items[i];
+                gap = i;
+            }
+        }
+
+        items[gap] = 0;
+        size--;
+        version++;
+    }
+
+    /**
+     * Gets the number of values contained in this {@link IntHashSet}.
+     *
+     * @return The number of values contained in this {@link IntHashSet}.
+     */
+    public int count()
+    {
+        return hasZero ? size + 1 : size;
+    }
+
+    /**
+     * Determines whether this {@link IntHashSet} is empty.
+     *
+     * @return {@code true} if this {@link IntHashSet} contains no values; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return count() == 0;
+    }
+
+    /**
+     * Adds a value to this set.
+     *
+     * @param value The value to add.
+     * @return {@code true} if the value is added; {@code false} if the value is already in the set.
+     */
+    public boolean add(int value)
+    {
+        if (value == 0)
+        {
+            if (hasZero)
+                return false;
+
+            hasZero = true;
+            version++;
+            return true;
+        }
+
+        int i = findSlot(value);
+        if (i >= 0)
+            return false;
+
+        items[~i] = value;
+        size++;
+        version++;
+        if (size > threshold)
+            resize(items.length * 2);
+
+        return true;
+    }
+
+    /**
+     * Removes a value from this set.
+     *
+     * @param value The value to remove.
+     * @return {@code true} if the value is removed; {@code false} if the value is not in the set.
+     */
+    public boolean remove(int value)
+    {
+        if (value == 0)
+        {
+            if (!hasZero)
+                return false;
+
+            hasZero = false;
+            version++;
+            return true;
+        }
+
+        int i = findSlot(value);
+        if (i < 0)
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Determines whether this set contains the specified value.
+     *
+     * @param value The value to locate.
+     * @return {@code true} if the value is found; otherwise, {@code false}.
+     */
+    public boolean contains(int value)
+    {
+        return value == 0 ? hasZero : findSlot(value) >= 0;
+    }
+
+    /**
+     * Removes all values from this set. The capacity is not changed.
+     */
+    public void clear()
+    {
+        Arrays.fill(items, 0);
+        size = 0;
+        hasZero = false;
+        version++;
+    }
+
+    /**
+     * Modifies this set so that it contains all values that are present in this set, in the specified set, or in both.
+     *
+     * @param other The set to merge into this set.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public void unionWith(IntHashSet other)
+    {
+        validateOther(other);
+        if (other.hasZero)
+            add(0);
+
+        for (int item : other.items)
+        {
+            if (item != 0)
+                add(item);
+        }
+    }
+
+    /**
+     * Modifies this set so that it contains only values that are also in the specified set.
+     *
+     * @param other The set to compare to this set.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public void intersectWith(IntHashSet other)
+    {
+        validateOther(other);
+        if (other == this)
+            return;
+
+        if (other.count() < count())
+        {
+            // Collect the intersection from the smaller set, then take its storage.
+            IntHashSet intersection = new IntHashSet(other.count());
+            intersection.hasZero = hasZero && other.hasZero;
+            for (int item : other.items)
+            {
+                if ((item != 0) && contains(item))
+                    intersection.add(item);
+            }
+
+            items = intersection.items;
+            size = intersection.size;
+            threshold = intersection.threshold;
+            hasZero = intersection.hasZero;
+            version++;
+            return;
+        }
+
+        hasZero = hasZero && other.hasZero;
+        for (int i = 0; i < items.length; i++)
+        {
+            // A removal may move a later value back to this slot, so check the slot again.
+            while ((items[i] != 0) && !other.contains(items[i]))
+                removeAt(i);
+        }
+        version++;
+    }
+
+    /**
+     * Removes all values in the specified set from this set.
+     *
+     * @param other The set of values to remove.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public void exceptWith(IntHashSet other)
+    {
+        validateOther(other);
+        if (other == this)
+        {
+            clear();
+            return;
+        }
+
+        if (other.hasZero)
+            remove(0);
+
+        if (count() < other.count())
+        {
+            for (int i = 0; i < items.length; i++)
+            {
+                while ((items[i] != 0) && other.contains(items[i]))
+                    removeAt(i);
+            }
+        }
+        else
+        {
+            for (int item : other.items)
+            {
+                if (item != 0)
+                    remove(item);
+            }
+        }
+    }
+
+    /**
+     * Determines whether this set and the specified set share at least one value.
+     *
+     * @param other The set to compare to this set.
+     * @return {@code true} if the two sets share at least one value; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public boolean overlaps(IntHashSet other)
+    {
+        validateOther(other);
+        if (hasZero && other.hasZero)
+            return true;
+
+        IntHashSet smaller = count() <= other.count() ? this : other;
+        IntHashSet larger = smaller == this ? other : this;
+        for (int item : smaller.items)
+        {
+            if ((item != 0) && larger.contains(item))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether this set is a subset of the specified set.
+     *
+     * @param other The set to compare to this set.
+     * @return {@code true} if every value of this set is in {@code other}; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public boolean isSubsetOf(IntHashSet other)
+    {
+        validateOther(other);
+        if (count() > other.count())
+            return false;
+        if (hasZero && !other.hasZero)
+            return false;
+
+        for (int item : items)
+        {
+            if ((item != 0) && !other.contains(item))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines whether this set and the specified set contain the same values.
+     *
+     * @param other The set to compare to this set.
+     * @return {@code true} if the two sets contain the same values; otherwise, {@code false}.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public boolean setEquals(IntHashSet other)
+    {
+        validateOther(other);
+        return (count() == other.count()) && isSubsetOf(other);
+    }
+
+    private static void validateOther(IntHashSet other)
+    {
+        if (other == null)
+            throw new NullPointerException("Argument \"other\" cannot be null.");
+    }
+
+    /**
+     * Copies all the values of this set to a new array, in no particular order.
+     *
+     * @return An array that contains all the values of this set.
+     */
+    public int[] toArray()
+    {
+        int[] array = new int[count()];
+        int j = 0;
+        if (hasZero)
+            array[j++] = 0;
+        for (int item : items)
+        {
+            if (item != 0)
+                array[j++] = item;
+        }
+
+        return array;
+    }
+
+    /**
+     * Returns an iterator over the values of this set, in no particular order. The {@code nextInt()} method of the
+     * iterator doesn't box the values.
+     *
+     * @return An iterator over the values.
+     */
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new PrimitiveIterator.OfInt()
+        {
+            private final int version = IntHashSet.this.version;
+
+            /**
+             * -1 stands for value 0, other values are slots in {@code items}.
+             */
+            private int index = hasZero ? -1 : 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (version != IntHashSet.this.version)
+                    throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+
+                if (index < 0)
+                    return true;
+
+                while ((index < items.length) && (items[index] == 0))
+                    index++;
+
+                return index < items.length;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                if (index < 0)
+                {
+                    index = 0;
+                    return 0;
+                }
+
+                return items[index++];
+            }
+        };
+    }
+}
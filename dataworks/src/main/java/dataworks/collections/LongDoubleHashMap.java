@@ -0,0 +1,530 @@
+package dataworks.collections;
+
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+import dataworks.KeyNotFountException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The {@link LongDoubleHashMap} class represents a map from long keys to double values, such as timestamp ticks to
+ * measurements. Neither keys nor values are boxed.
+ * <p>
+ * Entries are stored by open addressing with linear probing in an array of long keys and a parallel array of values,
+ * whose length is a power of 2. Key 0 marks a free slot, so the entry with key 0 is kept in separate fields. Removal
+ * shifts the following entries of the same probe sequence back instead of leaving tombstones, so lookups never slow
+ * down after many removals. Entries are iterated by a {@link Cursor}, which allocates nothing per entry.
+ */
+public class LongDoubleHashMap implements Serializable
+{
+    private static final int MIN_CAPACITY = 4;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private long[] keys;
+    private double[] values;
+
+    /**
+     * Number of entries stored in {@code keys}, which excludes the entry with key 0.
+     */
+    private int size;
+    private int threshold;
+    private boolean hasZeroKey;
+    private double zeroValue;
+    private int version;
+
+    /**
+     * Initializes a new instance of the {@link LongDoubleHashMap} class that is empty.
+     */
+    public LongDoubleHashMap()
+    {
+        this(0);
+    }
+
+    /**
+     * Initializes a new instance of the {@link LongDoubleHashMap} class that is empty and can hold the specified
+     * number of entries without resizing.
+     *
+     * @param capacity The number of entries that the new map can initially hold.
+     * @throws ArgumentOutOfRangeException The specified capacity is less than 0.
+     */
+    public LongDoubleHashMap(int capacity)
+    {
+        if (capacity < 0)
+            throw new ArgumentOutOfRangeException("\"capacity\" must be a non-negative integer.");
+
+        allocate(tableSize(capacity));
+    }
+
+    private static int tableSize(int capacity)
+    {
+        long minLength = Math.max(MIN_CAPACITY, (long) Math.ceil(capacity / LOAD_FACTOR) + 1);
+        if (minLength > (1 << 30))
+            throw new ArgumentOutOfRangeException("\"capacity\" is too large.");
+
+        return Integer.highestOneBit((int) minLength - 1) << 1;
+    }
+
+    private void allocate(int length)
+    {
+        keys = new long[length];
+        values = new double[length];
+        threshold = (int) (length * LOAD_FACTOR);
+    }
+
+    private static int hash(long key)
+    {
+        // Fibonacci hashing, which spreads consecutive ids and timestamps over the whole table.
+        long h = key * 0x9E3779B97F4A7C15L;
+        int x = (int) (h ^ (h >>> 32));
+        return x ^ (x >>> 16);
+    }
+
+    /**
+     * Returns the slot of the specified non-zero key, or -1 if the key is not in {@code keys}.
+     */
+    private int findSlot(long key)
+    {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+        {
+            long k = keys[i];
+            if (k == key)
+                return i;
+            if (k == 0)
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the slot of the specified non-zero key, or the bitwise complement of the free slot where it should be
+     * inserted.
+     */
+    private int findInsertionSlot(long key)
+    {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask)
+        {
+            long k = keys[i];
+            if (k == key)
+                return i;
+            if (k == 0)
+                return ~i;
+        }
+    }
+
+    private void insertAt(int freeSlot, long key, double value)
+    {
+        keys[freeSlot] = key;
+        values[freeSlot] = value;
+        size++;
+        version++;
+        if (size > threshold)
+            resize(keys.length * 2);
+    }
+
+    private void resize(int length)
+    {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(length);
+
+        int mask = length - 1;
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            long key = oldKeys[j];
+            if (key != 0)
+            {
+                int i = hash(key) & mask;
+                while (keys[i] != 0)
+                    i = (i + 1) & mask;
+
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry in the specified slot, and moves back the entries after it that would become unreachable.
+     */
+    private void removeAt(int slot)
+    {
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask)
+        {
+            // The entry can fill the gap if the gap lies between its ideal slot and its current slot.
+            int ideal = hash(keys[i]) & mask;
+            if (((i - ideal) & mask) >= ((i - gap) & mask))
+            {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        version++;
+    }
+
+    /**
+     * Gets the number of entries contained in this {@link LongDoubleHashMap}.
+     *
+     * @return The number of entries contained in this {@link LongDoubleHashMap}.
+     */
+    public int count()
+    {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    /**
+     * Determines whether this {@link LongDoubleHashMap} is empty.
+     *
+     * @return {@code true} if this {@link LongDoubleHashMap} contains no entries; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return count() == 0;
+    }
+
+    /**
+     * Determines whether this {@link LongDoubleHashMap} contains the specified key.
+     *
+     * @param key The key to locate.
+     * @return {@code true} if the key is found; otherwise, {@code false}.
+     */
+    public boolean containsKey(long key)
+    {
+        return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key The key of the value to get.
+     * @return The value associated with the specified key.
+     * @throws KeyNotFountException The specified key is not in this {@link LongDoubleHashMap}.
+     */
+    public double get(long key)
+    {
+        if (key == 0)
+        {
+            if (!hasZeroKey)
+                throw new KeyNotFountException("The key \"" + key + "\" is not in the LongDoubleHashMap.");
+
+            return zeroValue;
+        }
+
+        int i = findSlot(key);
+        if (i < 0)
+            throw new KeyNotFountException("The key \"" + key + "\" is not in the LongDoubleHashMap.");
+
+        return values[i];
+    }
+
+    /**
+     * Gets the value associated with the specified key, or the specified default value if the key is not found.
+     *
+     * @param key          The key of the value to get.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The value associated with the specified key, or {@code defaultValue} if the key is not found.
+     */
+    public double getOrDefault(long key, double defaultValue)
+    {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+
+        int i = findSlot(key);
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    /**
+     * Replaces the value associated with the specified key.
+     *
+     * @param key   The key of the value to replace.
+     * @param value The new value associated with the specified key.
+     * @throws KeyNotFountException The specified key is not in this {@link LongDoubleHashMap}.
+     */
+    public void set(long key, double value)
+    {
+        if (key == 0)
+        {
+            if (!hasZeroKey)
+                throw new KeyNotFountException("The key \"" + key + "\" is not in the LongDoubleHashMap.");
+
+            zeroValue = value;
+        }
+        else
+        {
+            int i = findSlot(key);
+            if (i < 0)
+                throw new KeyNotFountException("The key \"" + key + "\" is not in the LongDoubleHashMap.");
+
+            values[i] = value;
+        }
+    }
+
+    /**
+     * Adds an entry with the specified key and value.
+     *
+     * @param key   The key of the entry to add.
+     * @param value The value of the entry to add.
+     * @throws IllegalArgumentException An entry with the same key already exists.
+     */
+    public void add(long key, double value)
+    {
+        if (!tryAdd(key, value))
+            throw new IllegalArgumentException("An entry with the same key \"" + key + "\" already exists in the LongDoubleHashMap.");
+    }
+
+    /**
+     * Adds an entry with the specified key and value if the key is not in this {@link LongDoubleHashMap}.
+     *
+     * @param key   The key of the entry to add.
+     * @param value The value of the entry to add.
+     * @return {@code true} if the entry is added; {@code false} if the key already exists.
+     */
+    public boolean tryAdd(long key, double value)
+    {
+        if (key == 0)
+        {
+            if (hasZeroKey)
+                return false;
+
+            hasZeroKey = true;
+            zeroValue = value;
+            version++;
+            return true;
+        }
+
+        int i = findInsertionSlot(key);
+        if (i >= 0)
+            return false;
+
+        insertAt(~i, key, value);
+        return true;
+    }
+
+    /**
+     * Associates the specified value with the specified key, adding an entry if the key is not found.
+     *
+     * @param key   The key of the entry.
+     * @param value The value to associate with the key.
+     */
+    public void put(long key, double value)
+    {
+        if (key == 0)
+        {
+            if (!hasZeroKey)
+            {
+                hasZeroKey = true;
+                version++;
+            }
+
+            zeroValue = value;
+            return;
+        }
+
+        int i = findInsertionSlot(key);
+        if (i >= 0)
+            values[i] = value;
+        else
+            insertAt(~i, key, value);
+    }
+
+    /**
+     * Adds the specified amount to the value associated with the specified key, where a missing key counts as 0. This
+     * is how sums are accumulated without looking up the key twice.
+     *
+     * @param key   The key of the value to increase.
+     * @param delta The amount to add.
+     * @return The value associated with the key after the addition.
+     */
+    public double addTo(long key, double delta)
+    {
+        if (key == 0)
+        {
+            if (!hasZeroKey)
+            {
+                hasZeroKey = true;
+                version++;
+            }
+
+            zeroValue += delta;
+            return zeroValue;
+        }
+
+        int i = findInsertionSlot(key);
+        if (i >= 0)
+            return values[i] += delta;
+
+        insertAt(~i, key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes the entry with the specified key.
+     *
+     * @param key The key of the entry to remove.
+     * @return {@code true} if the entry is removed; {@code false} if the key is not found.
+     */
+    public boolean removeByKey(long key)
+    {
+        if (key == 0)
+        {
+            if (!hasZeroKey)
+                return false;
+
+            hasZeroKey = false;
+            zeroValue = 0;
+            version++;
+            return true;
+        }
+
+        int i = findSlot(key);
+        if (i < 0)
+            return false;
+
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Removes all entries from this {@link LongDoubleHashMap}. The capacity is not changed.
+     */
+    public void clear()
+    {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+        version++;
+    }
+
+    /**
+     * Copies all the keys of this {@link LongDoubleHashMap} to a new array, in the order of a {@link Cursor}.
+     *
+     * @return An array that contains all the keys.
+     */
+    public long[] keysToArray()
+    {
+        long[] array = new long[count()];
+        int j = 0;
+        if (hasZeroKey)
+            array[j++] = 0;
+        for (long key : keys)
+        {
+            if (key != 0)
+                array[j++] = key;
+        }
+
+        return array;
+    }
+
+    /**
+     * Returns a {@link Cursor} positioned before the first entry of this {@link LongDoubleHashMap}.
+     *
+     * @return A new {@link Cursor}.
+     */
+    public Cursor cursor()
+    {
+        return new Cursor();
+    }
+
+    /**
+     * The {@link Cursor} class iterates over the entries of a {@link LongDoubleHashMap} without allocating an
+     * object for each entry. Call {@link #moveNext()} before reading the first entry. Entries are not iterated in any
+     * particular order.
+     */
+    public final class Cursor
+    {
+        private final int version;
+
+        /**
+         * -1 stands for the entry with key 0, other values are slots in {@code keys}.
+         */
+        private int index;
+
+        private Cursor()
+        {
+            version = LongDoubleHashMap.this.version;
+            index = -2;
+        }
+
+        /**
+         * Advances this {@link Cursor} to the next entry.
+         *
+         * @return {@code true} if this {@link Cursor} is moved to an entry; {@code false} if there are no more
+         * entries.
+         * @throws InvalidOperationException Entries have been added or removed since the cursor was created.
+         */
+        public boolean moveNext()
+        {
+            if (version != LongDoubleHashMap.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+
+            if (index == -2)
+            {
+                index = -1;
+                if (hasZeroKey)
+                    return true;
+            }
+
+            int length = keys.length;
+            do
+                index++;
+            while ((index < length) && (keys[index] == 0));
+
+            if (index < length)
+                return true;
+
+            index = length;
+            return false;
+        }
+
+        /**
+         * Gets the key of the current entry.
+         *
+         * @return The key of the current entry.
+         */
+        public long getKey()
+        {
+            validatePosition();
+            return index == -1 ? 0 : keys[index];
+        }
+
+        /**
+         * Gets the value of the current entry.
+         *
+         * @return The value of the current entry.
+         */
+        public double getValue()
+        {
+            validatePosition();
+            return index == -1 ? zeroValue : values[index];
+        }
+
+        /**
+         * Replaces the value of the current entry, which doesn't invalidate this {@link Cursor}.
+         *
+         * @param value The new value of the current entry.
+         */
+        public void setValue(double value)
+        {
+            validatePosition();
+            if (index == -1)
+                zeroValue = value;
+            else
+                values[index] = value;
+        }
+
+        private void validatePosition()
+        {
+            if ((index < -1) || (index >= keys.length))
+                throw new InvalidOperationException("The cursor is not positioned at an entry.");
+        }
+    }
+}
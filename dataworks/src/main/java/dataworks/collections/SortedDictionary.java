@@ -51,6 +51,82 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
         valueComparator = new DefaultComparator<>();
     }
 
+    /**
+     * Initializes a new instance of the {@link SortedDictionary} class that contains the specified key value pairs.
+     * If the pairs are already sorted by key, the tree is built directly in O(n) time, without the rotations and
+     * recoloring of adding the pairs one by one; otherwise they are sorted first.
+     *
+     * @param pairs The key value pairs to add.
+     * @throws NullPointerException     The specified array, one of the pairs or one of the keys is null.
+     * @throws IllegalArgumentException Two pairs have the same key.
+     */
+    public SortedDictionary(KeyValuePair<TKey, TValue>[] pairs)
+    {
+        this();
+        if (pairs == null)
+            throw new NullPointerException("Argument \"pairs\" cannot be null.");
+
+        buildFrom(pairs, false);
+    }
+
+    /**
+     * Initializes a new instance of the {@link SortedDictionary} class that contains the key value pairs of the
+     * specified collection. If the pairs are already sorted by key, the tree is built directly in O(n) time;
+     * otherwise they are sorted first.
+     *
+     * @param pairs The key value pairs to add.
+     * @throws NullPointerException     The specified collection, one of the pairs or one of the keys is null.
+     * @throws IllegalArgumentException Two pairs have the same key.
+     */
+    public SortedDictionary(Iterable<KeyValuePair<TKey, TValue>> pairs)
+    {
+        this();
+        if (pairs == null)
+            throw new NullPointerException("Argument \"pairs\" cannot be null.");
+
+        ArrayList<KeyValuePair<TKey, TValue>> list = new ArrayList<>();
+        list.addRange(pairs);
+        @SuppressWarnings("unchecked")
+        KeyValuePair<TKey, TValue>[] array = (KeyValuePair<TKey, TValue>[]) new KeyValuePair<?, ?>[list.count()];
+        list.copyTo(array);
+        buildFrom(array, true);
+    }
+
+    /**
+     * Builds the tree from the specified pairs, which are sorted by key first unless they already are.
+     *
+     * @param owned Whether the array can be sorted in place, rather than copied before sorting.
+     */
+    private void buildFrom(KeyValuePair<TKey, TValue>[] pairs, boolean owned)
+    {
+        boolean sorted = true;
+        for (int i = 0; i < pairs.length; i++)
+        {
+            validateKeyValuePair(pairs[i]);
+            validateKey(pairs[i].getKey());
+            if ((i > 0) && (pairs[i - 1].getKey().compareTo(pairs[i].getKey()) >= 0))
+                sorted = false;
+        }
+
+        if (!sorted)
+        {
+            if (!owned)
+                pairs = pairs.clone();
+            Arrays.sort(pairs, Comparator.comparing(KeyValuePair::getKey));
+        }
+
+        Node[] nodes = newNodes(pairs.length);
+        for (int i = 0; i < pairs.length; i++)
+        {
+            if ((i > 0) && (pairs[i - 1].getKey().compareTo(pairs[i].getKey()) == 0))
+                throw new IllegalArgumentException("The specified key is already in the SortedDictionary.");
+
+            nodes[i] = new Node(pairs[i].getKey(), pairs[i].getValue(), BLACK, 1);
+        }
+
+        linkTree(nodes, nodes.length);
+    }
+
     /* Node helper methods. */
 
     /**
@@ -337,6 +413,351 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
         return new KeyValuePair<>(maxNode.key, maxNode.value);
     }
 
+    /**
+     * Adds all the key value pairs of the specified {@link SortedDictionary} to this one. For a key in both
+     * dictionaries, the value of {@code other} replaces the value of this dictionary. The other dictionary is not
+     * changed.
+     * <p>
+     * Both dictionaries are walked in order together and the merged tree is built in O(n + m) time, reusing the nodes
+     * of this dictionary. When {@code other} is much smaller, its pairs are added one by one in O(m log n) time
+     * instead.
+     *
+     * @param other The dictionary whose pairs are added to this one.
+     * @throws NullPointerException {@code other} is null.
+     */
+    public void merge(SortedDictionary<TKey, TValue> other)
+    {
+        if (other == null)
+            throw new NullPointerException("Argument \"other\" cannot be null.");
+        if ((other == this) || (other.count == 0))
+            return;
+
+        if ((long) other.count * (32 - Integer.numberOfLeadingZeros(count)) < count)
+        {
+            other.inOrderTreeWalk(node ->
+            {
+                Node target = findNode(node.key);
+                if (target != null)
+                    target.value = node.value;
+                else
+                    add(node.key, node.value);
+                return true;
+            }, false);
+            version++;
+            return;
+        }
+
+        Node[] mine = toNodeArray();
+        Node[] theirs = other.toNodeArray();
+        Node[] merged = newNodes(mine.length + theirs.length);
+        int mergedCount = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < mine.length) || (j < theirs.length))
+        {
+            int compare = j == theirs.length ? -1 : i == mine.length ? 1 : mine[i].key.compareTo(theirs[j].key);
+            if (compare < 0)
+                merged[mergedCount++] = mine[i++];
+            else
+            {
+                // The nodes of other stay in its tree, so copy them.
+                Node node = compare == 0 ? mine[i++] : new Node(theirs[j].key, null, BLACK, 1);
+                node.value = theirs[j++].value;
+                merged[mergedCount++] = node;
+            }
+        }
+
+        linkTree(merged, mergedCount);
+    }
+
+    /**
+     * Gets the nodes of the tree in order.
+     */
+    private Node[] toNodeArray()
+    {
+        Node[] nodes = newNodes(count);
+        AtomicInteger i = new AtomicInteger(0);
+        inOrderTreeWalk(node ->
+        {
+            nodes[i.getAndIncrement()] = node;
+            return true;
+        }, false);
+
+        return nodes;
+    }
+
+    /**
+     * Replaces the tree with a balanced tree of the first {@code count} specified nodes, which must be sorted by
+     * distinct keys.
+     */
+    private void linkTree(Node[] nodes, int count)
+    {
+        int height = 31 - Integer.numberOfLeadingZeros(count + 1);
+        root = link(nodes, 0, count, height);
+        this.count = count;
+        version++;
+    }
+
+    /**
+     * Links a range of sorted nodes into a left-leaning red-black tree in the shape of a 2-3 tree of the specified
+     * height, where a 2-node is a black node and a 3-node is a black node with a red left child.
+     * <p>
+     * A 2-3 tree of height h has from 2^h - 1 to 3^h - 1 keys. The root is a 2-node unless the keys don't fit into two
+     * children of height h - 1, and the keys are split as evenly as possible among the children, which keeps every
+     * child within the bounds of height h - 1.
+     */
+    private Node link(Node[] nodes, int start, int count, int height)
+    {
+        if (count == 0)
+            return null;
+
+        long maxOfChild = 1;
+        for (int i = 1; i < height; i++)
+            maxOfChild *= 3;
+        maxOfChild--;
+
+        Node node;
+        if (count <= 2 * maxOfChild + 1)
+        {
+            int leftCount = (count - 1) / 2;
+            node = nodes[start + leftCount];
+            node.left = link(nodes, start, leftCount, height - 1);
+            node.right = link(nodes, start + leftCount + 1, count - 1 - leftCount, height - 1);
+        }
+        else
+        {
+            int leftCount = (count - 2) / 3;
+            int middleCount = (count - 2 - leftCount) / 2;
+            Node red = nodes[start + leftCount];
+            red.left = link(nodes, start, leftCount, height - 1);
+            red.right = link(nodes, start + leftCount + 1, middleCount, height - 1);
+            red.color = RED;
+            red.subtreeNodeCount = leftCount + middleCount + 1;
+
+            node = nodes[start + leftCount + middleCount + 1];
+            node.left = red;
+            node.right = link(nodes, start + leftCount + middleCount + 2, count - 2 - leftCount - middleCount,
+                              height - 1);
+        }
+
+        node.color = BLACK;
+        node.subtreeNodeCount = count;
+        return node;
+    }
+
+    /**
+     * Gets the number of keys in this {@link SortedDictionary} that are less than the specified key, which is the
+     * index the key has or would have in the sorted order. It takes O(log n) time.
+     *
+     * @param key The key to rank, which needs not be in this {@link SortedDictionary}.
+     * @return The number of keys less than the specified key.
+     * @throws NullPointerException The specified key is null.
+     */
+    public int rank(TKey key)
+    {
+        validateKey(key);
+        return rank(key, false);
+    }
+
+    /**
+     * Gets the key value pair at the specified index in the sorted order of the keys, which is the pair whose key has
+     * the specified rank. It takes O(log n) time, so percentiles can be looked up without iterating.
+     *
+     * @param index The zero-based index of the pair in the sorted order.
+     * @return The key value pair at the specified index.
+     * @throws ArgumentOutOfRangeException The specified index is out of range [0, count - 1].
+     */
+    public KeyValuePair<TKey, TValue> select(int index)
+    {
+        if ((index < 0) || (index >= count))
+            throw new ArgumentOutOfRangeException("index (with value " + index + ") out of range.");
+
+        Node current = root;
+        while (true)
+        {
+            int leftCount = size(current.left);
+            if (index < leftCount)
+                current = current.left;
+            else if (index > leftCount)
+            {
+                index -= leftCount + 1;
+                current = current.right;
+            }
+            else
+                return new KeyValuePair<>(current.key, current.value);
+        }
+    }
+
+    /**
+     * Gets the key value pair with the largest key that is less than or equal to the specified key.
+     *
+     * @param key The key to compare with.
+     * @return The key value pair with the largest key less than or equal to the specified key; null if there is none.
+     * @throws NullPointerException The specified key is null.
+     */
+    public KeyValuePair<TKey, TValue> floor(TKey key)
+    {
+        validateKey(key);
+        return toKeyValuePair(floorNode(key, true));
+    }
+
+    /**
+     * Gets the key value pair with the smallest key that is greater than or equal to the specified key.
+     *
+     * @param key The key to compare with.
+     * @return The key value pair with the smallest key greater than or equal to the specified key; null if there is
+     * none.
+     * @throws NullPointerException The specified key is null.
+     */
+    public KeyValuePair<TKey, TValue> ceiling(TKey key)
+    {
+        validateKey(key);
+        return toKeyValuePair(ceilingNode(key, true));
+    }
+
+    /**
+     * Gets the key value pair with the largest key that is strictly less than the specified key.
+     *
+     * @param key The key to compare with.
+     * @return The key value pair with the largest key less than the specified key; null if there is none.
+     * @throws NullPointerException The specified key is null.
+     */
+    public KeyValuePair<TKey, TValue> lower(TKey key)
+    {
+        validateKey(key);
+        return toKeyValuePair(floorNode(key, false));
+    }
+
+    /**
+     * Gets the key value pair with the smallest key that is strictly greater than the specified key.
+     *
+     * @param key The key to compare with.
+     * @return The key value pair with the smallest key greater than the specified key; null if there is none.
+     * @throws NullPointerException The specified key is null.
+     */
+    public KeyValuePair<TKey, TValue> higher(TKey key)
+    {
+        validateKey(key);
+        return toKeyValuePair(ceilingNode(key, false));
+    }
+
+    /**
+     * Gets the number of keys in the range [lowerKey, upperKey], in O(log n) time from the subtree sizes.
+     *
+     * @param lowerKey The lower bound of the range (inclusive).
+     * @param upperKey The upper bound of the range (inclusive).
+     * @return The number of keys in the range; 0 if {@code lowerKey} is greater than {@code upperKey}.
+     * @throws NullPointerException One of the bounds is null.
+     */
+    public int countInRange(TKey lowerKey, TKey upperKey)
+    {
+        validateKey(lowerKey);
+        validateKey(upperKey);
+        if (lowerKey.compareTo(upperKey) > 0)
+            return 0;
+
+        return rank(upperKey, true) - rank(lowerKey, false);
+    }
+
+    /**
+     * Gets an {@link Iterable} of the keys in the range [lowerKey, upperKey] in ascending order. The keys are visited
+     * lazily, so iterating a small range of a large {@link SortedDictionary} takes O(log n + k) time.
+     *
+     * @param lowerKey The lower bound of the range (inclusive).
+     * @param upperKey The upper bound of the range (inclusive).
+     * @return An {@link Iterable} of the keys in the range, which is empty if {@code lowerKey} is greater than
+     * {@code upperKey}.
+     * @throws NullPointerException One of the bounds is null.
+     */
+    public Iterable<TKey> keysInRange(TKey lowerKey, TKey upperKey)
+    {
+        validateKey(lowerKey);
+        validateKey(upperKey);
+        return () -> new KeyIterator(this, lowerKey, upperKey);
+    }
+
+    /**
+     * Gets the number of keys less than the specified key, or less than or equal to it if {@code inclusive} is
+     * {@code true}.
+     */
+    private int rank(TKey key, boolean inclusive)
+    {
+        int rank = 0;
+        Node current = root;
+        while (current != null)
+        {
+            int compare = key.compareTo(current.key);
+            if (compare < 0)
+                current = current.left;
+            else if (compare > 0)
+            {
+                rank += size(current.left) + 1;
+                current = current.right;
+            }
+            else
+                return rank + size(current.left) + (inclusive ? 1 : 0);
+        }
+
+        return rank;
+    }
+
+    /**
+     * Finds the node with the largest key that is less than the specified key, or equal to it if {@code inclusive}
+     * is {@code true}; returns null if there is none.
+     */
+    @Nullable
+    private Node floorNode(TKey key, boolean inclusive)
+    {
+        Node floor = null;
+        Node current = root;
+        while (current != null)
+        {
+            int compare = key.compareTo(current.key);
+            if ((compare > 0) || (inclusive && (compare == 0)))
+            {
+                floor = current;
+                if (compare == 0)
+                    break;
+                current = current.right;
+            }
+            else
+                current = current.left;
+        }
+
+        return floor;
+    }
+
+    /**
+     * Finds the node with the smallest key that is greater than the specified key, or equal to it if
+     * {@code inclusive} is {@code true}; returns null if there is none.
+     */
+    @Nullable
+    private Node ceilingNode(TKey key, boolean inclusive)
+    {
+        Node ceiling = null;
+        Node current = root;
+        while (current != null)
+        {
+            int compare = key.compareTo(current.key);
+            if ((compare < 0) || (inclusive && (compare == 0)))
+            {
+                ceiling = current;
+                if (compare == 0)
+                    break;
+                current = current.left;
+            }
+            else
+                current = current.right;
+        }
+
+        return ceiling;
+    }
+
+    private KeyValuePair<TKey, TValue> toKeyValuePair(Node node)
+    {
+        return node == null ? null : new KeyValuePair<>(node.key, node.value);
+    }
+
     /**
      * Removes the key value pair with the minimum key rooted at {@code node}.
      */
@@ -501,9 +922,8 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
         if (!containsKeyValue(item.getKey(), item.getValue()))
             return false;
 
+        // removeByKey updates the count and the version.
         removeByKey(item.getKey());
-        count--;
-        version++;
         return true;
     }
 
@@ -629,7 +1049,8 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
 
             if (key.compareTo(h.key) == 0)
             {
-                Node minRootedAtNode = minAt(h);
+                // Replace the pair with its successor, and remove the successor from the right subtree.
+                Node minRootedAtNode = minAt(h.right);
                 h.value = minRootedAtNode.value;
                 h.key = minRootedAtNode.key;
                 h.right = removeMin(h.right);
@@ -785,6 +1206,16 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
             throw new NullPointerException("Argument \"keyValuePair\" cannot be null.");
     }
 
+    @SuppressWarnings("unchecked")
+    private Node[] newNodes(int size)
+    {
+        return (Node[]) new SortedDictionary<?, ?>.Node[size];
+    }
+
+    /**
+     * Iterates the nodes in order lazily, with a stack of the nodes whose left subtrees are being visited. If bounds
+     * are given, the subtrees before the lower bound are skipped and the iteration stops after the upper bound.
+     */
     private abstract class CollectionIterator<T> implements Iterator<T>
     {
 
@@ -793,20 +1224,39 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
 
         protected abstract T getItem(Node node);
 
-        private Iterator<T> iterator;
+        private final Node[] stack;
+        private int stackCount;
+
+        /**
+         * The inclusive upper bound, or null if the iteration is not bounded.
+         */
+        private final TKey upperKey;
 
         private CollectionIterator(SortedDictionary<TKey, TValue> dictionary)
+        {
+            this(dictionary, null, null);
+        }
+
+        private CollectionIterator(SortedDictionary<TKey, TValue> dictionary, TKey lowerKey, TKey upperKey)
         {
             this.version = dictionary.version;
             this.dictionary = dictionary;
-            LinkedList<T> collection = new LinkedList<>();
-            inOrderTreeWalk(node ->
-            {
-                collection.addLast(getItem(node));
-                return true;
-            }, false);
+            this.upperKey = upperKey;
 
-            iterator = collection.iterator();
+            // The height of a red-black tree is at most 2 log2(n + 1).
+            stack = newNodes(2 * (32 - Integer.numberOfLeadingZeros(dictionary.count + 1)) + 1);
+
+            Node current = dictionary.root;
+            while (current != null)
+            {
+                if ((lowerKey != null) && (current.key.compareTo(lowerKey) < 0))
+                    current = current.right;
+                else
+                {
+                    stack[stackCount++] = current;
+                    current = current.left;
+                }
+            }
         }
 
         /**
@@ -819,7 +1269,10 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
         @Override
         public boolean hasNext()
         {
-            return iterator.hasNext();
+            if (stackCount == 0)
+                return false;
+
+            return (upperKey == null) || (stack[stackCount - 1].key.compareTo(upperKey) <= 0);
         }
 
         /**
@@ -833,8 +1286,14 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
         {
             if (version != dictionary.version)
                 throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Node node = stack[--stackCount];
+            for (Node current = node.right; current != null; current = current.left)
+                stack[stackCount++] = current;
 
-            return iterator.next();
+            return getItem(node);
         }
     }
 
@@ -860,6 +1319,11 @@ public class SortedDictionary<TKey extends Comparable<TKey>, TValue> implements
             super(dictionary);
         }
 
+        public KeyIterator(SortedDictionary<TKey, TValue> dictionary, TKey lowerKey, TKey upperKey)
+        {
+            super(dictionary, lowerKey, upperKey);
+        }
+
         @Override
         protected TKey getItem(Node node)
         {
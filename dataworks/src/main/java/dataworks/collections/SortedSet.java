@@ -1,31 +1,177 @@
 package dataworks.collections;
 
-import org.jetbrains.annotations.NotNull;
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+import dataworks.OutInt;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
+/**
+ * The {@link SortedSet} class represents a set of values kept in the order of a comparator. It is a left-leaning
+ * red-black tree, like {@link SortedDictionary}, whose nodes also keep the sizes of their subtrees.
+ * <p>
+ * {@link #getViewBetween(Object, Object)} returns a live view of the values in a range, which shares the tree of the
+ * set it is taken from. Creating a view, counting its values and finding its minimum and maximum take O(log n) time.
+ * <p>
+ * When the other collection of a set operation is a {@link SortedSet} with the same comparator, both sets are walked
+ * in order together and the result is built into a balanced tree in linear time, instead of adding or removing the
+ * values one by one.
+ *
+ * @param <T> Specifies the element type of the set.
+ */
 public class SortedSet<T> implements ISet<T>, Serializable
 {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final class Node<T> implements Serializable
+    {
+        private T item;
+        private Node<T> left;
+        private Node<T> right;
+        private boolean color;
+        private int subtreeNodeCount;
+
+        private Node(T item, boolean color, int subtreeNodeCount)
+        {
+            this.item = item;
+            this.color = color;
+            this.subtreeNodeCount = subtreeNodeCount;
+        }
+    }
+
     private Comparator<T> comparator;
 
+    /**
+     * The set that owns the tree, which is this set itself unless this set is a view.
+     */
+    private final SortedSet<T> tree;
+
+    /**
+     * Root of the red-black tree, only used by the set that owns the tree.
+     */
+    private Node<T> root;
+    private int count;
+    private int version;
+
+    private final boolean isView;
+    private final T lowerValue;
+    private final T upperValue;
+
+    /**
+     * Initializes a new instance of the {@link SortedSet} class that is empty and orders its values by their natural
+     * ordering. The values must implement {@link Comparable}.
+     */
+    public SortedSet()
+    {
+        this((Comparator<T>) null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link SortedSet} class that is empty and uses the specified comparator.
+     *
+     * @param comparator The comparator that orders the values, or null to use the natural ordering of the values.
+     */
+    public SortedSet(Comparator<T> comparator)
+    {
+        this.comparator = comparator != null ? comparator : naturalOrder();
+        this.tree = this;
+        this.isView = false;
+        this.lowerValue = null;
+        this.upperValue = null;
+    }
+
+    /**
+     * Initializes a new instance of the {@link SortedSet} class that contains the distinct values of the specified
+     * collection, ordered by their natural ordering.
+     *
+     * @param collection The values to add to the new set.
+     * @throws NullPointerException The specified collection is null.
+     */
+    public SortedSet(Iterable<T> collection)
+    {
+        this(collection, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link SortedSet} class that uses the specified comparator and contains the
+     * distinct values of the specified collection. The values are sorted once and the tree is built in linear time,
+     * so building from sorted input is cheaper than adding the values one by one.
+     *
+     * @param collection The values to add to the new set.
+     * @param comparator The comparator that orders the values, or null to use the natural ordering of the values.
+     * @throws NullPointerException The specified collection is null.
+     */
+    public SortedSet(Iterable<T> collection, Comparator<T> comparator)
+    {
+        this(comparator);
+        if (collection == null)
+            throw new NullPointerException("Argument \"collection\" cannot be null.");
+
+        if (isSameOrder(collection))
+        {
+            replaceTree(((SortedSet<T>) collection).toArray());
+            return;
+        }
+
+        ArrayList<T> list = new ArrayList<>();
+        list.addRange(collection);
+        @SuppressWarnings("unchecked")
+        T[] items = (T[]) new Object[list.count()];
+        list.copyTo(items);
+        Arrays.sort(items, this.comparator);
+
+        // Drop the duplicates, which are next to each other after sorting.
+        int distinct = 0;
+        for (int i = 0; i < items.length; i++)
+        {
+            if ((distinct == 0) || (this.comparator.compare(items[distinct - 1], items[i]) != 0))
+                items[distinct++] = items[i];
+        }
+
+        replaceTree(distinct == items.length ? items : Arrays.copyOf(items, distinct));
+    }
+
+    /**
+     * Initializes a view of the values of the specified tree between the bounds.
+     */
+    private SortedSet(SortedSet<T> tree, T lowerValue, T upperValue)
+    {
+        this.comparator = tree.comparator;
+        this.tree = tree;
+        this.isView = true;
+        this.lowerValue = lowerValue;
+        this.upperValue = upperValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Comparator<T> naturalOrder()
+    {
+        return (Comparator<T>) Comparator.naturalOrder();
+    }
+
     /**
      * Gets the maximum value in the {@link SortedSet}, as defined by the comparator.
-     * @return The maximum value in the set.
+     * @return The maximum value in the set, or null if the set is empty.
      * */
     public T max()
     {
-        return null;
+        Node<T> node = isView ? floorNode(upperValue) : maxAt(tree.root);
+        return (node != null) && isWithinRange(node.item) ? node.item : null;
     }
 
     /**
      * Gets the minimum value in the {@link SortedSet}, as defined by the comparator.
-     * @return The minimum value in the set.
+     * @return The minimum value in the set, or null if the set is empty.
      * */
     public T min()
     {
-        return null;
+        Node<T> node = isView ? ceilingNode(lowerValue) : minAt(tree.root);
+        return (node != null) && isWithinRange(node.item) ? node.item : null;
     }
 
     /**
@@ -42,11 +188,21 @@ public class SortedSet<T> implements ISet<T>, Serializable
      *
      * @param item The element to add to the set.
      * @return {@code true} if the element is added to the set; {@code false} if the element is already in the set.
+     * @throws ArgumentOutOfRangeException This set is a view and the element is out of its range.
      */
     @Override
     public boolean add(T item)
     {
-        return false;
+        if (!isWithinRange(item))
+            throw new ArgumentOutOfRangeException("The item is out of the range of the view.");
+        if (findNode(item) != null)
+            return false;
+
+        tree.root = add(tree.root, item);
+        tree.root.color = BLACK;
+        tree.count++;
+        tree.version++;
+        return true;
     }
 
     /**
@@ -59,7 +215,18 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public void unionWith(Iterable<T> other)
     {
+        validateOther(other);
+        if (other == this)
+            return;
 
+        if (prefersMerge(other))
+        {
+            replaceTree(mergeWith((SortedSet<T>) other, true, true, true));
+            return;
+        }
+
+        for (T item : other)
+            add(item);
     }
 
     /**
@@ -71,7 +238,44 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public void intersectWith(Iterable<T> other)
     {
+        validateOther(other);
+        if ((other == this) || (count() == 0))
+            return;
+
+        if (prefersMerge(other))
+        {
+            replaceTree(mergeWith((SortedSet<T>) other, false, true, false));
+            return;
+        }
 
+        SortedSet<T> found = new SortedSet<>(comparator);
+        for (T item : other)
+        {
+            if (contains(item))
+                found.add(item);
+        }
+
+        if (!isView)
+        {
+            replaceTree(found.root, found.count);
+            return;
+        }
+
+        // Both sets are sorted and the found values are a subset of this view, so the values to remove are the values
+        // of this view that the walk over the found values skips.
+        ArrayList<T> removed = new ArrayList<>();
+        Iterator<T> foundItems = found.iterator();
+        T next = foundItems.hasNext() ? foundItems.next() : null;
+        for (T item : this)
+        {
+            if ((next != null) && (comparator.compare(item, next) == 0))
+                next = foundItems.hasNext() ? foundItems.next() : null;
+            else
+                removed.add(item);
+        }
+
+        for (T item : removed)
+            remove(item);
     }
 
     /**
@@ -83,7 +287,23 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public void exceptWith(Iterable<T> other)
     {
+        validateOther(other);
+        if (other == this)
+        {
+            clear();
+            return;
+        }
+        if (count() == 0)
+            return;
+
+        if (prefersMerge(other))
+        {
+            replaceTree(mergeWith((SortedSet<T>) other, true, false, false));
+            return;
+        }
 
+        for (T item : snapshotIfShared(other))
+            remove(item);
     }
 
     /**
@@ -96,7 +316,30 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public void symmetricExceptWith(Iterable<T> other)
     {
+        validateOther(other);
+        if (other == this)
+        {
+            clear();
+            return;
+        }
 
+        if (!isSameOrder(other))
+        {
+            // Duplicates in other must only be toggled once, so sort and deduplicate them first.
+            other = new SortedSet<>(other, comparator);
+        }
+
+        if (prefersMerge(other))
+        {
+            replaceTree(mergeWith((SortedSet<T>) other, true, false, true));
+            return;
+        }
+
+        for (T item : snapshotIfShared(other))
+        {
+            if (!remove(item))
+                add(item);
+        }
     }
 
     /**
@@ -109,7 +352,17 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean isSubsetOf(Iterable<T> other)
     {
-        return false;
+        validateOther(other);
+        int count = count();
+        if (count == 0)
+            return true;
+        if (isSameOrder(other) && (((SortedSet<T>) other).count() < count))
+            return false;
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, false, uniqueCount, unfoundCount);
+        return uniqueCount.getValue() == count;
     }
 
     /**
@@ -122,7 +375,25 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean isSupersetOf(Iterable<T> other)
     {
-        return false;
+        validateOther(other);
+        if (isSameOrder(other))
+        {
+            if (((SortedSet<T>) other).count() > count())
+                return false;
+
+            OutInt uniqueCount = new OutInt(0);
+            OutInt unfoundCount = new OutInt(0);
+            countUniqueAndUnfound(other, true, uniqueCount, unfoundCount);
+            return unfoundCount.getValue() == 0;
+        }
+
+        for (T item : other)
+        {
+            if (!contains(item))
+                return false;
+        }
+
+        return true;
     }
 
     /**
@@ -135,7 +406,15 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean isProperSupersetOf(Iterable<T> other)
     {
-        return false;
+        validateOther(other);
+        int count = count();
+        if (count == 0)
+            return false;
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, true, uniqueCount, unfoundCount);
+        return (unfoundCount.getValue() == 0) && (uniqueCount.getValue() < count);
     }
 
     /**
@@ -148,7 +427,15 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean isProperSubsetOf(Iterable<T> other)
     {
-        return false;
+        validateOther(other);
+        int count = count();
+        if (isSameOrder(other) && (((SortedSet<T>) other).count() <= count))
+            return false;
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, false, uniqueCount, unfoundCount);
+        return (uniqueCount.getValue() == count) && (unfoundCount.getValue() > 0);
     }
 
     /**
@@ -161,6 +448,32 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean overlaps(Iterable<T> other)
     {
+        validateOther(other);
+        if (count() == 0)
+            return false;
+
+        if (isSameOrder(other))
+        {
+            SortedSet<T> otherSet = (SortedSet<T>) other;
+            if (otherSet.count() == 0)
+                return false;
+
+            // Sets whose ranges don't intersect cannot overlap.
+            if ((comparator.compare(max(), otherSet.min()) < 0) || (comparator.compare(otherSet.max(), min()) < 0))
+                return false;
+
+            OutInt uniqueCount = new OutInt(0);
+            OutInt unfoundCount = new OutInt(0);
+            countUniqueAndUnfound(other, false, uniqueCount, unfoundCount);
+            return uniqueCount.getValue() > 0;
+        }
+
+        for (T item : other)
+        {
+            if (contains(item))
+                return true;
+        }
+
         return false;
     }
 
@@ -174,18 +487,170 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean setEquals(Iterable<T> other)
     {
-        return false;
+        validateOther(other);
+        int count = count();
+        if (isSameOrder(other) && (((SortedSet<T>) other).count() != count))
+            return false;
+
+        OutInt uniqueCount = new OutInt(0);
+        OutInt unfoundCount = new OutInt(0);
+        countUniqueAndUnfound(other, true, uniqueCount, unfoundCount);
+        return (unfoundCount.getValue() == 0) && (uniqueCount.getValue() == count);
+    }
+
+    /**
+     * Counts the distinct elements of this set that are in the other collection, and the elements of the other
+     * collection that are not in this set. A {@link SortedSet} with the same comparator is walked in order together
+     * with this set; the elements of other collections are looked up one by one.
+     *
+     * @param returnIfUnfound Stop at the first element that is not found, since the caller only needs to know if there
+     *                        is one.
+     */
+    private void countUniqueAndUnfound(Iterable<T> other, boolean returnIfUnfound, OutInt uniqueCount, OutInt unfoundCount)
+    {
+        if (isSameOrder(other))
+        {
+            Iterator<T> mine = iterator();
+            Iterator<T> theirs = other.iterator();
+            boolean hasA = mine.hasNext();
+            T a = hasA ? mine.next() : null;
+            while (theirs.hasNext())
+            {
+                T b = theirs.next();
+                int compare = -1;
+                while (hasA && ((compare = comparator.compare(a, b)) < 0))
+                {
+                    hasA = mine.hasNext();
+                    a = hasA ? mine.next() : null;
+                }
+
+                if (hasA && (compare == 0))
+                {
+                    uniqueCount.addOne();
+                    hasA = mine.hasNext();
+                    a = hasA ? mine.next() : null;
+                }
+                else
+                {
+                    unfoundCount.addOne();
+                    if (returnIfUnfound)
+                        return;
+                }
+            }
+            return;
+        }
+
+        SortedSet<T> found = new SortedSet<>(comparator);
+        for (T item : other)
+        {
+            if (!contains(item))
+            {
+                unfoundCount.addOne();
+                if (returnIfUnfound)
+                    return;
+            }
+            else if (found.add(item))
+                uniqueCount.addOne();
+        }
+    }
+
+    private boolean isSameOrder(Iterable<T> other)
+    {
+        return (other instanceof SortedSet) && comparator.equals(((SortedSet<T>) other).comparator);
+    }
+
+    /**
+     * Determines whether a set operation with the specified collection should merge the two sets and rebuild the
+     * tree, which takes O(n + m) time, rather than update the values of the other set one by one in O(m log n) time.
+     * Views always update one by one, since the tree they share holds values out of their range.
+     */
+    private boolean prefersMerge(Iterable<T> other)
+    {
+        if (isView || !isSameOrder(other))
+            return false;
+
+        int otherCount = ((SortedSet<T>) other).count();
+        return (long) otherCount * (32 - Integer.numberOfLeadingZeros(count)) >= count;
+    }
+
+    /**
+     * Walks this set and the other set in order together, and collects the values that are only in this set, in both
+     * sets, or only in the other set, as selected.
+     *
+     * @return The selected values in ascending order.
+     */
+    private T[] mergeWith(SortedSet<T> other, boolean keepMine, boolean keepBoth, boolean keepTheirs)
+    {
+        @SuppressWarnings("unchecked")
+        T[] merged = (T[]) new Object[count + other.count()];
+        int mergedCount = 0;
+
+        Iterator<T> mine = iterator();
+        Iterator<T> theirs = other.iterator();
+        boolean hasA = mine.hasNext();
+        boolean hasB = theirs.hasNext();
+        T a = hasA ? mine.next() : null;
+        T b = hasB ? theirs.next() : null;
+        while (hasA || hasB)
+        {
+            int compare = !hasB ? -1 : !hasA ? 1 : comparator.compare(a, b);
+            if (compare < 0)
+            {
+                if (keepMine)
+                    merged[mergedCount++] = a;
+            }
+            else if (compare > 0)
+            {
+                if (keepTheirs)
+                    merged[mergedCount++] = b;
+            }
+            else if (keepBoth)
+                merged[mergedCount++] = a;
+
+            if (compare <= 0)
+            {
+                hasA = mine.hasNext();
+                a = hasA ? mine.next() : null;
+            }
+            if (compare >= 0)
+            {
+                hasB = theirs.hasNext();
+                b = hasB ? theirs.next() : null;
+            }
+        }
+
+        return mergedCount == merged.length ? merged : Arrays.copyOf(merged, mergedCount);
+    }
+
+    /**
+     * Copies a view of the tree of this set, whose values would otherwise be removed while they are iterated.
+     */
+    private Iterable<T> snapshotIfShared(Iterable<T> other)
+    {
+        if ((other instanceof SortedSet) && (((SortedSet<T>) other).tree == tree))
+            return Arrays.asList(((SortedSet<T>) other).toArray());
+
+        return other;
+    }
+
+    private static void validateOther(Iterable<?> other)
+    {
+        if (other == null)
+            throw new NullPointerException("Argument \"other\" cannot be null.");
     }
 
     /**
-     * Gets the number of elements contained in this {@link ICollection}.
+     * Gets the number of elements contained in this {@link ICollection}. It takes O(log n) time for a view.
      *
      * @return The number of elements contained in this {@link ICollection}.
      */
     @Override
     public int count()
     {
-        return 0;
+        if (!isView)
+            return count;
+
+        return rank(upperValue, true) - rank(lowerValue, false);
     }
 
     /**
@@ -200,12 +665,20 @@ public class SortedSet<T> implements ISet<T>, Serializable
     }
 
     /**
-     * Removes all items from this {@link ICollection}.
+     * Removes all items from this {@link ICollection}. For a view, only the items in its range are removed from the
+     * underlying set.
      */
     @Override
     public void clear()
     {
+        if (!isView)
+        {
+            replaceTree(null, 0);
+            return;
+        }
 
+        for (T item : toArray())
+            remove(item);
     }
 
     /**
@@ -218,7 +691,7 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean contains(T value)
     {
-        return false;
+        return isWithinRange(value) && (findNode(value) != null);
     }
 
     /**
@@ -234,7 +707,7 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public void copyTo(T[] array)
     {
-
+        copyTo(array, 0);
     }
 
     /**
@@ -252,7 +725,24 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public void copyTo(T[] array, int startIndex)
     {
+        if (array == null)
+            throw new NullPointerException("Argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+        if (array.length - startIndex < count())
+            throw new IllegalArgumentException("The number of elements in the source SortedSet is greater than the " +
+                                                       "available space from startIndex to the end of the destination array.");
+
+        for (T item : this)
+            array[startIndex++] = item;
+    }
 
+    private T[] toArray()
+    {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) new Object[count()];
+        copyTo(array, 0);
+        return array;
     }
 
     /**
@@ -266,19 +756,32 @@ public class SortedSet<T> implements ISet<T>, Serializable
     @Override
     public boolean remove(T value)
     {
-        return false;
+        if (!contains(value))
+            return false;
+
+        // If both children of root are black, set root to red.
+        if (!isRed(tree.root.left) && !isRed(tree.root.right))
+            tree.root.color = RED;
+
+        tree.root = remove(tree.root, value);
+        if (tree.root != null)
+            tree.root.color = BLACK;
+
+        tree.count--;
+        tree.version++;
+        return true;
     }
 
     /**
-     * Returns an iterator over elements of type {@code T}.
+     * Returns an iterator over elements of type {@code T}, in ascending order. The values are visited lazily, so
+     * iterating a view only visits O(log n) values out of its range.
      *
      * @return an Iterator.
      */
-
     @Override
     public Iterator<T> iterator()
     {
-        return null;
+        return new TreeIterator(false);
     }
 
     /**
@@ -287,11 +790,12 @@ public class SortedSet<T> implements ISet<T>, Serializable
      * */
     public Iterable<T> reverse()
     {
-        return null;
+        return () -> new TreeIterator(true);
     }
 
     /**
-     * Returns a view of a subset in a {@link SortedSet}.
+     * Returns a view of a subset in a {@link SortedSet}. The view shares the tree of this set, so changes made through
+     * the view are visible in this set and vice versa.
      * @param lowerValue The lowest desired value in the view (inclusive).
      * @param upperValue The highest desired value in the view (inclusive).
      * @return A subset view that contains only the values in the specified range.
@@ -300,6 +804,432 @@ public class SortedSet<T> implements ISet<T>, Serializable
      * */
     public SortedSet<T> getViewBetween(T lowerValue, T upperValue)
     {
+        if (comparator.compare(lowerValue, upperValue) > 0)
+            throw new IllegalArgumentException("lowerValue is more than upperValue.");
+        if (!isWithinRange(lowerValue))
+            throw new ArgumentOutOfRangeException("lowerValue is out of the range of the view.");
+        if (!isWithinRange(upperValue))
+            throw new ArgumentOutOfRangeException("upperValue is out of the range of the view.");
+
+        return new SortedSet<>(tree, lowerValue, upperValue);
+    }
+
+    private boolean isWithinRange(T item)
+    {
+        return !isView || ((comparator.compare(lowerValue, item) <= 0) && (comparator.compare(item, upperValue) <= 0));
+    }
+
+    /* Tree helper methods, which always work on the tree of the set that owns it. */
+
+    private static boolean isRed(Node<?> node)
+    {
+        return (node != null) && (node.color == RED);
+    }
+
+    private static int size(Node<?> node)
+    {
+        return node == null ? 0 : node.subtreeNodeCount;
+    }
+
+    /**
+     * Replaces the tree with a balanced tree built from the specified values, which must be distinct and sorted.
+     */
+    private void replaceTree(T[] sortedItems)
+    {
+        int height = 31 - Integer.numberOfLeadingZeros(sortedItems.length + 1);
+        replaceTree(build(sortedItems, 0, sortedItems.length, height), sortedItems.length);
+    }
+
+    private void replaceTree(Node<T> root, int count)
+    {
+        assert !isView;
+        this.root = root;
+        this.count = count;
+        version++;
+    }
+
+    /**
+     * Builds a left-leaning red-black tree from a range of sorted values, in the shape of a 2-3 tree of the specified
+     * height. A 2-node becomes a black node, and a 3-node becomes a black node with a red left child.
+     * <p>
+     * A 2-3 tree of height h holds from 2^h - 1 to 3^h - 1 values. The values are split as evenly as possible among
+     * the children, which keeps each child within the bounds of height h - 1. Height floor(log2(n + 1)) always fits n
+     * values.
+     */
+    private static <T> Node<T> build(T[] items, int start, int count, int height)
+    {
+        if (count == 0)
+            return null;
+
+        long maxOfTwoNode = 2 * (pow3(height - 1) - 1) + 1;
+        if (count <= maxOfTwoNode)
+        {
+            int leftCount = (count - 1) / 2;
+            Node<T> node = new Node<>(items[start + leftCount], BLACK, count);
+            node.left = build(items, start, leftCount, height - 1);
+            node.right = build(items, start + leftCount + 1, count - 1 - leftCount, height - 1);
+            return node;
+        }
+
+        int childrenCount = count - 2;
+        int leftCount = childrenCount / 3;
+        int middleCount = (childrenCount - leftCount) / 2;
+        int rightCount = childrenCount - leftCount - middleCount;
+
+        Node<T> red = new Node<>(items[start + leftCount], RED, leftCount + middleCount + 1);
+        red.left = build(items, start, leftCount, height - 1);
+        red.right = build(items, start + leftCount + 1, middleCount, height - 1);
+
+        Node<T> node = new Node<>(items[start + leftCount + middleCount + 1], BLACK, count);
+        node.left = red;
+        node.right = build(items, start + count - rightCount, rightCount, height - 1);
+        return node;
+    }
+
+    private static long pow3(int exponent)
+    {
+        long power = 1;
+        for (int i = 0; i < exponent; i++)
+            power *= 3;
+
+        return power;
+    }
+
+    private Node<T> findNode(T item)
+    {
+        Node<T> current = tree.root;
+        while (current != null)
+        {
+            int compare = comparator.compare(item, current.item);
+            if (compare == 0)
+                return current;
+
+            current = compare < 0 ? current.left : current.right;
+        }
+
         return null;
     }
+
+    /**
+     * Gets the number of values in the tree that are less than the specified value, or less than or equal to it if
+     * {@code inclusive} is {@code true}.
+     */
+    private int rank(T item, boolean inclusive)
+    {
+        int rank = 0;
+        Node<T> current = tree.root;
+        while (current != null)
+        {
+            int compare = comparator.compare(item, current.item);
+            if (compare < 0)
+                current = current.left;
+            else if (compare > 0)
+            {
+                rank += size(current.left) + 1;
+                current = current.right;
+            }
+            else
+                return rank + size(current.left) + (inclusive ? 1 : 0);
+        }
+
+        return rank;
+    }
+
+    /**
+     * Finds the node with the smallest value that is greater than or equal to the specified value.
+     */
+    private Node<T> ceilingNode(T item)
+    {
+        Node<T> ceiling = null;
+        Node<T> current = tree.root;
+        while (current != null)
+        {
+            int compare = comparator.compare(item, current.item);
+            if (compare == 0)
+                return current;
+
+            if (compare < 0)
+            {
+                ceiling = current;
+                current = current.left;
+            }
+            else
+                current = current.right;
+        }
+
+        return ceiling;
+    }
+
+    /**
+     * Finds the node with the largest value that is less than or equal to the specified value.
+     */
+    private Node<T> floorNode(T item)
+    {
+        Node<T> floor = null;
+        Node<T> current = tree.root;
+        while (current != null)
+        {
+            int compare = comparator.compare(item, current.item);
+            if (compare == 0)
+                return current;
+
+            if (compare > 0)
+            {
+                floor = current;
+                current = current.right;
+            }
+            else
+                current = current.left;
+        }
+
+        return floor;
+    }
+
+    private static <T> Node<T> minAt(Node<T> node)
+    {
+        if (node == null)
+            return null;
+
+        while (node.left != null)
+            node = node.left;
+
+        return node;
+    }
+
+    private static <T> Node<T> maxAt(Node<T> node)
+    {
+        if (node == null)
+            return null;
+
+        while (node.right != null)
+            node = node.right;
+
+        return node;
+    }
+
+    /**
+     * Inserts a value that is not in the tree into the subtree rooted at {@code h}.
+     */
+    private Node<T> add(Node<T> h, T item)
+    {
+        if (h == null)
+            return new Node<>(item, RED, 1);
+
+        if (comparator.compare(item, h.item) < 0)
+            h.left = add(h.left, item);
+        else
+            h.right = add(h.right, item);
+
+        // Fix-up any right-leaning links.
+        if (isRed(h.right) && !isRed(h.left))
+            h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left))
+            h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right))
+            flipColors(h);
+        h.subtreeNodeCount = size(h.left) + size(h.right) + 1;
+
+        return h;
+    }
+
+    /**
+     * Removes a value that is in the tree from the subtree rooted at {@code h}.
+     */
+    private Node<T> remove(Node<T> h, T item)
+    {
+        if (comparator.compare(item, h.item) < 0)
+        {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h.left = remove(h.left, item);
+        }
+        else
+        {
+            if (isRed(h.left))
+                h = rotateRight(h);
+
+            if ((comparator.compare(item, h.item) == 0) && (h.right == null))
+                return null;
+
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+
+            if (comparator.compare(item, h.item) == 0)
+            {
+                // Replace the value with its successor, and remove the successor from the right subtree.
+                h.item = minAt(h.right).item;
+                h.right = removeMin(h.right);
+            }
+            else
+                h.right = remove(h.right, item);
+        }
+
+        return balance(h);
+    }
+
+    private Node<T> removeMin(Node<T> h)
+    {
+        if (h.left == null)
+            return null;
+
+        if (!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+
+        h.left = removeMin(h.left);
+        return balance(h);
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> h)
+    {
+        Node<T> x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.subtreeNodeCount = h.subtreeNodeCount;
+        h.subtreeNodeCount = size(h.left) + size(h.right) + 1;
+        return x;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> h)
+    {
+        Node<T> x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.subtreeNodeCount = h.subtreeNodeCount;
+        h.subtreeNodeCount = size(h.left) + size(h.right) + 1;
+        return x;
+    }
+
+    /**
+     * Flips the colors of a node and its 2 children.
+     */
+    private static void flipColors(Node<?> parent)
+    {
+        parent.color = !parent.color;
+        parent.left.color = !parent.left.color;
+        parent.right.color = !parent.right.color;
+    }
+
+    /**
+     * Assuming that {@code h} is red and both {@code h.left} and {@code h.left.left} are black, make {@code h.left}
+     * or one of its children red.
+     */
+    private static <T> Node<T> moveRedLeft(Node<T> h)
+    {
+        flipColors(h);
+        if (isRed(h.right.left))
+        {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+
+        return h;
+    }
+
+    /**
+     * Assuming that {@code h} is red and both {@code h.right} and {@code h.right.left} are black, make
+     * {@code h.right} or one of its children red.
+     */
+    private static <T> Node<T> moveRedRight(Node<T> h)
+    {
+        flipColors(h);
+        if (isRed(h.left.left))
+        {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+
+        return h;
+    }
+
+    /**
+     * Restores red-black tree invariant.
+     */
+    private static <T> Node<T> balance(Node<T> h)
+    {
+        if (isRed(h.right) && !isRed(h.left))
+            h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left))
+            h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right))
+            flipColors(h);
+
+        h.subtreeNodeCount = size(h.left) + size(h.right) + 1;
+        return h;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodes(int size)
+    {
+        return (Node<T>[]) new Node<?>[size];
+    }
+
+    /**
+     * Iterates the values of the range of this set in order, with a stack of the nodes whose left subtrees (right
+     * subtrees in reverse order) are being visited.
+     */
+    private final class TreeIterator implements Iterator<T>
+    {
+        private final int version = tree.version;
+        private final boolean reverse;
+        private final Node<T>[] stack;
+        private int stackCount;
+
+        private TreeIterator(boolean reverse)
+        {
+            this.reverse = reverse;
+
+            // The height of a red-black tree is at most 2 log2(n + 1).
+            stack = newNodes(2 * (32 - Integer.numberOfLeadingZeros(tree.count + 1)) + 1);
+
+            // Push the path to the first value in range, skipping the subtrees before it.
+            Node<T> current = tree.root;
+            while (current != null)
+            {
+                if (isView && (reverse ? comparator.compare(current.item, upperValue) > 0
+                                       : comparator.compare(current.item, lowerValue) < 0))
+                    current = reverse ? current.left : current.right;
+                else
+                {
+                    stack[stackCount++] = current;
+                    current = reverse ? current.right : current.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (stackCount == 0)
+                return false;
+            if (!isView)
+                return true;
+
+            T item = stack[stackCount - 1].item;
+            return reverse ? comparator.compare(item, lowerValue) >= 0 : comparator.compare(item, upperValue) <= 0;
+        }
+
+        @Override
+        public T next()
+        {
+            if (version != tree.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Node<T> node = stack[--stackCount];
+            Node<T> current = reverse ? node.left : node.right;
+            while (current != null)
+            {
+                stack[stackCount++] = current;
+                current = reverse ? current.right : current.left;
+            }
+
+            return node.item;
+        }
+    }
 }
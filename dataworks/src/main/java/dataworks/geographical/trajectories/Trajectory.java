@@ -2,7 +2,7 @@ package dataworks.geographical.trajectories;
 
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
-import dataworks.collections.LinkedList;
+import dataworks.collections.Deque;
 import org.jetbrains.annotations.Contract;
 
 import java.sql.Timestamp;
@@ -17,7 +17,7 @@ public class Trajectory
     private static final String Y = "Y";
     private static final String SAMPLING_TIME = "SamplingTime";
 
-    private LinkedList<SamplePoint> points;
+    private Deque<SamplePoint> points;
     private int trajectoryId;
     private Object tag;
 
@@ -46,7 +46,7 @@ public class Trajectory
     public Trajectory()
     {
         this.trajectoryId = -1;
-        this.points = new LinkedList<>();
+        this.points = new Deque<>();
         this.tag = null;
     }
 
@@ -106,7 +106,7 @@ public class Trajectory
             throw new NullPointerException("Argument \"points\" is null.");
 
         this.trajectoryId = id;
-        this.points = new LinkedList<>(points);
+        this.points = new Deque<>(points);
         tag = null;
     }
 
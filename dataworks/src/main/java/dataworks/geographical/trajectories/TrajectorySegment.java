@@ -125,16 +125,16 @@ public class TrajectorySegment
                 return new TopologicalSpatialRelationship(TopologicalPredicate.ENTER, roi);
             else if (inside)
                 return new TopologicalSpatialRelationship(TopologicalPredicate.WALK_INSIDE, roi);
-            else if (outside && polyLine.distanceTo(boxCenter) <= radius)
+            else if (outside && polyLine.isWithinDistance(boxCenter, radius))
                 return new TopologicalSpatialRelationship(TopologicalPredicate.PASS_BY, roi);
-            else if (outside && polyLine.distanceTo(boxCenter) > radius)
+            else if (outside)
                 return new TopologicalSpatialRelationship(TopologicalPredicate.NULL, roi);
         }
         else
         {
             if (inside)
                 return new TopologicalSpatialRelationship(TopologicalPredicate.STAY_INSIDE, roi);
-            else if (outside && (polyLine.distanceTo(boxCenter) <= radius))
+            else if (outside && polyLine.isWithinDistance(boxCenter, radius))
                 return new TopologicalSpatialRelationship(TopologicalPredicate.STAY_OUTSIDE, roi);
         }
 
@@ -1,12 +1,13 @@
 package dataworks.graphs.directed;
 
 import dataworks.ArgumentOutOfRangeException;
-import dataworks.collections.LinkedList;
-import dataworks.collections.Stack;
+import dataworks.collections.IntArrayList;
 import dataworks.io.File;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 public class Digraph implements Serializable
 {
@@ -20,7 +21,11 @@ public class Digraph implements Serializable
      */
     private int edgeCount;
 
-    private LinkedList<Integer>[] adjacent;
+    /**
+     * Adjacency lists, in which edges are stored in the order they are added and enumerated in reverse order, so that
+     * the latest edge comes first.
+     */
+    private IntArrayList[] adjacent;
 
     private int[] inDegree;
 
@@ -47,9 +52,9 @@ public class Digraph implements Serializable
         this.vertexCount = vertexCount;
         this.edgeCount = 0;
         inDegree = new int[vertexCount];
-        adjacent = new LinkedList[vertexCount];
+        adjacent = new IntArrayList[vertexCount];
         for (int v = 0; v < vertexCount; v++)
-            adjacent[v] = new LinkedList<>();
+            adjacent[v] = new IntArrayList();
     }
 
     /**
@@ -81,15 +86,15 @@ public class Digraph implements Serializable
 
         // Create arrays of inDegree and adjacency lists.
         inDegree = new int[vertexCount];
-        adjacent = new LinkedList[vertexCount];
+        adjacent = new IntArrayList[vertexCount];
 
         // Initialize all adjacency lists to empty.
         for (int v = 0; v < vertexCount; v++)
-            adjacent[v] = new LinkedList<>();
+            adjacent[v] = new IntArrayList();
 
         // Add edges from numbers[].
         for (int e = 1; e <= edgeCount; e++)
-            adjacent[numbers[2 * e]].addFirst(numbers[2 * e + 1]);
+            adjacent[numbers[2 * e]].add(numbers[2 * e + 1]);
     }
 
     /**
@@ -106,13 +111,7 @@ public class Digraph implements Serializable
             inDegree[v] = g.inDegree[v];
 
         for (int v = 0; v < g.vertexCount; v++)
-        {
-            Stack<Integer> reverse = new Stack<>();
-            for (int w : g.adjacent(v))
-                reverse.push(w);
-            for (int w : reverse)
-                adjacent[v].addFirst(w);
-        }
+            adjacent[v].addRange(g.adjacent[v]);
     }
 
     /**
@@ -124,7 +123,26 @@ public class Digraph implements Serializable
     public Iterable<Integer> adjacent(int v)
     {
         validateVertex(v);
-        return adjacent[v];
+        IntArrayList edges = adjacent[v];
+        return () -> new Iterator<Integer>()
+        {
+            private int index = edges.count();
+
+            @Override
+            public boolean hasNext()
+            {
+                return index > 0;
+            }
+
+            @Override
+            public Integer next()
+            {
+                if (index <= 0)
+                    throw new NoSuchElementException();
+
+                return edges.get(--index);
+            }
+        };
     }
 
     /**
@@ -147,7 +165,7 @@ public class Digraph implements Serializable
     {
         validateVertex(v);
         validateVertex(w);
-        adjacent[v].addFirst(w);
+        adjacent[v].add(w);
         inDegree[w]++;
         edgeCount++;
     }
@@ -183,8 +201,8 @@ public class Digraph implements Serializable
         Digraph reverse = new Digraph(vertexCount);
         for (int v = 0; v < vertexCount; v++)
         {
-            for (int w : adjacent[v])
-                reverse.addEdge(w, v);
+            for (int i = adjacent[v].count() - 1; i >= 0; i--)
+                reverse.addEdge(adjacent[v].get(i), v);
         }
         return reverse;
     }
@@ -206,9 +224,9 @@ public class Digraph implements Serializable
         {
             digraph.append(v);
             digraph.append(": ");
-            for (int w : adjacent[v])
+            for (int i = adjacent[v].count() - 1; i >= 0; i--)
             {
-                digraph.append(w);
+                digraph.append(adjacent[v].get(i));
                 digraph.append(" ");
             }
             digraph.append(System.lineSeparator());
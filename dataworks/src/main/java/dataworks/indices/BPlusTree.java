@@ -1,5 +1,1099 @@
 package dataworks.indices;
 
-public class BPlusTree
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+import dataworks.KeyNotFountException;
+import dataworks.collections.IntObjectHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@link BPlusTree} class represents an ordered dictionary that is stored in a file, so that it can hold far more
+ * key-value pairs than fit in the heap, and be opened again later.
+ * <p>
+ * The file is a sequence of fixed-size pages. Page 0 is the header, and every other page is a node of the tree. Keys
+ * and values are written in fixed-size slots by {@link Serializer}s. All key-value pairs are in the leaves, which are
+ * linked from left to right, so a {@link Cursor} scans a range by reading the leaves in order. Non-leaf nodes only
+ * route searches: entry i of a non-leaf node holds the smallest key of child i, except entry 0, whose key is not used.
+ * <p>
+ * Recently used pages are kept in a small LRU cache, and changed pages are written back when they are evicted, or by
+ * {@link #flush()} and {@link #close()}. Removing keys doesn't merge leaves, which suits indices that mostly grow, such
+ * as indices of timestamps. A {@link BPlusTree} is not thread-safe.
+ *
+ * @param <TKey>   The type of keys in the BPlusTree.
+ * @param <TValue> The type of values in the BPlusTree.
+ */
+public class BPlusTree<TKey extends Comparable<TKey>, TValue> implements Closeable
 {
+    /**
+     * The {@link Serializer} interface writes and reads values of a type in slots of a fixed number of bytes.
+     *
+     * @param <T> The type of values to serialize.
+     */
+    public interface Serializer<T>
+    {
+        /**
+         * Gets the number of bytes of a slot.
+         *
+         * @return The number of bytes that {@link #write(ByteBuffer, int, Object)} writes for each value.
+         */
+        int size();
+
+        /**
+         * Writes a value to the slot at the specified position of a buffer, without changing the position of the
+         * buffer.
+         *
+         * @param buffer   The buffer to write to.
+         * @param position The position of the slot in the buffer.
+         * @param value    The value to write.
+         */
+        void write(ByteBuffer buffer, int position, T value);
+
+        /**
+         * Reads a value from the slot at the specified position of a buffer, without changing the position of the
+         * buffer.
+         *
+         * @param buffer   The buffer to read from.
+         * @param position The position of the slot in the buffer.
+         * @return The value in the slot.
+         */
+        T read(ByteBuffer buffer, int position);
+
+        /**
+         * Serializes {@link Integer} values in 4 bytes.
+         */
+        Serializer<Integer> INT = new Serializer<Integer>()
+        {
+            @Override
+            public int size()
+            {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int position, Integer value)
+            {
+                buffer.putInt(position, value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer, int position)
+            {
+                return buffer.getInt(position);
+            }
+        };
+
+        /**
+         * Serializes {@link Long} values, such as ticks of timestamps, in 8 bytes.
+         */
+        Serializer<Long> LONG = new Serializer<Long>()
+        {
+            @Override
+            public int size()
+            {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int position, Long value)
+            {
+                buffer.putLong(position, value);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer, int position)
+            {
+                return buffer.getLong(position);
+            }
+        };
+
+        /**
+         * Serializes {@link Double} values in 8 bytes.
+         */
+        Serializer<Double> DOUBLE = new Serializer<Double>()
+        {
+            @Override
+            public int size()
+            {
+                return Double.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int position, Double value)
+            {
+                buffer.putDouble(position, value);
+            }
+
+            @Override
+            public Double read(ByteBuffer buffer, int position)
+            {
+                return buffer.getDouble(position);
+            }
+        };
+
+        /**
+         * Creates a {@link Serializer} of strings, which writes the length and the UTF-8 bytes of a string in a slot
+         * of {@code maxBytes + 2} bytes.
+         *
+         * @param maxBytes The maximum number of UTF-8 bytes of a string.
+         * @return A {@link Serializer} of strings. Its write method throws {@link IllegalArgumentException} for a
+         * longer string.
+         * @throws ArgumentOutOfRangeException {@code maxBytes} is out of range [1, 65535].
+         */
+        static Serializer<String> string(int maxBytes)
+        {
+            if ((maxBytes < 1) || (maxBytes > 0xFFFF))
+                throw new ArgumentOutOfRangeException("\"maxBytes\" must be in range [1, 65535].");
+
+            return new Serializer<String>()
+            {
+                @Override
+                public int size()
+                {
+                    return Short.BYTES + maxBytes;
+                }
+
+                @Override
+                public void write(ByteBuffer buffer, int position, String value)
+                {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > maxBytes)
+                        throw new IllegalArgumentException("The string is longer than " + maxBytes + " bytes in UTF-8.");
+
+                    buffer.putShort(position, (short) bytes.length);
+                    buffer.duplicate().position(position + Short.BYTES).put(bytes);
+                }
+
+                @Override
+                public String read(ByteBuffer buffer, int position)
+                {
+                    byte[] bytes = new byte[buffer.getShort(position) & 0xFFFF];
+                    buffer.duplicate().position(position + Short.BYTES).get(bytes);
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+            };
+        }
+    }
+
+    /**
+     * The default number of bytes of a page, which is the usual size of a page of the file system.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+
+    /**
+     * The default number of pages that are kept in the cache.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 256;
+
+    private static final int MAGIC = 0x42505452;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+
+    /**
+     * Page number that means there is no page. Page 0 is the header, which is never a node.
+     */
+    private static final int NO_PAGE = 0;
+
+    /**
+     * Offsets of the fields of a node page, which are followed by the slots of keys and then the slots of values (in
+     * leaves) or child page numbers (in non-leaf nodes).
+     */
+    private static final int COUNT_OFFSET = 0;
+    private static final int NEXT_OFFSET = 4;
+    private static final int NODE_HEADER_SIZE = 8;
+
+    /**
+     * A page of the file that is loaded in the cache. The pages in the cache are linked from the most recently used
+     * to the least recently used.
+     */
+    private static final class Page
+    {
+        private final int id;
+        private final ByteBuffer buffer;
+        private boolean dirty;
+        private Page newer;
+        private Page older;
+
+        private Page(int id, ByteBuffer buffer)
+        {
+            this.id = id;
+            this.buffer = buffer;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Serializer<TKey> keySerializer;
+    private final Serializer<TValue> valueSerializer;
+    private final int pageSize;
+    private final int keySize;
+    private final int valueSize;
+
+    /**
+     * Maximum number of entries in a leaf and in a non-leaf node.
+     */
+    private final int leafCapacity;
+    private final int internalCapacity;
+
+    /**
+     * Offsets of the first value slot of a leaf and the first child slot of a non-leaf node.
+     */
+    private final int valuesOffset;
+    private final int childrenOffset;
+
+    private int rootPage;
+    private int height;
+    private int pageCount;
+    private long count;
+    private boolean headerDirty;
+
+    /**
+     * Number of changes to the keys of the tree, which invalidates the cursors.
+     */
+    private int version;
+
+    /**
+     * The key and the value being inserted, serialized before any page is changed, so that a key or a value that
+     * cannot be serialized leaves the pages as they were.
+     */
+    private final ByteBuffer entry;
+
+    private final int cacheCapacity;
+    private final IntObjectHashMap<Page> cache;
+    private Page mostRecent;
+    private Page leastRecent;
+
+    /**
+     * Opens the {@link BPlusTree} stored in the specified file, or creates it with pages of
+     * {@link #DEFAULT_PAGE_SIZE} bytes if the file doesn't exist or is empty.
+     *
+     * @param path            Path of the file.
+     * @param keySerializer   The serializer of keys.
+     * @param valueSerializer The serializer of values.
+     * @throws NullPointerException     One of the arguments is null.
+     * @throws IllegalArgumentException The file was created with serializers of other sizes.
+     * @throws IOException              An I/O error occurs, or the file is not a {@link BPlusTree}.
+     */
+    public BPlusTree(String path, Serializer<TKey> keySerializer, Serializer<TValue> valueSerializer) throws IOException
+    {
+        this(path, keySerializer, valueSerializer, DEFAULT_PAGE_SIZE, DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Opens the {@link BPlusTree} stored in the specified file, or creates it if the file doesn't exist or is empty.
+     *
+     * @param path            Path of the file.
+     * @param keySerializer   The serializer of keys.
+     * @param valueSerializer The serializer of values.
+     * @param pageSize        Number of bytes of a page, which must be a power of 2. It is only used when the file is
+     *                        created; an existing file keeps its page size.
+     * @param cacheCapacity   Number of pages to keep in the cache.
+     * @throws NullPointerException        One of the arguments is null.
+     * @throws ArgumentOutOfRangeException {@code pageSize} is not a power of 2 in range [64, 2^30], or
+     *                                     {@code cacheCapacity} is less than 1.
+     * @throws IllegalArgumentException    A page cannot hold 3 entries, or the file was created with serializers of
+     *                                     other sizes.
+     * @throws IOException                 An I/O error occurs, or the file is not a {@link BPlusTree}.
+     */
+    public BPlusTree(String path, Serializer<TKey> keySerializer, Serializer<TValue> valueSerializer, int pageSize,
+                     int cacheCapacity) throws IOException
+    {
+        if (path == null)
+            throw new NullPointerException("Argument \"path\" cannot be null.");
+        if (keySerializer == null)
+            throw new NullPointerException("Argument \"keySerializer\" cannot be null.");
+        if (valueSerializer == null)
+            throw new NullPointerException("Argument \"valueSerializer\" cannot be null.");
+        if ((pageSize < 64) || (pageSize > (1 << 30)) || (Integer.bitCount(pageSize) != 1))
+            throw new ArgumentOutOfRangeException("\"pageSize\" must be a power of 2 in range [64, 2^30].");
+        if (cacheCapacity < 1)
+            throw new ArgumentOutOfRangeException("\"cacheCapacity\" must be a positive integer.");
+
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.keySize = keySerializer.size();
+        this.valueSize = valueSerializer.size();
+        this.entry = ByteBuffer.allocate(keySize + valueSize);
+        this.cacheCapacity = cacheCapacity;
+        this.cache = new IntObjectHashMap<>(cacheCapacity + 1);
+
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                   StandardOpenOption.CREATE);
+        try
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            boolean exists = channel.size() > 0;
+            if (exists)
+            {
+                readFully(header, 0);
+                if ((header.getInt(0) != MAGIC) || (header.getInt(4) != FORMAT_VERSION))
+                    throw new IOException("The file is not a BPlusTree of a supported format.");
+                if ((header.getInt(12) != keySize) || (header.getInt(16) != valueSize))
+                    throw new IllegalArgumentException("The sizes of the serializers don't match the file.");
+
+                pageSize = header.getInt(8);
+                rootPage = header.getInt(20);
+                height = header.getInt(24);
+                pageCount = header.getInt(28);
+                count = header.getLong(32);
+            }
+
+            this.pageSize = pageSize;
+            leafCapacity = (pageSize - NODE_HEADER_SIZE) / (keySize + valueSize);
+            internalCapacity = (pageSize - NODE_HEADER_SIZE) / (keySize + Integer.BYTES);
+            if ((leafCapacity < 3) || (internalCapacity < 3))
+                throw new IllegalArgumentException("A page of " + pageSize + " bytes cannot hold 3 entries.");
+            valuesOffset = NODE_HEADER_SIZE + leafCapacity * keySize;
+            childrenOffset = NODE_HEADER_SIZE + internalCapacity * keySize;
+
+            if (!exists)
+            {
+                // An empty leaf is a page of zeros, with no entries and no next leaf.
+                pageCount = 1;
+                rootPage = allocatePage().id;
+                headerDirty = true;
+                flush();
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of key-value pairs in this {@link BPlusTree}.
+     *
+     * @return The number of key-value pairs in this {@link BPlusTree}.
+     */
+    public long count()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the height of this {@link BPlusTree}, which is 0 if the root is a leaf.
+     *
+     * @return The height of this {@link BPlusTree}.
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key The key of the value to get.
+     * @return The value associated with the specified key.
+     * @throws NullPointerException The specified key is null.
+     * @throws KeyNotFountException The specified key is not in the {@link BPlusTree}.
+     * @throws IOException          An I/O error occurs.
+     */
+    public TValue get(TKey key) throws IOException
+    {
+        validateKey(key);
+        Page leaf = findLeaf(key);
+        int i = leafIndex(leaf, key);
+        TValue value = i >= 0 ? valueAt(leaf, i) : null;
+        trimCache();
+
+        if (i < 0)
+            throw new KeyNotFountException("The specified key is not in the BPlusTree.");
+        return value;
+    }
+
+    /**
+     * Determines whether this {@link BPlusTree} contains the specified key.
+     *
+     * @param key The key to locate.
+     * @return {@code true} if the key is found; otherwise, {@code false}.
+     * @throws NullPointerException The specified key is null.
+     * @throws IOException          An I/O error occurs.
+     */
+    public boolean containsKey(TKey key) throws IOException
+    {
+        validateKey(key);
+        boolean found = leafIndex(findLeaf(key), key) >= 0;
+        trimCache();
+        return found;
+    }
+
+    /**
+     * Adds a key-value pair to this {@link BPlusTree}.
+     *
+     * @param key   The key of the pair to add.
+     * @param value The value of the pair to add.
+     * @throws NullPointerException     The specified key or value is null.
+     * @throws IllegalArgumentException The specified key is already in the {@link BPlusTree}, or cannot be serialized.
+     * @throws IOException              An I/O error occurs.
+     */
+    public void add(TKey key, TValue value) throws IOException
+    {
+        insert(key, value, true);
+    }
+
+    /**
+     * Sets the value associated with the specified key. If the key is not in the {@link BPlusTree}, the pair is added.
+     *
+     * @param key   The key of the value to set.
+     * @param value The new value associated with the key.
+     * @throws NullPointerException     The specified key or value is null.
+     * @throws IllegalArgumentException The key or the value cannot be serialized.
+     * @throws IOException              An I/O error occurs.
+     */
+    public void set(TKey key, TValue value) throws IOException
+    {
+        insert(key, value, false);
+    }
+
+    /**
+     * Removes the key-value pair with the specified key. The leaf that contained the pair is not merged with its
+     * siblings, even if it becomes empty.
+     *
+     * @param key The key of the pair to remove.
+     * @return {@code true} if the pair is removed; {@code false} if the key is not in the {@link BPlusTree}.
+     * @throws NullPointerException The specified key is null.
+     * @throws IOException          An I/O error occurs.
+     */
+    public boolean removeByKey(TKey key) throws IOException
+    {
+        validateKey(key);
+        Page leaf = findLeaf(key);
+        int i = leafIndex(leaf, key);
+        if (i >= 0)
+        {
+            int n = countOf(leaf);
+            copyLeafEntries(leaf, i + 1, leaf, i, n - i - 1);
+            setCount(leaf, n - 1);
+            count--;
+            version++;
+            headerDirty = true;
+        }
+
+        trimCache();
+        return i >= 0;
+    }
+
+    /**
+     * Creates a {@link Cursor} that is positioned before the first key-value pair of the {@link BPlusTree}.
+     *
+     * @return A new {@link Cursor} of the {@link BPlusTree}.
+     */
+    public Cursor cursor()
+    {
+        return new Cursor();
+    }
+
+    /**
+     * Writes all changed pages and the header to the file, and forces them to the storage device.
+     *
+     * @throws IOException An I/O error occurs.
+     */
+    public void flush() throws IOException
+    {
+        for (Page page = mostRecent; page != null; page = page.older)
+        {
+            if (page.dirty)
+                writePage(page);
+        }
+
+        if (headerDirty)
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(pageSize).putInt(keySize).putInt(valueSize)
+                  .putInt(rootPage).putInt(height).putInt(pageCount).putLong(count);
+            header.flip();
+            writeFully(header, 0);
+            headerDirty = false;
+        }
+
+        channel.force(false);
+    }
+
+    /**
+     * Flushes the changes and closes the file. The {@link BPlusTree} cannot be used after it is closed.
+     *
+     * @throws IOException An I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!channel.isOpen())
+            return;
+
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Inserts the specified key-value pair. The path from the root is recorded on the way down, so that full nodes
+     * can be split on the way back up.
+     *
+     * @param add Whether an existing key is an error, rather than a value to replace.
+     */
+    private void insert(TKey key, TValue value, boolean add) throws IOException
+    {
+        validateKey(key);
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+        keySerializer.write(entry, 0, key);
+        valueSerializer.write(entry, keySize, value);
+
+        int[] pathPages = new int[height + 1];
+        int[] pathIndices = new int[height + 1];
+        int id = rootPage;
+        for (int h = height; h > 0; h--)
+        {
+            Page node = page(id);
+            int i = childIndex(node, key);
+            pathPages[h] = id;
+            pathIndices[h] = i;
+            id = childAt(node, i);
+        }
+
+        Page leaf = page(id);
+        int i = leafIndex(leaf, key);
+        if (i >= 0)
+        {
+            if (add)
+                throw new IllegalArgumentException("Try to add duplicate key.");
+
+            putEntryValue(leaf, i);
+            trimCache();
+            return;
+        }
+
+        i = ~i;
+        int n = countOf(leaf);
+        if (n < leafCapacity)
+        {
+            copyLeafEntries(leaf, i, leaf, i + 1, n - i);
+            putEntry(leaf, i);
+            setCount(leaf, n + 1);
+        }
+        else
+        {
+            // Split the leaf, so that the left one keeps the first half of the n + 1 entries.
+            Page right = allocatePage();
+            int leftCount = (n + 1) / 2;
+            Page target;
+            if (i < leftCount)
+            {
+                copyLeafEntries(leaf, leftCount - 1, right, 0, n - leftCount + 1);
+                copyLeafEntries(leaf, i, leaf, i + 1, leftCount - 1 - i);
+                target = leaf;
+            }
+            else
+            {
+                copyLeafEntries(leaf, leftCount, right, 0, i - leftCount);
+                copyLeafEntries(leaf, i, right, i - leftCount + 1, n - i);
+                target = right;
+                i -= leftCount;
+            }
+            putEntry(target, i);
+            setCount(leaf, leftCount);
+            setCount(right, n + 1 - leftCount);
+            setNext(right, nextOf(leaf));
+            setNext(leaf, right.id);
+
+            insertIntoParents(pathPages, pathIndices, keyAt(right, 0), right.id);
+        }
+
+        count++;
+        version++;
+        headerDirty = true;
+        trimCache();
+    }
+
+    /**
+     * Inserts the entry of a new node into its parent, splitting the parents that are full, and creates a new root if
+     * the root is split.
+     *
+     * @param separator The smallest key of the new node.
+     * @param child     Page number of the new node.
+     */
+    private void insertIntoParents(int[] pathPages, int[] pathIndices, TKey separator, int child) throws IOException
+    {
+        for (int h = 1; h <= height; h++)
+        {
+            Page node = page(pathPages[h]);
+            int i = pathIndices[h] + 1;
+            int n = countOf(node);
+            if (n < internalCapacity)
+            {
+                copyInternalEntries(node, i, node, i + 1, n - i);
+                writeKey(node, i, separator);
+                writeChild(node, i, child);
+                setCount(node, n + 1);
+                return;
+            }
+
+            Page right = allocatePage();
+            int leftCount = (n + 1) / 2;
+            Page target;
+            if (i < leftCount)
+            {
+                copyInternalEntries(node, leftCount - 1, right, 0, n - leftCount + 1);
+                copyInternalEntries(node, i, node, i + 1, leftCount - 1 - i);
+                target = node;
+            }
+            else
+            {
+                copyInternalEntries(node, leftCount, right, 0, i - leftCount);
+                copyInternalEntries(node, i, right, i - leftCount + 1, n - i);
+                target = right;
+                i -= leftCount;
+            }
+            writeKey(target, i, separator);
+            writeChild(target, i, child);
+            setCount(node, leftCount);
+            setCount(right, n + 1 - leftCount);
+
+            // The first entry of the new node came from index 1 or later, so its key is the smallest key of the node.
+            separator = keyAt(right, 0);
+            child = right.id;
+        }
+
+        Page root = allocatePage();
+        writeChild(root, 0, rootPage);
+        writeKey(root, 1, separator);
+        writeChild(root, 1, child);
+        setCount(root, 2);
+        rootPage = root.id;
+        height++;
+    }
+
+    private Page findLeaf(TKey key) throws IOException
+    {
+        Page node = page(rootPage);
+        for (int h = height; h > 0; h--)
+            node = page(childAt(node, childIndex(node, key)));
+
+        return node;
+    }
+
+    private Page firstLeaf() throws IOException
+    {
+        Page node = page(rootPage);
+        for (int h = height; h > 0; h--)
+            node = page(childAt(node, 0));
+
+        return node;
+    }
+
+    /**
+     * Finds the entry of a non-leaf node whose sub-tree should contain the specified key, by binary search over the
+     * keys of entries 1 to count - 1.
+     */
+    private int childIndex(Page node, TKey key)
+    {
+        int low = 1;
+        int high = countOf(node) - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if (key.compareTo(keyAt(node, middle)) < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
+        }
+
+        return low - 1;
+    }
+
+    /**
+     * Finds the specified key in a leaf by binary search.
+     *
+     * @return Index of the key if it is found; otherwise, the bitwise complement of the index at which the key should
+     * be inserted.
+     */
+    private int leafIndex(Page leaf, TKey key)
+    {
+        int low = 0;
+        int high = countOf(leaf) - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int compare = key.compareTo(keyAt(leaf, middle));
+            if (compare == 0)
+                return middle;
+            if (compare < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
+        }
+
+        return ~low;
+    }
+
+    /* Accessors of the fields and slots of node pages. */
+
+    private static int countOf(Page page)
+    {
+        return page.buffer.getInt(COUNT_OFFSET);
+    }
+
+    private static void setCount(Page page, int count)
+    {
+        page.buffer.putInt(COUNT_OFFSET, count);
+        page.dirty = true;
+    }
+
+    private static int nextOf(Page leaf)
+    {
+        return leaf.buffer.getInt(NEXT_OFFSET);
+    }
+
+    private static void setNext(Page leaf, int next)
+    {
+        leaf.buffer.putInt(NEXT_OFFSET, next);
+        leaf.dirty = true;
+    }
+
+    private TKey keyAt(Page page, int i)
+    {
+        return keySerializer.read(page.buffer, NODE_HEADER_SIZE + i * keySize);
+    }
+
+    private void writeKey(Page page, int i, TKey key)
+    {
+        keySerializer.write(page.buffer, NODE_HEADER_SIZE + i * keySize, key);
+        page.dirty = true;
+    }
+
+    private TValue valueAt(Page leaf, int i)
+    {
+        return valueSerializer.read(leaf.buffer, valuesOffset + i * valueSize);
+    }
+
+    /**
+     * Copies the serialized key and value of {@link #entry} to the specified slot of a leaf.
+     */
+    private void putEntry(Page leaf, int i)
+    {
+        System.arraycopy(entry.array(), 0, leaf.buffer.array(), NODE_HEADER_SIZE + i * keySize, keySize);
+        putEntryValue(leaf, i);
+    }
+
+    private void putEntryValue(Page leaf, int i)
+    {
+        System.arraycopy(entry.array(), keySize, leaf.buffer.array(), valuesOffset + i * valueSize, valueSize);
+        leaf.dirty = true;
+    }
+
+    private int childAt(Page node, int i)
+    {
+        return node.buffer.getInt(childrenOffset + i * Integer.BYTES);
+    }
+
+    private void writeChild(Page node, int i, int child)
+    {
+        node.buffer.putInt(childrenOffset + i * Integer.BYTES, child);
+        node.dirty = true;
+    }
+
+    /**
+     * Copies entries between leaves, or within a leaf when the ranges may overlap.
+     */
+    private void copyLeafEntries(Page from, int fromIndex, Page to, int toIndex, int length)
+    {
+        byte[] source = from.buffer.array();
+        byte[] destination = to.buffer.array();
+        System.arraycopy(source, NODE_HEADER_SIZE + fromIndex * keySize, destination,
+                         NODE_HEADER_SIZE + toIndex * keySize, length * keySize);
+        System.arraycopy(source, valuesOffset + fromIndex * valueSize, destination, valuesOffset + toIndex * valueSize,
+                         length * valueSize);
+        to.dirty = true;
+    }
+
+    /**
+     * Copies entries between non-leaf nodes, or within a non-leaf node when the ranges may overlap.
+     */
+    private void copyInternalEntries(Page from, int fromIndex, Page to, int toIndex, int length)
+    {
+        byte[] source = from.buffer.array();
+        byte[] destination = to.buffer.array();
+        System.arraycopy(source, NODE_HEADER_SIZE + fromIndex * keySize, destination,
+                         NODE_HEADER_SIZE + toIndex * keySize, length * keySize);
+        System.arraycopy(source, childrenOffset + fromIndex * Integer.BYTES, destination,
+                         childrenOffset + toIndex * Integer.BYTES, length * Integer.BYTES);
+        to.dirty = true;
+    }
+
+    /* The page cache. */
+
+    /**
+     * Gets the page with the specified number from the cache, or reads it from the file. The cache may hold more pages
+     * than its capacity until {@link #trimCache()} is called, so the pages used by one operation are never evicted
+     * while the operation changes them.
+     */
+    private Page page(int id) throws IOException
+    {
+        if (!channel.isOpen())
+            throw new InvalidOperationException("The BPlusTree is closed.");
+
+        Page page = cache.getOrDefault(id, null);
+        if (page == null)
+        {
+            page = new Page(id, ByteBuffer.allocate(pageSize));
+            readFully(page.buffer, (long) id * pageSize);
+            cache.put(id, page);
+        }
+        else
+            unlink(page);
+
+        linkAsMostRecent(page);
+        return page;
+    }
+
+    /**
+     * Appends a new page of zeros to the file, which is written when it is evicted or flushed.
+     */
+    private Page allocatePage()
+    {
+        Page page = new Page(pageCount++, ByteBuffer.allocate(pageSize));
+        page.dirty = true;
+        cache.put(page.id, page);
+        linkAsMostRecent(page);
+        headerDirty = true;
+        return page;
+    }
+
+    /**
+     * Evicts the least recently used pages until the cache is within its capacity, and writes the changed ones.
+     */
+    private void trimCache() throws IOException
+    {
+        while (cache.count() > cacheCapacity)
+        {
+            Page page = leastRecent;
+            unlink(page);
+            cache.removeByKey(page.id);
+            if (page.dirty)
+                writePage(page);
+        }
+    }
+
+    private void linkAsMostRecent(Page page)
+    {
+        page.older = mostRecent;
+        page.newer = null;
+        if (mostRecent != null)
+            mostRecent.newer = page;
+        else
+            leastRecent = page;
+        mostRecent = page;
+    }
+
+    private void unlink(Page page)
+    {
+        if (page.newer != null)
+            page.newer.older = page.older;
+        else
+            mostRecent = page.older;
+
+        if (page.older != null)
+            page.older.newer = page.newer;
+        else
+            leastRecent = page.newer;
+    }
+
+    private void writePage(Page page) throws IOException
+    {
+        page.buffer.clear();
+        writeFully(page.buffer, (long) page.id * pageSize);
+        page.dirty = false;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException
+    {
+        buffer.clear();
+        while (buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new IOException("Unexpected end of the BPlusTree file.");
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+            channel.write(buffer, position + buffer.position());
+    }
+
+    private static void validateKey(Object key)
+    {
+        if (key == null)
+            throw new NullPointerException("Argument \"key\" cannot be null.");
+    }
+
+    /**
+     * The {@link Cursor} class walks the key-value pairs of a {@link BPlusTree} in increasing order of keys, by
+     * following the links between the leaves. It only keeps the number of the current leaf page, which is read
+     * through the page cache.
+     * <p>
+     * A cursor is invalidated when keys are added to or removed from the {@link BPlusTree}.
+     */
+    public final class Cursor
+    {
+        /**
+         * Value of {@code leaf} before the first call of {@link #moveNext()} after a reset.
+         */
+        private static final int BEFORE_FIRST = -1;
+
+        /**
+         * Page number of the current leaf, or {@link #NO_PAGE} after the last pair.
+         */
+        private int leaf;
+        private int index;
+        private int version;
+        private boolean onEntry;
+
+        private Cursor()
+        {
+            reset();
+        }
+
+        /**
+         * Positions the cursor before the first key-value pair. A cursor that is invalidated by a change of the
+         * {@link BPlusTree} can be used again after this method is called.
+         */
+        public void reset()
+        {
+            version = BPlusTree.this.version;
+            leaf = BEFORE_FIRST;
+            index = -1;
+            onEntry = false;
+        }
+
+        /**
+         * Positions the cursor before the first key-value pair whose key is greater than or equal to the specified
+         * key, so that the next call of {@link #moveNext()} moves to that pair.
+         *
+         * @param key The key to seek.
+         * @throws NullPointerException      The specified key is null.
+         * @throws InvalidOperationException The {@link BPlusTree} has been modified since the cursor was created.
+         * @throws IOException               An I/O error occurs.
+         */
+        public void seek(TKey key) throws IOException
+        {
+            validateKey(key);
+            checkVersion();
+
+            Page page = findLeaf(key);
+            int i = leafIndex(page, key);
+            leaf = page.id;
+            index = (i >= 0 ? i : ~i) - 1;
+            onEntry = false;
+            trimCache();
+        }
+
+        /**
+         * Moves the cursor to the next key-value pair.
+         *
+         * @return {@code true} if the cursor is on the next pair; {@code false} if there are no more pairs.
+         * @throws InvalidOperationException The {@link BPlusTree} has been modified since the cursor was created.
+         * @throws IOException               An I/O error occurs.
+         */
+        public boolean moveNext() throws IOException
+        {
+            checkVersion();
+            if (leaf == BEFORE_FIRST)
+                leaf = firstLeaf().id;
+
+            onEntry = false;
+            while (leaf != NO_PAGE)
+            {
+                // Leaves emptied by removals are skipped.
+                Page page = page(leaf);
+                if (++index < countOf(page))
+                {
+                    onEntry = true;
+                    break;
+                }
+
+                leaf = nextOf(page);
+                index = -1;
+            }
+
+            trimCache();
+            return onEntry;
+        }
+
+        /**
+         * Gets the key of the current key-value pair.
+         *
+         * @return The key of the current pair.
+         * @throws InvalidOperationException The cursor is not on a pair.
+         * @throws IOException               An I/O error occurs.
+         */
+        public TKey getKey() throws IOException
+        {
+            TKey key = keyAt(current(), index);
+            trimCache();
+            return key;
+        }
+
+        /**
+         * Gets the value of the current key-value pair.
+         *
+         * @return The value of the current pair.
+         * @throws InvalidOperationException The cursor is not on a pair.
+         * @throws IOException               An I/O error occurs.
+         */
+        public TValue getValue() throws IOException
+        {
+            TValue value = valueAt(current(), index);
+            trimCache();
+            return value;
+        }
+
+        /**
+         * Sets the value of the current key-value pair. It doesn't invalidate the cursors of the {@link BPlusTree}.
+         *
+         * @param value The new value of the current pair.
+         * @throws NullPointerException      The specified value is null.
+         * @throws InvalidOperationException The cursor is not on a pair.
+         * @throws IOException               An I/O error occurs.
+         */
+        public void setValue(TValue value) throws IOException
+        {
+            if (value == null)
+                throw new NullPointerException("Argument \"value\" cannot be null.");
+
+            Page leaf = current();
+            valueSerializer.write(entry, keySize, value);
+            putEntryValue(leaf, index);
+            trimCache();
+        }
+
+        private Page current() throws IOException
+        {
+            checkVersion();
+            if (!onEntry)
+                throw new InvalidOperationException("The cursor is not on a key-value pair.");
+
+            return page(leaf);
+        }
+
+        private void checkVersion()
+        {
+            if (version != BPlusTree.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+        }
+    }
 }
@@ -1,15 +1,18 @@
 package dataworks.indices;
 
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
 import dataworks.KeyNotFountException;
 import dataworks.collections.IDictionary;
 import dataworks.collections.KeyValuePair;
-import dataworks.collections.Queue;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Array;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
 
 /**
  * The {@link BTree} class represents an ordered dictionary of generic key-value pairs.
@@ -127,6 +130,11 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
      */
     private int count;
 
+    /**
+     * Number of changes to the keys of the B-tree, which invalidates the cursors and iterators.
+     */
+    private int version;
+
     /**
      * Initializes a {@link BTree} with specified maximum number of entries in a node.
      *
@@ -144,6 +152,149 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
         root = new Node(0, maxChildren);
     }
 
+    /**
+     * Builds a {@link BTree} with full nodes from key-value pairs sorted by key.
+     *
+     * @param pairs       The key-value pairs, in increasing order of keys.
+     * @param maxChildren Maximum number of entries in a node, as in {@link #BTree(int)}.
+     * @return A new {@link BTree} that contains the specified pairs.
+     * @see #build(Iterable, int, double)
+     */
+    public static <TKey extends Comparable<TKey>, TValue> BTree<TKey, TValue> build(
+            Iterable<KeyValuePair<TKey, TValue>> pairs, int maxChildren)
+    {
+        return build(pairs, maxChildren, 1.0);
+    }
+
+    /**
+     * Builds a {@link BTree} bottom-up from key-value pairs sorted by key, in one pass over the pairs. A node is full
+     * with {@code maxChildren - 1} entries, and nodes are filled to {@code fillFactor} of that, so the tree has fewer
+     * levels than one built by adding the pairs one by one, which leaves nodes about half full. A fill factor less
+     * than 1 leaves room in every node for later insertions without splits.
+     *
+     * @param pairs       The key-value pairs, in increasing order of keys.
+     * @param maxChildren Maximum number of entries in a node, as in {@link #BTree(int)}.
+     * @param fillFactor  The fraction of a full node to fill, in range [0.5, 1].
+     * @return A new {@link BTree} that contains the specified pairs.
+     * @throws NullPointerException        {@code pairs}, one of the pairs, or one of the keys or values is null.
+     * @throws ArgumentOutOfRangeException {@code fillFactor} is not in range [0.5, 1].
+     * @throws IllegalArgumentException    {@code maxChildren} is invalid, or the keys are not distinct and in
+     *                                     increasing order.
+     */
+    public static <TKey extends Comparable<TKey>, TValue> BTree<TKey, TValue> build(
+            Iterable<KeyValuePair<TKey, TValue>> pairs, int maxChildren, double fillFactor)
+    {
+        if (pairs == null)
+            throw new NullPointerException("The argument \"pairs\" cannot be null.");
+        if (!((fillFactor >= 0.5) && (fillFactor <= 1)))
+            throw new ArgumentOutOfRangeException("\"fillFactor\" must be in range [0.5, 1].");
+
+        BTree<TKey, TValue> tree = new BTree<>(maxChildren);
+        tree.load(pairs, fillFactor);
+        return tree;
+    }
+
+    /**
+     * Appends the sorted pairs to the rightmost node of every level, starting a new node when one has reached the
+     * fill factor, then makes the rightmost nodes at least half full.
+     */
+    private void load(Iterable<KeyValuePair<TKey, TValue>> pairs, double fillFactor)
+    {
+        // A node is full with MAX_CHILDREN - 1 entries, since insertion splits a node that reaches MAX_CHILDREN.
+        int capacity = MAX_CHILDREN - 1;
+        int fill = Math.max(MAX_CHILDREN / 2, Math.min(capacity, (int) Math.ceil(fillFactor * capacity)));
+
+        // The last node of every level and the node before it. Every node gets at least 2 entries, so there are at
+        // most 32 levels.
+        @SuppressWarnings("unchecked")
+        Node[] rightmost = (Node[]) Array.newInstance(Node.class, 32);
+        @SuppressWarnings("unchecked")
+        Node[] beforeRightmost = (Node[]) Array.newInstance(Node.class, 32);
+        rightmost[0] = root;
+        int top = 0;
+
+        TKey previous = null;
+        for (KeyValuePair<TKey, TValue> pair : pairs)
+        {
+            if (pair == null)
+                throw new NullPointerException("The key-value pair cannot be null.");
+            TKey key = pair.getKey();
+            if (key == null)
+                throw new NullPointerException("The key cannot be null.");
+            if (pair.getValue() == null)
+                throw new NullPointerException("The value cannot be null.");
+            if ((previous != null) && (previous.compareTo(key) >= 0))
+                throw new IllegalArgumentException("The keys must be distinct and in increasing order.");
+
+            Entry entry = new Entry(key, pair.getValue(), null);
+            for (int h = 0; ; h++)
+            {
+                Node node = rightmost[h];
+                if (node.childrenCount < fill)
+                {
+                    node.children[node.childrenCount++] = entry;
+                    break;
+                }
+
+                // Start a new node at this level, and append an entry of it to the level above.
+                if (h == top)
+                {
+                    Node parent = new Node(1, MAX_CHILDREN);
+                    parent.children[0] = new Entry(node.children[0].key, null, node);
+                    rightmost[++top] = parent;
+                }
+                Node sibling = new Node(1, MAX_CHILDREN);
+                sibling.children[0] = entry;
+                beforeRightmost[h] = node;
+                rightmost[h] = sibling;
+                entry = new Entry(entry.key, null, sibling);
+            }
+
+            previous = key;
+            count++;
+        }
+
+        // Only the rightmost node of a level can have less than half of the maximum entries. It is merged with the
+        // node before it if they fit in one node; otherwise, entries are moved from that node. The two may have
+        // different parents, but the entry of the rightmost node is always the last one of the level above.
+        for (int h = 0; h < top; h++)
+        {
+            Node node = rightmost[h];
+            if (node.childrenCount >= MAX_CHILDREN / 2)
+                continue;
+
+            Node parent = rightmost[h + 1];
+            Node left = beforeRightmost[h];
+            int total = left.childrenCount + node.childrenCount;
+            if (total < MAX_CHILDREN)
+            {
+                System.arraycopy(node.children, 0, left.children, left.childrenCount, node.childrenCount);
+                left.childrenCount = total;
+                parent.children[--parent.childrenCount] = null;
+                rightmost[h] = left;
+            }
+            else
+            {
+                int moved = total / 2 - node.childrenCount;
+                System.arraycopy(node.children, 0, node.children, moved, node.childrenCount);
+                System.arraycopy(left.children, left.childrenCount - moved, node.children, 0, moved);
+                for (int i = left.childrenCount - moved; i < left.childrenCount; i++)
+                    left.children[i] = null;
+                left.childrenCount -= moved;
+                node.childrenCount += moved;
+                parent.children[parent.childrenCount - 1].key = node.children[0].key;
+            }
+        }
+
+        // A merge may leave the top node with a single entry.
+        while ((top > 0) && (rightmost[top].childrenCount == 1))
+            top--;
+
+        root = rightmost[top];
+        height = top;
+        version++;
+    }
+
     /**
      * Gets the element associated with the specified key.
      *
@@ -190,28 +341,66 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
     @Nullable
     private Entry find(Node node, TKey key, int height)
     {
-        Entry[] children = node.children;
+        // Determine which branch to go until reaching the leaf, then try to find the expected entry in it.
+        for (; height > 0; height--)
+            node = node.children[childIndex(node, key)].next;
 
-        // If height is 0, try to find the expected node in leaf-entries.
-        // Otherwise, determine which branch to go.
-        if (height == 0)
+        int i = leafIndex(node, key);
+        return i >= 0 ? node.children[i] : null;
+    }
+
+    /**
+     * Finds the entry of a non-leaf node whose sub-tree should contain the specified key, by binary search. It is the
+     * last entry whose key is less than or equal to the specified key, or the first entry if there is none. The key of
+     * the first entry is never compared, since it may be larger than the smallest key of its sub-tree.
+     *
+     * @param node A non-leaf {@link Node}.
+     * @param key  The specified key.
+     * @return Index of the entry whose sub-tree should contain the key.
+     */
+    private int childIndex(Node node, TKey key)
+    {
+        Entry[] children = node.children;
+        int low = 1;
+        int high = node.childrenCount - 1;
+        while (low <= high)
         {
-            for (int i = 0; i < node.childrenCount; i++)
-            {
-                if (key.compareTo(children[i].key) == 0)
-                    return children[i];
-            }
+            int middle = (low + high) >>> 1;
+            if (key.compareTo(children[middle].key) < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
         }
-        else
+
+        return low - 1;
+    }
+
+    /**
+     * Finds the specified key in a leaf node by binary search.
+     *
+     * @param node A leaf {@link Node}.
+     * @param key  The specified key.
+     * @return Index of the entry that contains the key if it is found; otherwise, the bitwise complement of the index
+     * at which the key should be inserted.
+     */
+    private int leafIndex(Node node, TKey key)
+    {
+        Entry[] children = node.children;
+        int low = 0;
+        int high = node.childrenCount - 1;
+        while (low <= high)
         {
-            for (int i = 0; i < node.childrenCount; i++)
-            {
-                if ((i + 1 == node.childrenCount) || (key.compareTo(children[i + 1].key) < 0))
-                    return find(children[i].next, key, height - 1);
-            }
+            int middle = (low + high) >>> 1;
+            int compare = key.compareTo(children[middle].key);
+            if (compare == 0)
+                return middle;
+            if (compare < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
         }
 
-        return null;
+        return ~low;
     }
 
     /**
@@ -280,76 +469,51 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
     @Nullable
     private Node insert(Node node, TKey key, TValue value, int height, boolean add)
     {
-        // i is the index of the entry whose key is less than or equal to "key".
-        // After "break" statement, all entries in "node" with index less than i contain keys that are less than "key".
-        // And all entries in "node" with index greater than i contain keys tha are greater than "key".
-        // Thus, the given key-value pair should be a part of "node.children[i]".
+        // i is the index at which the new entry is inserted. All entries in "node" with index less than i contain keys
+        // that are less than "key", and all entries with index greater than or equal to i contain greater keys.
         int i;
         Entry entry = new Entry(key, value, null);
 
         // External node.
         if (height == 0)
         {
-            for (i = 0; i < node.childrenCount; i++)
+            i = leafIndex(node, key);
+
+            // If the given key is an existing key in the BTree, 2 branches:
+            // 1. If add is true, throw an IllegalArgumentException to indicate that the developer is trying to add duplicate key.
+            // 2. If add is false, change the value of the entry. No change in the "count" field.
+            if (i >= 0)
             {
-                // If the given key is an existing key in the BTree, 2 branches:
-                // 1. If add is true, throw an IllegalArgumentException to indicate that the developer is trying to add duplicate key.
-                // 2. If add is false, change the value of the entry. No change in the "count" field.
-                if (key.compareTo(node.children[i].key) == 0)
-                {
-                    if (add)
-                        throw new IllegalArgumentException("Try to add duplicate key.");
-                    else
-                    {
-                        // Since the specified key is a key that exists in the BTree, split is not called, return directly is OK.
-                        node.children[i].value = value;
-                        return null;
-                    }
-                }
+                if (add)
+                    throw new IllegalArgumentException("Try to add duplicate key.");
 
-                // If "key" is less than "node.children[i].key" here, all keys in the entries with index less than i
-                // are less than "key", and all keys in the entries with index greater than or equal to i are greater
-                // than "key". Thus, i is the correct index for the given key-value pair. All entries with index greater
-                // than or equal to i should be moved to right.
-                if (key.compareTo(node.children[i].key) < 0)
-                    break;
+                // Since the specified key is a key that exists in the BTree, split is not called, return directly is OK.
+                node.children[i].value = value;
+                return null;
             }
 
-            // If the program goes into this branch, previous keys of "node.children[i].key" are all less than "key",
-            // and "key" is less than "node.children[i].key", thus, a new key-value pair should be added to this BTree.
-            // On the other hand, if (i == node.childrenCount), then all existing keys in "node" are less than "key".
-            // Thus, a new key-value pair is added to this node.
-            if ((i == node.childrenCount) || (key.compareTo(node.children[i].key) < 0))
-                count++;
+            i = ~i;
+            count++;
+            version++;
         }
 
         // Internal node.
         else
         {
-            for (i = 0; i < node.childrenCount; i++)
-            {
-                // If (i + 1) == node.childrenCount, then all existing keys in "node" are less than "key".
-                // Otherwise, if "key" < node.children[i + 1].key, then all keys in the entries with index less than i
-                // are less than "key", and all keys in the entries with index greater than or equal to i are greater
-                // than "key". Thus, the given key-value pair should be inserted into node.children[i].
-                // Note: all keys in a node are greater than or equal to node.children[i].key.
-                if ((i + 1 == node.childrenCount) || (key.compareTo(node.children[i + 1].key) < 0))
-                {
-                    Node newBranch = insert(node.children[i++].next, key, value, height - 1, add);
-
-                    // If a new branch is created, then a entry is set.
-                    if (newBranch == null)
-                        return null;
-                    entry.key = newBranch.children[0].key;
-                    entry.next = newBranch;
-                    break;
-                }
-            }
+            // The given key-value pair should be inserted into the sub-tree of node.children[i]. If that sub-tree is
+            // split, the entry of the new branch goes right after it.
+            i = childIndex(node, key);
+            Node newBranch = insert(node.children[i++].next, key, value, height - 1, add);
+
+            // If a new branch is created, then a entry is set.
+            if (newBranch == null)
+                return null;
+            entry.key = newBranch.children[0].key;
+            entry.next = newBranch;
         }
 
-        // Move all the entries with index greater than i.
-        for (int j = node.childrenCount; j > i; j--)
-            node.children[j] = node.children[j - 1];
+        // Move all the entries with index greater than or equal to i.
+        System.arraycopy(node.children, i, node.children, i + 1, node.childrenCount - i);
         node.children[i] = entry;
         node.childrenCount++;
 
@@ -374,105 +538,65 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
         Node newBranch = new Node(half, MAX_CHILDREN);
         node.childrenCount -= half;
         for (int i = 0; i < half; i++)
+        {
             newBranch.children[i] = node.children[half + i];
+            node.children[half + i] = null;
+        }
 
         return newBranch;
     }
 
     /**
-     * Returns a {@link Queue} that contains all existing keys in the {@link BTree}.
-     *
-     * @return A {@link Queue} that contains all existing keys in the {@link BTree}.
-     */
-
-    private Queue<TKey> getAllKeys()
-    {
-        Queue<TKey> keys = new Queue<>();
-        getAllKeys(root, keys, height);
-        return keys;
-    }
-
-    /**
-     * Iterates over all entries by depth-first search (or in-order traversal) and add all existing keys into the
-     * {@link Queue} in increasing order.
-     *
-     * @param node   The {@link Node} to iterate over.
-     * @param keys   The {@link Queue} to store all existing keys.
-     * @param height Height of the current {@link Node}.
-     */
-    private void getAllKeys(Node node, Queue<TKey> keys, int height)
-    {
-        // If height == 0, get all keys of "node".
-        // Otherwise, get all keys rooted at "node".
-        if (height == 0)
-        {
-            for (int i = 0; i < node.childrenCount; i++)
-                keys.enqueue(node.children[i].key);
-        }
-        else
-        {
-            for (int i = 0; i < node.childrenCount; i++)
-                getAllKeys(node.children[i].next, keys, height - 1);
-        }
-    }
-
-    /**
-     * Gets an {@link Iterable} containing all the keys of the {@link BTree}.
+     * Gets an {@link Iterable} containing all the keys of the {@link BTree}, in increasing order. The keys are read
+     * from the leaves while iterating.
      *
      * @return an {@link Iterable} containing all the keys of the {@link BTree}.
      */
     @Override
     public Iterable<TKey> keys()
     {
-        return getAllKeys();
+        return () -> new RangeIterator<>(null, null, entry -> entry.key);
     }
 
     /**
-     * Gets an {@link Iterable} containing all the values of the {@link BTree}.
+     * Gets an {@link Iterable} containing all the values of the {@link BTree}, in the increasing order of their keys.
      *
      * @return an {@link Iterable} containing all the values of the {@link BTree}.
      */
-
-    private Queue<TValue> getAllValues()
+    @Override
+    public Iterable<TValue> values()
     {
-        Queue<TValue> values = new Queue<>();
-        getAllValues(root, values, height);
-        return values;
+        return () -> new RangeIterator<>(null, null, entry -> entry.value);
     }
 
     /**
-     * Iterates over all entries by depth-first search (or in-order traversal) and add all existing values into the
-     * {@link Queue} in increasing order.
+     * Gets an {@link Iterable} of the key-value pairs whose keys are in the range [lowerKey, upperKey], in increasing
+     * order. The iteration starts with a search for the lower key and then walks the leaves lazily, so it takes
+     * O(log n + k) time for k pairs in the range.
      *
-     * @param node   The {@link Node} to iterate over.
-     * @param values The {@link Queue} to store all existing values.
-     * @param height Height of the current {@link Node}.
+     * @param lowerKey The lower bound of the range (inclusive).
+     * @param upperKey The upper bound of the range (inclusive).
+     * @return An {@link Iterable} of the key-value pairs in the range.
+     * @throws NullPointerException One of the bounds is null.
      */
-    private void getAllValues(Node node, Queue<TValue> values, int height)
+    public Iterable<KeyValuePair<TKey, TValue>> range(TKey lowerKey, TKey upperKey)
     {
-        // If height == 0, get all values of "node".
-        // Otherwise, get all values rooted at "node".
-        if (height == 0)
-        {
-            for (int i = 0; i < node.childrenCount; i++)
-                values.enqueue(node.children[i].value);
-        }
-        else
-        {
-            for (int i = 0; i < node.childrenCount; i++)
-                getAllValues(node.children[i].next, values, height - 1);
-        }
+        if (lowerKey == null)
+            throw new NullPointerException("The argument \"lowerKey\" cannot be null.");
+        if (upperKey == null)
+            throw new NullPointerException("The argument \"upperKey\" cannot be null.");
+
+        return () -> new RangeIterator<>(lowerKey, upperKey, entry -> new KeyValuePair<>(entry.key, entry.value));
     }
 
     /**
-     * Gets an {@link Iterable} containing all the values of the {@link BTree}.
+     * Creates a {@link Cursor} that is positioned before the first key-value pair of the {@link BTree}.
      *
-     * @return an {@link Iterable} containing all the values of the {@link BTree}.
+     * @return A new {@link Cursor} of the {@link BTree}.
      */
-    @Override
-    public Iterable<TValue> values()
+    public Cursor cursor()
     {
-        return getAllValues();
+        return new Cursor();
     }
 
     /**
@@ -566,17 +690,39 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
     @Override
     public boolean removeByKey(TKey key)
     {
-        boolean removeResult = remove(root, key, null, false, height);
+        if (key == null)
+            throw new NullPointerException("The argument \"key\" cannot be null.");
 
-        // I don't know if clear() is required.
-        if (count == 0)
-            clear();
+        return remove(key, null, false);
+    }
 
-        return removeResult;
+    /**
+     * Tries to remove the entry with the specified key, and then shrinks the tree if the root is left with a single
+     * child.
+     */
+    private boolean remove(TKey key, TValue value, boolean checkValue)
+    {
+        if (!remove(root, key, value, checkValue, height))
+            return false;
+
+        while ((height > 0) && (root.childrenCount == 1))
+        {
+            Node child = root.children[0].next;
+            root.children[0].invalidate();
+            root.invalidate();
+            root = child;
+            height--;
+        }
+
+        count--;
+        version++;
+        return true;
     }
 
     /**
-     * Tries to remove a specified key-value pair rooted at the specified {@link Node}.
+     * Tries to remove a specified key-value pair rooted at the specified {@link Node}. Every node except the root keeps
+     * at least half of {@code MAX_CHILDREN} entries: a child that falls below that borrows an entry from a sibling, or
+     * is merged with it.
      *
      * @param node       The {@link Node} that the specified key-value pair may rooted at.
      * @param key        Key of the specified key-value pair.
@@ -587,79 +733,88 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
      * @return {@code true} if the specified key-value pair is removed from the sub-tree rooted at "node", otherwise,
      * false. If it returns false, then it means the specified key-value pair does not exist in the {@link BTree}.
      */
-    public boolean remove(Node node, TKey key, TValue value, boolean checkValue, int height)
+    private boolean remove(Node node, TKey key, TValue value, boolean checkValue, int height)
     {
         Entry[] children = node.children;
 
         if (height == 0)
         {
-            // If found is set to true, then i is the index of the entry whose key equals "key".
-            int i;
-            boolean found = false;
-            for (i = 0; i < node.childrenCount; i++)
-            {
-                if (key.compareTo(children[i].key) == 0)
-                {
-                    found = true;
-                    break;
-                }
-            }
+            int i = leafIndex(node, key);
+            if (i < 0)
+                return false;
 
-            if (found)
-            {
-                // Return false directly without modifying the BTree if try to remove a key-value pair while no such key-value pair in the BTree.
-                if (checkValue)
-                {
-                    Entry entry = children[i];
-                    if (!value.equals(entry.value))
-                        return false;
-                }
+            // Return false directly without modifying the BTree if try to remove a key-value pair while no such key-value pair in the BTree.
+            if (checkValue && !children[i].value.equals(value))
+                return false;
 
-                // Remove the entry with index i.
-                children[i].invalidate();
-                for (int j = i; j < node.childrenCount; j++)
-                    children[j] = children[j + 1];
-                children[node.childrenCount - 1] = null;
+            children[i].invalidate();
+            removeEntryAt(node, i);
+            return true;
+        }
 
-                // Update 2 counters after removing the entry, and then return true to indicate that the entry is removed successfully.
-                node.childrenCount--;
-                count--;
-                return true;
-            }
+        int i = childIndex(node, key);
+        Node childNode = children[i].next;
+        if (!remove(childNode, key, value, checkValue, height - 1))
+            return false;
+
+        // The key of an entry in a non-leaf node is the smallest key of its sub-tree.
+        if (childNode.childrenCount > 0)
+            children[i].key = childNode.children[0].key;
+
+        if ((childNode.childrenCount < MAX_CHILDREN / 2) && (node.childrenCount > 1))
+            rebalance(node, i);
+
+        return true;
+    }
+
+    /**
+     * Fixes the child with index i of the specified node, which has less than half of {@code MAX_CHILDREN} entries,
+     * by merging it with a sibling if they fit into one node, or otherwise moving an entry from the sibling to it.
+     *
+     * @param parent The parent of the child to fix, which has at least 2 children.
+     * @param i      Index of the child to fix.
+     */
+    private void rebalance(Node parent, int i)
+    {
+        int leftIndex = i > 0 ? i - 1 : i;
+        Node left = parent.children[leftIndex].next;
+        Node right = parent.children[leftIndex + 1].next;
+
+        if (left.childrenCount + right.childrenCount < MAX_CHILDREN)
+        {
+            System.arraycopy(right.children, 0, left.children, left.childrenCount, right.childrenCount);
+            left.childrenCount += right.childrenCount;
+            parent.children[leftIndex + 1].invalidate();
+            right.invalidate();
+            removeEntryAt(parent, leftIndex + 1);
+            return;
+        }
+
+        if (left.childrenCount < right.childrenCount)
+        {
+            // Move the first entry of the right sibling to the end of the left one.
+            left.children[left.childrenCount++] = right.children[0];
+            removeEntryAt(right, 0);
         }
         else
         {
-            for (int i = 0; i < node.childrenCount; i++)
-            {
-                if ((i + 1 == node.childrenCount) || (key.compareTo(children[i + 1].key) < 0))
-                {
-                    Node childNode = children[i].next;
-                    boolean result = remove(childNode, key, value, checkValue, height - 1);
-
-                    // Fix keys in non-leaf nodes.
-                    if (result)
-                    {
-                        if (children[i].key.compareTo(childNode.children[0].key) != 0)
-                            children[i].key = childNode.children[0].key;
-                    }
-
-                    // Invalidate and remove the child node if its children count is 0.
-                    // Update node.childrenCount after it.
-                    if (childNode.childrenCount == 0)
-                    {
-                        childNode.invalidate();
-                        for (int j = i; j < node.childrenCount; j++)
-                            children[j] = children[j + 1];
-                        children[node.childrenCount - 1] = null;
-                        node.childrenCount--;
-                    }
-
-                    return result;
-                }
-            }
+            // Move the last entry of the left sibling to the front of the right one.
+            System.arraycopy(right.children, 0, right.children, 1, right.childrenCount);
+            right.children[0] = left.children[--left.childrenCount];
+            left.children[left.childrenCount] = null;
+            right.childrenCount++;
         }
 
-        return false;
+        parent.children[leftIndex + 1].key = right.children[0].key;
+    }
+
+    /**
+     * Removes the entry with the specified index from a node, and moves the entries after it to the left.
+     */
+    private void removeEntryAt(Node node, int i)
+    {
+        System.arraycopy(node.children, i + 1, node.children, i, node.childrenCount - i - 1);
+        node.children[--node.childrenCount] = null;
     }
 
     /**
@@ -671,8 +826,11 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
         // Clear all existing key-value pairs.
         clear(root, height);
 
-        // Set count to 0 after clearing the BTree.
+        // The old root is invalidated, so start again from an empty leaf.
+        root = new Node(0, MAX_CHILDREN);
+        height = 0;
         count = 0;
+        version++;
     }
 
     /**
@@ -711,53 +869,21 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
     @Override
     public boolean remove(KeyValuePair<TKey, TValue> keyValuePair)
     {
-        return remove(root, keyValuePair.getKey(), keyValuePair.getValue(), true, height);
-    }
-
-    /**
-     * Gets an {@link Iterable} containing all key-value pairs of the {@link BTree}.
-     *
-     * @return an {@link Iterable} containing all key-value pairs of the {@link BTree}.
-     */
-
-    private Queue<KeyValuePair<TKey, TValue>> getKeyValuePairs()
-    {
-        Queue<KeyValuePair<TKey, TValue>> keyValuePairs = new Queue<>();
-        getKeyValuePairs(root, keyValuePairs, height);
-        return keyValuePairs;
-    }
+        if (keyValuePair == null)
+            throw new NullPointerException("Argument \"keyValuePair\" cannot be null.");
 
-    /**
-     * Iterates over all entries by depth-first search (or in-order traversal) and add all existing key-value pairs into the
-     * {@link Queue} in increasing order.
-     *
-     * @param node          The {@link Node} to iterate over.
-     * @param keyValuePairs The {@link Queue} to store all existing values.
-     * @param height        Height of the current {@link Node}.
-     */
-    private void getKeyValuePairs(Node node, Queue<KeyValuePair<TKey, TValue>> keyValuePairs, int height)
-    {
-        if (height == 0)
-        {
-            for (int i = 0; i < node.childrenCount; i++)
-                keyValuePairs.enqueue(new KeyValuePair<>(node.children[i].key, node.children[i].value));
-        }
-        else
-        {
-            for (int i = 0; i < node.childrenCount; i++)
-                getKeyValuePairs(node.children[i].next, keyValuePairs, height - 1);
-        }
+        return remove(keyValuePair.getKey(), keyValuePair.getValue(), true);
     }
 
     /**
-     * Returns an iterator over all key-value pairs of the {@link BTree}.
+     * Returns an iterator over all key-value pairs of the {@link BTree}, in increasing order of keys.
      *
      * @return an iterator over all key-value pairs of the {@link BTree}.
      */
     @Override
     public Iterator<KeyValuePair<TKey, TValue>> iterator()
     {
-        return getKeyValuePairs().iterator();
+        return new RangeIterator<>(null, null, entry -> new KeyValuePair<>(entry.key, entry.value));
     }
 
     /**
@@ -900,4 +1026,217 @@ public class BTree<TKey extends Comparable<TKey>, TValue> implements IDictionary
         for (KeyValuePair<TKey, TValue> kvp : this)
             array[i++] = new KeyValuePair<>(kvp.getKey(), kvp.getValue());
     }
+
+    /**
+     * The {@link Cursor} class walks the key-value pairs of a {@link BTree} in increasing order of keys. It keeps the
+     * path from the root to the current leaf entry, so moving to the next pair takes amortized O(1) time and doesn't
+     * allocate, and {@link #seek(Comparable)} jumps to any key in O(log n) time.
+     * <p>
+     * A cursor is invalidated when keys are added to or removed from the {@link BTree}.
+     */
+    public final class Cursor
+    {
+        /**
+         * The nodes on the path to the current entry, indexed by height.
+         */
+        private Node[] nodes;
+
+        /**
+         * The index of the current entry in each node of the path, indexed by height. The index in the leaf is the
+         * entry before the next one to visit until {@link #moveNext()} is called.
+         */
+        private int[] indices;
+        private int version;
+        private boolean onEntry;
+
+        private Cursor()
+        {
+            reset();
+        }
+
+        /**
+         * Positions the cursor before the first key-value pair. A cursor that is invalidated by a change of the
+         * {@link BTree} can be used again after this method is called.
+         */
+        public void reset()
+        {
+            if ((nodes == null) || (nodes.length != height + 1))
+            {
+                @SuppressWarnings("unchecked")
+                Node[] newNodes = (Node[]) Array.newInstance(Node.class, height + 1);
+                nodes = newNodes;
+                indices = new int[height + 1];
+            }
+
+            version = BTree.this.version;
+            descend(root, height);
+            indices[0] = -1;
+            onEntry = false;
+        }
+
+        /**
+         * Positions the cursor before the first key-value pair whose key is greater than or equal to the specified
+         * key, so that the next call of {@link #moveNext()} moves to that pair.
+         *
+         * @param key The key to seek.
+         * @throws NullPointerException      The specified key is null.
+         * @throws InvalidOperationException The {@link BTree} has been modified since the cursor was created.
+         */
+        public void seek(TKey key)
+        {
+            if (key == null)
+                throw new NullPointerException("The argument \"key\" cannot be null.");
+            checkVersion();
+
+            Node node = root;
+            for (int h = height; h > 0; h--)
+            {
+                int i = childIndex(node, key);
+                nodes[h] = node;
+                indices[h] = i;
+                node = node.children[i].next;
+            }
+
+            int i = leafIndex(node, key);
+            nodes[0] = node;
+            indices[0] = (i >= 0 ? i : ~i) - 1;
+            onEntry = false;
+        }
+
+        /**
+         * Moves the cursor to the next key-value pair.
+         *
+         * @return {@code true} if the cursor is on the next pair; {@code false} if there are no more pairs.
+         * @throws InvalidOperationException The {@link BTree} has been modified since the cursor was created.
+         */
+        public boolean moveNext()
+        {
+            checkVersion();
+            if (++indices[0] < nodes[0].childrenCount)
+                return onEntry = true;
+
+            // Go up to the lowest node that has a next entry, and then down to the first leaf of that entry.
+            for (int h = 1; h <= height; h++)
+            {
+                if (indices[h] + 1 < nodes[h].childrenCount)
+                {
+                    indices[h]++;
+                    descend(nodes[h].children[indices[h]].next, h - 1);
+                    return onEntry = true;
+                }
+            }
+
+            indices[0] = nodes[0].childrenCount;
+            return onEntry = false;
+        }
+
+        /**
+         * Fills the path from the specified node, at the specified height, down to its first leaf entry.
+         */
+        private void descend(Node node, int h)
+        {
+            for (; h > 0; h--)
+            {
+                nodes[h] = node;
+                indices[h] = 0;
+                node = node.children[0].next;
+            }
+
+            nodes[0] = node;
+            indices[0] = 0;
+        }
+
+        /**
+         * Gets the key of the current key-value pair.
+         *
+         * @return The key of the current pair.
+         * @throws InvalidOperationException The cursor is not on a pair.
+         */
+        public TKey getKey()
+        {
+            return current().key;
+        }
+
+        /**
+         * Gets the value of the current key-value pair.
+         *
+         * @return The value of the current pair.
+         * @throws InvalidOperationException The cursor is not on a pair.
+         */
+        public TValue getValue()
+        {
+            return current().value;
+        }
+
+        /**
+         * Sets the value of the current key-value pair. It doesn't invalidate the cursors of the {@link BTree}.
+         *
+         * @param value The new value of the current pair.
+         * @throws NullPointerException      The specified value is null.
+         * @throws InvalidOperationException The cursor is not on a pair.
+         */
+        public void setValue(TValue value)
+        {
+            if (value == null)
+                throw new NullPointerException("The argument \"value\" cannot be null.");
+
+            current().value = value;
+        }
+
+        private Entry current()
+        {
+            checkVersion();
+            if (!onEntry)
+                throw new InvalidOperationException("The cursor is not on a key-value pair.");
+
+            return nodes[0].children[indices[0]];
+        }
+
+        private void checkVersion()
+        {
+            if (version != BTree.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+        }
+    }
+
+    /**
+     * Iterates the entries with keys in a range by a {@link Cursor}, and selects an item from each entry.
+     */
+    private final class RangeIterator<T> implements Iterator<T>
+    {
+        private final Cursor cursor = new Cursor();
+        private final TKey upperKey;
+        private final Function<Entry, T> selector;
+        private boolean hasNext;
+
+        /**
+         * @param lowerKey The inclusive lower bound, or null to start from the first key.
+         * @param upperKey The inclusive upper bound, or null to go to the last key.
+         */
+        private RangeIterator(TKey lowerKey, TKey upperKey, Function<Entry, T> selector)
+        {
+            this.upperKey = upperKey;
+            this.selector = selector;
+            if (lowerKey != null)
+                cursor.seek(lowerKey);
+            hasNext = cursor.moveNext() && ((upperKey == null) || (cursor.getKey().compareTo(upperKey) <= 0));
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return hasNext;
+        }
+
+        @Override
+        public T next()
+        {
+            if (!hasNext)
+                throw new NoSuchElementException();
+
+            T item = selector.apply(cursor.current());
+            hasNext = cursor.moveNext() && ((upperKey == null) || (cursor.getKey().compareTo(upperKey) <= 0));
+            return item;
+        }
+    }
 }
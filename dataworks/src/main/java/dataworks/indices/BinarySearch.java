@@ -1,5 +1,6 @@
 package dataworks.indices;
 
+import dataworks.ArgumentOutOfRangeException;
 import dataworks.collections.KeyValuePair;
 import org.jetbrains.annotations.Contract;
 
@@ -345,4 +346,366 @@ public class BinarySearch
 
         return ~low;
     }
+
+    /**
+     * Finds the first element of a sorted array that is greater than or equal to a given value. The loop runs the same
+     * number of iterations for every target, and its only data-dependent choice is a conditional assignment, which the
+     * JIT compiler can turn into a conditional move instead of a branch that mispredicts half of the time.
+     *
+     * @param values The sorted array to search.
+     * @param target The value to compare with.
+     * @return The index of the first element that is not less than {@code target}, or the length of the array if all
+     * the elements are less than {@code target}.
+     * @throws NullPointerException The given array is null.
+     */
+    public static int lowerBound(int[] values, int target)
+    {
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+        if (values.length == 0)
+            return 0;
+
+        int base = 0;
+        for (int n = values.length; n > 1; )
+        {
+            int half = n >>> 1;
+            base = values[base + half] < target ? base + half : base;
+            n -= half;
+        }
+
+        return values[base] < target ? base + 1 : base;
+    }
+
+    /**
+     * Finds the first element of a sorted array that is greater than or equal to a given value, without branches
+     * that depend on the elements, as {@link #lowerBound(int[], int)} does.
+     *
+     * @param values The sorted array to search.
+     * @param target The value to compare with.
+     * @return The index of the first element that is not less than {@code target}, or the length of the array if all
+     * the elements are less than {@code target}.
+     * @throws NullPointerException The given array is null.
+     */
+    public static int lowerBound(long[] values, long target)
+    {
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+        if (values.length == 0)
+            return 0;
+
+        int base = 0;
+        for (int n = values.length; n > 1; )
+        {
+            int half = n >>> 1;
+            base = values[base + half] < target ? base + half : base;
+            n -= half;
+        }
+
+        return values[base] < target ? base + 1 : base;
+    }
+
+    /**
+     * Finds the first element of a sorted array that is greater than or equal to a given value, without branches
+     * that depend on the elements, as {@link #lowerBound(int[], int)} does.
+     *
+     * @param values The sorted array to search, which must not contain NaN.
+     * @param target The value to compare with.
+     * @return The index of the first element that is not less than {@code target}, or the length of the array if all
+     * the elements are less than {@code target}.
+     * @throws NullPointerException The given array is null.
+     */
+    public static int lowerBound(double[] values, double target)
+    {
+        if (values == null)
+            throw new NullPointerException("Argument \"values\" cannot be null.");
+        if (values.length == 0)
+            return 0;
+
+        int base = 0;
+        for (int n = values.length; n > 1; )
+        {
+            int half = n >>> 1;
+            base = values[base + half] < target ? base + half : base;
+            n -= half;
+        }
+
+        return values[base] < target ? base + 1 : base;
+    }
+
+    /**
+     * Searches a sorted array for every value of another array. A branchless search takes the same number of steps
+     * for every target, so four searches run in lockstep, and the processor waits for the memory accesses of the four
+     * at the same time instead of one after another.
+     *
+     * @param sorted  The sorted array to search, which may be empty.
+     * @param queries The values to locate.
+     * @param out     Receives, for every query, the index of the first element equal to it, or the bitwise complement
+     *                of the insertion point ({@code ~insertionPoint}) if no element equals it. Unlike
+     *                {@link #search(int[], int)}, which returns any of the equal elements and throws for an empty array,
+     *                this always gives the first of the equal elements, and {@code ~0} for an empty array.
+     * @throws NullPointerException     One of the arrays is null.
+     * @throws IllegalArgumentException {@code out} is shorter than {@code queries}.
+     */
+    public static void searchAll(int[] sorted, int[] queries, int[] out)
+    {
+        if (sorted == null)
+            throw new NullPointerException("Argument \"sorted\" cannot be null.");
+        if (queries == null)
+            throw new NullPointerException("Argument \"queries\" cannot be null.");
+        validateOut(out, queries.length);
+
+        int i = 0;
+        if (sorted.length > 0)
+        {
+            for (; i + 4 <= queries.length; i += 4)
+            {
+                int t0 = queries[i];
+                int t1 = queries[i + 1];
+                int t2 = queries[i + 2];
+                int t3 = queries[i + 3];
+                int b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+                for (int n = sorted.length; n > 1; )
+                {
+                    int half = n >>> 1;
+                    b0 = sorted[b0 + half] < t0 ? b0 + half : b0;
+                    b1 = sorted[b1 + half] < t1 ? b1 + half : b1;
+                    b2 = sorted[b2 + half] < t2 ? b2 + half : b2;
+                    b3 = sorted[b3 + half] < t3 ? b3 + half : b3;
+                    n -= half;
+                }
+
+                out[i] = toSearchResult(sorted, sorted[b0] < t0 ? b0 + 1 : b0, t0);
+                out[i + 1] = toSearchResult(sorted, sorted[b1] < t1 ? b1 + 1 : b1, t1);
+                out[i + 2] = toSearchResult(sorted, sorted[b2] < t2 ? b2 + 1 : b2, t2);
+                out[i + 3] = toSearchResult(sorted, sorted[b3] < t3 ? b3 + 1 : b3, t3);
+            }
+        }
+
+        for (; i < queries.length; i++)
+            out[i] = toSearchResult(sorted, lowerBound(sorted, queries[i]), queries[i]);
+    }
+
+    /**
+     * Searches a sorted array for every value of another array, running four branchless searches in lockstep as
+     * {@link #searchAll(int[], int[], int[])} does.
+     *
+     * @param sorted  The sorted array to search, which may be empty.
+     * @param queries The values to locate.
+     * @param out     Receives, for every query, the index of the first element equal to it, or the bitwise complement
+     *                of the insertion point ({@code ~insertionPoint}) if no element equals it. Unlike
+     *                {@link #search(long[], long)}, which returns any of the equal elements and throws for an empty array,
+     *                this always gives the first of the equal elements, and {@code ~0} for an empty array.
+     * @throws NullPointerException     One of the arrays is null.
+     * @throws IllegalArgumentException {@code out} is shorter than {@code queries}.
+     */
+    public static void searchAll(long[] sorted, long[] queries, int[] out)
+    {
+        if (sorted == null)
+            throw new NullPointerException("Argument \"sorted\" cannot be null.");
+        if (queries == null)
+            throw new NullPointerException("Argument \"queries\" cannot be null.");
+        validateOut(out, queries.length);
+
+        int i = 0;
+        if (sorted.length > 0)
+        {
+            for (; i + 4 <= queries.length; i += 4)
+            {
+                long t0 = queries[i];
+                long t1 = queries[i + 1];
+                long t2 = queries[i + 2];
+                long t3 = queries[i + 3];
+                int b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+                for (int n = sorted.length; n > 1; )
+                {
+                    int half = n >>> 1;
+                    b0 = sorted[b0 + half] < t0 ? b0 + half : b0;
+                    b1 = sorted[b1 + half] < t1 ? b1 + half : b1;
+                    b2 = sorted[b2 + half] < t2 ? b2 + half : b2;
+                    b3 = sorted[b3 + half] < t3 ? b3 + half : b3;
+                    n -= half;
+                }
+
+                out[i] = toSearchResult(sorted, sorted[b0] < t0 ? b0 + 1 : b0, t0);
+                out[i + 1] = toSearchResult(sorted, sorted[b1] < t1 ? b1 + 1 : b1, t1);
+                out[i + 2] = toSearchResult(sorted, sorted[b2] < t2 ? b2 + 1 : b2, t2);
+                out[i + 3] = toSearchResult(sorted, sorted[b3] < t3 ? b3 + 1 : b3, t3);
+            }
+        }
+
+        for (; i < queries.length; i++)
+            out[i] = toSearchResult(sorted, lowerBound(sorted, queries[i]), queries[i]);
+    }
+
+    /**
+     * Searches a sorted array for every value of another array, running four branchless searches in lockstep as
+     * {@link #searchAll(int[], int[], int[])} does.
+     *
+     * @param sorted  The sorted array to search, which may be empty and must not contain NaN.
+     * @param queries The values to locate.
+     * @param out     Receives, for every query, the index of the first element equal to it, or the bitwise complement
+     *                of the insertion point ({@code ~insertionPoint}) if no element equals it. Unlike
+     *                {@link #search(double[], double)}, which returns any of the equal elements and throws for an empty array,
+     *                this always gives the first of the equal elements, and {@code ~0} for an empty array.
+     * @throws NullPointerException     One of the arrays is null.
+     * @throws IllegalArgumentException {@code out} is shorter than {@code queries}.
+     */
+    public static void searchAll(double[] sorted, double[] queries, int[] out)
+    {
+        if (sorted == null)
+            throw new NullPointerException("Argument \"sorted\" cannot be null.");
+        if (queries == null)
+            throw new NullPointerException("Argument \"queries\" cannot be null.");
+        validateOut(out, queries.length);
+
+        int i = 0;
+        if (sorted.length > 0)
+        {
+            for (; i + 4 <= queries.length; i += 4)
+            {
+                double t0 = queries[i];
+                double t1 = queries[i + 1];
+                double t2 = queries[i + 2];
+                double t3 = queries[i + 3];
+                int b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+                for (int n = sorted.length; n > 1; )
+                {
+                    int half = n >>> 1;
+                    b0 = sorted[b0 + half] < t0 ? b0 + half : b0;
+                    b1 = sorted[b1 + half] < t1 ? b1 + half : b1;
+                    b2 = sorted[b2 + half] < t2 ? b2 + half : b2;
+                    b3 = sorted[b3 + half] < t3 ? b3 + half : b3;
+                    n -= half;
+                }
+
+                out[i] = toSearchResult(sorted, sorted[b0] < t0 ? b0 + 1 : b0, t0);
+                out[i + 1] = toSearchResult(sorted, sorted[b1] < t1 ? b1 + 1 : b1, t1);
+                out[i + 2] = toSearchResult(sorted, sorted[b2] < t2 ? b2 + 1 : b2, t2);
+                out[i + 3] = toSearchResult(sorted, sorted[b3] < t3 ? b3 + 1 : b3, t3);
+            }
+        }
+
+        for (; i < queries.length; i++)
+            out[i] = toSearchResult(sorted, lowerBound(sorted, queries[i]), queries[i]);
+    }
+
+    private static int toSearchResult(int[] sorted, int lowerBound, int target)
+    {
+        return (lowerBound < sorted.length) && (sorted[lowerBound] == target) ? lowerBound : ~lowerBound;
+    }
+
+    private static int toSearchResult(long[] sorted, int lowerBound, long target)
+    {
+        return (lowerBound < sorted.length) && (sorted[lowerBound] == target) ? lowerBound : ~lowerBound;
+    }
+
+    private static int toSearchResult(double[] sorted, int lowerBound, double target)
+    {
+        return (lowerBound < sorted.length) && (sorted[lowerBound] == target) ? lowerBound : ~lowerBound;
+    }
+
+    /**
+     * Copies a sorted array into the Eytzinger layout, which stores a complete binary search tree in breadth-first
+     * order: the root is at index 1, and the children of the node at index k are at indices 2k and 2k + 1. A search
+     * visits indices that grow geometrically, so the first levels share a few cache lines, and the 16 possible nodes
+     * four levels below node k are contiguous from index 16k, which the hardware prefetcher follows well.
+     *
+     * @param sorted The sorted array.
+     * @return A new array whose length is one more than the length of {@code sorted}, with the elements in Eytzinger
+     * order from index 1. Index 0 is not used.
+     * @throws NullPointerException The given array is null.
+     * @see #eytzingerLowerBound(long[], long)
+     * @see #eytzingerPermutation(int)
+     */
+    public static long[] toEytzinger(long[] sorted)
+    {
+        if (sorted == null)
+            throw new NullPointerException("Argument \"sorted\" cannot be null.");
+
+        long[] eytzinger = new long[sorted.length + 1];
+        fillEytzinger(sorted, eytzinger, 0, 1);
+        return eytzinger;
+    }
+
+    /**
+     * Fills the sub-tree rooted at index k with the sorted elements from index i, by an in-order walk.
+     *
+     * @return The index of the first sorted element after the sub-tree.
+     */
+    private static int fillEytzinger(long[] sorted, long[] eytzinger, int i, int k)
+    {
+        if (k < eytzinger.length)
+        {
+            i = fillEytzinger(sorted, eytzinger, i, 2 * k);
+            eytzinger[k] = sorted[i++];
+            i = fillEytzinger(sorted, eytzinger, i, 2 * k + 1);
+        }
+
+        return i;
+    }
+
+    /**
+     * Gets the index in the sorted array of every position of the Eytzinger layout, so that values associated with the
+     * sorted elements can be stored in the same order as {@link #toEytzinger(long[])} stores the elements.
+     *
+     * @param length The length of the sorted array.
+     * @return An array of {@code length + 1} indices, where element k is the sorted index of the element at position k
+     * of the Eytzinger layout, and element 0 is {@code length}. Thus it maps the result of
+     * {@link #eytzingerLowerBound(long[], long)} to the result of {@link #lowerBound(long[], long)}.
+     * @throws ArgumentOutOfRangeException {@code length} is less than 0.
+     */
+    public static int[] eytzingerPermutation(int length)
+    {
+        if (length < 0)
+            throw new ArgumentOutOfRangeException("\"length\" must be a non-negative integer.");
+
+        int[] permutation = new int[length + 1];
+        permutation[0] = length;
+        fillEytzingerPermutation(permutation, 0, 1);
+        return permutation;
+    }
+
+    private static int fillEytzingerPermutation(int[] permutation, int i, int k)
+    {
+        if (k < permutation.length)
+        {
+            i = fillEytzingerPermutation(permutation, i, 2 * k);
+            permutation[k] = i++;
+            i = fillEytzingerPermutation(permutation, i, 2 * k + 1);
+        }
+
+        return i;
+    }
+
+    /**
+     * Finds the first element that is greater than or equal to a given value, in an array of the Eytzinger layout.
+     * The search goes down the tree without branches that depend on the elements, and records the path in the bits
+     * of the index: the lower bound is the last node where the search went left.
+     *
+     * @param eytzinger An array created by {@link #toEytzinger(long[])}.
+     * @param target    The value to compare with.
+     * @return The position in {@code eytzinger} of the first element that is not less than {@code target}, or 0 if
+     * all the elements are less than {@code target}.
+     * @throws NullPointerException The given array is null.
+     */
+    public static int eytzingerLowerBound(long[] eytzinger, long target)
+    {
+        if (eytzinger == null)
+            throw new NullPointerException("Argument \"eytzinger\" cannot be null.");
+
+        int k = 1;
+        while (k < eytzinger.length)
+            k = 2 * k + (eytzinger[k] < target ? 1 : 0);
+
+        // Remove the right turns after the last left turn, and the left turn itself.
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    private static void validateOut(int[] out, int queryCount)
+    {
+        if (out == null)
+            throw new NullPointerException("Argument \"out\" cannot be null.");
+        if (out.length < queryCount)
+            throw new IllegalArgumentException("Length of the given array \"out\" must not be less than the number of queries.");
+    }
 }
@@ -0,0 +1,830 @@
+package dataworks.indices;
+
+import dataworks.KeyNotFountException;
+import dataworks.collections.ICollection;
+import dataworks.collections.IDictionary;
+import dataworks.collections.KeyValuePair;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@link ConcurrentBTree} class represents a thread-safe ordered dictionary of generic key-value pairs. It is a
+ * B-tree shaped like {@link BTree}, whose readers never block and never retry.
+ * <p>
+ * Nodes are never modified once they are published. A writer holds a lock, copies the nodes on the path from the root
+ * to the leaf that it changes, splitting or merging the copies where {@link BTree} would split or merge the nodes, and
+ * publishes the new root together with the height and the count in a single volatile write. Readers take no lock:
+ * they read the current root, and go on seeing a consistent tree whatever the writers do meanwhile. For the same
+ * reason, iterators walk the tree as it was when they were created, and never throw because of concurrent
+ * modifications.
+ * <p>
+ * A write copies about {@code height * maxChildren} references, and writes are serialized, thus this class suits
+ * indices that are read much more often than they are written.
+ *
+ * @param <TKey>   The type of keys in the ConcurrentBTree.
+ * @param <TValue> The type of values in the ConcurrentBTree.
+ */
+public class ConcurrentBTree<TKey extends Comparable<TKey>, TValue> implements IDictionary<TKey, TValue>
+{
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * A node of the tree, whose arrays are exactly as long as its number of entries. Leaves hold keys and values.
+     * Other nodes hold their children, and for every child a key that is less than or equal to all keys of the child
+     * and greater than all keys of the children before it; the key of entry 0 is never used for searching.
+     */
+    private static final class Node
+    {
+        private final Object[] keys;
+        private final Object[] items;
+
+        private Node(Object[] keys, Object[] items)
+        {
+            this.keys = keys;
+            this.items = items;
+        }
+
+        private int count()
+        {
+            return keys.length;
+        }
+    }
+
+    /**
+     * A version of the tree, which every write replaces as a whole.
+     */
+    private static final class Snapshot
+    {
+        private final Node root;
+        private final int height;
+        private final int count;
+
+        private Snapshot(Node root, int height, int count)
+        {
+            this.root = root;
+            this.height = height;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Maximum number of entries in a node. A node that reaches it is split, as in {@link BTree}.
+     */
+    private final int MAX_CHILDREN;
+
+    /**
+     * Serializes the writers. Readers never take it.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Initializes a {@link ConcurrentBTree} with specified maximum number of entries in a node.
+     *
+     * @param maxChildren Maximum number of entries in a node, which must be an even number greater than 2.
+     * @throws IllegalArgumentException {@code maxChildren} is odd or not greater than 2.
+     */
+    public ConcurrentBTree(int maxChildren)
+    {
+        if (maxChildren % 2 != 0)
+            throw new IllegalArgumentException("Argument \"maxChildren\" must be an even number.");
+        if (maxChildren <= 2)
+            throw new IllegalArgumentException("Argument \"maxChildren\" must be greater than 2.");
+
+        MAX_CHILDREN = maxChildren;
+        snapshot = new Snapshot(new Node(EMPTY, EMPTY), 0, 0);
+    }
+
+    /**
+     * Gets the element associated with the specified key. This method takes no lock.
+     *
+     * @param key The key of the element to get.
+     * @return The value associated with the specified key.
+     * @throws NullPointerException The specified key is null.
+     * @throws KeyNotFountException The specified key is not in the {@link ConcurrentBTree}.
+     */
+    @Override
+    public TValue get(TKey key)
+    {
+        validateKey(key);
+        Node leaf = findLeaf(snapshot, key);
+        int i = leafIndex(leaf, key);
+        if (i < 0)
+            throw new KeyNotFountException("The key \"" + key + "\" is not in the ConcurrentBTree.");
+
+        return valueAt(leaf, i);
+    }
+
+    /**
+     * Gets the element associated with the specified key, or the specified default value if the key is not found.
+     * This method takes no lock.
+     *
+     * @param key          The key of the element to get.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The value associated with the specified key, or {@code defaultValue} if the key is not found.
+     * @throws NullPointerException The specified key is null.
+     */
+    public TValue getOrDefault(TKey key, TValue defaultValue)
+    {
+        validateKey(key);
+        Node leaf = findLeaf(snapshot, key);
+        int i = leafIndex(leaf, key);
+        return i >= 0 ? valueAt(leaf, i) : defaultValue;
+    }
+
+    /**
+     * Sets the element associated with the specified key. If the key is not in the {@link ConcurrentBTree}, the
+     * key-value pair is added, as {@link BTree#set(Comparable, Object)} does.
+     *
+     * @param key   The key of the element to set.
+     * @param value The new value associated with the specified key.
+     * @throws NullPointerException The specified key or value is null.
+     */
+    @Override
+    public void set(TKey key, TValue value)
+    {
+        insert(key, value, true);
+    }
+
+    /**
+     * Gets an {@link Iterable} containing all the keys of the {@link ConcurrentBTree}, in increasing order. Each
+     * iterator walks the tree as it was when the iterator was created.
+     *
+     * @return an {@link Iterable} containing all the keys of the {@link ConcurrentBTree}.
+     */
+    @Override
+    public Iterable<TKey> keys()
+    {
+        return () -> new RangeIterator<TKey>(snapshot, null, null)
+        {
+            @Override
+            TKey select(Node leaf, int i)
+            {
+                return keyAt(leaf, i);
+            }
+        };
+    }
+
+    /**
+     * Gets an {@link Iterable} containing all the values of the {@link ConcurrentBTree}, in increasing order of keys.
+     * Each iterator walks the tree as it was when the iterator was created.
+     *
+     * @return an {@link Iterable} containing all the values of the {@link ConcurrentBTree}.
+     */
+    @Override
+    public Iterable<TValue> values()
+    {
+        return () -> new RangeIterator<TValue>(snapshot, null, null)
+        {
+            @Override
+            TValue select(Node leaf, int i)
+            {
+                return valueAt(leaf, i);
+            }
+        };
+    }
+
+    /**
+     * Gets an {@link Iterable} over the key-value pairs whose keys are in the specified range, in increasing order of
+     * keys. Each iterator walks the tree as it was when the iterator was created.
+     *
+     * @param lowerKey The inclusive lower bound of the keys.
+     * @param upperKey The inclusive upper bound of the keys.
+     * @return an {@link Iterable} over the key-value pairs in the range, which is empty if {@code lowerKey} is greater
+     * than {@code upperKey}.
+     * @throws NullPointerException {@code lowerKey} or {@code upperKey} is null.
+     */
+    public Iterable<KeyValuePair<TKey, TValue>> range(TKey lowerKey, TKey upperKey)
+    {
+        if (lowerKey == null)
+            throw new NullPointerException("The argument \"lowerKey\" cannot be null.");
+        if (upperKey == null)
+            throw new NullPointerException("The argument \"upperKey\" cannot be null.");
+
+        return () -> new PairIterator(snapshot, lowerKey, upperKey);
+    }
+
+    /**
+     * Adds an element with the provided key and value to the {@link ConcurrentBTree}.
+     *
+     * @param key   The object to use as the key of the element to add.
+     * @param value The object to use as the value of the element to add.
+     * @throws NullPointerException     The specified key or value is null.
+     * @throws IllegalArgumentException An element with the same key already exists in the {@link ConcurrentBTree}.
+     */
+    @Override
+    public void add(TKey key, TValue value)
+    {
+        if (!tryAdd(key, value))
+            throw new IllegalArgumentException("Try to add duplicate key.");
+    }
+
+    /**
+     * Adds a key-value pair to the {@link ConcurrentBTree}.
+     *
+     * @param keyValuePair The key-value pair to add.
+     * @throws NullPointerException     The specified key-value pair, its key or its value is null.
+     * @throws IllegalArgumentException An element with the same key already exists in the {@link ConcurrentBTree}.
+     */
+    @Override
+    public void add(KeyValuePair<TKey, TValue> keyValuePair)
+    {
+        if (keyValuePair == null)
+            throw new NullPointerException("The argument \"keyValuePair\" cannot be null.");
+
+        add(keyValuePair.getKey(), keyValuePair.getValue());
+    }
+
+    /**
+     * Adds an element with the provided key and value if the key is not in the {@link ConcurrentBTree}.
+     *
+     * @param key   The object to use as the key of the element to add.
+     * @param value The object to use as the value of the element to add.
+     * @return {@code true} if the element is added; {@code false} if the key already exists.
+     * @throws NullPointerException The specified key or value is null.
+     */
+    public boolean tryAdd(TKey key, TValue value)
+    {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Determines whether the {@link ConcurrentBTree} contains an element with the specified key. This method takes no
+     * lock.
+     *
+     * @param key The key to locate in the {@link ConcurrentBTree}.
+     * @return <code>true</code> if the {@link ConcurrentBTree} contains an element with the key; otherwise,
+     * <code>false</code>.
+     * @throws NullPointerException The specified key is null.
+     */
+    @Override
+    public boolean containsKey(TKey key)
+    {
+        validateKey(key);
+        return leafIndex(findLeaf(snapshot, key), key) >= 0;
+    }
+
+    /**
+     * Determines whether the {@link ConcurrentBTree} contains an element with the specified value, by a linear scan.
+     *
+     * @param value The value to locate in the {@link ConcurrentBTree}.
+     * @return <code>true</code> if the {@link ConcurrentBTree} contains an element with the value; otherwise,
+     * <code>false</code>.
+     */
+    @Override
+    public boolean containsValue(TValue value)
+    {
+        for (TValue item : values())
+        {
+            if (Objects.equals(item, value))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether the {@link ConcurrentBTree} contains an element with the specified key and value.
+     *
+     * @param key   The key to locate in the {@link ConcurrentBTree}.
+     * @param value The value associated with the specified key.
+     * @return <code>true</code> if the {@link ConcurrentBTree} contains an element with the key and value; otherwise,
+     * <code>false</code>.
+     * @throws NullPointerException The specified key is null.
+     */
+    @Override
+    public boolean containsKeyValue(TKey key, TValue value)
+    {
+        validateKey(key);
+        Node leaf = findLeaf(snapshot, key);
+        int i = leafIndex(leaf, key);
+        return (i >= 0) && Objects.equals(valueAt(leaf, i), value);
+    }
+
+    /**
+     * Tries to remove a {@link KeyValuePair} with the specified key.
+     * Java's generic programming mechanism makes this method have a long name instead just "remove".
+     *
+     * @param key The key of the element to remove.
+     * @return <code>true</code> if the element is successfully removed; otherwise, <code>false</code>. This method
+     * also returns <code>false</code> if key was not found in the {@link ConcurrentBTree}.
+     * @throws NullPointerException The specified key is null.
+     */
+    @Override
+    public boolean removeByKey(TKey key)
+    {
+        return remove(key, null, false);
+    }
+
+    /**
+     * Gets the number of elements contained in this {@link ICollection}. This method takes no lock.
+     *
+     * @return The number of elements contained in this {@link ICollection}.
+     */
+    @Override
+    public int count()
+    {
+        return snapshot.count;
+    }
+
+    /**
+     * Returns the height of the {@link ConcurrentBTree}, which is 0 if the root is a leaf.
+     *
+     * @return The height of the {@link ConcurrentBTree}.
+     */
+    public int height()
+    {
+        return snapshot.height;
+    }
+
+    /**
+     * Returns {@code true} if the collection is read only; otherwise, {@code false}.
+     *
+     * @return {@code true} if the collection is read only; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Removes all items from this {@link ICollection}.
+     */
+    @Override
+    public void clear()
+    {
+        writeLock.lock();
+        try
+        {
+            snapshot = new Snapshot(new Node(EMPTY, EMPTY), 0, 0);
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the specified key-value pair from this {@link ICollection}, if the key is associated with the value.
+     *
+     * @param keyValuePair The key-value pair to remove from this {@link ICollection}.
+     * @return <code>true</code> if the pair was removed; otherwise, <code>false</code>.
+     * @throws NullPointerException The specified key-value pair or its key is null.
+     */
+    @Override
+    public boolean remove(KeyValuePair<TKey, TValue> keyValuePair)
+    {
+        if (keyValuePair == null)
+            throw new NullPointerException("The argument \"keyValuePair\" cannot be null.");
+
+        return remove(keyValuePair.getKey(), keyValuePair.getValue(), true);
+    }
+
+    /**
+     * Determines whether this {@link ICollection} contains a specific key-value pair.
+     *
+     * @param keyValuePair The key-value pair to locate in this {@link ICollection}.
+     * @return <code>true</code> if the specified pair is found in this {@link ICollection}; otherwise,
+     * <code>false</code>.
+     * @throws NullPointerException The specified key-value pair or its key is null.
+     */
+    @Override
+    public boolean contains(KeyValuePair<TKey, TValue> keyValuePair)
+    {
+        if (keyValuePair == null)
+            throw new NullPointerException("The argument \"keyValuePair\" cannot be null.");
+
+        return containsKeyValue(keyValuePair.getKey(), keyValuePair.getValue());
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at index 0.
+     *
+     * @param array The one-dimensional array that is the destination of the elements copied from this
+     *              {@link ICollection}.
+     * @throws NullPointerException     The given array is null.
+     * @throws IllegalArgumentException The number of elements is greater than the length of the array.
+     */
+    @Override
+    public void copyTo(KeyValuePair<TKey, TValue>[] array)
+    {
+        copyTo(array, 0);
+    }
+
+    /**
+     * Copies the elements of this {@link ICollection} to an array, starting at a particular array index. The copied
+     * elements are those of a single snapshot of the tree.
+     *
+     * @param array      The one-dimensional array that is the destination of the elements copied from this
+     *                   {@link ICollection}.
+     * @param startIndex The zero-based index in array at which copying begins.
+     * @throws NullPointerException           The given array is null.
+     * @throws ArrayIndexOutOfBoundsException {@code startIndex} is less than 0 or greater than the length of the array.
+     * @throws IllegalArgumentException       The number of elements is greater than the available space from
+     *                                        {@code startIndex} to the end of the array.
+     */
+    @Override
+    public void copyTo(KeyValuePair<TKey, TValue>[] array, int startIndex)
+    {
+        if (array == null)
+            throw new NullPointerException("The argument \"array\" cannot be null.");
+        if ((startIndex < 0) || (startIndex > array.length))
+            throw new ArrayIndexOutOfBoundsException("Array index is less than 0 or greater than the length of the array.");
+
+        Snapshot snapshot = this.snapshot;
+        if (array.length - startIndex < snapshot.count)
+            throw new IllegalArgumentException("The number of elements in the source ConcurrentBTree is greater than the " +
+                                                       "available space from startIndex to the end of the destination array.");
+
+        Iterator<KeyValuePair<TKey, TValue>> iterator = new PairIterator(snapshot, null, null);
+        while (iterator.hasNext())
+            array[startIndex++] = iterator.next();
+    }
+
+    /**
+     * Returns an iterator over the key-value pairs in increasing order of keys, which walks the tree as it was when
+     * the iterator was created.
+     *
+     * @return an Iterator.
+     */
+    @Override
+    public Iterator<KeyValuePair<TKey, TValue>> iterator()
+    {
+        return new PairIterator(snapshot, null, null);
+    }
+
+    /**
+     * Adds or replaces the specified key-value pair, and publishes the new tree.
+     *
+     * @param overwrite Whether the value of an existing key is replaced, rather than left unchanged.
+     * @return {@code true} if the tree is changed; {@code false} if the key exists and {@code overwrite} is false.
+     */
+    private boolean insert(TKey key, TValue value, boolean overwrite)
+    {
+        validateKey(key);
+        if (value == null)
+            throw new NullPointerException("The argument \"value\" cannot be null.");
+
+        writeLock.lock();
+        try
+        {
+            Snapshot snapshot = this.snapshot;
+            boolean exists = leafIndex(findLeaf(snapshot, key), key) >= 0;
+            if (exists && !overwrite)
+                return false;
+
+            Node[] nodes = insert(snapshot.root, key, value, snapshot.height);
+            int count = exists ? snapshot.count : snapshot.count + 1;
+            if (nodes.length == 1)
+                this.snapshot = new Snapshot(nodes[0], snapshot.height, count);
+            else
+            {
+                // The root is split, so a new root gets the 2 halves.
+                Node root = new Node(new Object[] { nodes[0].keys[0], nodes[1].keys[0] },
+                                     new Object[] { nodes[0], nodes[1] });
+                this.snapshot = new Snapshot(root, snapshot.height + 1, count);
+            }
+
+            return true;
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the specified sub-tree with the key-value pair inserted or replaced: one node, or 2 nodes if
+     * the copy of the root of the sub-tree is split.
+     */
+    private Node[] insert(Node node, TKey key, TValue value, int height)
+    {
+        if (height == 0)
+        {
+            int i = leafIndex(node, key);
+            if (i < 0)
+                return insertAt(node.keys, node.items, ~i, key, value);
+
+            Object[] items = node.items.clone();
+            items[i] = value;
+            return new Node[] { new Node(node.keys, items) };
+        }
+
+        int i = childIndex(node, key);
+        Node[] children = insert((Node) node.items[i], key, value, height - 1);
+        Object[] items = node.items.clone();
+        items[i] = children[0];
+        if (children.length == 1)
+            return new Node[] { new Node(node.keys, items) };
+
+        return insertAt(node.keys, items, i + 1, children[1].keys[0], children[1]);
+    }
+
+    /**
+     * Creates a node with an entry inserted at the specified index, and splits it in half if it reaches
+     * {@code MAX_CHILDREN} entries.
+     */
+    private Node[] insertAt(Object[] keys, Object[] items, int i, Object key, Object item)
+    {
+        int count = keys.length + 1;
+        Object[] newKeys = new Object[count];
+        Object[] newItems = new Object[count];
+        System.arraycopy(keys, 0, newKeys, 0, i);
+        System.arraycopy(items, 0, newItems, 0, i);
+        newKeys[i] = key;
+        newItems[i] = item;
+        System.arraycopy(keys, i, newKeys, i + 1, count - 1 - i);
+        System.arraycopy(items, i, newItems, i + 1, count - 1 - i);
+
+        if (count < MAX_CHILDREN)
+            return new Node[] { new Node(newKeys, newItems) };
+
+        return split(newKeys, newItems);
+    }
+
+    /**
+     * Creates 2 nodes that get the first half and the second half of the specified entries.
+     */
+    private static Node[] split(Object[] keys, Object[] items)
+    {
+        int half = keys.length / 2;
+        return new Node[] { new Node(Arrays.copyOfRange(keys, 0, half), Arrays.copyOfRange(items, 0, half)),
+                            new Node(Arrays.copyOfRange(keys, half, keys.length),
+                                     Arrays.copyOfRange(items, half, items.length)) };
+    }
+
+    /**
+     * Removes the specified key, if it is associated with the specified value or {@code checkValue} is false, and
+     * publishes the new tree.
+     */
+    private boolean remove(TKey key, TValue value, boolean checkValue)
+    {
+        validateKey(key);
+
+        writeLock.lock();
+        try
+        {
+            Snapshot snapshot = this.snapshot;
+            Node leaf = findLeaf(snapshot, key);
+            int i = leafIndex(leaf, key);
+            if ((i < 0) || (checkValue && !Objects.equals(valueAt(leaf, i), value)))
+                return false;
+
+            Node root = remove(snapshot.root, key, snapshot.height);
+            int height = snapshot.height;
+            while ((height > 0) && (root.count() == 1))
+            {
+                root = (Node) root.items[0];
+                height--;
+            }
+
+            this.snapshot = new Snapshot(root, height, snapshot.count - 1);
+            return true;
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the specified sub-tree without the specified key, which is in the sub-tree. A child that falls
+     * below half of {@code MAX_CHILDREN} entries is merged with a sibling if they fit in one node, or shares the
+     * entries of both evenly otherwise.
+     */
+    private Node remove(Node node, TKey key, int height)
+    {
+        if (height == 0)
+        {
+            int i = leafIndex(node, key);
+            return new Node(removeAt(node.keys, i), removeAt(node.items, i));
+        }
+
+        int i = childIndex(node, key);
+        Node child = remove((Node) node.items[i], key, height - 1);
+        Object[] keys = node.keys.clone();
+        Object[] items = node.items.clone();
+        items[i] = child;
+        if ((child.count() >= MAX_CHILDREN / 2) || (items.length == 1))
+            return new Node(keys, items);
+
+        int l = i > 0 ? i - 1 : i;
+        Node left = (Node) items[l];
+        Node right = (Node) items[l + 1];
+        Object[] mergedKeys = concat(left.keys, right.keys);
+        Object[] mergedItems = concat(left.items, right.items);
+        if (mergedKeys.length < MAX_CHILDREN)
+        {
+            items[l] = new Node(mergedKeys, mergedItems);
+            return new Node(removeAt(keys, l + 1), removeAt(items, l + 1));
+        }
+
+        Node[] halves = split(mergedKeys, mergedItems);
+        items[l] = halves[0];
+        items[l + 1] = halves[1];
+        keys[l + 1] = halves[1].keys[0];
+        return new Node(keys, items);
+    }
+
+    private static Object[] removeAt(Object[] array, int i)
+    {
+        Object[] result = new Object[array.length - 1];
+        System.arraycopy(array, 0, result, 0, i);
+        System.arraycopy(array, i + 1, result, i, result.length - i);
+        return result;
+    }
+
+    private static Object[] concat(Object[] first, Object[] second)
+    {
+        Object[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private Node findLeaf(Snapshot snapshot, TKey key)
+    {
+        Node node = snapshot.root;
+        for (int h = snapshot.height; h > 0; h--)
+            node = (Node) node.items[childIndex(node, key)];
+
+        return node;
+    }
+
+    /**
+     * Finds the entry of a non-leaf node whose sub-tree should contain the specified key, by binary search over the
+     * keys of entries 1 to count - 1, as {@link BTree} does.
+     */
+    private int childIndex(Node node, TKey key)
+    {
+        int low = 1;
+        int high = node.count() - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if (key.compareTo(keyAt(node, middle)) < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
+        }
+
+        return low - 1;
+    }
+
+    /**
+     * Finds the specified key in a leaf by binary search.
+     *
+     * @return Index of the key if it is found; otherwise, the bitwise complement of the index at which the key should
+     * be inserted.
+     */
+    private int leafIndex(Node leaf, TKey key)
+    {
+        int low = 0;
+        int high = leaf.count() - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int compare = key.compareTo(keyAt(leaf, middle));
+            if (compare == 0)
+                return middle;
+            if (compare < 0)
+                high = middle - 1;
+            else
+                low = middle + 1;
+        }
+
+        return ~low;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TKey keyAt(Node node, int i)
+    {
+        return (TKey) node.keys[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    private TValue valueAt(Node leaf, int i)
+    {
+        return (TValue) leaf.items[i];
+    }
+
+    private static void validateKey(Object key)
+    {
+        if (key == null)
+            throw new NullPointerException("The argument \"key\" cannot be null.");
+    }
+
+    /**
+     * Iterates over the entries of a snapshot whose keys are in a range, keeping the path from the root to the
+     * current leaf.
+     */
+    private abstract class RangeIterator<T> implements Iterator<T>
+    {
+        private final Node[] nodes;
+        private final int[] indices;
+
+        /**
+         * The inclusive upper bound of the keys, or null if there is no upper bound.
+         */
+        private final TKey upperKey;
+        private boolean finished;
+
+        /**
+         * @param lowerKey The inclusive lower bound of the keys, or null if there is no lower bound.
+         */
+        private RangeIterator(Snapshot snapshot, TKey lowerKey, TKey upperKey)
+        {
+            this.upperKey = upperKey;
+            nodes = new Node[snapshot.height + 1];
+            indices = new int[snapshot.height + 1];
+
+            Node node = snapshot.root;
+            for (int h = snapshot.height; h > 0; h--)
+            {
+                int i = lowerKey == null ? 0 : childIndex(node, lowerKey);
+                nodes[h] = node;
+                indices[h] = i;
+                node = (Node) node.items[i];
+            }
+
+            nodes[0] = node;
+            if (lowerKey != null)
+            {
+                int i = leafIndex(node, lowerKey);
+                indices[0] = i >= 0 ? i : ~i;
+            }
+        }
+
+        abstract T select(Node leaf, int i);
+
+        @Override
+        public boolean hasNext()
+        {
+            if (finished)
+                return false;
+
+            while (indices[0] >= nodes[0].count())
+            {
+                if (!moveToNextLeaf())
+                {
+                    finished = true;
+                    return false;
+                }
+            }
+
+            if ((upperKey != null) && (upperKey.compareTo(keyAt(nodes[0], indices[0])) < 0))
+            {
+                finished = true;
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public T next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            return select(nodes[0], indices[0]++);
+        }
+
+        private boolean moveToNextLeaf()
+        {
+            int h = 1;
+            while ((h < nodes.length) && (indices[h] + 1 >= nodes[h].count()))
+                h++;
+            if (h == nodes.length)
+                return false;
+
+            indices[h]++;
+            for (; h > 0; h--)
+            {
+                nodes[h - 1] = (Node) nodes[h].items[indices[h]];
+                indices[h - 1] = 0;
+            }
+
+            return true;
+        }
+    }
+
+    private final class PairIterator extends RangeIterator<KeyValuePair<TKey, TValue>>
+    {
+        private PairIterator(Snapshot snapshot, TKey lowerKey, TKey upperKey)
+        {
+            super(snapshot, lowerKey, upperKey);
+        }
+
+        @Override
+        KeyValuePair<TKey, TValue> select(Node leaf, int i)
+        {
+            return new KeyValuePair<>(keyAt(leaf, i), valueAt(leaf, i));
+        }
+    }
+}
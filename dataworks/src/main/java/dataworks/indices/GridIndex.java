@@ -2,7 +2,7 @@ package dataworks.indices;
 
 import dataworks.ArgumentOutOfRangeException;
 import dataworks.collections.IReadOnlyCollection;
-import dataworks.collections.LinkedList;
+import dataworks.collections.Deque;
 
 /**
  * The {@link GridIndex} class represents a 2-D grid index for quick data filtering and access.
@@ -54,7 +54,7 @@ public class GridIndex<T>
     /**
      * The collection that stores all the data.
      */
-    private LinkedList<T>[][] data;
+    private Deque<T>[][] data;
 
     /**
      * Initializes a grid index with specified arguments.
@@ -236,6 +236,7 @@ public class GridIndex<T>
      * @param rowCount    Number of rows in this grid.
      * @param columnCount Number of columns in this grid.
      */
+    @SuppressWarnings("unchecked")
     public void reset(double minX, double maxX, double minY, double maxY, int rowCount, int columnCount)
     {
         // Clear previous data so that their memory can be released by GC.
@@ -252,7 +253,13 @@ public class GridIndex<T>
         xInterval = (maxX - minX) / rowCount;
         yInterval = (maxY - minY) / columnCount;
 
-        data = (LinkedList<T>[][]) new Object[rowCount][columnCount];
+        data = (Deque<T>[][]) new Deque<?>[rowCount][columnCount];
+        // Empty cells don't allocate their arrays until the first element is added.
+        for (int i = 0; i < rowCount; i++)
+        {
+            for (int j = 0; j < columnCount; j++)
+                data[i][j] = new Deque<>();
+        }
     }
 
     /**
@@ -296,7 +303,7 @@ public class GridIndex<T>
     public Iterable<T> adjacent(int x, int y, int xSpan, int ySpan)
     {
         validateXY(x, y);
-        LinkedList<T> adjacentData = new LinkedList<>();
+        Deque<T> adjacentData = new Deque<>();
         for (int i = x - xSpan; i <= x + xSpan; i++)
         {
             for (int j = y - ySpan; j <= y + ySpan; j++)
@@ -315,7 +322,7 @@ public class GridIndex<T>
     public Iterable<T> getPatch(int minX, int maxX, int minY, int maxY)
     {
         validateRange(minX, maxX, minY, maxY);
-        LinkedList<T> patchData = new LinkedList<>();
+        Deque<T> patchData = new Deque<>();
         for (int i = minX; i <= maxX; i++)
         {
             for (int j = minY; j <= maxY; j++)
@@ -0,0 +1,315 @@
+package dataworks.indices;
+
+import dataworks.mathematics.Vector;
+
+import java.util.function.IntConsumer;
+
+/**
+ * The {@link KdTree} class represents a static k-d tree built over a set of points with the same dimension, for quick
+ * axis-aligned range queries.
+ * <p>
+ * The tree is implicit: points are reordered so that every sub-tree occupies a contiguous section of the internal
+ * arrays, and the median of each section is the splitting point. Coordinates are stored in a row-major flat array in
+ * tree order, thus points of the same leaf are adjacent in memory.
+ */
+public class KdTree
+{
+    /**
+     * Maximum number of points in a section that will be scanned directly instead of being split further.
+     */
+    private static final int LEAF_SIZE = 8;
+
+    /**
+     * Number of components of every point.
+     */
+    private final int dimension;
+
+    /**
+     * Number of points in this tree.
+     */
+    private final int count;
+
+    /**
+     * Coordinates of all the points in tree order, stored row by row.
+     */
+    private final double[] coordinates;
+
+    /**
+     * Original index of every point in tree order.
+     */
+    private final int[] indices;
+
+    /**
+     * Splitting dimension of every internal node, indexed by the position of its median point.
+     */
+    private final int[] splitDimensions;
+
+    /**
+     * Initializes a k-d tree that contains the specified points.
+     *
+     * @param points Points to build the tree, all of which must have the same number of components.
+     * @throws NullPointerException     If {@code points} or any of its entries is null.
+     * @throws IllegalArgumentException If {@code points} is empty or its entries have different number of components.
+     */
+    public KdTree(Vector[] points)
+    {
+        this(flatten(points), points[0].count());
+    }
+
+    /**
+     * Initializes a k-d tree that contains the points stored in a row-major array, where the point with index i
+     * occupies elements from {@code i * dimension} (inclusive) to {@code (i + 1) * dimension} (exclusive). The given
+     * array is not modified.
+     *
+     * @param data      Coordinates of all points, stored row by row.
+     * @param dimension Number of components of every point.
+     * @throws NullPointerException     If {@code data} is null.
+     * @throws IllegalArgumentException If {@code dimension} is non-positive or the length of {@code data} is not a
+     *                                  positive multiple of it.
+     */
+    public KdTree(double[] data, int dimension)
+    {
+        if (data == null)
+            throw new NullPointerException("Argument \"data\" cannot be null.");
+        if (dimension <= 0)
+            throw new IllegalArgumentException("Argument \"dimension\" must be a positive integer.");
+        if ((data.length == 0) || (data.length % dimension != 0))
+            throw new IllegalArgumentException("Length of argument \"data\" must be a positive multiple of \"dimension\".");
+
+        this.dimension = dimension;
+        count = data.length / dimension;
+
+        indices = new int[count];
+        for (int i = 0; i < count; i++)
+            indices[i] = i;
+
+        splitDimensions = new int[count];
+        build(data, 0, count);
+
+        // Store coordinates in tree order so that a leaf scan reads contiguous memory.
+        coordinates = new double[count * dimension];
+        for (int i = 0; i < count; i++)
+            System.arraycopy(data, indices[i] * dimension, coordinates, i * dimension, dimension);
+    }
+
+    private static double[] flatten(Vector[] points)
+    {
+        if (points == null)
+            throw new NullPointerException("Argument \"points\" cannot be null.");
+        if (points.length == 0)
+            throw new IllegalArgumentException("Argument \"points\" cannot be an empty array (with length 0).");
+
+        Vector.validateVector(points[0]);
+        int dimension = points[0].count();
+        double[] data = new double[points.length * dimension];
+        for (int i = 0; i < points.length; i++)
+        {
+            Vector point = points[i];
+            if (point == null)
+                throw new NullPointerException("Entry of \"points\" with index " + i + " is null.");
+            if (point.count() != dimension)
+                throw new IllegalArgumentException("Every Vector in \"points\" must have the same length.");
+
+            for (int j = 0; j < dimension; j++)
+                data[i * dimension + j] = point.get(j);
+        }
+
+        return data;
+    }
+
+    /**
+     * Gets the number of points in this tree.
+     *
+     * @return The number of points in this tree.
+     */
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Gets the number of components of every point in this tree.
+     *
+     * @return The number of components of every point in this tree.
+     */
+    public int getDimension()
+    {
+        return dimension;
+    }
+
+    /**
+     * Gets the original index of the point at the specified position in tree order. Points that are adjacent in tree
+     * order are usually close in space, so visiting points in this order improves locality of successive queries.
+     *
+     * @param position The zero-based position in tree order.
+     * @return The original index of the point at the specified position.
+     */
+    public int indexAt(int position)
+    {
+        if ((position < 0) || (position >= count))
+            throw new IndexOutOfBoundsException("Argument \"position\" must be between 0 and count (" + count + ").");
+
+        return indices[position];
+    }
+
+    /**
+     * Performs the given action on the index of every point inside the axis-aligned box centered at {@code center}
+     * with half side length {@code radius}, i.e. every point p with |p[i] - center[i]| &lt;= radius for all i.
+     * <p>
+     * Since Euclidean, Manhattan and Chebyshev distances are never less than the difference of any single component,
+     * the result is a superset of the points within {@code radius} under these metrics.
+     *
+     * @param center Center of the box.
+     * @param radius Half side length of the box.
+     * @param action The action to perform on the original index of every point inside the box.
+     * @throws NullPointerException     If {@code center} or {@code action} is null.
+     * @throws IllegalArgumentException If {@code center} has a different number of components with this tree.
+     */
+    public void search(double[] center, double radius, IntConsumer action)
+    {
+        if (center == null)
+            throw new NullPointerException("Argument \"center\" cannot be null.");
+        if (action == null)
+            throw new NullPointerException("Argument \"action\" cannot be null.");
+        if (center.length != dimension)
+            throw new IllegalArgumentException("Argument \"center\" must have " + dimension + " components.");
+
+        search(0, count, center, radius, action);
+    }
+
+    private void search(int low, int high, double[] center, double radius, IntConsumer action)
+    {
+        while (high - low > LEAF_SIZE)
+        {
+            int middle = (low + high) >>> 1;
+            int splitDimension = splitDimensions[middle];
+            double split = coordinates[middle * dimension + splitDimension];
+            double lower = center[splitDimension] - radius;
+            double upper = center[splitDimension] + radius;
+
+            if (lower <= split)
+                search(low, middle, center, radius, action);
+            if (inside(middle, center, radius))
+                action.accept(indices[middle]);
+            if (upper < split)
+                return;
+
+            // Continue with the right section in this loop instead of a recursive call.
+            low = middle + 1;
+        }
+
+        for (int i = low; i < high; i++)
+        {
+            if (inside(i, center, radius))
+                action.accept(indices[i]);
+        }
+    }
+
+    private boolean inside(int position, double[] center, double radius)
+    {
+        int offset = position * dimension;
+        for (int i = 0; i < dimension; i++)
+        {
+            if (Math.abs(coordinates[offset + i] - center[i]) > radius)
+                return false;
+        }
+
+        return true;
+    }
+
+    private void build(double[] data, int low, int high)
+    {
+        while (high - low > LEAF_SIZE)
+        {
+            int splitDimension = widestDimension(data, low, high);
+            int middle = (low + high) >>> 1;
+            select(data, low, high, middle, splitDimension);
+            splitDimensions[middle] = splitDimension;
+
+            build(data, low, middle);
+            low = middle + 1;
+        }
+    }
+
+    /**
+     * Returns the dimension along which points in the specified section spread the most.
+     */
+    private int widestDimension(double[] data, int low, int high)
+    {
+        int widest = 0;
+        double maxSpread = -1;
+        for (int d = 0; d < dimension; d++)
+        {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = low; i < high; i++)
+            {
+                double value = data[indices[i] * dimension + d];
+                if (value < min)
+                    min = value;
+                if (value > max)
+                    max = value;
+            }
+
+            if (max - min > maxSpread)
+            {
+                maxSpread = max - min;
+                widest = d;
+            }
+        }
+
+        return widest;
+    }
+
+    /**
+     * Rearranges the specified section of {@link #indices} so that the point at {@code k} is the one that would be
+     * there if the section was sorted by the given dimension, with no greater points before it and no less points
+     * after it.
+     */
+    private void select(double[] data, int low, int high, int k, int d)
+    {
+        int left = low;
+        int right = high - 1;
+        while (left < right)
+        {
+            double pivot = medianOfThree(
+                data[indices[left] * dimension + d],
+                data[indices[(left + right) >>> 1] * dimension + d],
+                data[indices[right] * dimension + d]);
+
+            int i = left;
+            int j = right;
+            while (i <= j)
+            {
+                while (data[indices[i] * dimension + d] < pivot)
+                    i++;
+                while (data[indices[j] * dimension + d] > pivot)
+                    j--;
+
+                if (i <= j)
+                {
+                    int temp = indices[i];
+                    indices[i] = indices[j];
+                    indices[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j)
+                right = j;
+            else if (k >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    private static double medianOfThree(double a, double b, double c)
+    {
+        if (a < b)
+            return b < c ? b : Math.max(a, c);
+        else
+            return a < c ? a : Math.max(b, c);
+    }
+}
@@ -1,5 +1,755 @@
 package dataworks.indices;
 
-public class RedBlackTree
+import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+import dataworks.KeyNotFountException;
+import dataworks.OutInt;
+import dataworks.OutLong;
+import dataworks.collections.SortedDictionary;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The {@link RedBlackTree} class represents an ordered index from long keys, such as the ticks of
+ * {@link dataworks.datetime.DateTime} values, to int values, such as the positions of records in a list.
+ * <p>
+ * It is a left-leaning red-black tree like {@link SortedDictionary}, but its nodes are not objects. Node i is made of
+ * {@code keys[i]}, {@code values[i]}, {@code left[i]}, {@code right[i]} and {@code colors[i]}, and links between
+ * nodes are indices into these arrays. Index 0 is the nil node, so that arrays filled with zeros are links to nothing.
+ * An entry takes 21 bytes in the arrays, and the garbage collector only sees 5 arrays however many entries there are.
+ * The nodes of removed entries are linked in a free list through {@code left}, and reused by later insertions.
+ */
+public class RedBlackTree implements Serializable
 {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+    private static final int NIL = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int[] left;
+    private int[] right;
+    private boolean[] colors;
+
+    private int root;
+    private int count;
+
+    /**
+     * Number of nodes that have ever been allocated, including the nil node.
+     */
+    private int nodeCount;
+    private int freeList;
+    private int version;
+
+    /**
+     * Initializes a new instance of the {@link RedBlackTree} class that is empty.
+     */
+    public RedBlackTree()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes a new instance of the {@link RedBlackTree} class that is empty and can hold the specified number of
+     * entries without resizing.
+     *
+     * @param capacity The number of entries that the new tree can initially hold.
+     * @throws ArgumentOutOfRangeException The specified capacity is less than 0, or too large.
+     */
+    public RedBlackTree(int capacity)
+    {
+        if ((capacity < 0) || (capacity == Integer.MAX_VALUE))
+            throw new ArgumentOutOfRangeException("\"capacity\" must be a non-negative integer less than 2^31 - 1.");
+
+        keys = new long[capacity + 1];
+        values = new int[capacity + 1];
+        left = new int[capacity + 1];
+        right = new int[capacity + 1];
+        colors = new boolean[capacity + 1];
+        nodeCount = 1;
+    }
+
+    /**
+     * Gets the number of entries contained in this {@link RedBlackTree}.
+     *
+     * @return The number of entries contained in this {@link RedBlackTree}.
+     */
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Determines whether this {@link RedBlackTree} is empty.
+     *
+     * @return {@code true} if this {@link RedBlackTree} contains no entries; otherwise, {@code false}.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Determines whether this {@link RedBlackTree} contains the specified key.
+     *
+     * @param key The key to locate.
+     * @return {@code true} if the key is found; otherwise, {@code false}.
+     */
+    public boolean containsKey(long key)
+    {
+        return findNode(key) != NIL;
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key The key of the value to get.
+     * @return The value associated with the specified key.
+     * @throws KeyNotFountException The specified key is not in this {@link RedBlackTree}.
+     */
+    public int get(long key)
+    {
+        int node = findNode(key);
+        if (node == NIL)
+            throw new KeyNotFountException("The key \"" + key + "\" is not in the RedBlackTree.");
+
+        return values[node];
+    }
+
+    /**
+     * Gets the value associated with the specified key, or the specified default value if the key is not found.
+     *
+     * @param key          The key of the value to get.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The value associated with the specified key, or {@code defaultValue} if the key is not found.
+     */
+    public int getOrDefault(long key, int defaultValue)
+    {
+        int node = findNode(key);
+        return node != NIL ? values[node] : defaultValue;
+    }
+
+    /**
+     * Gets the value associated with the specified key.
+     *
+     * @param key   The key of the value to get.
+     * @param value Receives the value associated with the key if it is found.
+     * @return {@code true} if the key is found; otherwise, {@code false}.
+     * @throws NullPointerException {@code value} is null.
+     */
+    public boolean tryGetValue(long key, OutInt value)
+    {
+        if (value == null)
+            throw new NullPointerException("Argument \"value\" cannot be null.");
+
+        int node = findNode(key);
+        if (node == NIL)
+            return false;
+
+        value.setValue(values[node]);
+        return true;
+    }
+
+    /**
+     * Replaces the value associated with the specified key.
+     *
+     * @param key   The key of the value to replace.
+     * @param value The new value associated with the specified key.
+     * @throws KeyNotFountException The specified key is not in this {@link RedBlackTree}.
+     */
+    public void set(long key, int value)
+    {
+        int node = findNode(key);
+        if (node == NIL)
+            throw new KeyNotFountException("The key \"" + key + "\" is not in the RedBlackTree.");
+
+        values[node] = value;
+    }
+
+    /**
+     * Adds an entry with the specified key and value.
+     *
+     * @param key   The key of the entry to add.
+     * @param value The value of the entry to add.
+     * @throws IllegalArgumentException An entry with the same key already exists.
+     */
+    public void add(long key, int value)
+    {
+        if (findNode(key) != NIL)
+            throw new IllegalArgumentException("An entry with the same key \"" + key + "\" already exists in the RedBlackTree.");
+
+        insert(key, value);
+    }
+
+    /**
+     * Associates the specified value with the specified key, adding an entry if the key is not found.
+     *
+     * @param key   The key of the entry.
+     * @param value The value to associate with the key.
+     */
+    public void put(long key, int value)
+    {
+        int node = findNode(key);
+        if (node != NIL)
+            values[node] = value;
+        else
+            insert(key, value);
+    }
+
+    /**
+     * Removes the entry with the specified key.
+     *
+     * @param key The key of the entry to remove.
+     * @return {@code true} if the entry is removed; {@code false} if the key is not found.
+     */
+    public boolean removeByKey(long key)
+    {
+        if (findNode(key) == NIL)
+            return false;
+
+        // If both children of root are black, set root to red.
+        if (!isRed(left[root]) && !isRed(right[root]))
+            colors[root] = RED;
+
+        root = remove(root, key);
+        colors[root] = BLACK;
+
+        count--;
+        version++;
+        return true;
+    }
+
+    /**
+     * Removes all entries from this {@link RedBlackTree}. The capacity is not changed.
+     */
+    public void clear()
+    {
+        root = NIL;
+        count = 0;
+        nodeCount = 1;
+        freeList = NIL;
+        version++;
+    }
+
+    /**
+     * Gets the minimum key of this {@link RedBlackTree}.
+     *
+     * @return The minimum key.
+     * @throws InvalidOperationException This {@link RedBlackTree} is empty.
+     */
+    public long minKey()
+    {
+        if (root == NIL)
+            throw new InvalidOperationException("The RedBlackTree is empty.");
+
+        int node = root;
+        while (left[node] != NIL)
+            node = left[node];
+
+        return keys[node];
+    }
+
+    /**
+     * Gets the maximum key of this {@link RedBlackTree}.
+     *
+     * @return The maximum key.
+     * @throws InvalidOperationException This {@link RedBlackTree} is empty.
+     */
+    public long maxKey()
+    {
+        if (root == NIL)
+            throw new InvalidOperationException("The RedBlackTree is empty.");
+
+        int node = root;
+        while (right[node] != NIL)
+            node = right[node];
+
+        return keys[node];
+    }
+
+    /**
+     * Gets the largest key that is less than or equal to the specified key.
+     *
+     * @param key      The key to compare with.
+     * @param floorKey Receives the largest key that is less than or equal to {@code key}, if there is one.
+     * @return {@code true} if there is such a key; otherwise, {@code false}.
+     * @throws NullPointerException {@code floorKey} is null.
+     */
+    public boolean tryGetFloorKey(long key, OutLong floorKey)
+    {
+        return tryGetKey(floorNode(key, true), floorKey);
+    }
+
+    /**
+     * Gets the smallest key that is greater than or equal to the specified key.
+     *
+     * @param key        The key to compare with.
+     * @param ceilingKey Receives the smallest key that is greater than or equal to {@code key}, if there is one.
+     * @return {@code true} if there is such a key; otherwise, {@code false}.
+     * @throws NullPointerException {@code ceilingKey} is null.
+     */
+    public boolean tryGetCeilingKey(long key, OutLong ceilingKey)
+    {
+        return tryGetKey(ceilingNode(key, true), ceilingKey);
+    }
+
+    /**
+     * Gets the largest key that is strictly less than the specified key.
+     *
+     * @param key      The key to compare with.
+     * @param lowerKey Receives the largest key that is less than {@code key}, if there is one.
+     * @return {@code true} if there is such a key; otherwise, {@code false}.
+     * @throws NullPointerException {@code lowerKey} is null.
+     */
+    public boolean tryGetLowerKey(long key, OutLong lowerKey)
+    {
+        return tryGetKey(floorNode(key, false), lowerKey);
+    }
+
+    /**
+     * Gets the smallest key that is strictly greater than the specified key.
+     *
+     * @param key       The key to compare with.
+     * @param higherKey Receives the smallest key that is greater than {@code key}, if there is one.
+     * @return {@code true} if there is such a key; otherwise, {@code false}.
+     * @throws NullPointerException {@code higherKey} is null.
+     */
+    public boolean tryGetHigherKey(long key, OutLong higherKey)
+    {
+        return tryGetKey(ceilingNode(key, false), higherKey);
+    }
+
+    private boolean tryGetKey(int node, OutLong result)
+    {
+        if (result == null)
+            throw new NullPointerException("Argument \"result\" cannot be null.");
+        if (node == NIL)
+            return false;
+
+        result.setValue(keys[node]);
+        return true;
+    }
+
+    /**
+     * Copies all the keys of this {@link RedBlackTree} to a new array, in increasing order.
+     *
+     * @return An array that contains all the keys.
+     */
+    public long[] keysToArray()
+    {
+        long[] array = new long[count];
+        Cursor cursor = cursor();
+        for (int i = 0; cursor.moveNext(); i++)
+            array[i] = cursor.getKey();
+
+        return array;
+    }
+
+    /**
+     * Returns a {@link Cursor} positioned before the first entry of this {@link RedBlackTree}.
+     *
+     * @return A new {@link Cursor} over all the entries.
+     */
+    public Cursor cursor()
+    {
+        return new Cursor(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a {@link Cursor} over the entries whose keys are in the specified range. The cursor is empty if
+     * {@code lowerKey} is greater than {@code upperKey}.
+     *
+     * @param lowerKey The inclusive lower bound of the keys.
+     * @param upperKey The inclusive upper bound of the keys.
+     * @return A new {@link Cursor} positioned before the first entry in the range.
+     */
+    public Cursor range(long lowerKey, long upperKey)
+    {
+        return new Cursor(lowerKey, upperKey);
+    }
+
+    private boolean isRed(int node)
+    {
+        return colors[node];
+    }
+
+    private int findNode(long key)
+    {
+        int node = root;
+        while (node != NIL)
+        {
+            long nodeKey = keys[node];
+            if (key == nodeKey)
+                return node;
+
+            node = key < nodeKey ? left[node] : right[node];
+        }
+
+        return NIL;
+    }
+
+    /**
+     * Finds the node with the largest key that is less than (or equal to, if {@code inclusive}) the specified key.
+     */
+    private int floorNode(long key, boolean inclusive)
+    {
+        int floor = NIL;
+        int node = root;
+        while (node != NIL)
+        {
+            if ((keys[node] < key) || (inclusive && (keys[node] == key)))
+            {
+                floor = node;
+                node = right[node];
+            }
+            else
+                node = left[node];
+        }
+
+        return floor;
+    }
+
+    /**
+     * Finds the node with the smallest key that is greater than (or equal to, if {@code inclusive}) the specified key.
+     */
+    private int ceilingNode(long key, boolean inclusive)
+    {
+        int ceiling = NIL;
+        int node = root;
+        while (node != NIL)
+        {
+            if ((keys[node] > key) || (inclusive && (keys[node] == key)))
+            {
+                ceiling = node;
+                node = left[node];
+            }
+            else
+                node = right[node];
+        }
+
+        return ceiling;
+    }
+
+    /**
+     * Inserts an entry whose key is not in the tree.
+     */
+    private void insert(long key, int value)
+    {
+        // The arrays must not be replaced while add() assigns links into them.
+        if ((freeList == NIL) && (nodeCount == keys.length))
+            grow();
+
+        root = add(root, key, value);
+        colors[root] = BLACK;
+        count++;
+        version++;
+    }
+
+    private void grow()
+    {
+        int length = (int) Math.min(Integer.MAX_VALUE, Math.max(DEFAULT_CAPACITY + 1, keys.length * 2L));
+        if (length == keys.length)
+            throw new InvalidOperationException("The RedBlackTree cannot hold more entries.");
+
+        keys = Arrays.copyOf(keys, length);
+        values = Arrays.copyOf(values, length);
+        left = Arrays.copyOf(left, length);
+        right = Arrays.copyOf(right, length);
+        colors = Arrays.copyOf(colors, length);
+    }
+
+    private int newNode(long key, int value)
+    {
+        int node;
+        if (freeList != NIL)
+        {
+            node = freeList;
+            freeList = left[node];
+        }
+        else
+            node = nodeCount++;
+
+        keys[node] = key;
+        values[node] = value;
+        left[node] = NIL;
+        right[node] = NIL;
+        colors[node] = RED;
+        return node;
+    }
+
+    private void freeNode(int node)
+    {
+        left[node] = freeList;
+        right[node] = NIL;
+        colors[node] = BLACK;
+        freeList = node;
+    }
+
+    /**
+     * Inserts the entry in the subtree rooted at {@code h}, and returns the new root of the subtree.
+     */
+    private int add(int h, long key, int value)
+    {
+        if (h == NIL)
+            return newNode(key, value);
+
+        if (key < keys[h])
+            left[h] = add(left[h], key, value);
+        else
+            right[h] = add(right[h], key, value);
+
+        // Fix-up any right-leaning links.
+        if (isRed(right[h]) && !isRed(left[h]))
+            h = rotateLeft(h);
+        if (isRed(left[h]) && isRed(left[left[h]]))
+            h = rotateRight(h);
+        if (isRed(left[h]) && isRed(right[h]))
+            flipColors(h);
+
+        return h;
+    }
+
+    /**
+     * Removes the entry with the specified key from the subtree rooted at {@code h}, which contains the key.
+     */
+    private int remove(int h, long key)
+    {
+        if (key < keys[h])
+        {
+            if (!isRed(left[h]) && !isRed(left[left[h]]))
+                h = moveRedLeft(h);
+            left[h] = remove(left[h], key);
+        }
+        else
+        {
+            if (isRed(left[h]))
+                h = rotateRight(h);
+
+            if ((key == keys[h]) && (right[h] == NIL))
+            {
+                freeNode(h);
+                return NIL;
+            }
+
+            if (!isRed(right[h]) && !isRed(left[right[h]]))
+                h = moveRedRight(h);
+
+            if (key == keys[h])
+            {
+                // Replace the entry with its successor, and remove the successor from the right subtree.
+                int successor = right[h];
+                while (left[successor] != NIL)
+                    successor = left[successor];
+
+                keys[h] = keys[successor];
+                values[h] = values[successor];
+                right[h] = removeMin(right[h]);
+            }
+            else
+                right[h] = remove(right[h], key);
+        }
+
+        return balance(h);
+    }
+
+    private int removeMin(int h)
+    {
+        if (left[h] == NIL)
+        {
+            freeNode(h);
+            return NIL;
+        }
+
+        if (!isRed(left[h]) && !isRed(left[left[h]]))
+            h = moveRedLeft(h);
+
+        left[h] = removeMin(left[h]);
+        return balance(h);
+    }
+
+    private int rotateLeft(int h)
+    {
+        int x = right[h];
+        right[h] = left[x];
+        left[x] = h;
+        colors[x] = colors[h];
+        colors[h] = RED;
+        return x;
+    }
+
+    private int rotateRight(int h)
+    {
+        int x = left[h];
+        left[h] = right[x];
+        right[x] = h;
+        colors[x] = colors[h];
+        colors[h] = RED;
+        return x;
+    }
+
+    /**
+     * Flips the colors of a node and its 2 children.
+     */
+    private void flipColors(int h)
+    {
+        colors[h] = !colors[h];
+        colors[left[h]] = !colors[left[h]];
+        colors[right[h]] = !colors[right[h]];
+    }
+
+    /**
+     * Assuming that {@code h} is red and both {@code left[h]} and {@code left[left[h]]} are black, makes
+     * {@code left[h]} or one of its children red.
+     */
+    private int moveRedLeft(int h)
+    {
+        flipColors(h);
+        if (isRed(left[right[h]]))
+        {
+            right[h] = rotateRight(right[h]);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+
+        return h;
+    }
+
+    /**
+     * Assuming that {@code h} is red and both {@code right[h]} and {@code left[right[h]]} are black, makes
+     * {@code right[h]} or one of its children red.
+     */
+    private int moveRedRight(int h)
+    {
+        flipColors(h);
+        if (isRed(left[left[h]]))
+        {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+
+        return h;
+    }
+
+    /**
+     * Restores the red-black tree invariant on the way up from a removal.
+     */
+    private int balance(int h)
+    {
+        if (isRed(right[h]) && !isRed(left[h]))
+            h = rotateLeft(h);
+        if (isRed(left[h]) && isRed(left[left[h]]))
+            h = rotateRight(h);
+        if (isRed(left[h]) && isRed(right[h]))
+            flipColors(h);
+
+        return h;
+    }
+
+    /**
+     * The {@link Cursor} class iterates over the entries of a {@link RedBlackTree} in increasing order of keys,
+     * without allocating an object for each entry. Call {@link #moveNext()} before reading the first entry.
+     */
+    public final class Cursor
+    {
+        private final int version;
+        private final long upperKey;
+
+        /**
+         * Nodes whose entries are not yet visited and whose left subtrees are, from the root down. Their number is at
+         * most the height of the tree, which is at most 2 * log2(count + 1).
+         */
+        private final int[] stack;
+        private int depth;
+        private int current;
+
+        private Cursor(long lowerKey, long upperKey)
+        {
+            this.version = RedBlackTree.this.version;
+            this.upperKey = upperKey;
+            this.stack = new int[2 * (32 - Integer.numberOfLeadingZeros(count + 1)) + 1];
+
+            int node = root;
+            while (node != NIL)
+            {
+                if (keys[node] >= lowerKey)
+                {
+                    stack[depth++] = node;
+                    node = left[node];
+                }
+                else
+                    node = right[node];
+            }
+        }
+
+        /**
+         * Advances this {@link Cursor} to the next entry.
+         *
+         * @return {@code true} if this {@link Cursor} is moved to an entry; {@code false} if there are no more
+         * entries.
+         * @throws InvalidOperationException Entries have been added or removed since the cursor was created.
+         */
+        public boolean moveNext()
+        {
+            if (version != RedBlackTree.this.version)
+                throw new InvalidOperationException("ICollection object is not allowed to be modified during iterating through it.");
+
+            current = NIL;
+            if (depth == 0)
+                return false;
+
+            int node = stack[--depth];
+            if (keys[node] > upperKey)
+            {
+                depth = 0;
+                return false;
+            }
+
+            current = node;
+            for (int child = right[node]; child != NIL; child = left[child])
+                stack[depth++] = child;
+
+            return true;
+        }
+
+        /**
+         * Gets the key of the current entry.
+         *
+         * @return The key of the current entry.
+         */
+        public long getKey()
+        {
+            validatePosition();
+            return keys[current];
+        }
+
+        /**
+         * Gets the value of the current entry.
+         *
+         * @return The value of the current entry.
+         */
+        public int getValue()
+        {
+            validatePosition();
+            return values[current];
+        }
+
+        /**
+         * Replaces the value of the current entry, which doesn't invalidate this {@link Cursor}.
+         *
+         * @param value The new value of the current entry.
+         */
+        public void setValue(int value)
+        {
+            validatePosition();
+            values[current] = value;
+        }
+
+        private void validatePosition()
+        {
+            if (current == NIL)
+                throw new InvalidOperationException("The cursor is not positioned at an entry.");
+        }
+    }
 }
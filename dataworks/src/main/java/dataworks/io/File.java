@@ -1,6 +1,7 @@
 package dataworks.io;
 
 import org.jetbrains.annotations.*;
+import dataworks.collections.Deque;
 import dataworks.collections.LinkedList;
 
 import java.io.*;
@@ -275,16 +276,13 @@ public final class File
         validateCharset(charset);
 
         Scanner input = new Scanner(Paths.get(path), charset);
-        LinkedList<String> inputBuffer = new LinkedList<>();
+        Deque<String> inputBuffer = new Deque<>();
         while (input.hasNextLine())
             inputBuffer.addLast(input.nextLine());
         input.close();
 
         String[] contents = new String[inputBuffer.count()];
-        int i = 0;
-        for (String line : inputBuffer)
-            contents[i++] = line;
-
+        inputBuffer.copyTo(contents);
         return contents;
     }
 
@@ -317,7 +315,7 @@ public final class File
         validateCharset(charset);
 
         Scanner input = new Scanner(Paths.get(path), charset);
-        LinkedList<String> contents = new LinkedList<>();
+        Deque<String> contents = new Deque<>();
         while (input.hasNextLine())
             contents.addLast(input.nextLine());
         input.close();
@@ -167,6 +167,18 @@ public class BoundingBox implements IShape2D
         return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
     }
 
+    @Override
+    public boolean isWithinDistance(double x, double y, double distance)
+    {
+        if (distance < 0)
+            return false;
+
+        double deltaX = x - (minX + maxX) / 2;
+        double deltaY = y - (minY + maxY) / 2;
+
+        return deltaX * deltaX + deltaY * deltaY <= distance * distance;
+    }
+
 
     @Override
     public boolean equals(Object obj)
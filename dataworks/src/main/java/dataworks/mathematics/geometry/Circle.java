@@ -86,4 +86,19 @@ public class Circle implements IShape2D
     {
         return Math.sqrt(distanceToCenterSquare(x, y));
     }
+
+    /**
+     * Tests if the distance between the specified point and the center of this circle is not greater than the
+     * specified distance.
+     * @param x X-coordinate of the specified point.
+     * @param y Y-coordinate of the specified point.
+     * @param distance The maximum distance.
+     * @return {@code true} if the distance between the point and the center is not greater than {@code distance};
+     * otherwise, {@code false}.
+     */
+    @Override
+    public boolean isWithinDistance(double x, double y, double distance)
+    {
+        return (distance >= 0) && (distanceToCenterSquare(x, y) <= distance * distance);
+    }
 }
@@ -55,4 +55,35 @@ public interface IShape2D
      * shape and the point.
      */
     double distanceTo(double x, double y);
+
+    /**
+     * Tests if the distance between this shape and the specified point, as defined by {@link #distanceTo(double, double)},
+     * is not greater than the specified distance.
+     *
+     * @param point    The point to test.
+     * @param distance The maximum distance.
+     * @return {@code true} if the distance between this shape and the point is not greater than {@code distance};
+     * otherwise, {@code false}.
+     */
+    default boolean isWithinDistance(Point point, double distance)
+    {
+        return isWithinDistance(point.getX(), point.getY(), distance);
+    }
+
+    /**
+     * Tests if the distance between this shape and the specified point, as defined by {@link #distanceTo(double, double)},
+     * is not greater than the specified distance.
+     *
+     * @param x        X-coordinate of the point to test.
+     * @param y        Y-coordinate of the point to test.
+     * @param distance The maximum distance.
+     * @return {@code true} if the distance between this shape and the point is not greater than {@code distance};
+     * otherwise, {@code false}.
+     * @implNote Shapes whose distance is a Euclidean distance to a single point override this method to compare
+     * squared distances without calculating a square root.
+     */
+    default boolean isWithinDistance(double x, double y, double distance)
+    {
+        return distanceTo(x, y) <= distance;
+    }
 }
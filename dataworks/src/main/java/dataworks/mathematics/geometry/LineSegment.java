@@ -201,6 +201,33 @@ public class LineSegment extends Line
         return Mathematics.min(distanceToLine, distanceToEndPoint1, distanceToEndPoint2);
     }
 
+    /**
+     * Tests if the distance between this line segment and the specified point, as defined by
+     * {@link #distanceTo(double, double)}, is less than or equal to the given distance. Every term of that distance
+     * is compared in squared form, so no square root is taken.
+     *
+     * @param x        X-coordinate of the specified point.
+     * @param y        Y-coordinate of the specified point.
+     * @param distance The distance to compare with.
+     * @return {@code true} if this line segment is within the given distance of the point; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isWithinDistance(double x, double y, double distance)
+    {
+        if (distance < 0)
+            return false;
+
+        double squaredDistance = distance * distance;
+        if (endPoint1.isWithinDistance(x, y, distance) || endPoint2.isWithinDistance(x, y, distance))
+            return true;
+
+        // |Ax + By + C| / sqrt(A^2 + B^2) <= distance, with both sides squared.
+        double a = getA();
+        double b = getB();
+        double numerator = a * x + b * y + getC();
+        return numerator * numerator <= squaredDistance * (a * a + b * b);
+    }
+
     /**
      * Returns the string representation of this line segment, i.e. the standard form equation of the line containing this line segment and 2 end points.
      *
@@ -107,6 +107,18 @@ public class Point implements IShape2D
         return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
     }
 
+    @Override
+    public boolean isWithinDistance(double x, double y, double distance)
+    {
+        if (distance < 0)
+            return false;
+
+        double deltaX = this.x - x;
+        double deltaY = this.y - y;
+
+        return deltaX * deltaX + deltaY * deltaY <= distance * distance;
+    }
+
     @Override
     public boolean equals(Object obj)
     {
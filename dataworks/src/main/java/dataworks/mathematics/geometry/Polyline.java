@@ -133,6 +133,27 @@ public class Polyline implements IShape2D
         return minDistance;
     }
 
+    /**
+     * Tests if any line segment of this poly line is within the given distance of the specified point. The test stops
+     * at the first such line segment instead of computing the minimum distance over all of them.
+     *
+     * @param x        X-coordinate of the specified point.
+     * @param y        Y-coordinate of the specified point.
+     * @param distance The distance to compare with.
+     * @return {@code true} if this poly line is within the given distance of the point; otherwise, {@code false}.
+     */
+    @Override
+    public boolean isWithinDistance(double x, double y, double distance)
+    {
+        for (LineSegment lineSegment : polyline)
+        {
+            if (lineSegment.isWithinDistance(x, y, distance))
+                return true;
+        }
+
+        return false;
+    }
+
     public Iterable<Point> getIntersectionsWith(Line line)
     {
         LinkedList<Point> intersections = new LinkedList<>();
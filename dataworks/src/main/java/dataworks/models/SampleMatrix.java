@@ -0,0 +1,169 @@
+package dataworks.models;
+
+import dataworks.mathematics.Vector;
+
+import java.io.Serializable;
+
+/**
+ * The {@link SampleMatrix} class stores numeric samples with the same number of features in a single row-major
+ * {@code double[]}, where the sample with index i occupies elements from {@code i * columnCount} (inclusive) to
+ * {@code (i + 1) * columnCount} (exclusive).
+ * <p>
+ * Distance metrics and models can read samples directly from {@link #getData()} by row index, without one object per
+ * sample.
+ */
+public class SampleMatrix implements Serializable
+{
+    private final double[] data;
+    private final int rowCount;
+    private final int columnCount;
+
+    /**
+     * Initializes a sample matrix with the specified size, all of whose elements are 0.
+     *
+     * @param rowCount    Number of samples.
+     * @param columnCount Number of features of every sample.
+     */
+    public SampleMatrix(int rowCount, int columnCount)
+    {
+        if (rowCount <= 0)
+            throw new IllegalArgumentException("Argument \"rowCount\" must be a positive integer.");
+        if (columnCount <= 0)
+            throw new IllegalArgumentException("Argument \"columnCount\" must be a positive integer.");
+
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        data = new double[rowCount * columnCount];
+    }
+
+    /**
+     * Initializes a sample matrix that wraps the given row-major array, without copying it.
+     *
+     * @param data        Features of all samples, stored row by row.
+     * @param columnCount Number of features of every sample.
+     */
+    public SampleMatrix(double[] data, int columnCount)
+    {
+        if (data == null)
+            throw new NullPointerException("Argument \"data\" cannot be null.");
+        if (columnCount <= 0)
+            throw new IllegalArgumentException("Argument \"columnCount\" must be a positive integer.");
+        if ((data.length == 0) || (data.length % columnCount != 0))
+            throw new IllegalArgumentException("Length of argument \"data\" must be a positive multiple of \"columnCount\".");
+
+        this.data = data;
+        this.columnCount = columnCount;
+        rowCount = data.length / columnCount;
+    }
+
+    /**
+     * Initializes a sample matrix that contains the components of the given vectors, one vector per row.
+     *
+     * @param samples Vectors that have the same number of components.
+     */
+    public SampleMatrix(Vector[] samples)
+    {
+        if (samples == null)
+            throw new NullPointerException("Argument \"samples\" cannot be null.");
+        if (samples.length == 0)
+            throw new IllegalArgumentException("Argument \"samples\" cannot be an empty array (with length 0).");
+
+        Vector.validateVector(samples[0]);
+        rowCount = samples.length;
+        columnCount = samples[0].count();
+        data = new double[rowCount * columnCount];
+
+        for (int i = 0; i < rowCount; i++)
+        {
+            Vector sample = samples[i];
+            if (sample == null)
+                throw new NullPointerException("Entry of \"samples\" with index " + i + " is null.");
+            if (sample.count() != columnCount)
+                throw new IllegalArgumentException("Every Vector in \"samples\" must have the same length.");
+
+            int offset = i * columnCount;
+            for (int j = 0; j < columnCount; j++)
+                data[offset + j] = sample.get(j);
+        }
+    }
+
+    /**
+     * Gets the underlying row-major array of this matrix.
+     *
+     * @return The underlying row-major array of this matrix.
+     */
+    public double[] getData()
+    {
+        return data;
+    }
+
+    /**
+     * Gets the number of samples in this matrix.
+     *
+     * @return The number of samples in this matrix.
+     */
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of features of every sample in this matrix.
+     *
+     * @return The number of features of every sample in this matrix.
+     */
+    public int getColumnCount()
+    {
+        return columnCount;
+    }
+
+    public double get(int row, int column)
+    {
+        validateIndices(row, column);
+        return data[row * columnCount + column];
+    }
+
+    public void set(int row, int column, double value)
+    {
+        validateIndices(row, column);
+        data[row * columnCount + column] = value;
+    }
+
+    /**
+     * Returns a copy of the specified sample as a {@link Vector}.
+     *
+     * @param row Index of the sample.
+     * @return A {@link Vector} that contains the features of the specified sample.
+     */
+    public Vector getRow(int row)
+    {
+        validateIndices(row, 0);
+
+        Vector vector = new Vector(columnCount);
+        int offset = row * columnCount;
+        for (int j = 0; j < columnCount; j++)
+            vector.set(j, data[offset + j]);
+
+        return vector;
+    }
+
+    /**
+     * Copies the specified sample to the given array, starting at index 0.
+     *
+     * @param row         Index of the sample.
+     * @param destination The array to copy features to, whose length must be at least {@link #getColumnCount()}.
+     */
+    public void copyRowTo(int row, double[] destination)
+    {
+        validateIndices(row, 0);
+        System.arraycopy(data, row * columnCount, destination, 0, columnCount);
+    }
+
+    private void validateIndices(int row, int column)
+    {
+        if ((row < 0) || (row >= rowCount))
+            throw new IndexOutOfBoundsException("Error row index for sample matrix: " + row);
+        if ((column < 0) || (column >= columnCount))
+            throw new IndexOutOfBoundsException("Error column index for sample matrix: " + column);
+    }
+}
@@ -1,15 +1,28 @@
 package dataworks.models.clustering;
 
 import dataworks.ArgumentOutOfRangeException;
+import dataworks.InvalidOperationException;
+import dataworks.collections.IntArrayList;
 import dataworks.collections.LinkedList;
+import dataworks.indices.KdTree;
 import dataworks.mathematics.Vector;
 import dataworks.models.IDataScienceModel;
+import dataworks.models.SampleMatrix;
 import dataworks.models.distances.SampleDistanceBase;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 
 public class Dbscan implements IDataScienceModel, Serializable
 {
+    private static final int INITIAL_BUFFER_CAPACITY = 64;
+    private static final int MIN_GRAIN_SIZE = 256;
+
     private int minPoints;
     private double minDistance;
     private LinkedList<Vector> coreSamples;
@@ -17,6 +30,11 @@ public class Dbscan implements IDataScienceModel, Serializable
     private boolean[] marked;
     private int clusterCount;
     private SampleDistanceBase distanceMetric;
+    private NeighborSearchAlgorithm algorithm;
+    private int parallelism;
+    private transient KdTree sampleIndex;
+    private transient boolean[] visited;
+    private transient IntArrayList seeds;
 
     // TODO: try to figure out a better design that combines constructor and necessary parameters.
     public Dbscan(int minPoints, double minDistance)
@@ -32,6 +50,8 @@ public class Dbscan implements IDataScienceModel, Serializable
         coreSamples = null;
         labels = null;
         clusterCount = 0;
+        algorithm = NeighborSearchAlgorithm.AUTO;
+        parallelism = 1;
     }
 
     public int getClusterCount()
@@ -62,6 +82,38 @@ public class Dbscan implements IDataScienceModel, Serializable
         this.distanceMetric = distanceMetric;
     }
 
+    public NeighborSearchAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    public void setAlgorithm(NeighborSearchAlgorithm algorithm)
+    {
+        if (algorithm == null)
+            throw new NullPointerException("Argument \"algorithm\" cannot be null.");
+
+        this.algorithm = algorithm;
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used by {@link #fitPredict(Vector[])}. With a value greater than 1, core samples are
+     * found concurrently and merged with a union-find, and the labels are the same as the ones of the sequential run.
+     *
+     * @param parallelism Number of threads used for clustering, 1 for sequential clustering.
+     */
+    public void setParallelism(int parallelism)
+    {
+        if (parallelism <= 0)
+            throw new ArgumentOutOfRangeException("Argument \"parallelism\" cannot be non-positive.");
+
+        this.parallelism = parallelism;
+    }
+
     public double getMinDistance()
     {
         return minDistance;
@@ -85,71 +137,392 @@ public class Dbscan implements IDataScienceModel, Serializable
         validateParameters();
         validateSamples(samples);
 
+        return fitPredict(new SampleMatrix(samples));
+    }
+
+    /**
+     * Clusters the samples stored in the given {@link SampleMatrix}, one sample per row.
+     *
+     * @param samples The samples to cluster.
+     * @return Cluster label of every sample, -1 for noise samples.
+     */
+    public int[] fitPredict(SampleMatrix samples)
+    {
+        validateParameters();
+        if (samples == null)
+            throw new NullPointerException("Argument \"samples\" cannot be null.");
+
         clusterCount = 0;
 
         // Initialize labels.
-        int sampleCount = samples.length;
-        labels = new int[samples.length];
+        int sampleCount = samples.getRowCount();
+        labels = new int[sampleCount];
         for (int i = 0; i < sampleCount; i++)
             labels[i] = -1;
 
         // Initialize core point markers.
         marked = new boolean[sampleCount];
-        for (int i = 0; i < sampleCount; i++)
-            marked[i] = false;
 
         // Initialize the collection of core samples.
         coreSamples = new LinkedList<>();
 
+        // Build the spatial index if neighbors will be searched with it.
+        if (useSpatialIndex())
+            sampleIndex = new KdTree(samples.getData(), samples.getColumnCount());
+
+        if (parallelism > 1)
+            clusterConcurrently(samples);
+        else
+            cluster(samples);
+
+        for (int i = 0; i < sampleCount; i++)
+        {
+            if (marked[i])
+                coreSamples.addLast(samples.getRow(i));
+        }
+
+        // Release the spatial index, it is only valid for the samples of this call.
+        sampleIndex = null;
+
+        return labels;
+    }
+
+    private boolean useSpatialIndex()
+    {
+        switch (algorithm)
+        {
+            case BRUTE_FORCE:
+                return false;
+            case KD_TREE:
+                if (!distanceMetric.supportsSpatialIndex())
+                    throw new InvalidOperationException("The distance metric " + distanceMetric.getClass().getSimpleName() + " does not support spatial indices.");
+                return true;
+            default:
+                return distanceMetric.supportsSpatialIndex();
+        }
+    }
+
+    private void cluster(SampleMatrix samples)
+    {
+        int sampleCount = samples.getRowCount();
+        RegionQuery query = new RegionQuery(samples);
+
+        // Markers of samples whose neighbors have been counted, and the work stack of cluster expansion.
+        visited = new boolean[sampleCount];
+        seeds = new IntArrayList(Math.min(sampleCount, INITIAL_BUFFER_CAPACITY));
+
         for (int i = 0; i < sampleCount; i++)
         {
-            if (labels[i] == -1)
+            if ((labels[i] == -1) && !visited[i])
             {
-                LinkedList<Integer> neighborIndices = getNeighbors(samples, i);
-                if (neighborIndices.count() >= minPoints)
+                visited[i] = true;
+                if (query.find(i) >= minPoints)
                 {
-                    setNeighborId(samples, i, neighborIndices, clusterCount);
+                    expandCluster(query, i, clusterCount);
                     clusterCount++;
                 }
             }
         }
 
-        return labels;
+        visited = null;
+        seeds = null;
     }
 
-    private LinkedList<Integer> getNeighbors(Vector[] samples, int sampleIndex)
+    /**
+     * Expands a cluster from the specified core sample, whose neighbors are in the given query.
+     * <p>
+     * Samples that join the cluster are pushed to {@link #seeds} at most once, thus the work stack never holds
+     * more entries than the number of samples.
+     */
+    private void expandCluster(RegionQuery query, int coreIndex, int clusterId)
     {
-        LinkedList<Integer> neighborIndices = new LinkedList<>();
-        for (int j = 0; j < samples.length; j++)
+        markCore(coreIndex, clusterId);
+        labelNeighbors(query, clusterId);
+
+        while (!seeds.isEmpty())
         {
-            if ((sampleIndex != j) && (distanceMetric.distanceBetween(samples[sampleIndex], samples[j]) < minDistance))
-                neighborIndices.addLast(j);
+            int j = seeds.removeLast();
+            if (visited[j])
+                continue;
+
+            visited[j] = true;
+            if (query.find(j) >= minPoints)
+            {
+                markCore(j, clusterId);
+                labelNeighbors(query, clusterId);
+            }
         }
+    }
 
-        return neighborIndices;
+    private void markCore(int coreIndex, int clusterId)
+    {
+        marked[coreIndex] = true;
+        labels[coreIndex] = clusterId;
     }
 
-    private void setNeighborId(Vector[] samples, int coreIndex, LinkedList<Integer> neighborIndices, int clusterId)
+    /**
+     * Assigns the neighbors in the given query to the specified cluster, and pushes the ones that newly join the
+     * cluster and whose neighbors have not been counted to {@link #seeds}.
+     */
+    private void labelNeighbors(RegionQuery query, int clusterId)
     {
-        if (marked[coreIndex])
-            return;
+        for (int k = 0; k < query.count; k++)
+        {
+            int j = query.neighbors[k];
+            if (labels[j] == clusterId)
+                continue;
 
-        marked[coreIndex] = true;
-        coreSamples.addLast(samples[coreIndex]);
-        setNeighborId(neighborIndices, coreIndex, clusterId);
-        for (int j : neighborIndices)
+            labels[j] = clusterId;
+            if (!visited[j])
+                seeds.add(j);
+        }
+    }
+
+    /**
+     * Clusters the samples with {@link #parallelism} threads, in 3 concurrent phases:
+     * <ol>
+     * <li>Marks core samples by counting the neighbors of every sample.</li>
+     * <li>Unions every pair of neighboring core samples, each resulting set is a cluster.</li>
+     * <li>Labels every non-core sample.</li>
+     * </ol>
+     * The sequential algorithm numbers clusters by their first core sample, and a border sample shared by several
+     * clusters keeps the label of the last one that reaches it. Clusters are numbered in the same order here, and a
+     * border sample takes the greatest label of its core neighbors, thus the labels are exactly the same.
+     */
+    private void clusterConcurrently(SampleMatrix samples)
+    {
+        int sampleCount = samples.getRowCount();
+        ConcurrentDisjointSet clusters = new ConcurrentDisjointSet(sampleCount);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try
+        {
+            forEachSample(pool, samples, (query, i) -> marked[i] = query.find(i) >= minPoints);
+
+            forEachSample(pool, samples, (query, i) ->
+            {
+                if (!marked[i])
+                    return;
+
+                query.find(i);
+                for (int k = 0; k < query.count; k++)
+                {
+                    int j = query.neighbors[k];
+                    if ((j < i) && marked[j])
+                        clusters.union(i, j);
+                }
+            });
+
+            // The root of every set is its least index, so numbering roots in order numbers clusters in the order
+            // they are found by the sequential algorithm.
+            for (int i = 0; i < sampleCount; i++)
+            {
+                if (marked[i])
+                {
+                    int root = clusters.find(i);
+                    if (root == i)
+                        labels[i] = clusterCount++;
+                    else
+                        labels[i] = labels[root];
+                }
+            }
+
+            forEachSample(pool, samples, (query, i) ->
+            {
+                if (marked[i])
+                    return;
+
+                query.find(i);
+                int label = -1;
+                for (int k = 0; k < query.count; k++)
+                {
+                    int j = query.neighbors[k];
+                    if (marked[j] && (labels[j] > label))
+                        label = labels[j];
+                }
+
+                labels[i] = label;
+            });
+        }
+        finally
         {
-            LinkedList<Integer> neighborIndices2 = getNeighbors(samples, j);
-            if (neighborIndices2.count() >= minPoints)
-                setNeighborId(samples, j, neighborIndices2, clusterId);
+            pool.shutdown();
         }
     }
 
-    private void setNeighborId(LinkedList<Integer> sampleIndices, int coreIndex, int clusterId)
+    private void forEachSample(ForkJoinPool pool, SampleMatrix samples, ObjIntConsumer<RegionQuery> action)
     {
-        labels[coreIndex] = clusterId;
-        for (int j : sampleIndices)
-            labels[j] = clusterId;
+        int sampleCount = samples.getRowCount();
+        int grainSize = Math.max(MIN_GRAIN_SIZE, sampleCount / (parallelism * 8));
+        pool.invoke(new SampleRangeTask(samples, 0, sampleCount, grainSize, action));
+    }
+
+    /**
+     * The {@link SampleRangeTask} class performs an action on every sample in a range, splitting the range into
+     * sub-tasks until it has no more than the grain size of samples.
+     */
+    private final class SampleRangeTask extends RecursiveAction
+    {
+        private final SampleMatrix samples;
+        private final int low;
+        private final int high;
+        private final int grainSize;
+        private final ObjIntConsumer<RegionQuery> action;
+
+        private SampleRangeTask(SampleMatrix samples, int low, int high, int grainSize, ObjIntConsumer<RegionQuery> action)
+        {
+            this.samples = samples;
+            this.low = low;
+            this.high = high;
+            this.grainSize = grainSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (high - low <= grainSize)
+            {
+                // Visit samples in tree order if possible, so that successive queries touch the same part of the tree.
+                RegionQuery query = new RegionQuery(samples);
+                for (int i = low; i < high; i++)
+                    action.accept(query, sampleIndex != null ? sampleIndex.indexAt(i) : i);
+                return;
+            }
+
+            int middle = (low + high) >>> 1;
+            invokeAll(new SampleRangeTask(samples, low, middle, grainSize, action),
+                      new SampleRangeTask(samples, middle, high, grainSize, action));
+        }
+    }
+
+    /**
+     * The {@link RegionQuery} class finds the neighbors of samples, and stores their indices in a buffer reused by
+     * all the queries of the same instance. An instance must not be shared by threads.
+     */
+    private final class RegionQuery implements IntConsumer
+    {
+        private final SampleMatrix samples;
+        private final double[] data;
+        private final int dimension;
+        private final double[] center;
+        private int[] neighbors;
+        private int count;
+
+        private RegionQuery(SampleMatrix samples)
+        {
+            this.samples = samples;
+            data = samples.getData();
+            dimension = samples.getColumnCount();
+            center = new double[dimension];
+            neighbors = new int[Math.min(samples.getRowCount(), INITIAL_BUFFER_CAPACITY)];
+            count = 0;
+        }
+
+        /**
+         * Finds all the neighbors of the specified sample and stores their indices at the beginning of
+         * {@link #neighbors}.
+         *
+         * @return Number of neighbors of the specified sample.
+         */
+        private int find(int sampleIndex)
+        {
+            count = 0;
+
+            if (Dbscan.this.sampleIndex != null)
+            {
+                // Collect candidates inside the bounding box of the neighborhood, then keep those accepted by the
+                // metric.
+                samples.copyRowTo(sampleIndex, center);
+                Dbscan.this.sampleIndex.search(center, minDistance, this);
+
+                int candidateCount = count;
+                count = 0;
+                for (int k = 0; k < candidateCount; k++)
+                {
+                    int j = neighbors[k];
+                    if ((sampleIndex != j) && distanceMetric.withinDistance(data, sampleIndex, j, dimension, minDistance))
+                        neighbors[count++] = j;
+                }
+
+                return count;
+            }
+
+            int sampleCount = samples.getRowCount();
+            for (int j = 0; j < sampleCount; j++)
+            {
+                if ((sampleIndex != j) && distanceMetric.withinDistance(data, sampleIndex, j, dimension, minDistance))
+                    accept(j);
+            }
+
+            return count;
+        }
+
+        /**
+         * Appends the specified sample index to {@link #neighbors}.
+         *
+         * @param sampleIndex Index of the sample to append.
+         */
+        @Override
+        public void accept(int sampleIndex)
+        {
+            if (count == neighbors.length)
+                neighbors = Arrays.copyOf(neighbors, count * 2);
+
+            neighbors[count++] = sampleIndex;
+        }
+    }
+
+    /**
+     * The {@link ConcurrentDisjointSet} class represents a lock-free union-find over sample indices. A root is always
+     * linked under a less root, thus the root of every set is its least element regardless of the order of unions.
+     */
+    private static final class ConcurrentDisjointSet
+    {
+        private final AtomicIntegerArray parents;
+
+        private ConcurrentDisjointSet(int count)
+        {
+            parents = new AtomicIntegerArray(count);
+            for (int i = 0; i < count; i++)
+                parents.set(i, i);
+        }
+
+        private int find(int element)
+        {
+            while (true)
+            {
+                int parent = parents.get(element);
+                if (parent == element)
+                    return element;
+
+                // Path halving, any ancestor is a valid parent so a failed update is harmless.
+                int grandParent = parents.get(parent);
+                if (parent != grandParent)
+                    parents.compareAndSet(element, parent, grandParent);
+                element = grandParent;
+            }
+        }
+
+        private void union(int element1, int element2)
+        {
+            while (true)
+            {
+                int root1 = find(element1);
+                int root2 = find(element2);
+                if (root1 == root2)
+                    return;
+
+                // Link the greater root under the less one, retry if the greater root was linked by another thread.
+                if (root1 < root2)
+                {
+                    if (parents.compareAndSet(root2, root2, root1))
+                        return;
+                }
+                else if (parents.compareAndSet(root1, root1, root2))
+                    return;
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,22 @@
+package dataworks.models.clustering;
+
+/**
+ * This enum specifies how a clustering model finds the neighbors of a sample.
+ */
+public enum NeighborSearchAlgorithm
+{
+    /**
+     * Uses {@link #KD_TREE} if the distance metric supports spatial indices, or {@link #BRUTE_FORCE} otherwise.
+     */
+    AUTO,
+
+    /**
+     * Compares the sample with every other sample.
+     */
+    BRUTE_FORCE,
+
+    /**
+     * Queries a {@link dataworks.indices.KdTree} built over all the samples.
+     */
+    KD_TREE
+}
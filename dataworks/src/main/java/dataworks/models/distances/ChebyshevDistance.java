@@ -18,14 +18,108 @@ public class ChebyshevDistance extends SampleDistanceBase
     {
         SampleDistanceBase.validateParams(sample1, sample2);
 
-        double maxDelta = Double.MIN_VALUE;
+        double maxDelta = 0;
         for (int i = 0; i < sample1.count(); i++)
         {
-            double delta = sample1.get(i) - sample2.get(i);
+            double delta = Math.abs(sample1.get(i) - sample2.get(i));
             if (maxDelta < delta)
                 maxDelta = delta;
         }
 
         return maxDelta;
     }
+
+    /**
+     * Returns the distance between 2 samples stored in a row-major array.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @return The distance between 2 samples.
+     */
+    @Override
+    public double distanceBetween(double[] data, int row1, int row2, int dimension)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double maxDelta = 0;
+        for (int i = 0; i < dimension; i++)
+        {
+            double delta = Math.abs(data[offset1 + i] - data[offset2 + i]);
+            if (maxDelta < delta)
+                maxDelta = delta;
+        }
+
+        return maxDelta;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples is less than the specified threshold; otherwise,
+     * {@code false}.
+     * <p>
+     * Comparison stops at the first pair of components whose absolute difference reaches the threshold.
+     *
+     * @param sample1   A sample.
+     * @param sample2   The other sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(Vector sample1, Vector sample2, double threshold)
+    {
+        SampleDistanceBase.validateParams(sample1, sample2);
+        if (threshold <= 0)
+            return false;
+
+        for (int i = 0; i < sample1.count(); i++)
+        {
+            if (Math.abs(sample1.get(i) - sample2.get(i)) >= threshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples stored in a row-major array is less than the specified
+     * threshold; otherwise, {@code false}.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(double[] data, int row1, int row2, int dimension, double threshold)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+        if (threshold <= 0)
+            return false;
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        for (int i = 0; i < dimension; i++)
+        {
+            if (Math.abs(data[offset1 + i] - data[offset2 + i]) >= threshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true}, since the maximum absolute difference bounds every single absolute difference.
+     *
+     * @return {@code true}.
+     */
+    @Override
+    public boolean supportsSpatialIndex()
+    {
+        return true;
+    }
 }
@@ -24,4 +24,105 @@ public class EuclideanDistance extends SampleDistanceBase
         }
         return Math.sqrt(sum);
     }
+
+    /**
+     * Returns the distance between 2 samples stored in a row-major array.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @return The distance between 2 samples.
+     */
+    @Override
+    public double distanceBetween(double[] data, int row1, int row2, int dimension)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++)
+        {
+            double delta = data[offset1 + i] - data[offset2 + i];
+            sum += delta * delta;
+        }
+
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples is less than the specified threshold; otherwise,
+     * {@code false}.
+     * <p>
+     * Squared distance is compared with the squared threshold, so no square root is calculated.
+     *
+     * @param sample1   A sample.
+     * @param sample2   The other sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(Vector sample1, Vector sample2, double threshold)
+    {
+        SampleDistanceBase.validateParams(sample1, sample2);
+        if (threshold <= 0)
+            return false;
+
+        double squaredThreshold = threshold * threshold;
+        double sum = 0;
+        for (int i = 0; i < sample1.count(); i++)
+        {
+            double delta = sample1.get(i) - sample2.get(i);
+            sum += delta * delta;
+            if (sum >= squaredThreshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples stored in a row-major array is less than the specified
+     * threshold; otherwise, {@code false}.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(double[] data, int row1, int row2, int dimension, double threshold)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+        if (threshold <= 0)
+            return false;
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double squaredThreshold = threshold * threshold;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++)
+        {
+            double delta = data[offset1 + i] - data[offset2 + i];
+            sum += delta * delta;
+            if (sum >= squaredThreshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true}, since the length of a vector is never less than the magnitude of any of its components.
+     *
+     * @return {@code true}.
+     */
+    @Override
+    public boolean supportsSpatialIndex()
+    {
+        return true;
+    }
 }
@@ -18,10 +18,100 @@ public class ManhattanDistance extends SampleDistanceBase
     {
         SampleDistanceBase.validateParams(sample1, sample2);
 
-        int sum = 0;
+        double sum = 0;
         for (int i = 0; i < sample1.count(); i++)
             sum += Math.abs(sample1.get(i) - sample2.get(i));
 
         return sum;
     }
+
+    /**
+     * Returns the distance between 2 samples stored in a row-major array.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @return The distance between 2 samples.
+     */
+    @Override
+    public double distanceBetween(double[] data, int row1, int row2, int dimension)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++)
+            sum += Math.abs(data[offset1 + i] - data[offset2 + i]);
+
+        return sum;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples is less than the specified threshold; otherwise,
+     * {@code false}.
+     * <p>
+     * Accumulation stops as soon as the partial sum reaches the threshold.
+     *
+     * @param sample1   A sample.
+     * @param sample2   The other sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(Vector sample1, Vector sample2, double threshold)
+    {
+        SampleDistanceBase.validateParams(sample1, sample2);
+
+        double sum = 0;
+        for (int i = 0; i < sample1.count(); i++)
+        {
+            sum += Math.abs(sample1.get(i) - sample2.get(i));
+            if (sum >= threshold)
+                return false;
+        }
+
+        return sum < threshold;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples stored in a row-major array is less than the specified
+     * threshold; otherwise, {@code false}.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(double[] data, int row1, int row2, int dimension, double threshold)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++)
+        {
+            sum += Math.abs(data[offset1 + i] - data[offset2 + i]);
+            if (sum >= threshold)
+                return false;
+        }
+
+        return sum < threshold;
+    }
+
+    /**
+     * Returns {@code true}, since a sum of absolute differences is never less than any single term of it.
+     *
+     * @return {@code true}.
+     */
+    @Override
+    public boolean supportsSpatialIndex()
+    {
+        return true;
+    }
 }
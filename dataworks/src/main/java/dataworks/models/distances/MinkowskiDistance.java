@@ -26,10 +26,114 @@ public class MinkowskiDistance extends SampleDistanceBase
         double sum = 0;
         for (int i = 0; i < sample1.count(); i++)
         {
-            double delta = sample1.get(i) - sample2.get(i);
+            double delta = Math.abs(sample1.get(i) - sample2.get(i));
             sum += Math.pow(delta, p);
         }
 
         return Math.pow(sum, 1 / p);
     }
+
+    /**
+     * Returns the distance between 2 samples stored in a row-major array.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @return The distance between 2 samples.
+     */
+    @Override
+    public double distanceBetween(double[] data, int row1, int row2, int dimension)
+    {
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++)
+            sum += Math.pow(Math.abs(data[offset1 + i] - data[offset2 + i]), p);
+
+        return Math.pow(sum, 1 / p);
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples is less than the specified threshold; otherwise,
+     * {@code false}.
+     * <p>
+     * For a positive p, the sum of powered differences is compared with the threshold raised to the power p, and
+     * accumulation stops as soon as the partial sum reaches it.
+     *
+     * @param sample1   A sample.
+     * @param sample2   The other sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(Vector sample1, Vector sample2, double threshold)
+    {
+        if (p <= 0)
+            return super.withinDistance(sample1, sample2, threshold);
+
+        SampleDistanceBase.validateParams(sample1, sample2);
+        if (threshold <= 0)
+            return false;
+
+        double poweredThreshold = Math.pow(threshold, p);
+        double sum = 0;
+        for (int i = 0; i < sample1.count(); i++)
+        {
+            sum += Math.pow(Math.abs(sample1.get(i) - sample2.get(i)), p);
+            if (sum >= poweredThreshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples stored in a row-major array is less than the specified
+     * threshold; otherwise, {@code false}.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    @Override
+    public boolean withinDistance(double[] data, int row1, int row2, int dimension, double threshold)
+    {
+        if (p <= 0)
+            return super.withinDistance(data, row1, row2, dimension, threshold);
+
+        SampleDistanceBase.validateParams(data, row1, row2, dimension);
+        if (threshold <= 0)
+            return false;
+
+        int offset1 = row1 * dimension;
+        int offset2 = row2 * dimension;
+        double poweredThreshold = Math.pow(threshold, p);
+        double sum = 0;
+        for (int i = 0; i < dimension; i++)
+        {
+            sum += Math.pow(Math.abs(data[offset1 + i] - data[offset2 + i]), p);
+            if (sum >= poweredThreshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if p is not less than 1, in which case this distance is never less than the absolute
+     * difference of any single pair of components.
+     *
+     * @return {@code true} if p is not less than 1; otherwise, {@code false}.
+     */
+    @Override
+    public boolean supportsSpatialIndex()
+    {
+        return p >= 1;
+    }
 }
@@ -1,6 +1,9 @@
 package dataworks.models.distances;
 
 import dataworks.mathematics.Vector;
+import dataworks.models.SampleMatrix;
+
+import java.util.Arrays;
 
 /**
  * The {@link SampleDistanceBase} interface provides an interface method to calculate the distance between 2 samples.
@@ -15,6 +18,89 @@ public abstract class SampleDistanceBase
      */
     public abstract double distanceBetween(Vector sample1, Vector sample2);
 
+    /**
+     * Returns the distance between 2 samples stored in a row-major array, where the sample in row i occupies elements
+     * from {@code i * dimension} (inclusive) to {@code (i + 1) * dimension} (exclusive).
+     * <p>
+     * Subclasses should override this method with a kernel that reads the array directly, this implementation copies
+     * both rows to {@link Vector} objects and calls {@link #distanceBetween(Vector, Vector)}.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @return The distance between 2 samples.
+     */
+    public double distanceBetween(double[] data, int row1, int row2, int dimension)
+    {
+        validateParams(data, row1, row2, dimension);
+
+        Vector sample1 = new Vector(Arrays.copyOfRange(data, row1 * dimension, (row1 + 1) * dimension));
+        Vector sample2 = new Vector(Arrays.copyOfRange(data, row2 * dimension, (row2 + 1) * dimension));
+        return distanceBetween(sample1, sample2);
+    }
+
+    /**
+     * Returns the distance between 2 samples in the given {@link SampleMatrix}.
+     *
+     * @param samples The matrix that contains both samples.
+     * @param row1    Row index of a sample.
+     * @param row2    Row index of the other sample.
+     * @return The distance between 2 samples.
+     */
+    public double distanceBetween(SampleMatrix samples, int row1, int row2)
+    {
+        if (samples == null)
+            throw new NullPointerException("Argument \"samples\" cannot be null.");
+
+        return distanceBetween(samples.getData(), row1, row2, samples.getColumnCount());
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples is less than the specified threshold; otherwise,
+     * {@code false}.
+     * <p>
+     * Subclasses may override this method to avoid calculating the exact distance, e.g. by comparing squared values
+     * or by stopping as soon as the partial result reaches the threshold.
+     *
+     * @param sample1   A sample.
+     * @param sample2   The other sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    public boolean withinDistance(Vector sample1, Vector sample2, double threshold)
+    {
+        return distanceBetween(sample1, sample2) < threshold;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples stored in a row-major array is less than the specified
+     * threshold; otherwise, {@code false}.
+     *
+     * @param data      Features of all samples, stored row by row.
+     * @param row1      Row index of a sample.
+     * @param row2      Row index of the other sample.
+     * @param dimension Number of features of every sample.
+     * @param threshold The distance to compare with.
+     * @return {@code true} if the distance between 2 samples is less than {@code threshold}; otherwise, {@code false}.
+     */
+    public boolean withinDistance(double[] data, int row1, int row2, int dimension, double threshold)
+    {
+        return distanceBetween(data, row1, row2, dimension) < threshold;
+    }
+
+    /**
+     * Returns {@code true} if the distance between 2 samples is never less than the absolute difference of any
+     * single pair of their components, so that spatial indices can prune candidates by coordinate ranges; otherwise,
+     * {@code false}.
+     *
+     * @return {@code true} if this metric can be accelerated by a spatial index; otherwise, {@code false}.
+     */
+    public boolean supportsSpatialIndex()
+    {
+        return false;
+    }
+
     protected static void validateParams(Vector sample1, Vector sample2)
     {
         Vector.validateVector(sample1);
@@ -23,4 +109,18 @@ public abstract class SampleDistanceBase
         if (sample1.count() != sample2.count())
             throw new IllegalArgumentException("All vectors for this method must have the same number of components. (i.e. their count() method return the same value)");
     }
+
+    protected static void validateParams(double[] data, int row1, int row2, int dimension)
+    {
+        if (data == null)
+            throw new NullPointerException("Argument \"data\" cannot be null.");
+        if (dimension <= 0)
+            throw new IllegalArgumentException("Argument \"dimension\" must be a positive integer.");
+
+        int rowCount = data.length / dimension;
+        if ((row1 < 0) || (row1 >= rowCount))
+            throw new IndexOutOfBoundsException("Error row index for distance calculation: " + row1);
+        if ((row2 < 0) || (row2 >= rowCount))
+            throw new IndexOutOfBoundsException("Error row index for distance calculation: " + row2);
+    }
 }
@@ -0,0 +1,134 @@
+package dataworks.tests;
+
+import dataworks.indices.BPlusTree;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class is only used for checking that a {@link BPlusTree} stays intact when a key is rejected, and for measuring
+ * the time to add, get and scan the keys of a file-backed tree.
+ */
+public class BPlusTreeBenchmark
+{
+    private static final int ROUNDS = 3;
+
+    private BPlusTreeBenchmark(){}
+
+    public static void main(String[] args) throws IOException
+    {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        checkRejectedKeys();
+
+        // Run the benchmark several times, so that the later rounds are measured after JIT compilation.
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            File file = File.createTempFile("BPlusTreeBenchmark", ".bpt");
+            file.deleteOnExit();
+            try (BPlusTree<Long, Integer> tree = new BPlusTree<>(file.getPath(), BPlusTree.Serializer.LONG,
+                                                                  BPlusTree.Serializer.INT))
+            {
+                run("add", () ->
+                {
+                    long state = 20210402;
+                    for (int i = 0; i < keyCount; i++)
+                    {
+                        state = nextRandom(state);
+                        tree.set(state, i);
+                    }
+                    return tree.count();
+                });
+                run("get", () ->
+                {
+                    long checksum = 0;
+                    long state = 20210402;
+                    for (int i = 0; i < keyCount; i++)
+                    {
+                        state = nextRandom(state);
+                        checksum += tree.get(state);
+                    }
+                    return checksum;
+                });
+                run("scan", () ->
+                {
+                    long checksum = 0;
+                    BPlusTree<Long, Integer>.Cursor cursor = tree.cursor();
+                    while (cursor.moveNext())
+                        checksum += cursor.getValue();
+                    return checksum;
+                });
+            }
+            file.delete();
+        }
+    }
+
+    /**
+     * Adds keys to a tree of small pages, and after every key tries to add a key that is too long to be serialized
+     * next to it, which often falls in a full leaf. The tree must keep exactly the keys that were added.
+     */
+    private static void checkRejectedKeys() throws IOException
+    {
+        File file = File.createTempFile("BPlusTreeBenchmark", ".bpt");
+        file.deleteOnExit();
+        try (BPlusTree<String, Integer> tree = new BPlusTree<>(file.getPath(), BPlusTree.Serializer.string(4),
+                                                                BPlusTree.Serializer.INT, 64, 16))
+        {
+            for (int i = 0; i < 500; i++)
+            {
+                String key = String.format("%04d", i * 7919 % 10000);
+                tree.add(key, i);
+                try
+                {
+                    tree.add(key + "-too-long", -1);
+                    throw new IllegalStateException("A key longer than 4 bytes is added.");
+                }
+                catch (IllegalArgumentException e)
+                {
+                    // The key is rejected as expected.
+                }
+
+                int count = 0;
+                String previous = null;
+                BPlusTree<String, Integer>.Cursor cursor = tree.cursor();
+                while (cursor.moveNext())
+                {
+                    String current = cursor.getKey();
+                    if ((previous != null) && (previous.compareTo(current) >= 0))
+                        throw new IllegalStateException("The keys are out of order after a key is rejected.");
+                    if (tree.get(current) < 0)
+                        throw new IllegalStateException("The value of a rejected key is stored.");
+                    previous = current;
+                    count++;
+                }
+                if ((count != i + 1) || (tree.count() != i + 1))
+                    throw new IllegalStateException("Keys are lost or duplicated after a key is rejected.");
+            }
+        }
+        file.delete();
+        System.out.println("Rejected keys leave the tree intact.");
+    }
+
+    private static long nextRandom(long state)
+    {
+        // Xorshift random numbers.
+        state ^= state << 13;
+        state ^= state >>> 7;
+        state ^= state << 17;
+        return state;
+    }
+
+    private interface IOSupplier
+    {
+        long get() throws IOException;
+    }
+
+    private static void run(String name, IOSupplier action) throws IOException
+    {
+        long startTime = System.nanoTime();
+        long checksum = action.get();
+        long elapsed = System.nanoTime() - startTime;
+        System.out.println("  " + name + ": " + elapsed / 1000000 + " ms (checksum " + checksum + ").");
+    }
+}
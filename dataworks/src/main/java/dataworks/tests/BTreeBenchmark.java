@@ -0,0 +1,112 @@
+package dataworks.tests;
+
+import dataworks.collections.KeyValuePair;
+import dataworks.indices.BTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * This class is only used for tuning the fan-out of {@link BTree}. For each value of {@code maxChildren}, it measures
+ * inserting random keys, looking them up and scanning short ranges, with {@link Long} keys such as timestamps and
+ * {@link String} keys such as identifiers. It also compares adding sorted keys one by one with
+ * {@link BTree#build(Iterable, int, double)}.
+ * */
+public class BTreeBenchmark
+{
+    private static final int[] MAX_CHILDREN = { 4, 8, 16, 32, 64, 128, 256, 512 };
+    private static final int ROUNDS = 3;
+    private static final int SCAN_LENGTH = 100;
+
+    private BTreeBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        Random random = new Random(20210405);
+        Long[] ticks = new Long[keyCount];
+        String[] names = new String[keyCount];
+        for (int i = 0; i < keyCount; i++)
+        {
+            // Timestamps in ticks of 100 ns, and identifiers that share a long prefix like file paths.
+            ticks[i] = 637000000000000000L + random.nextInt(Integer.MAX_VALUE) * 10L;
+            names[i] = "trajectory/" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+        }
+
+        // Run every configuration several times, so that the later rounds are measured after JIT compilation.
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            for (int maxChildren : MAX_CHILDREN)
+            {
+                run("Long,   maxChildren = " + maxChildren, maxChildren, ticks, i -> ticks[i]);
+                run("String, maxChildren = " + maxChildren, maxChildren, names, i -> names[i]);
+            }
+        }
+
+        Long[] sortedTicks = Arrays.stream(ticks).sorted().distinct().toArray(Long[]::new);
+        ArrayList<KeyValuePair<Long, Integer>> pairs = new ArrayList<>(sortedTicks.length);
+        for (int i = 0; i < sortedTicks.length; i++)
+            pairs.add(new KeyValuePair<>(sortedTicks[i], i));
+
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Sorted build, round " + (round + 1) + ":");
+            for (int maxChildren : MAX_CHILDREN)
+                runBuild(maxChildren, pairs);
+        }
+    }
+
+    private static void runBuild(int maxChildren, ArrayList<KeyValuePair<Long, Integer>> pairs)
+    {
+        long startTime = System.nanoTime();
+        BTree<Long, Integer> tree = new BTree<>(maxChildren);
+        for (KeyValuePair<Long, Integer> pair : pairs)
+            tree.add(pair.getKey(), pair.getValue());
+        long addTime = System.nanoTime() - startTime;
+        int addHeight = tree.height();
+
+        startTime = System.nanoTime();
+        tree = BTree.build(pairs, maxChildren, 1.0);
+        long buildTime = System.nanoTime() - startTime;
+
+        System.out.println("  maxChildren = " + maxChildren + ": add " + addTime / 1000000 + " ms, height " +
+                                   addHeight + "; build " + buildTime / 1000000 + " ms, height " + tree.height() +
+                                   ".");
+    }
+
+    private static <TKey extends Comparable<TKey>> void run(String name, int maxChildren, TKey[] keys,
+                                                            IntFunction<TKey> keyAt)
+    {
+        BTree<TKey, Integer> tree = new BTree<>(maxChildren);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < keys.length; i++)
+            tree.set(keys[i], i);
+        long insertTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < keys.length; i++)
+            checksum += tree.get(keyAt.apply(i));
+        long findTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        int scanCount = keys.length / SCAN_LENGTH;
+        for (int i = 0; i < scanCount; i++)
+        {
+            BTree<TKey, Integer>.Cursor cursor = tree.cursor();
+            cursor.seek(keyAt.apply(i));
+            for (int j = 0; (j < SCAN_LENGTH) && cursor.moveNext(); j++)
+                checksum += cursor.getValue();
+        }
+        long scanTime = System.nanoTime() - startTime;
+
+        System.out.println("  " + name + ": insert " + insertTime / 1000000 + " ms, find " + findTime / 1000000 +
+                                   " ms, " + scanCount + " scans " + scanTime / 1000000 + " ms, height " +
+                                   tree.height() + " (checksum " + checksum + ").");
+    }
+}
@@ -0,0 +1,86 @@
+package dataworks.tests;
+
+import dataworks.indices.BinarySearch;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This class is only used for comparing the lookups per millisecond of the searches in {@link BinarySearch} on a sorted
+ * array of timestamps: the classic search, the branchless lower bound, the batched search and the Eytzinger layout.
+ */
+public class BinarySearchBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    private BinarySearchBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 4000000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 4000000;
+
+        long[] sorted = new long[length];
+        long[] queries = new long[queryCount];
+        java.util.Random random = new java.util.Random(20210402);
+        long start = 637000000000000000L;
+        long tick = start;
+        for (int i = 0; i < length; i++)
+        {
+            tick += 1 + random.nextInt(20000000);
+            sorted[i] = tick;
+        }
+        for (int i = 0; i < queryCount; i++)
+            queries[i] = start + (long) (random.nextDouble() * (tick - start));
+
+        long[] eytzinger = BinarySearch.toEytzinger(sorted);
+        int[] permutation = BinarySearch.eytzingerPermutation(length);
+        int[] out = new int[queryCount];
+
+        // Run every search several times, so that the later rounds are measured after JIT compilation.
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            run("search", queryCount, () ->
+            {
+                long checksum = 0;
+                for (long query : queries)
+                    checksum += BinarySearch.search(sorted, query);
+                return checksum;
+            });
+            run("lowerBound", queryCount, () ->
+            {
+                long checksum = 0;
+                for (long query : queries)
+                    checksum += ~BinarySearch.lowerBound(sorted, query);
+                return checksum;
+            });
+            run("searchAll", queryCount, () ->
+            {
+                BinarySearch.searchAll(sorted, queries, out);
+                long checksum = 0;
+                for (int index : out)
+                    checksum += index;
+                return checksum;
+            });
+            run("eytzingerLowerBound", queryCount, () ->
+            {
+                long checksum = 0;
+                for (long query : queries)
+                    checksum += ~permutation[BinarySearch.eytzingerLowerBound(eytzinger, query)];
+                return checksum;
+            });
+        }
+    }
+
+    /**
+     * Runs the action and prints the lookups per millisecond, together with a checksum of the results, which is the
+     * same for every search as long as no query equals an element.
+     */
+    private static void run(String name, int queryCount, LongSupplier action)
+    {
+        long startTime = System.nanoTime();
+        long checksum = action.getAsLong();
+        long elapsed = Math.max(1, System.nanoTime() - startTime);
+        System.out.println("  " + name + ": " + queryCount * 1000000L / elapsed + " lookups/ms (checksum " + checksum + ").");
+    }
+}
@@ -0,0 +1,139 @@
+package dataworks.tests;
+
+import dataworks.indices.BTree;
+import dataworks.indices.ConcurrentBTree;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class is only used for comparing the throughput of {@link ConcurrentBTree} with a {@link BTree} behind one lock
+ * and with {@link ConcurrentSkipListMap}, when many threads look up keys while some of them insert and remove keys.
+ * */
+public class ConcurrentBTreeBenchmark
+{
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int MAX_CHILDREN = 32;
+
+    private ConcurrentBTreeBenchmark(){}
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        int operationCount = args.length > 0 ? Integer.parseInt(args[0]) : 4000000;
+        int keyCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+
+        // One write for every writeInterval operations.
+        int writeInterval = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        for (int threadCount : THREAD_COUNTS)
+        {
+            ConcurrentBTree<Integer, Integer> concurrentTree = new ConcurrentBTree<>(MAX_CHILDREN);
+            for (int key = 0; key < keyCount; key += 2)
+                concurrentTree.add(key, key);
+            long concurrentTreeTime = run(threadCount, operationCount, keyCount, writeInterval, (key, write) ->
+            {
+                if (!write)
+                    concurrentTree.getOrDefault(key, 0);
+                else if ((key & 1) == 0)
+                    concurrentTree.set(key, key);
+                else
+                    concurrentTree.removeByKey(key - 1);
+            });
+
+            BTree<Integer, Integer> tree = new BTree<>(MAX_CHILDREN);
+            for (int key = 0; key < keyCount; key += 2)
+                tree.add(key, key);
+            ReentrantLock lock = new ReentrantLock();
+            long lockedTreeTime = run(threadCount, operationCount, keyCount, writeInterval, (key, write) ->
+            {
+                lock.lock();
+                try
+                {
+                    if (!write)
+                        tree.containsKey(key);
+                    else if ((key & 1) == 0)
+                        tree.set(key, key);
+                    else
+                        tree.removeByKey(key - 1);
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+            });
+
+            ConcurrentSkipListMap<Integer, Integer> map = new ConcurrentSkipListMap<>();
+            for (int key = 0; key < keyCount; key += 2)
+                map.put(key, key);
+            long mapTime = run(threadCount, operationCount, keyCount, writeInterval, (key, write) ->
+            {
+                if (!write)
+                    map.getOrDefault(key, 0);
+                else if ((key & 1) == 0)
+                    map.put(key, key);
+                else
+                    map.remove(key - 1);
+            });
+
+            System.out.println(threadCount + " thread(s): ConcurrentBTree " + throughput(operationCount, concurrentTreeTime) +
+                                       " ops/ms, locked BTree " + throughput(operationCount, lockedTreeTime) +
+                                       " ops/ms, ConcurrentSkipListMap " + throughput(operationCount, mapTime) + " ops/ms.");
+        }
+    }
+
+    private interface Operation
+    {
+        void run(int key, boolean write);
+    }
+
+    private static long throughput(int operationCount, long nanoseconds)
+    {
+        return operationCount * 1000000L / Math.max(1, nanoseconds);
+    }
+
+    /**
+     * Runs the operation on the given number of threads, and returns the elapsed time in nanoseconds. Keys are
+     * uniformly distributed, and every thread writes once for every {@code writeInterval} operations.
+     */
+    private static long run(int threadCount, int operationCount, int keyCount, int writeInterval, Operation operation)
+            throws InterruptedException
+    {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        int operationsPerThread = operationCount / threadCount;
+        for (int i = 0; i < threadCount; i++)
+        {
+            int seed = i * 7919 + 1;
+            threads[i] = new Thread(() ->
+            {
+                int state = seed;
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                for (int j = 0; j < operationsPerThread; j++)
+                {
+                    // Xorshift random numbers.
+                    state ^= state << 13;
+                    state ^= state >>> 17;
+                    state ^= state << 5;
+                    operation.run((state >>> 1) % keyCount, j % writeInterval == 0);
+                }
+            });
+            threads[i].start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        return System.nanoTime() - startTime;
+    }
+}
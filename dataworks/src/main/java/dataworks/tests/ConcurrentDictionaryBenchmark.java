@@ -0,0 +1,99 @@
+package dataworks.tests;
+
+import dataworks.collections.ConcurrentDictionary;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+
+/**
+ * This class is only used for comparing the throughput of {@link ConcurrentDictionary} with {@link ConcurrentHashMap}
+ * when many threads read and update the same keys.
+ * */
+public class ConcurrentDictionaryBenchmark
+{
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private ConcurrentDictionaryBenchmark(){}
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        int operationCount = args.length > 0 ? Integer.parseInt(args[0]) : 4000000;
+        int keyCount = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        for (int threadCount : THREAD_COUNTS)
+        {
+            ConcurrentDictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+            long dictionaryTime = run(threadCount, operationCount, keyCount, key ->
+            {
+                // One update for every 4 reads.
+                if ((key & 3) == 0)
+                    dictionary.addOrUpdate(key, 1, (k, v) -> v + 1);
+                else
+                    dictionary.getOrDefault(key, 0);
+            });
+
+            ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+            long mapTime = run(threadCount, operationCount, keyCount, key ->
+            {
+                if ((key & 3) == 0)
+                    map.merge(key, 1, Integer::sum);
+                else
+                    map.getOrDefault(key, 0);
+            });
+
+            System.out.println(threadCount + " thread(s): ConcurrentDictionary " + throughput(operationCount, dictionaryTime) +
+                                       " ops/ms, ConcurrentHashMap " + throughput(operationCount, mapTime) + " ops/ms.");
+        }
+    }
+
+    private static long throughput(int operationCount, long nanoseconds)
+    {
+        return operationCount * 1000000L / Math.max(1, nanoseconds);
+    }
+
+    /**
+     * Runs the operation on the given number of threads, and returns the elapsed time in nanoseconds. Keys are skewed
+     * so that threads contend for the same small set of hot keys.
+     */
+    private static long run(int threadCount, int operationCount, int keyCount, IntConsumer operation) throws InterruptedException
+    {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        int operationsPerThread = operationCount / threadCount;
+        for (int i = 0; i < threadCount; i++)
+        {
+            int seed = i * 7919 + 1;
+            threads[i] = new Thread(() ->
+            {
+                int state = seed;
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                for (int j = 0; j < operationsPerThread; j++)
+                {
+                    // Xorshift random numbers, squared to favor small keys.
+                    state ^= state << 13;
+                    state ^= state >>> 17;
+                    state ^= state << 5;
+                    double uniform = (state >>> 1) / (double) Integer.MAX_VALUE;
+                    operation.accept((int) (uniform * uniform * keyCount));
+                }
+            });
+            threads[i].start();
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        return System.nanoTime() - startTime;
+    }
+}
@@ -0,0 +1,75 @@
+package dataworks.tests;
+
+import dataworks.mathematics.Random;
+import dataworks.mathematics.Vector;
+import dataworks.models.clustering.Dbscan;
+import dataworks.models.clustering.NeighborSearchAlgorithm;
+import dataworks.models.distances.DistanceMetrics;
+
+import java.util.Arrays;
+
+/**
+ * This class is only used for comparing the neighbor search algorithms of {@link Dbscan}.
+ * */
+public class DbscanBenchmark
+{
+    private DbscanBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int sampleCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        Random.setSeed(20210401);
+        Vector[] samples = generateSamples(sampleCount, sampleCount / 200 + 1);
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        int[] bruteForceLabels = run(samples, NeighborSearchAlgorithm.BRUTE_FORCE, 1);
+        int[] kdTreeLabels = run(samples, NeighborSearchAlgorithm.KD_TREE, 1);
+        int[] parallelLabels = run(samples, NeighborSearchAlgorithm.KD_TREE, parallelism);
+
+        System.out.println("Labels are identical: " + (Arrays.equals(bruteForceLabels, kdTreeLabels) && Arrays.equals(kdTreeLabels, parallelLabels)));
+    }
+
+    public static int[] run(Vector[] samples, NeighborSearchAlgorithm algorithm, int parallelism)
+    {
+        Dbscan dbscan = new Dbscan(5, 0.5);
+        dbscan.setDistanceMetric(DistanceMetrics.EUCLIDEAN_DISTANCE);
+        dbscan.setAlgorithm(algorithm);
+        dbscan.setParallelism(parallelism);
+
+        long start = System.nanoTime();
+        int[] labels = dbscan.fitPredict(samples);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(algorithm + " with " + parallelism + " thread(s): " + samples.length + " samples, " + dbscan.getClusterCount() + " clusters, " + (elapsed / 1000000) + " ms.");
+        return labels;
+    }
+
+    /**
+     * Generates 2-D samples gathered around some random centers, with 10% uniformly distributed noise.
+     */
+    public static Vector[] generateSamples(int sampleCount, int centerCount)
+    {
+        double extent = 100 * Math.sqrt(centerCount);
+        double[][] centers = new double[centerCount][2];
+        for (double[] center : centers)
+        {
+            center[0] = Random.uniform(extent);
+            center[1] = Random.uniform(extent);
+        }
+
+        Vector[] samples = new Vector[sampleCount];
+        for (int i = 0; i < sampleCount; i++)
+        {
+            if (i % 10 == 0)
+                samples[i] = new Vector(Random.uniform(extent), Random.uniform(extent));
+            else
+            {
+                double[] center = centers[Random.uniform(centerCount)];
+                samples[i] = new Vector(Random.normal(center[0], 1), Random.normal(center[1], 1));
+            }
+        }
+
+        return samples;
+    }
+}
@@ -0,0 +1,70 @@
+package dataworks.tests;
+
+import dataworks.collections.Deque;
+import dataworks.collections.ICollection;
+import dataworks.collections.LinkedList;
+
+import java.util.function.Supplier;
+
+/**
+ * This class is only used for comparing the heap footprint and the time of appending and iterating over
+ * {@link Deque} with {@link LinkedList}.
+ * */
+public class DequeBenchmark
+{
+    private static final int ROUNDS = 3;
+
+    private DequeBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int elementCount = args.length > 0 ? Integer.parseInt(args[0]) : 4000000;
+
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            run("LinkedList", elementCount, () ->
+            {
+                LinkedList<Integer> list = new LinkedList<>();
+                for (int i = 0; i < elementCount; i++)
+                    list.addLast(i);
+                return list;
+            });
+            run("Deque", elementCount, () ->
+            {
+                Deque<Integer> deque = new Deque<>();
+                for (int i = 0; i < elementCount; i++)
+                    deque.addLast(i);
+                return deque;
+            });
+        }
+    }
+
+    private static void run(String name, int elementCount, Supplier<ICollection<Integer>> fill)
+    {
+        long before = usedMemory();
+        long startTime = System.nanoTime();
+        ICollection<Integer> collection = fill.get();
+        long fillTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        long sum = 0;
+        for (int value : collection)
+            sum += value;
+        long iterateTime = System.nanoTime() - startTime;
+
+        // Boxed integers are counted as well, they take the same space in both collections.
+        long bytes = usedMemory() - before;
+        System.out.println("  " + name + ": fill " + fillTime / 1000000 + " ms, iterate " + iterateTime / 1000000 +
+                                   " ms, " + bytes / collection.count() + " bytes per element (checksum " + sum + ").");
+    }
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
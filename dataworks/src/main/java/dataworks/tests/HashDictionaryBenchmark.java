@@ -0,0 +1,98 @@
+package dataworks.tests;
+
+import dataworks.collections.Dictionary;
+import dataworks.collections.HashDictionary;
+import dataworks.collections.IDictionary;
+import dataworks.mathematics.Random;
+
+import java.util.HashMap;
+
+/**
+ * This class is only used for comparing {@link HashDictionary} with {@link HashMap} and {@link Dictionary} by counting
+ * word frequencies, in the same way as {@link MaxFrequency}.
+ * */
+public class HashDictionaryBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    private HashDictionaryBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int wordCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int vocabularySize = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        Random.setSeed(20210402);
+        String[] words = generateWords(wordCount, vocabularySize);
+
+        // Run every implementation several times, so that the later rounds are measured after JIT compilation.
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            run("HashDictionary", words, () -> countWords(words, new HashDictionary<>()));
+            run("java.util.HashMap", words, () -> countWords(words, new HashMap<>()));
+        }
+
+        // The list-based dictionary takes time proportional to the number of distinct words for each lookup, thus it
+        // only counts a prefix of the words.
+        int prefixLength = Math.min(words.length, 20000);
+        String[] prefix = new String[prefixLength];
+        System.arraycopy(words, 0, prefix, 0, prefixLength);
+        run("HashDictionary", prefix, () -> countWords(prefix, new HashDictionary<>()));
+        run("Dictionary", prefix, () -> countWords(prefix, new Dictionary<>()));
+    }
+
+    private static void run(String name, String[] words, Runnable action)
+    {
+        long start = System.nanoTime();
+        action.run();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(name + ": " + words.length + " words, " + (elapsed / 1000000) + " ms, " + (elapsed / words.length) + " ns per word.");
+    }
+
+    public static int countWords(String[] words, IDictionary<String, Integer> dictionary)
+    {
+        for (String word : words)
+        {
+            if (!dictionary.containsKey(word))
+                dictionary.add(word, 1);
+            else
+                dictionary.set(word, dictionary.get(word) + 1);
+        }
+
+        return dictionary.count();
+    }
+
+    public static int countWords(String[] words, HashMap<String, Integer> map)
+    {
+        for (String word : words)
+        {
+            if (!map.containsKey(word))
+                map.put(word, 1);
+            else
+                map.put(word, map.get(word) + 1);
+        }
+
+        return map.size();
+    }
+
+    /**
+     * Generates words from a vocabulary with a skewed distribution, where words with smaller indices occur more often.
+     */
+    public static String[] generateWords(int wordCount, int vocabularySize)
+    {
+        String[] vocabulary = new String[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++)
+            vocabulary[i] = "word" + Integer.toString(i, 36);
+
+        String[] words = new String[wordCount];
+        for (int i = 0; i < wordCount; i++)
+        {
+            // The product of 2 uniform numbers is more likely to be small.
+            int index = (int) (Random.uniform() * Random.uniform() * vocabularySize);
+            words[i] = new String(vocabulary[index]);
+        }
+
+        return words;
+    }
+}
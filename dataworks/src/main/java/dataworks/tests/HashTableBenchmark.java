@@ -0,0 +1,127 @@
+package dataworks.tests;
+
+import dataworks.collections.HashTable;
+import dataworks.mathematics.Random;
+
+/**
+ * This class is only used for measuring probe lengths and lookup time of {@link HashTable} under different load
+ * factors and key distributions.
+ * */
+public class HashTableBenchmark
+{
+    private static final double[] LOAD_FACTORS = {0.1, 0.25, 0.5, 0.75, 1.0};
+
+    private HashTableBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Random.setSeed(20210403);
+
+        run("Uniform", uniformKeys(keyCount));
+        run("Sequential", sequentialKeys(keyCount));
+        run("Clustered", clusteredKeys(keyCount));
+        run("Strided", stridedKeys(keyCount));
+    }
+
+    private static void run(String distribution, Integer[] keys)
+    {
+        Integer[] missingKeys = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            missingKeys[i] = ~keys[i];
+
+        for (double loadFactor : LOAD_FACTORS)
+        {
+            // Only the last round is reported, so that it runs after JIT compilation.
+            HashTable table = null;
+            long hitTime = 0;
+            long missTime = 0;
+            for (int round = 0; round < 3; round++)
+            {
+                table = new HashTable(0, loadFactor);
+                for (Integer key : keys)
+                    table.set(key, key);
+
+                long start = System.nanoTime();
+                int hits = 0;
+                for (Integer key : keys)
+                {
+                    if (table.containsKey(key))
+                        hits++;
+                }
+                hitTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (Integer key : missingKeys)
+                {
+                    if (table.containsKey(key))
+                        hits--;
+                }
+                missTime = System.nanoTime() - start;
+
+                if (hits != keys.length)
+                    throw new IllegalStateException("HashTable lost some keys.");
+            }
+
+            System.out.printf("%-10s load factor %.2f: %d keys, average probe length %.3f, %d ns per hit, %d ns per miss.%n",
+                              distribution, loadFactor, table.count(), table.getAverageProbeLength(),
+                              hitTime / keys.length, missTime / keys.length);
+        }
+    }
+
+    private static Integer[] uniformKeys(int keyCount)
+    {
+        // Keys are non-negative, thus the complement of every key is a missing key.
+        Integer[] keys = new Integer[keyCount];
+        java.util.HashSet<Integer> used = new java.util.HashSet<>();
+        for (int i = 0; i < keyCount; i++)
+        {
+            int key;
+            do
+                key = Random.uniform(Integer.MAX_VALUE);
+            while (!used.add(key));
+            keys[i] = key;
+        }
+
+        return keys;
+    }
+
+    private static Integer[] sequentialKeys(int keyCount)
+    {
+        Integer[] keys = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++)
+            keys[i] = i;
+
+        return keys;
+    }
+
+    /**
+     * Generates runs of consecutive keys starting at a few random points, which is typical for identifiers allocated
+     * in batches.
+     */
+    private static Integer[] clusteredKeys(int keyCount)
+    {
+        Integer[] keys = new Integer[keyCount];
+        int runLength = 1000;
+        for (int i = 0; i < keyCount; i += runLength)
+        {
+            int start = Random.uniform(1 << 19) * 2048;
+            for (int j = i; j < Math.min(i + runLength, keyCount); j++)
+                keys[j] = start + (j - i);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Generates multiples of a power of two, whose hash codes share all the lower bits.
+     */
+    private static Integer[] stridedKeys(int keyCount)
+    {
+        Integer[] keys = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++)
+            keys[i] = i * 1024;
+
+        return keys;
+    }
+}
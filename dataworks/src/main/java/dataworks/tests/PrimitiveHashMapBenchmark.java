@@ -0,0 +1,127 @@
+package dataworks.tests;
+
+import dataworks.collections.Dictionary;
+import dataworks.collections.HashDictionary;
+import dataworks.collections.IDictionary;
+import dataworks.collections.IntIntHashMap;
+import dataworks.collections.KeyValuePair;
+import dataworks.collections.LongDoubleHashMap;
+import dataworks.collections.SortedDictionary;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This class is only used for comparing {@link IntIntHashMap} and {@link LongDoubleHashMap} with the boxed
+ * dictionaries, by counting the degrees of vertices of a random edge list and summing measurements by timestamp.
+ * */
+public class PrimitiveHashMapBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    private PrimitiveHashMapBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int vertexCount = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+        int[] vertices = new int[edgeCount];
+        long[] ticks = new long[edgeCount];
+        java.util.Random random = new java.util.Random(20210402);
+        long start = 637000000000000000L;
+        for (int i = 0; i < edgeCount; i++)
+        {
+            vertices[i] = random.nextInt(vertexCount);
+            // Samples of one second are grouped by their timestamps, in ticks of 100 ns.
+            ticks[i] = start + random.nextInt(vertexCount) * 10000000L;
+        }
+
+        // Run every implementation several times, so that the later rounds are measured after JIT compilation.
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            run("IntIntHashMap", () -> countDegrees(vertices));
+            run("HashDictionary<Integer, Integer>", () -> countDegrees(vertices, new HashDictionary<>()));
+            run("SortedDictionary<Integer, Integer>", () -> countDegrees(vertices, new SortedDictionary<>()));
+            run("LongDoubleHashMap", () -> sumByTick(ticks));
+            run("HashDictionary<Long, Double>", () -> sumByTick(ticks, new HashDictionary<>()));
+        }
+
+        // The list-based dictionary takes time proportional to the number of distinct keys for each lookup, thus it
+        // only counts a prefix of the edges.
+        int[] prefix = new int[Math.min(edgeCount, 20000)];
+        System.arraycopy(vertices, 0, prefix, 0, prefix.length);
+        run("IntIntHashMap (prefix)", () -> countDegrees(prefix));
+        run("Dictionary<Integer, Integer> (prefix)", () -> countDegrees(prefix, new Dictionary<>()));
+    }
+
+    private static void run(String name, LongSupplier action)
+    {
+        long startTime = System.nanoTime();
+        long checksum = action.getAsLong();
+        long elapsed = System.nanoTime() - startTime;
+        System.out.println("  " + name + ": " + elapsed / 1000000 + " ms (checksum " + checksum + ").");
+    }
+
+    private static long countDegrees(int[] vertices)
+    {
+        IntIntHashMap degrees = new IntIntHashMap();
+        for (int v : vertices)
+            degrees.addTo(v, 1);
+
+        long checksum = 0;
+        IntIntHashMap.Cursor cursor = degrees.cursor();
+        while (cursor.moveNext())
+            checksum += (long) cursor.getKey() * cursor.getValue();
+
+        return checksum;
+    }
+
+    private static long countDegrees(int[] vertices, IDictionary<Integer, Integer> degrees)
+    {
+        for (int v : vertices)
+        {
+            if (degrees.containsKey(v))
+                degrees.set(v, degrees.get(v) + 1);
+            else
+                degrees.add(v, 1);
+        }
+
+        long checksum = 0;
+        for (KeyValuePair<Integer, Integer> pair : degrees)
+            checksum += (long) pair.getKey() * pair.getValue();
+
+        return checksum;
+    }
+
+    private static long sumByTick(long[] ticks)
+    {
+        LongDoubleHashMap sums = new LongDoubleHashMap();
+        for (int i = 0; i < ticks.length; i++)
+            sums.addTo(ticks[i], i & 7);
+
+        double checksum = 0;
+        LongDoubleHashMap.Cursor cursor = sums.cursor();
+        while (cursor.moveNext())
+            checksum += cursor.getValue();
+
+        return (long) checksum;
+    }
+
+    private static long sumByTick(long[] ticks, IDictionary<Long, Double> sums)
+    {
+        for (int i = 0; i < ticks.length; i++)
+        {
+            if (sums.containsKey(ticks[i]))
+                sums.set(ticks[i], sums.get(ticks[i]) + (i & 7));
+            else
+                sums.add(ticks[i], (double) (i & 7));
+        }
+
+        double checksum = 0;
+        for (KeyValuePair<Long, Double> pair : sums)
+            checksum += pair.getValue();
+
+        return (long) checksum;
+    }
+}
@@ -0,0 +1,160 @@
+package dataworks.tests;
+
+import dataworks.OutLong;
+import dataworks.collections.KeyValuePair;
+import dataworks.collections.SortedDictionary;
+import dataworks.indices.RedBlackTree;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This class is only used for comparing {@link RedBlackTree} with {@link SortedDictionary} as an index of timestamps,
+ * by the heap memory that each entry takes, and by the time to build the index and to run floor and range queries.
+ */
+public class RedBlackTreeBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    private RedBlackTreeBenchmark(){}
+
+    public static void main(String[] args)
+    {
+        int entryCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+
+        long[] ticks = new long[entryCount];
+        long[] queries = new long[queryCount];
+        java.util.Random random = new java.util.Random(20210402);
+        long start = 637000000000000000L;
+        long span = entryCount * 10000000L;
+        for (int i = 0; i < entryCount; i++)
+            ticks[i] = start + (long) (random.nextDouble() * span);
+        for (int i = 0; i < queryCount; i++)
+            queries[i] = start + (long) (random.nextDouble() * span);
+
+        System.out.println("Memory of " + entryCount + " entries:");
+        measureMemory("RedBlackTree", () -> build(ticks), entryCount);
+        measureMemory("SortedDictionary<Long, Integer>", () -> buildDictionary(ticks), entryCount);
+
+        RedBlackTree tree = build(ticks);
+        SortedDictionary<Long, Integer> dictionary = buildDictionary(ticks);
+
+        // Run every implementation several times, so that the later rounds are measured after JIT compilation.
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            System.out.println("Round " + (round + 1) + ":");
+            run("RedBlackTree build", () -> build(ticks).count());
+            run("SortedDictionary build", () -> buildDictionary(ticks).count());
+            run("RedBlackTree floor", () -> floor(tree, queries));
+            run("SortedDictionary floor", () -> floor(dictionary, queries));
+            run("RedBlackTree range", () -> range(tree, queries));
+            run("SortedDictionary range", () -> range(dictionary, queries));
+        }
+    }
+
+    private static void measureMemory(String name, java.util.function.Supplier<Object> factory, int entryCount)
+    {
+        long before = usedMemory();
+        Object index = factory.get();
+        long after = usedMemory();
+        System.out.println("  " + name + ": " + (after - before) / entryCount + " bytes per entry.");
+
+        // Keep the index reachable until the memory is measured.
+        if (index.hashCode() == 42)
+            System.out.println();
+    }
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void run(String name, LongSupplier action)
+    {
+        long startTime = System.nanoTime();
+        long checksum = action.getAsLong();
+        long elapsed = System.nanoTime() - startTime;
+        System.out.println("  " + name + ": " + elapsed / 1000000 + " ms (checksum " + checksum + ").");
+    }
+
+    private static RedBlackTree build(long[] ticks)
+    {
+        RedBlackTree tree = new RedBlackTree();
+        for (int i = 0; i < ticks.length; i++)
+            tree.put(ticks[i], i);
+
+        return tree;
+    }
+
+    private static SortedDictionary<Long, Integer> buildDictionary(long[] ticks)
+    {
+        SortedDictionary<Long, Integer> dictionary = new SortedDictionary<>();
+        for (int i = 0; i < ticks.length; i++)
+        {
+            if (dictionary.containsKey(ticks[i]))
+                dictionary.set(ticks[i], i);
+            else
+                dictionary.add(ticks[i], i);
+        }
+
+        return dictionary;
+    }
+
+    private static long floor(RedBlackTree tree, long[] queries)
+    {
+        long checksum = 0;
+        OutLong floorKey = new OutLong(0);
+        for (long query : queries)
+        {
+            if (tree.tryGetFloorKey(query, floorKey))
+                checksum += query - floorKey.getValue();
+        }
+
+        return checksum;
+    }
+
+    private static long floor(SortedDictionary<Long, Integer> dictionary, long[] queries)
+    {
+        long checksum = 0;
+        for (long query : queries)
+        {
+            KeyValuePair<Long, Integer> pair = dictionary.floor(query);
+            if (pair != null)
+                checksum += query - pair.getKey();
+        }
+
+        return checksum;
+    }
+
+    /**
+     * Sums the low bits of the keys in windows of 100 seconds after every 100th query.
+     */
+    private static long range(RedBlackTree tree, long[] queries)
+    {
+        long checksum = 0;
+        for (int i = 0; i < queries.length; i += 100)
+        {
+            RedBlackTree.Cursor cursor = tree.range(queries[i], queries[i] + 1000000000L);
+            while (cursor.moveNext())
+                checksum += cursor.getKey() & 0xFFFF;
+        }
+
+        return checksum;
+    }
+
+    private static long range(SortedDictionary<Long, Integer> dictionary, long[] queries)
+    {
+        long checksum = 0;
+        for (int i = 0; i < queries.length; i += 100)
+        {
+            for (Long key : dictionary.keysInRange(queries[i], queries[i] + 1000000000L))
+                checksum += key & 0xFFFF;
+        }
+
+        return checksum;
+    }
+}